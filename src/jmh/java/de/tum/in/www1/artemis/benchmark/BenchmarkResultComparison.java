@@ -0,0 +1,101 @@
+package de.tum.in.www1.artemis.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the JSON results of two JMH runs (e.g. of two commits), see the jmhCompare task in gradle/jmh.gradle.
+ * <p>
+ * A benchmark is reported as slower or faster if the error intervals of both results do not overlap. If a threshold (in percent) is given, the comparison fails for benchmarks
+ * that got slower by more than the threshold, so that it can be used to detect regressions in a pipeline.
+ * Usage: {@code BenchmarkResultComparison <baseline.json> <candidate.json> [threshold]}
+ */
+public class BenchmarkResultComparison {
+
+    private record Score(double score, double error, String unit, boolean higherIsBetter) {
+    }
+
+    /**
+     * Prints the comparison of the results of both files
+     *
+     * @param args the baseline result file, the candidate result file and optionally the allowed regression in percent
+     * @throws IOException if a result file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkResultComparison <baseline.json> <candidate.json> [threshold in percent]");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = readResults(new File(args[0]));
+        Map<String, Score> candidate = readResults(new File(args[1]));
+        Double threshold = args.length > 2 ? Double.valueOf(args[2]) : null;
+
+        int regressions = 0;
+        System.out.printf("%-100s %25s %25s %10s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (String benchmark : union(baseline.keySet(), candidate.keySet())) {
+            Score baselineScore = baseline.get(benchmark);
+            Score candidateScore = candidate.get(benchmark);
+            if (baselineScore == null || candidateScore == null) {
+                System.out.printf("%-100s %25s %25s%n", benchmark, format(baselineScore), format(candidateScore));
+                continue;
+            }
+            double change = (candidateScore.score() - baselineScore.score()) / baselineScore.score() * 100.0;
+            double worsening = baselineScore.higherIsBetter() ? -change : change;
+            boolean significant = Math.abs(candidateScore.score() - baselineScore.score()) > baselineScore.error() + candidateScore.error();
+            String verdict = "";
+            if (significant) {
+                verdict = worsening > 0 ? "slower" : "faster";
+            }
+            if (significant && threshold != null && worsening > threshold) {
+                verdict = "REGRESSION";
+                regressions++;
+            }
+            System.out.printf("%-100s %25s %25s %+9.1f%% %s%n", benchmark, format(baselineScore), format(candidateScore), change, verdict);
+        }
+
+        if (regressions > 0) {
+            System.err.printf("%d benchmark(s) got slower by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the primary metric of each benchmark, identified by the benchmark method and its parameters
+     */
+    private static Map<String, Score> readResults(File resultFile) throws IOException {
+        Map<String, Score> results = new HashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(resultFile)) {
+            var benchmark = new StringBuilder(result.get("benchmark").asText().replace(BenchmarkResultComparison.class.getPackageName() + ".", ""));
+            JsonNode params = result.get("params");
+            if (params != null) {
+                var sortedParams = new TreeMap<String, String>();
+                params.fields().forEachRemaining(param -> sortedParams.put(param.getKey(), param.getValue().asText()));
+                benchmark.append(sortedParams.entrySet().stream().map(param -> param.getKey() + "=" + param.getValue()).collect(Collectors.joining(", ", " [", "]")));
+            }
+            JsonNode metric = result.get("primaryMetric");
+            double error = metric.get("scoreError").isNumber() ? metric.get("scoreError").asDouble() : 0.0;
+            // only the throughput is better when it is higher, all other modes measure the time
+            boolean higherIsBetter = "thrpt".equals(result.get("mode").asText());
+            results.put(benchmark.toString(), new Score(metric.get("score").asDouble(), error, metric.get("scoreUnit").asText(), higherIsBetter));
+        }
+        return results;
+    }
+
+    private static SortedSet<String> union(Set<String> first, Set<String> second) {
+        SortedSet<String> union = new TreeSet<>(first);
+        union.addAll(second);
+        return union;
+    }
+
+    private static String format(Score score) {
+        if (score == null) {
+            return "-";
+        }
+        return String.format("%.3f ± %.3f %s", score.score(), score.error(), score.unit());
+    }
+}
@@ -0,0 +1,50 @@
+package de.tum.in.www1.artemis.benchmark;
+
+import static de.tum.in.www1.artemis.benchmark.RepositoryStubs.stub;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import de.tum.in.www1.artemis.domain.BuildLogEntry;
+import de.tum.in.www1.artemis.domain.enumeration.ProgrammingLanguage;
+import de.tum.in.www1.artemis.repository.BuildLogEntryRepository;
+import de.tum.in.www1.artemis.repository.ProgrammingSubmissionRepository;
+import de.tum.in.www1.artemis.service.BuildLogEntryService;
+
+/**
+ * Benchmarks the filtering of the build logs that is done for every failed build before the logs are stored and shown to the student.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildLogFilterBenchmark {
+
+    @Param({ "200", "2000" })
+    public int numberOfLines;
+
+    @Param({ "JAVA", "SWIFT", "C" })
+    public ProgrammingLanguage programmingLanguage;
+
+    private BuildLogEntryService buildLogEntryService;
+
+    private List<BuildLogEntry> buildLogs;
+
+    /**
+     * Creates the build logs and the service with stubbed repositories
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        buildLogs = new SyntheticDataGenerator(42).buildLogs(numberOfLines);
+        buildLogEntryService = new BuildLogEntryService(stub(BuildLogEntryRepository.class), stub(ProgrammingSubmissionRepository.class));
+    }
+
+    @Benchmark
+    public List<BuildLogEntry> removeUnnecessaryLogs() {
+        return buildLogEntryService.removeUnnecessaryLogsForProgrammingLanguage(buildLogs, programmingLanguage);
+    }
+}
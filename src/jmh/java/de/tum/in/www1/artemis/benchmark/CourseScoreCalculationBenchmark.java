@@ -0,0 +1,79 @@
+package de.tum.in.www1.artemis.benchmark;
+
+import static de.tum.in.www1.artemis.benchmark.RepositoryStubs.stub;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.DomainObject;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.repository.ExerciseRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.repository.plagiarism.PlagiarismCaseRepository;
+import de.tum.in.www1.artemis.service.CourseScoreCalculationService;
+import de.tum.in.www1.artemis.web.rest.dto.BonusSourceResultDTO;
+
+/**
+ * Benchmarks the calculation of the course scores of all students (e.g. for the bonus of an exam) and of a single student, which calculates the score of each student with
+ * {@link CourseScoreCalculationService#calculateCourseScoreForStudent}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseScoreCalculationBenchmark {
+
+    @Param({ "SMALL", "MEDIUM", "LARGE" })
+    public CourseSize courseSize;
+
+    private CourseScoreCalculationService courseScoreCalculationService;
+
+    private long courseId;
+
+    private List<Long> studentIds;
+
+    private List<Long> singleStudentId;
+
+    /**
+     * Creates the course with its exercises and participations and the service with stubbed repositories
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        var generator = new SyntheticDataGenerator(42);
+        Course course = generator.course();
+        List<User> students = generator.students(courseSize.getNumberOfStudents());
+        var exercises = generator.courseExercises(course, courseSize.getNumberOfExercises());
+        List<StudentParticipation> participations = generator.courseParticipations(exercises, students);
+
+        courseId = course.getId();
+        studentIds = students.stream().map(DomainObject::getId).toList();
+        singleStudentId = List.of(studentIds.get(0));
+        var participationsOfSingleStudent = participations.stream().filter(participation -> participation.getStudent().orElseThrow().getId().equals(singleStudentId.get(0)))
+                .toList();
+
+        var exerciseRepository = stub(ExerciseRepository.class);
+        var studentParticipationRepository = stub(StudentParticipationRepository.class);
+        when(exerciseRepository.findAllExercisesByCourseId(courseId)).thenReturn(exercises);
+        when(studentParticipationRepository.findByCourseIdWithRelevantResult(courseId)).thenReturn(participations);
+        when(studentParticipationRepository.findByCourseIdAndStudentIdWithRelevantResult(courseId, singleStudentId.get(0))).thenReturn(participationsOfSingleStudent);
+        courseScoreCalculationService = new CourseScoreCalculationService(studentParticipationRepository, exerciseRepository, stub(PlagiarismCaseRepository.class));
+    }
+
+    @Benchmark
+    public Map<Long, BonusSourceResultDTO> calculateCourseScoresOfAllStudents() {
+        return courseScoreCalculationService.calculateCourseScoresForExamBonusSource(courseId, studentIds);
+    }
+
+    @Benchmark
+    public Map<Long, BonusSourceResultDTO> calculateCourseScoreOfSingleStudent() {
+        return courseScoreCalculationService.calculateCourseScoresForExamBonusSource(courseId, singleStudentId);
+    }
+}
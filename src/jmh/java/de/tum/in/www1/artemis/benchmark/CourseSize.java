@@ -0,0 +1,38 @@
+package de.tum.in.www1.artemis.benchmark;
+
+/**
+ * Typical sizes of courses and exams in Artemis, used as benchmark parameter so that the results show how the hot paths scale.
+ */
+public enum CourseSize {
+
+    // a seminar or lab course
+    SMALL(100, 10, 5),
+    // a regular lecture
+    MEDIUM(500, 20, 8),
+    // a large introductory lecture, e.g. in the first semester
+    LARGE(2000, 30, 12);
+
+    private final int numberOfStudents;
+
+    private final int numberOfExercises;
+
+    private final int numberOfExerciseGroups;
+
+    CourseSize(int numberOfStudents, int numberOfExercises, int numberOfExerciseGroups) {
+        this.numberOfStudents = numberOfStudents;
+        this.numberOfExercises = numberOfExercises;
+        this.numberOfExerciseGroups = numberOfExerciseGroups;
+    }
+
+    public int getNumberOfStudents() {
+        return numberOfStudents;
+    }
+
+    public int getNumberOfExercises() {
+        return numberOfExercises;
+    }
+
+    public int getNumberOfExerciseGroups() {
+        return numberOfExerciseGroups;
+    }
+}
@@ -0,0 +1,71 @@
+package de.tum.in.www1.artemis.benchmark;
+
+import static de.tum.in.www1.artemis.benchmark.RepositoryStubs.stub;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.repository.plagiarism.PlagiarismCaseRepository;
+import de.tum.in.www1.artemis.service.*;
+import de.tum.in.www1.artemis.service.connectors.GitService;
+import de.tum.in.www1.artemis.service.exam.ExamQuizService;
+import de.tum.in.www1.artemis.service.exam.ExamService;
+import de.tum.in.www1.artemis.service.messaging.InstanceMessageSendService;
+import de.tum.in.www1.artemis.service.notifications.GroupNotificationService;
+import de.tum.in.www1.artemis.web.rest.dto.ExamScoresDTO;
+
+/**
+ * Benchmarks the calculation of the scores of all students of an exam with {@link ExamService#calculateExamScores(Long)}, which is used for the exam scores page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExamScoreCalculationBenchmark {
+
+    @Param({ "SMALL", "MEDIUM", "LARGE" })
+    public CourseSize courseSize;
+
+    private ExamService examService;
+
+    private long examId;
+
+    /**
+     * Creates the exam with its student exams and participations and the service with stubbed repositories
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        var generator = new SyntheticDataGenerator(42);
+        var course = generator.course();
+        var students = generator.students(courseSize.getNumberOfStudents());
+        var exam = generator.exam(course, courseSize.getNumberOfExerciseGroups());
+        var studentExams = generator.studentExams(exam, students);
+        var participations = generator.examParticipations(studentExams);
+        examId = exam.getId();
+
+        var examRepository = stub(ExamRepository.class);
+        var studentExamRepository = stub(StudentExamRepository.class);
+        var studentParticipationRepository = stub(StudentParticipationRepository.class);
+        when(examRepository.findWithExerciseGroupsAndExercisesById(examId)).thenReturn(Optional.of(exam));
+        when(studentExamRepository.findByExamId(examId)).thenReturn(studentExams);
+        when(studentParticipationRepository.findByExamIdWithSubmissionRelevantResult(examId)).thenReturn(participations);
+
+        examService = new ExamService(examRepository, studentExamRepository, stub(ExamQuizService.class), stub(InstanceMessageSendService.class),
+                stub(TutorLeaderboardService.class), studentParticipationRepository, stub(ComplaintRepository.class), stub(ComplaintResponseRepository.class),
+                stub(UserRepository.class), stub(ProgrammingExerciseRepository.class), stub(QuizExerciseRepository.class), stub(ResultRepository.class),
+                stub(SubmissionRepository.class), stub(CourseExamExportService.class), stub(GitService.class), stub(GroupNotificationService.class),
+                stub(GradingScaleRepository.class), stub(PlagiarismCaseRepository.class), stub(AuthorizationCheckService.class), stub(BonusService.class),
+                stub(SubmittedAnswerRepository.class), stub(CourseScoreCalculationService.class));
+    }
+
+    @Benchmark
+    public ExamScoresDTO calculateExamScores() {
+        return examService.calculateExamScores(examId);
+    }
+}
@@ -0,0 +1,82 @@
+package de.tum.in.www1.artemis.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import de.tum.in.www1.artemis.service.compass.strategy.NameSimilarity;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
+
+/**
+ * Benchmarks the similarity calculation of Compass, which compares every element of a new modeling submission with the elements of the existing submissions.
+ * Each invocation compares all pairs of the generated classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelingSimilarityBenchmark {
+
+    private static final int NUMBER_OF_CLASSES = 50;
+
+    private List<UMLClass> classes;
+
+    /**
+     * Creates the classes to compare
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        classes = new SyntheticDataGenerator(42).umlClasses(NUMBER_OF_CLASSES);
+    }
+
+    /**
+     * Compares the names and types of all pairs of classes
+     *
+     * @return the sum of the similarities
+     */
+    @Benchmark
+    public double classSimilarity() {
+        double similarity = 0;
+        for (UMLClass umlClass : classes) {
+            for (UMLClass reference : classes) {
+                similarity += umlClass.similarity(reference);
+            }
+        }
+        return similarity;
+    }
+
+    /**
+     * Compares all pairs of classes including their attributes and methods
+     *
+     * @return the sum of the similarities
+     */
+    @Benchmark
+    public double classOverallSimilarity() {
+        double similarity = 0;
+        for (UMLClass umlClass : classes) {
+            for (UMLClass reference : classes) {
+                similarity += umlClass.overallSimilarity(reference);
+            }
+        }
+        return similarity;
+    }
+
+    /**
+     * Compares the names of all pairs of classes with the Levenshtein similarity
+     *
+     * @return the sum of the similarities
+     */
+    @Benchmark
+    public double nameSimilarity() {
+        double similarity = 0;
+        for (UMLClass umlClass : classes) {
+            for (UMLClass reference : classes) {
+                similarity += NameSimilarity.levenshteinSimilarity(umlClass.getName(), reference.getName());
+            }
+        }
+        return similarity;
+    }
+}
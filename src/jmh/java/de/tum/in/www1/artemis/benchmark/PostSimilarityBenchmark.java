@@ -0,0 +1,51 @@
+package de.tum.in.www1.artemis.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import de.tum.in.www1.artemis.domain.metis.Post;
+import de.tum.in.www1.artemis.service.metis.similarity.PostSimilarityComparisonStrategy;
+import de.tum.in.www1.artemis.service.metis.similarity.TitleJaccardSimilarityCompareStrategy;
+
+/**
+ * Benchmarks the search for similar posts, which compares a new post with all posts of the course before it is created.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostSimilarityBenchmark {
+
+    @Param({ "100", "1000", "5000" })
+    public int numberOfPosts;
+
+    private final PostSimilarityComparisonStrategy postSimilarityComparisonStrategy = new TitleJaccardSimilarityCompareStrategy();
+
+    private List<Post> coursePosts;
+
+    private Post newPost;
+
+    /**
+     * Creates the posts of the course and the new post
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        var posts = new SyntheticDataGenerator(42).posts(numberOfPosts + 1);
+        coursePosts = posts.subList(0, numberOfPosts);
+        newPost = posts.get(numberOfPosts);
+    }
+
+    /**
+     * Compares the new post with all posts of the course
+     *
+     * @return the number of similar posts
+     */
+    @Benchmark
+    public long findSimilarPosts() {
+        return coursePosts.stream().filter(post -> postSimilarityComparisonStrategy.performSimilarityCheck(newPost, post) > 0.5).count();
+    }
+}
@@ -0,0 +1,45 @@
+package de.tum.in.www1.artemis.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import de.tum.in.www1.artemis.domain.quiz.QuizQuestion;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+
+/**
+ * Benchmarks the evaluation of a quiz submission, which is done for every submission of every student when a quiz ends.
+ * The quiz contains multiple choice, drag and drop and short answer questions with all scoring types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuizScoringBenchmark {
+
+    @Param({ "10", "30" })
+    public int numberOfQuestions;
+
+    private List<QuizQuestion> quizQuestions;
+
+    private QuizSubmission quizSubmission;
+
+    /**
+     * Creates the quiz questions and a submission that answers all of them
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        var generator = new SyntheticDataGenerator(42);
+        quizQuestions = generator.quizQuestions(numberOfQuestions);
+        quizSubmission = generator.quizSubmission(quizQuestions);
+    }
+
+    @Benchmark
+    public Double calculateAndUpdateScores() {
+        quizSubmission.calculateAndUpdateScores(quizQuestions);
+        return quizSubmission.getScoreInPoints();
+    }
+}
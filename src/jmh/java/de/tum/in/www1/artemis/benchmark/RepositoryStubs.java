@@ -0,0 +1,25 @@
+package de.tum.in.www1.artemis.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Replaces the repositories and services that the benchmarked services depend on, so that the benchmarks run without a database.
+ */
+final class RepositoryStubs {
+
+    private RepositoryStubs() {
+    }
+
+    /**
+     * Creates a stub that does not record its invocations, as the recorded invocations would fill up the memory during a benchmark.
+     * Methods that are not stubbed return empty values, e.g. empty lists and optionals.
+     *
+     * @param type the type of the repository or service
+     * @return the stub
+     * @param <T> the type of the repository or service
+     */
+    static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,437 @@
+package de.tum.in.www1.artemis.benchmark;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+
+import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
+import de.tum.in.www1.artemis.domain.enumeration.ScoringType;
+import de.tum.in.www1.artemis.domain.exam.Exam;
+import de.tum.in.www1.artemis.domain.exam.ExerciseGroup;
+import de.tum.in.www1.artemis.domain.exam.StudentExam;
+import de.tum.in.www1.artemis.domain.metis.Post;
+import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.*;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLAttribute;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLMethod;
+
+/**
+ * Generates the entities used by the benchmarks.
+ * <p>
+ * The data is derived from a fixed seed, so that every run (and every commit) benchmarks exactly the same data. All entities get unique ids, as the equality of most
+ * entities is based on their ids.
+ */
+public class SyntheticDataGenerator {
+
+    private static final List<String> WORDS = List.of("exception", "stream", "lambda", "generic", "interface", "inheritance", "polymorphism", "recursion", "iterator", "tree",
+            "graph", "sorting", "queue", "stack", "hash", "map", "thread", "lock", "database", "query", "test", "mock", "build", "compile", "error", "exercise", "exam",
+            "submission", "feedback", "deadline", "points", "bonus", "lecture", "slides", "tutorial", "homework", "solution", "template", "class", "method");
+
+    private static final List<String> TYPES = List.of("int", "long", "double", "boolean", "String", "List<String>", "Map<String, Integer>", "Optional<User>", "void");
+
+    private final Random random;
+
+    private final ZonedDateTime now = ZonedDateTime.now();
+
+    private long nextId = 1;
+
+    public SyntheticDataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    private long nextId() {
+        return nextId++;
+    }
+
+    /**
+     * Creates a course with the default score settings
+     *
+     * @return the course
+     */
+    public Course course() {
+        var course = new Course();
+        course.setId(nextId());
+        course.setTitle("Benchmark Course");
+        course.setShortName("benchmark");
+        return course;
+    }
+
+    /**
+     * Creates students with the usual personal data
+     *
+     * @param numberOfStudents the number of students
+     * @return the students
+     */
+    public List<User> students(int numberOfStudents) {
+        List<User> students = new ArrayList<>(numberOfStudents);
+        for (int i = 0; i < numberOfStudents; i++) {
+            var student = new User();
+            student.setId(nextId());
+            student.setLogin("student" + i);
+            student.setFirstName("Student");
+            student.setLastName(String.valueOf(i));
+            student.setEmail("student" + i + "@example.org");
+            student.setRegistrationNumber(String.valueOf(1000000 + i));
+            students.add(student);
+        }
+        return students;
+    }
+
+    /**
+     * Creates finished course exercises with a realistic mix of exercise types
+     *
+     * @param course            the course of the exercises
+     * @param numberOfExercises the number of exercises
+     * @return the exercises
+     */
+    public Set<Exercise> courseExercises(Course course, int numberOfExercises) {
+        Set<Exercise> exercises = new HashSet<>();
+        for (int i = 0; i < numberOfExercises; i++) {
+            Exercise exercise = exercise(i);
+            exercise.setCourse(course);
+            exercise.setReleaseDate(now.minusWeeks(numberOfExercises - i + 2L));
+            exercise.setDueDate(now.minusWeeks(numberOfExercises - i));
+            exercises.add(exercise);
+        }
+        return exercises;
+    }
+
+    private Exercise exercise(int index) {
+        Exercise exercise = switch (index % 4) {
+            case 0 -> {
+                var programmingExercise = new ProgrammingExercise();
+                programmingExercise.setAssessmentType(AssessmentType.AUTOMATIC);
+                yield programmingExercise;
+            }
+            case 1 -> new ModelingExercise();
+            case 2 -> new FileUploadExercise();
+            default -> new TextExercise();
+        };
+        if (exercise.getAssessmentType() == null) {
+            exercise.setAssessmentType(AssessmentType.SEMI_AUTOMATIC);
+        }
+        exercise.setId(nextId());
+        exercise.setTitle("Exercise " + index);
+        exercise.setMaxPoints((double) (5 + random.nextInt(4) * 5));
+        return exercise;
+    }
+
+    /**
+     * Creates the participations of the students in the exercises: most students participate in most exercises and have one to three rated results
+     *
+     * @param exercises the exercises
+     * @param students  the students
+     * @return the participations with their results
+     */
+    public List<StudentParticipation> courseParticipations(Collection<Exercise> exercises, List<User> students) {
+        List<StudentParticipation> participations = new ArrayList<>();
+        for (Exercise exercise : exercises) {
+            for (User student : students) {
+                if (random.nextInt(100) < 85) {
+                    var participation = participation(exercise, student);
+                    int numberOfResults = 1 + random.nextInt(3);
+                    for (int i = 0; i < numberOfResults; i++) {
+                        participation.addResult(result(exercise.getDueDate().minusHours(random.nextInt(72) + 1L)));
+                    }
+                    participations.add(participation);
+                }
+            }
+        }
+        return participations;
+    }
+
+    /**
+     * Creates an exam with one to three text exercises per exercise group
+     *
+     * @param course                 the course of the exam
+     * @param numberOfExerciseGroups the number of exercise groups
+     * @return the exam with its exercise groups and exercises
+     */
+    public Exam exam(Course course, int numberOfExerciseGroups) {
+        var exam = new Exam();
+        exam.setId(nextId());
+        exam.setTitle("Benchmark Exam");
+        exam.setCourse(course);
+        int examMaxPoints = 0;
+        for (int i = 0; i < numberOfExerciseGroups; i++) {
+            var exerciseGroup = new ExerciseGroup();
+            exerciseGroup.setId(nextId());
+            exerciseGroup.setTitle("Exercise Group " + i);
+            double maxPoints = 5 + random.nextInt(4) * 5;
+            int numberOfExercises = 1 + random.nextInt(3);
+            for (int j = 0; j < numberOfExercises; j++) {
+                var exercise = new TextExercise();
+                exercise.setId(nextId());
+                exercise.setTitle("Exam Exercise " + i + "." + j);
+                exercise.setMaxPoints(maxPoints);
+                exercise.setExerciseGroup(exerciseGroup);
+                exerciseGroup.addExercise(exercise);
+            }
+            exam.addExerciseGroup(exerciseGroup);
+            examMaxPoints += (int) maxPoints;
+        }
+        exam.setExamMaxPoints(examMaxPoints);
+        return exam;
+    }
+
+    /**
+     * Creates the student exams of the students, most of them are submitted
+     *
+     * @param exam     the exam
+     * @param students the students
+     * @return the student exams with one exercise per exercise group
+     */
+    public Set<StudentExam> studentExams(Exam exam, List<User> students) {
+        Set<StudentExam> studentExams = new HashSet<>();
+        for (User student : students) {
+            var studentExam = new StudentExam();
+            studentExam.setId(nextId());
+            studentExam.setExam(exam);
+            studentExam.setUser(student);
+            studentExam.setSubmitted(random.nextInt(100) < 95);
+            List<Exercise> exercises = new ArrayList<>();
+            for (ExerciseGroup exerciseGroup : exam.getExerciseGroups()) {
+                exercises.add(randomElement(new ArrayList<>(exerciseGroup.getExercises())));
+            }
+            studentExam.setExercises(exercises);
+            studentExams.add(studentExam);
+        }
+        return studentExams;
+    }
+
+    /**
+     * Creates the participations of the student exams with a text submission and the relevant result
+     *
+     * @param studentExams the student exams
+     * @return the participations
+     */
+    public List<StudentParticipation> examParticipations(Collection<StudentExam> studentExams) {
+        List<StudentParticipation> participations = new ArrayList<>();
+        for (StudentExam studentExam : studentExams) {
+            for (Exercise exercise : studentExam.getExercises()) {
+                var participation = participation(exercise, studentExam.getUser());
+                var submission = new TextSubmission(nextId());
+                submission.setText(random.nextInt(100) < 90 ? sentence(40) : "");
+                participation.addSubmission(submission);
+                participation.addResult(result(now.minusDays(1)));
+                participations.add(participation);
+            }
+        }
+        return participations;
+    }
+
+    private StudentParticipation participation(Exercise exercise, User student) {
+        var participation = new StudentParticipation();
+        participation.setId(nextId());
+        participation.setExercise(exercise);
+        participation.setParticipant(student);
+        return participation;
+    }
+
+    private Result result(ZonedDateTime completionDate) {
+        var result = new Result();
+        result.setId(nextId());
+        result.setRated(true);
+        result.setCompletionDate(completionDate);
+        result.setScore((double) random.nextInt(101));
+        return result;
+    }
+
+    /**
+     * Creates quiz questions of all types and scoring types
+     *
+     * @param numberOfQuestions the number of questions
+     * @return the questions
+     */
+    public List<QuizQuestion> quizQuestions(int numberOfQuestions) {
+        List<QuizQuestion> questions = new ArrayList<>(numberOfQuestions);
+        for (int i = 0; i < numberOfQuestions; i++) {
+            QuizQuestion question = switch (i % 3) {
+                case 0 -> multipleChoiceQuestion();
+                case 1 -> dragAndDropQuestion();
+                default -> shortAnswerQuestion();
+            };
+            question.setId(nextId());
+            question.title("Question " + i).score(1 + random.nextInt(5));
+            question.setScoringType(ScoringType.values()[(i / 3) % ScoringType.values().length]);
+            questions.add(question);
+        }
+        return questions;
+    }
+
+    private MultipleChoiceQuestion multipleChoiceQuestion() {
+        var question = new MultipleChoiceQuestion();
+        for (int i = 0; i < 6; i++) {
+            var answerOption = new AnswerOption().text(sentence(6)).isCorrect(random.nextBoolean());
+            answerOption.setId(nextId());
+            question.getAnswerOptions().add(answerOption);
+        }
+        return question;
+    }
+
+    private DragAndDropQuestion dragAndDropQuestion() {
+        var question = new DragAndDropQuestion();
+        for (int i = 0; i < 5; i++) {
+            var dropLocation = new DropLocation().posX(10.0 * i).posY(10.0).width(10.0);
+            dropLocation.setId(nextId());
+            var dragItem = new DragItem().text(randomElement(WORDS));
+            dragItem.setId(nextId());
+            question.addDropLocation(dropLocation);
+            question.addDragItem(dragItem);
+            var mapping = new DragAndDropMapping().dragItem(dragItem).dropLocation(dropLocation);
+            mapping.setId(nextId());
+            question.addCorrectMapping(mapping);
+        }
+        return question;
+    }
+
+    private ShortAnswerQuestion shortAnswerQuestion() {
+        var question = new ShortAnswerQuestion();
+        for (int i = 0; i < 4; i++) {
+            var spot = new ShortAnswerSpot().spotNr(i).width(15);
+            spot.setId(nextId());
+            var solution = new ShortAnswerSolution().text(randomElement(WORDS));
+            solution.setId(nextId());
+            question.getSpots().add(spot);
+            question.addSolution(solution);
+            var mapping = new ShortAnswerMapping().spot(spot).solution(solution);
+            mapping.setId(nextId());
+            question.addCorrectMapping(mapping);
+        }
+        return question;
+    }
+
+    /**
+     * Creates a submission that answers all questions, partially correct
+     *
+     * @param questions the questions, see {@link #quizQuestions(int)}
+     * @return the submission
+     */
+    public QuizSubmission quizSubmission(List<QuizQuestion> questions) {
+        var submission = new QuizSubmission();
+        submission.setId(nextId());
+        for (QuizQuestion question : questions) {
+            SubmittedAnswer submittedAnswer;
+            if (question instanceof MultipleChoiceQuestion multipleChoiceQuestion) {
+                var multipleChoiceSubmittedAnswer = new MultipleChoiceSubmittedAnswer();
+                multipleChoiceQuestion.getAnswerOptions().stream().filter(answerOption -> random.nextBoolean()).forEach(multipleChoiceSubmittedAnswer::addSelectedOptions);
+                submittedAnswer = multipleChoiceSubmittedAnswer;
+            }
+            else if (question instanceof DragAndDropQuestion dragAndDropQuestion) {
+                var dragAndDropSubmittedAnswer = new DragAndDropSubmittedAnswer();
+                var dragItems = new ArrayList<>(dragAndDropQuestion.getDragItems());
+                Collections.shuffle(dragItems, random);
+                for (int i = 0; i < dragItems.size(); i++) {
+                    dragAndDropSubmittedAnswer.addMappings(new DragAndDropMapping().dragItem(dragItems.get(i)).dropLocation(dragAndDropQuestion.getDropLocations().get(i)));
+                }
+                submittedAnswer = dragAndDropSubmittedAnswer;
+            }
+            else {
+                var shortAnswerQuestion = (ShortAnswerQuestion) question;
+                var shortAnswerSubmittedAnswer = new ShortAnswerSubmittedAnswer();
+                for (ShortAnswerSpot spot : shortAnswerQuestion.getSpots()) {
+                    var submittedText = new ShortAnswerSubmittedText();
+                    submittedText.setSpot(spot);
+                    submittedText.setText(randomElement(WORDS));
+                    shortAnswerSubmittedAnswer.addSubmittedTexts(submittedText);
+                }
+                submittedAnswer = shortAnswerSubmittedAnswer;
+            }
+            submittedAnswer.setId(nextId());
+            submittedAnswer.setQuizQuestion(question);
+            submission.addSubmittedAnswers(submittedAnswer);
+        }
+        return submission;
+    }
+
+    /**
+     * Creates classes of UML class diagrams with attributes and methods, named after the usual vocabulary of programming exercises
+     *
+     * @param numberOfClasses the number of classes
+     * @return the classes
+     */
+    public List<UMLClass> umlClasses(int numberOfClasses) {
+        List<UMLClass> classes = new ArrayList<>(numberOfClasses);
+        for (int i = 0; i < numberOfClasses; i++) {
+            List<UMLAttribute> attributes = new ArrayList<>();
+            for (int j = 0, count = random.nextInt(6); j < count; j++) {
+                attributes.add(new UMLAttribute(randomElement(WORDS) + capitalize(randomElement(WORDS)), randomElement(TYPES), elementId()));
+            }
+            List<UMLMethod> methods = new ArrayList<>();
+            for (int j = 0, count = random.nextInt(5); j < count; j++) {
+                String name = randomElement(WORDS) + capitalize(randomElement(WORDS));
+                String returnType = randomElement(TYPES);
+                List<String> parameters = random.nextBoolean() ? List.of(randomElement(TYPES)) : List.of();
+                methods.add(new UMLMethod(name + "(" + String.join(", ", parameters) + "): " + returnType, name, returnType, parameters, elementId()));
+            }
+            var classType = UMLClass.UMLClassType.values()[random.nextInt(UMLClass.UMLClassType.values().length)];
+            classes.add(new UMLClass(capitalize(randomElement(WORDS)) + capitalize(randomElement(WORDS)), attributes, methods, elementId(), classType));
+        }
+        return classes;
+    }
+
+    /**
+     * Creates posts with titles and contents as they are typically asked in a course
+     *
+     * @param numberOfPosts the number of posts
+     * @return the posts
+     */
+    public List<Post> posts(int numberOfPosts) {
+        List<Post> posts = new ArrayList<>(numberOfPosts);
+        for (int i = 0; i < numberOfPosts; i++) {
+            var post = new Post();
+            post.setId(nextId());
+            post.setTitle("Question about " + sentence(3 + random.nextInt(6)));
+            post.setContent(sentence(30 + random.nextInt(60)));
+            post.setCreationDate(now.minusMinutes(numberOfPosts - i));
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    /**
+     * Creates the build logs of a failed Maven build, including the logs of the build agent that are filtered for the students
+     *
+     * @param numberOfLines the number of log lines
+     * @return the build logs
+     */
+    public List<BuildLogEntry> buildLogs(int numberOfLines) {
+        List<String> templates = List.of("[INFO] Downloading from central: https://repo.maven.apache.org/maven2/org/junit/junit-bom/5.9.3/junit-bom-5.9.3.pom",
+                "[INFO] Downloaded from central: https://repo.maven.apache.org/maven2/org/apache/maven/plugins/maven-surefire-plugin/3.0.0/maven-surefire-plugin-3.0.0.jar",
+                "Executing build BENCHMARK-JOB1-%d", "Starting task 'Tests' of type 'com.atlassian.bamboo.plugins.maven:task.builder.mvn3'", "[INFO] Scanning for projects...",
+                "[INFO] Building benchmark 1.0", "",
+                "[ERROR] /var/atlassian/application-data/bamboo-agent/xml-data/build-dir/BENCHMARK-JOB1/assignment/src/de/tum/Exercise%d.java:[%d,9] cannot find symbol",
+                "[WARNING] Using platform encoding (UTF-8 actually) to copy filtered resources", "Finished task 'Tests' with result: Failed",
+                "WARNING: An illegal reflective access operation has occurred", "[INFO] Tests run: %d, Failures: 1, Errors: 0, Skipped: 0");
+        List<BuildLogEntry> buildLogs = new ArrayList<>(numberOfLines);
+        for (int i = 0; i < numberOfLines; i++) {
+            String log = String.format(randomElement(templates), random.nextInt(100), random.nextInt(100));
+            var buildLog = new BuildLogEntry(now.minusSeconds(numberOfLines - i), log);
+            buildLog.setId(nextId());
+            buildLogs.add(buildLog);
+        }
+        return buildLogs;
+    }
+
+    private String elementId() {
+        return "element-" + nextId();
+    }
+
+    private String sentence(int numberOfWords) {
+        var sentence = new StringJoiner(" ");
+        for (int i = 0; i < numberOfWords; i++) {
+            sentence.add(randomElement(WORDS));
+        }
+        return sentence.toString();
+    }
+
+    private <T> T randomElement(List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
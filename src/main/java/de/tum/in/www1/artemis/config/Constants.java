@@ -241,6 +241,10 @@ public final class Constants {
 
     public static final String HAZELCAST_QUIZ_SCHEDULER = "quizScheduleServiceExecutor";
 
+    public static final String HAZELCAST_QUIZ_SUBMISSION_EXECUTOR = "quizSubmissionExecutor";
+
+    public static final String HAZELCAST_QUIZ_SUBMISSION_FLUSH_EXECUTOR = "quizSubmissionFlushExecutor";
+
     public static final String HAZELCAST_QUIZ_PREFIX = "quiz-";
 
     public static final String HAZELCAST_EXERCISE_CACHE = HAZELCAST_QUIZ_PREFIX + "exercise-cache";
@@ -259,6 +263,12 @@ public final class Constants {
 
     public static final String HAZELCAST_ACTIVE_PLAGIARISM_CHECKS_PER_COURSE_CACHE = HAZELCAST_PLAGIARISM_PREFIX + "active-plagiarism-checks-per-course-cache";
 
+    public static final String HAZELCAST_TEXT_PLAGIARISM_TOKENS_CACHE = HAZELCAST_PLAGIARISM_PREFIX + "text-tokens-cache";
+
+    public static final String HAZELCAST_LOCALVC_AUTHORIZATION_CACHE = "localvc-authorization-cache";
+
+    public static final String HAZELCAST_INSTANCE_MESSAGE_OUTBOX = "instance-message-outbox";
+
     public static final String VERSION_CONTROL_URL = "versionControlUrl";
 
     public static final String VERSION_CONTROL_NAME = "versionControlName";
@@ -275,6 +285,8 @@ public final class Constants {
 
     public static final String EXAM_EXERCISE_START_STATUS = "exam-exercise-start-status";
 
+    public static final String HAZELCAST_EXAM_PREPARATION_EXECUTOR = "examPreparationExecutor";
+
     public static final String PUSH_NOTIFICATION_ENCRYPTION_ALGORITHM = "AES/CBC/PKCS5Padding";
 
     /**
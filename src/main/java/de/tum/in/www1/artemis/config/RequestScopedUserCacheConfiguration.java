@@ -0,0 +1,35 @@
+package de.tum.in.www1.artemis.config;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import de.tum.in.www1.artemis.security.RequestScopedUserCache;
+
+/**
+ * Activates the {@link RequestScopedUserCache} for the duration of every handled REST request.
+ */
+@Configuration
+public class RequestScopedUserCacheConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                RequestScopedUserCache.enable(request);
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception exception) {
+                RequestScopedUserCache.disable(request);
+            }
+        });
+    }
+}
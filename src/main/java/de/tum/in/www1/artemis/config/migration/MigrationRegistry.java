@@ -9,6 +9,9 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import de.tum.in.www1.artemis.config.migration.entries.MigrationEntry20230601_120000;
+import de.tum.in.www1.artemis.config.migration.entries.MigrationEntry20230606_120000;
+
 /**
  * This component allows registering certain entries containing functionality that gets executed on application startup. The entries must extend {@link MigrationEntry}.
  */
@@ -23,6 +26,8 @@ public class MigrationRegistry {
     public MigrationRegistry(MigrationService migrationService) {
         // Here we define the order of the ChangeEntries
         this.migrationService = migrationService;
+        this.migrationEntryMap.put(1, MigrationEntry20230601_120000.class);
+        this.migrationEntryMap.put(2, MigrationEntry20230606_120000.class);
     }
 
     /**
@@ -0,0 +1,51 @@
+package de.tum.in.www1.artemis.config.migration.entries;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+
+import de.tum.in.www1.artemis.config.migration.MigrationEntry;
+import de.tum.in.www1.artemis.domain.metis.Post;
+import de.tum.in.www1.artemis.repository.metis.PostRepository;
+
+/**
+ * Builds the full-text search index (see {@link de.tum.in.www1.artemis.domain.metis.PostSearchToken}) for all posts and messages that were created before the index existed.
+ */
+public class MigrationEntry20230601_120000 extends MigrationEntry {
+
+    private static final Logger log = LoggerFactory.getLogger(MigrationEntry20230601_120000.class);
+
+    private static final int BATCH_SIZE = 100;
+
+    private final PostRepository postRepository;
+
+    public MigrationEntry20230601_120000(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    @Override
+    public void execute() {
+        long lastId = 0;
+        long indexedPosts = 0;
+        List<Post> posts;
+        while (!(posts = postRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+            posts.forEach(Post::updateSearchTokens);
+            postRepository.saveAll(posts);
+            lastId = posts.get(posts.size() - 1).getId();
+            indexedPosts += posts.size();
+        }
+        log.info("Built the search index of {} posts", indexedPosts);
+    }
+
+    @Override
+    public String author() {
+        return "artemis";
+    }
+
+    @Override
+    public String date() {
+        return "20230601_120000";
+    }
+}
@@ -0,0 +1,69 @@
+package de.tum.in.www1.artemis.config.migration.entries;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+
+import de.tum.in.www1.artemis.config.migration.MigrationEntry;
+import de.tum.in.www1.artemis.domain.SubmissionVersion;
+import de.tum.in.www1.artemis.repository.SubmissionVersionRepository;
+
+/**
+ * Compacts the existing submission versions, which were all stored as full snapshots: every {@link SubmissionVersion#SNAPSHOT_INTERVAL}-th version of a submission stays a
+ * full snapshot, all other versions are replaced by a delta to their previous version.
+ */
+public class MigrationEntry20230606_120000 extends MigrationEntry {
+
+    private static final Logger log = LoggerFactory.getLogger(MigrationEntry20230606_120000.class);
+
+    // the versions of all submissions in a batch are loaded at once, auto-saved submissions can have thousands of versions
+    private static final int BATCH_SIZE = 10;
+
+    private final SubmissionVersionRepository submissionVersionRepository;
+
+    public MigrationEntry20230606_120000(SubmissionVersionRepository submissionVersionRepository) {
+        this.submissionVersionRepository = submissionVersionRepository;
+    }
+
+    @Override
+    public void execute() {
+        long lastSubmissionId = 0;
+        long compactedVersions = 0;
+        List<Long> submissionIds;
+        while (!(submissionIds = submissionVersionRepository.findSubmissionIdsWithVersionsGreaterThan(lastSubmissionId, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+            SubmissionVersion previousVersion = null;
+            int versionIndex = 0;
+            for (SubmissionVersion version : submissionVersionRepository.findAllBySubmissionIdsOrderById(submissionIds)) {
+                if (previousVersion == null || !previousVersion.getSubmission().getId().equals(version.getSubmission().getId())) {
+                    previousVersion = null;
+                    versionIndex = 0;
+                }
+                version.rebuildContent(previousVersion);
+                boolean wasDelta = version.isDelta();
+                String previousContent = versionIndex % SubmissionVersion.SNAPSHOT_INTERVAL == 0 ? null : previousVersion.getContent();
+                version.setContent(version.getContent(), previousContent);
+                if (version.isDelta() || wasDelta) {
+                    // the update query does not change the last modified date, which is the time of the version
+                    submissionVersionRepository.updateStoredContent(version.getId(), version.getStoredContent(), version.isDelta());
+                    compactedVersions++;
+                }
+                previousVersion = version;
+                versionIndex++;
+            }
+            lastSubmissionId = submissionIds.get(submissionIds.size() - 1);
+        }
+        log.info("Replaced {} submission versions by deltas", compactedVersions);
+    }
+
+    @Override
+    public String author() {
+        return "artemis";
+    }
+
+    @Override
+    public String date() {
+        return "20230606_120000";
+    }
+}
@@ -0,0 +1,26 @@
+package de.tum.in.www1.artemis.config.querycount;
+
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link HibernateQueryInterceptor} and the {@link QueryTimingSessionEventListener}, which report the statements to the {@link QueryCountContext}.
+ */
+@Configuration
+public class HibernateQueryCountConfiguration implements HibernatePropertiesCustomizer {
+
+    private final HibernateQueryInterceptor hibernateQueryInterceptor;
+
+    public HibernateQueryCountConfiguration(HibernateQueryInterceptor hibernateQueryInterceptor) {
+        this.hibernateQueryInterceptor = hibernateQueryInterceptor;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.INTERCEPTOR, hibernateQueryInterceptor);
+        hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryTimingSessionEventListener.class.getName());
+    }
+}
@@ -1,8 +1,12 @@
-package de.tum.in.www1.artemis.util;
+package de.tum.in.www1.artemis.config.querycount;
 
 import org.hibernate.EmptyInterceptor;
 import org.springframework.stereotype.Component;
 
+/**
+ * Counts the statements that Hibernate prepares: for the unit of work of the {@link QueryBudgetMonitor} and, if started explicitly, for the current thread (used by the
+ * tests to assert the number of queries of a REST call).
+ */
 @Component
 public class HibernateQueryInterceptor extends EmptyInterceptor {
 
@@ -36,6 +40,7 @@ public class HibernateQueryInterceptor extends EmptyInterceptor {
         if (count != null) {
             threadQueryCount.set(count + 1);
         }
+        QueryCountContext.recordStatement(sql);
         return super.onPrepareStatement(sql);
     }
 }
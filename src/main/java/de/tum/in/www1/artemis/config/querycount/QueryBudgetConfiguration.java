@@ -0,0 +1,52 @@
+package de.tum.in.www1.artemis.config.querycount;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Counts the SQL statements of every handled REST request with the {@link QueryBudgetMonitor}, named after the handling resource method.
+ */
+@Configuration
+public class QueryBudgetConfiguration implements WebMvcConfigurer {
+
+    private final QueryBudgetMonitor queryBudgetMonitor;
+
+    public QueryBudgetConfiguration(QueryBudgetMonitor queryBudgetMonitor) {
+        this.queryBudgetMonitor = queryBudgetMonitor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AsyncHandlerInterceptor() {
+
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod handlerMethod) {
+                    queryBudgetMonitor.begin(QueryCountContext.Type.HTTP, handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+                }
+                return true;
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // the request is completed by another thread, so only the statements until now can be attributed to it
+                if (handler instanceof HandlerMethod) {
+                    queryBudgetMonitor.end();
+                }
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception exception) {
+                if (handler instanceof HandlerMethod) {
+                    queryBudgetMonitor.end();
+                }
+            }
+        });
+    }
+}
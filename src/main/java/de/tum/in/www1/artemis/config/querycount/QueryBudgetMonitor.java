@@ -0,0 +1,147 @@
+package de.tum.in.www1.artemis.config.querycount;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import de.tum.in.www1.artemis.config.querycount.QueryCountContext.RepeatedStatement;
+import de.tum.in.www1.artemis.config.querycount.QueryCountContext.Type;
+import de.tum.in.www1.artemis.config.querycount.QueryCountContext.UnitOfWork;
+import de.tum.in.www1.artemis.service.feature.Feature;
+import de.tum.in.www1.artemis.service.feature.FeatureToggleService;
+import io.micrometer.core.instrument.*;
+
+/**
+ * Monitors the number of SQL statements of every HTTP request, websocket message and scheduled task in production.
+ * <p>
+ * The number of statements and their execution time are exported per endpoint, destination or task as histograms. Units of work that exceed the budget of statements or
+ * execute the same statement repeatedly (the signature of an N+1 problem) are counted and logged together with the call site of the repeated statements.
+ * The monitoring can be switched off with the feature toggle {@link Feature#QueryBudget}.
+ */
+@Component
+public class QueryBudgetMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetMonitor.class);
+
+    // the feature toggles are stored in a distributed map, so the state is only refreshed periodically
+    private static final long FEATURE_TOGGLE_REFRESH_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    // offenders are logged at most once per interval to avoid flooding the log with frequently called endpoints
+    private static final long LOG_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    private static final int MAX_LOGGED_STATEMENT_LENGTH = 300;
+
+    private final MeterRegistry meterRegistry;
+
+    private final FeatureToggleService featureToggleService;
+
+    private final int maxStatements;
+
+    private final int maxRepetitions;
+
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> lastLoggedAt = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled = true;
+
+    private volatile long enabledCheckedAt = System.nanoTime() - FEATURE_TOGGLE_REFRESH_INTERVAL;
+
+    private record Meters(DistributionSummary statements, Timer executionTime) {
+    }
+
+    public QueryBudgetMonitor(MeterRegistry meterRegistry, @Lazy FeatureToggleService featureToggleService, @Value("${artemis.query-budget.max-statements:50}") int maxStatements,
+            @Value("${artemis.query-budget.max-repetitions:10}") int maxRepetitions) {
+        this.meterRegistry = meterRegistry;
+        this.featureToggleService = featureToggleService;
+        this.maxStatements = maxStatements;
+        this.maxRepetitions = maxRepetitions;
+    }
+
+    /**
+     * Starts counting the statements of the current thread, if the monitoring is enabled. Nested units of work are always started, so that every call of
+     * {@link #end()} matches its call of this method even if the feature toggle changes in between.
+     *
+     * @param type the kind of the unit of work
+     * @param name the endpoint, destination or task, which must not contain ids to keep the number of metrics small
+     */
+    void begin(Type type, String name) {
+        if (QueryCountContext.isActive() || isEnabled()) {
+            QueryCountContext.begin(type, name, maxRepetitions);
+        }
+    }
+
+    /**
+     * Stops counting the statements of the current thread and reports them
+     */
+    void end() {
+        UnitOfWork unitOfWork = QueryCountContext.end();
+        if (unitOfWork != null) {
+            report(unitOfWork);
+        }
+    }
+
+    private void report(UnitOfWork unitOfWork) {
+        String key = unitOfWork.getType() + " " + unitOfWork.getName();
+        Meters unitMeters = meters.computeIfAbsent(key, ignored -> createMeters(unitOfWork.getType(), unitOfWork.getName()));
+        unitMeters.statements().record(unitOfWork.getStatementCount());
+        unitMeters.executionTime().record(unitOfWork.getExecutionNanos(), TimeUnit.NANOSECONDS);
+
+        boolean exceedsBudget = unitOfWork.getStatementCount() > maxStatements;
+        List<RepeatedStatement> repeatedStatements = unitOfWork.getRepeatedStatements();
+        if (!exceedsBudget && repeatedStatements.isEmpty()) {
+            return;
+        }
+
+        String reason = exceedsBudget ? "budget" : "repetition";
+        Counter.builder("artemis.database.budget.exceeded").description("Number of units of work that exceeded the statement budget or repeated a statement too often")
+                .tag("type", unitOfWork.getType().name()).tag("name", unitOfWork.getName()).tag("reason", reason).register(meterRegistry).increment();
+
+        long now = System.nanoTime();
+        Long lastLogged = lastLoggedAt.get(key);
+        if (lastLogged != null && now - lastLogged < LOG_INTERVAL) {
+            return;
+        }
+        lastLoggedAt.put(key, now);
+
+        var repetitions = new StringBuilder();
+        for (RepeatedStatement repeatedStatement : repeatedStatements) {
+            repetitions.append("\n    ").append(repeatedStatement.count()).append("x at ").append(repeatedStatement.callSite() != null ? repeatedStatement.callSite() : "unknown")
+                    .append(": ").append(StringUtils.abbreviate(repeatedStatement.sql(), MAX_LOGGED_STATEMENT_LENGTH));
+        }
+        log.warn("{} {} executed {} SQL statements in {} ms (budget: {}, repeated statements: {}){}", unitOfWork.getType(), unitOfWork.getName(), unitOfWork.getStatementCount(),
+                TimeUnit.NANOSECONDS.toMillis(unitOfWork.getExecutionNanos()), maxStatements, repeatedStatements.size(), repetitions);
+    }
+
+    private Meters createMeters(Type type, String name) {
+        var statements = DistributionSummary.builder("artemis.database.statements").description("Number of SQL statements per HTTP request, websocket message or scheduled task")
+                .baseUnit("statements").tag("type", type.name()).tag("name", name).publishPercentileHistogram().maximumExpectedValue(1000.0).register(meterRegistry);
+        var executionTime = Timer.builder("artemis.database.statements.time")
+                .description("Execution time of the SQL statements per HTTP request, websocket message or scheduled task").tag("type", type.name()).tag("name", name)
+                .publishPercentileHistogram().register(meterRegistry);
+        return new Meters(statements, executionTime);
+    }
+
+    private boolean isEnabled() {
+        long now = System.nanoTime();
+        if (now - enabledCheckedAt >= FEATURE_TOGGLE_REFRESH_INTERVAL) {
+            enabledCheckedAt = now;
+            try {
+                enabled = featureToggleService.isFeatureEnabled(Feature.QueryBudget);
+            }
+            catch (RuntimeException e) {
+                // e.g. during the startup or shutdown of the application, keep the previous state
+                log.debug("Could not determine whether the query budget monitoring is enabled: {}", e.getMessage());
+            }
+        }
+        return enabled;
+    }
+}
@@ -0,0 +1,42 @@
+package de.tum.in.www1.artemis.config.querycount;
+
+import java.util.regex.Pattern;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+/**
+ * Counts the SQL statements of every websocket message that is handled by a message mapping with the {@link QueryBudgetMonitor}, named after the destination.
+ * Must be registered for the inbound channel of the clients.
+ */
+public class QueryCountChannelInterceptor implements ExecutorChannelInterceptor {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("/\\d+");
+
+    private final QueryBudgetMonitor queryBudgetMonitor;
+
+    public QueryCountChannelInterceptor(QueryBudgetMonitor queryBudgetMonitor) {
+        this.queryBudgetMonitor = queryBudgetMonitor;
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (handler instanceof SimpAnnotationMethodMessageHandler && destination != null) {
+            // replace the ids in the destination to keep the number of metrics small
+            queryBudgetMonitor.begin(QueryCountContext.Type.WEBSOCKET, ID_PATTERN.matcher(destination).replaceAll("/{id}"));
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception exception) {
+        if (handler instanceof SimpAnnotationMethodMessageHandler && SimpMessageHeaderAccessor.getDestination(message.getHeaders()) != null) {
+            queryBudgetMonitor.end();
+        }
+    }
+}
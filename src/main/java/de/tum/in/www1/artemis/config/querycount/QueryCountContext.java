@@ -0,0 +1,171 @@
+package de.tum.in.www1.artemis.config.querycount;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements of the unit of work (HTTP request, websocket message or scheduled task) that is currently handled by the thread.
+ * <p>
+ * The statements are reported by the {@link HibernateQueryInterceptor} and their execution time by the {@link QueryTimingSessionEventListener}, both of which are created by
+ * Hibernate and therefore cannot depend on Spring beans. Units of work are started and finished by the {@link QueryBudgetMonitor}. Statements outside of a unit of work
+ * (e.g. in threads spawned by a request) are not counted.
+ */
+final class QueryCountContext {
+
+    private static final String APPLICATION_PACKAGE = "de.tum.in.www1.artemis.";
+
+    private static final String REPOSITORY_PACKAGE = APPLICATION_PACKAGE + "repository.";
+
+    private static final ThreadLocal<UnitOfWork> CURRENT_UNIT_OF_WORK = new ThreadLocal<>();
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    enum Type {
+        HTTP, WEBSOCKET, SCHEDULED
+    }
+
+    /**
+     * A statement that has been executed at least the given number of times within a unit of work, which is the signature of an N+1 problem
+     *
+     * @param sql      the statement
+     * @param count    the number of executions
+     * @param callSite the first method outside the repositories that executed the statement, if known
+     */
+    record RepeatedStatement(String sql, int count, String callSite) {
+    }
+
+    static final class UnitOfWork {
+
+        private final Type type;
+
+        private final String name;
+
+        private final int maxRepetitions;
+
+        private final Map<String, StatementCount> statementCounts = new HashMap<>();
+
+        private int depth = 1;
+
+        private int statementCount;
+
+        private long executionNanos;
+
+        private UnitOfWork(Type type, String name, int maxRepetitions) {
+            this.type = type;
+            this.name = name;
+            this.maxRepetitions = maxRepetitions;
+        }
+
+        Type getType() {
+            return type;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getStatementCount() {
+            return statementCount;
+        }
+
+        long getExecutionNanos() {
+            return executionNanos;
+        }
+
+        List<RepeatedStatement> getRepeatedStatements() {
+            List<RepeatedStatement> repeatedStatements = new ArrayList<>();
+            statementCounts.forEach((sql, count) -> {
+                if (count.count >= maxRepetitions) {
+                    repeatedStatements.add(new RepeatedStatement(sql, count.count, count.callSite));
+                }
+            });
+            return repeatedStatements;
+        }
+    }
+
+    private static final class StatementCount {
+
+        private int count;
+
+        private String callSite;
+    }
+
+    private QueryCountContext() {
+    }
+
+    /**
+     * Starts a unit of work for the current thread. If a unit of work is already active (e.g. a scheduled method called within a request), the statements are counted for
+     * the outer one.
+     *
+     * @param type           the kind of the unit of work
+     * @param name           the endpoint, destination or task
+     * @param maxRepetitions the number of executions of the same statement after which its call site is determined
+     */
+    static void begin(Type type, String name, int maxRepetitions) {
+        UnitOfWork unitOfWork = CURRENT_UNIT_OF_WORK.get();
+        if (unitOfWork != null) {
+            unitOfWork.depth++;
+            return;
+        }
+        CURRENT_UNIT_OF_WORK.set(new UnitOfWork(type, name, maxRepetitions));
+    }
+
+    /**
+     * Finishes the unit of work of the current thread
+     *
+     * @return the finished unit of work, or null if there is none or only a nested one has been finished
+     */
+    static UnitOfWork end() {
+        UnitOfWork unitOfWork = CURRENT_UNIT_OF_WORK.get();
+        if (unitOfWork == null || --unitOfWork.depth > 0) {
+            return null;
+        }
+        CURRENT_UNIT_OF_WORK.remove();
+        return unitOfWork;
+    }
+
+    static boolean isActive() {
+        return CURRENT_UNIT_OF_WORK.get() != null;
+    }
+
+    /**
+     * Counts the statement for the unit of work of the current thread. The call site is only determined once the statement is repeated too often, as walking the stack is
+     * comparably expensive.
+     *
+     * @param sql the prepared statement
+     */
+    static void recordStatement(String sql) {
+        UnitOfWork unitOfWork = CURRENT_UNIT_OF_WORK.get();
+        if (unitOfWork == null) {
+            return;
+        }
+        unitOfWork.statementCount++;
+        StatementCount statementCount = unitOfWork.statementCounts.computeIfAbsent(sql, key -> new StatementCount());
+        if (++statementCount.count == unitOfWork.maxRepetitions) {
+            statementCount.callSite = findCallSite();
+        }
+    }
+
+    /**
+     * Adds the execution time of a statement to the unit of work of the current thread
+     *
+     * @param nanos the execution time in nanoseconds
+     */
+    static void recordExecutionTime(long nanos) {
+        UnitOfWork unitOfWork = CURRENT_UNIT_OF_WORK.get();
+        if (unitOfWork != null) {
+            unitOfWork.executionNanos += nanos;
+        }
+    }
+
+    private static String findCallSite() {
+        return STACK_WALKER.walk(frames -> frames.filter(frame -> {
+            String className = frame.getClassName();
+            return className.startsWith(APPLICATION_PACKAGE) && !className.startsWith(REPOSITORY_PACKAGE) && !className.contains("$$")
+                    && !className.equals(QueryCountContext.class.getName()) && !className.equals(HibernateQueryInterceptor.class.getName());
+        }).findFirst().map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1) + "." + frame.getMethodName() + ":" + frame.getLineNumber()))
+                .orElse(null);
+    }
+}
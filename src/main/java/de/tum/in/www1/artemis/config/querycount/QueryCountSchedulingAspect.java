@@ -0,0 +1,38 @@
+package de.tum.in.www1.artemis.config.querycount;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements of every execution of a scheduled method with the {@link QueryBudgetMonitor}, named after the method.
+ */
+@Component
+@Aspect
+public class QueryCountSchedulingAspect {
+
+    private final QueryBudgetMonitor queryBudgetMonitor;
+
+    public QueryCountSchedulingAspect(QueryBudgetMonitor queryBudgetMonitor) {
+        this.queryBudgetMonitor = queryBudgetMonitor;
+    }
+
+    /**
+     * Aspect around all scheduled methods of Artemis
+     *
+     * @param joinPoint Proceeding join point of the aspect
+     * @return The original return value of the scheduled method
+     * @throws Throwable If there was any error during the execution of the scheduled method
+     */
+    @Around("@annotation(org.springframework.scheduling.annotation.Scheduled) && within(de.tum.in.www1.artemis..*)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        queryBudgetMonitor.begin(QueryCountContext.Type.SCHEDULED, joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        }
+        finally {
+            queryBudgetMonitor.end();
+        }
+    }
+}
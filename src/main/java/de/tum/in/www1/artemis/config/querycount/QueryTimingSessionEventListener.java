@@ -0,0 +1,48 @@
+package de.tum.in.www1.artemis.config.querycount;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Measures the JDBC execution time of the statements for the {@link QueryCountContext}.
+ * Hibernate creates an instance for every session (see {@link HibernateQueryCountConfiguration}), so the listener is only used by a single thread at a time.
+ */
+public class QueryTimingSessionEventListener extends BaseSessionEventListener {
+
+    private boolean measuring;
+
+    private long executionStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        start();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        end();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        start();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        end();
+    }
+
+    private void start() {
+        measuring = QueryCountContext.isActive();
+        if (measuring) {
+            executionStart = System.nanoTime();
+        }
+    }
+
+    private void end() {
+        if (measuring) {
+            QueryCountContext.recordExecutionTime(System.nanoTime() - executionStart);
+            measuring = false;
+        }
+    }
+}
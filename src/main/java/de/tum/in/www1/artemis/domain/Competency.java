@@ -13,10 +13,12 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 
 import de.tum.in.www1.artemis.domain.lecture.ExerciseUnit;
 import de.tum.in.www1.artemis.domain.lecture.LectureUnit;
+import de.tum.in.www1.artemis.service.listeners.CourseDashboardListener;
 
 @Entity
 @Table(name = "learning_goal")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@EntityListeners(CourseDashboardListener.class)
 public class Competency extends DomainObject {
 
     @Column(name = "title", nullable = false)
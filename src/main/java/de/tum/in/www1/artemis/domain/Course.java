@@ -29,6 +29,7 @@ import de.tum.in.www1.artemis.domain.tutorialgroups.TutorialGroupsConfiguration;
 import de.tum.in.www1.artemis.domain.view.QuizView;
 import de.tum.in.www1.artemis.service.FilePathService;
 import de.tum.in.www1.artemis.service.FileService;
+import de.tum.in.www1.artemis.service.listeners.CourseDashboardListener;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -38,6 +39,7 @@ import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 @Table(name = "course")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
+@EntityListeners(CourseDashboardListener.class)
 public class Course extends DomainObject {
 
     public static final String ENTITY_NAME = "course";
@@ -25,6 +25,8 @@ import de.tum.in.www1.artemis.domain.participation.TutorParticipation;
 import de.tum.in.www1.artemis.domain.plagiarism.PlagiarismCase;
 import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.domain.view.QuizView;
+import de.tum.in.www1.artemis.service.listeners.CourseDashboardListener;
+import de.tum.in.www1.artemis.service.listeners.ExamContentListener;
 import de.tum.in.www1.artemis.web.rest.dto.DueDateStat;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 
@@ -49,6 +51,7 @@ import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 })
 // @formatter:on
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
+@EntityListeners({ CourseDashboardListener.class, ExamContentListener.class })
 public abstract class Exercise extends BaseExercise implements LearningObject {
 
     @Column(name = "allow_complaints_for_automatic_assessments")
@@ -14,6 +14,7 @@ import com.fasterxml.jackson.annotation.JsonIncludeProperties;
 
 import de.tum.in.www1.artemis.domain.lecture.LectureUnit;
 import de.tum.in.www1.artemis.domain.metis.Post;
+import de.tum.in.www1.artemis.service.listeners.CourseDashboardListener;
 
 /**
  * A Lecture.
@@ -22,6 +23,7 @@ import de.tum.in.www1.artemis.domain.metis.Post;
 @Table(name = "lecture")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
+@EntityListeners(CourseDashboardListener.class)
 public class Lecture extends DomainObject {
 
     @Column(name = "title")
@@ -19,6 +19,7 @@ import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
 import de.tum.in.www1.artemis.domain.participation.Participation;
 import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
 import de.tum.in.www1.artemis.domain.view.QuizView;
+import de.tum.in.www1.artemis.service.listeners.CourseDashboardListener;
 
 /**
  * A Submission.
@@ -41,6 +42,7 @@ import de.tum.in.www1.artemis.domain.view.QuizView;
 })
 // @formatter:on
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
+@EntityListeners(CourseDashboardListener.class)
 public abstract class Submission extends DomainObject implements Comparable<Submission> {
 
     @Column(name = "submitted")
@@ -76,6 +78,35 @@ public abstract class Submission extends DomainObject implements Comparable<Subm
     @Column(name = "submission_date")
     private ZonedDateTime submissionDate;
 
+    // the submitted flag and the type as stored in the database, used to detect the changes that are shown on the course dashboard (see CourseDashboardListener)
+    @Transient
+    private Boolean prevSubmitted;
+
+    @Transient
+    private SubmissionType prevType;
+
+    /**
+     * Saves the current submitted flag and type as the stored state, after the submission has been loaded or saved.
+     * Entity listeners are called before this callback, so they still see the previous state.
+     */
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    public void onLoadOrSave() {
+        prevSubmitted = submitted;
+        prevType = type;
+    }
+
+    /**
+     * Changes of only the content or the submission date (e.g. by autosaves) are not shown on the course dashboard
+     *
+     * @return true if the submitted flag or the type has changed since the submission has been loaded or saved
+     */
+    @JsonIgnore
+    public boolean isSubmittedOrTypeChanged() {
+        return !Objects.equals(prevSubmitted, submitted) || prevType != type;
+    }
+
     @JsonView(QuizView.Before.class)
     public ZonedDateTime getSubmissionDate() {
         return submissionDate;
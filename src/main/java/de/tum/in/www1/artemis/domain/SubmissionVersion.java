@@ -2,6 +2,7 @@ package de.tum.in.www1.artemis.domain;
 
 import java.time.Instant;
 
+import javax.annotation.Nullable;
 import javax.persistence.*;
 
 import org.hibernate.annotations.Cache;
@@ -10,8 +11,11 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
+import de.tum.in.www1.artemis.service.util.TextDelta;
+
 @Entity
 @Table(name = "submission_version")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
@@ -19,13 +23,33 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 @EntityListeners(AuditingEntityListener.class)
 public class SubmissionVersion extends DomainObject {
 
+    /**
+     * The maximum number of consecutive versions of a submission (a full snapshot followed by deltas) before the next version is stored as a full snapshot again.
+     * This limits the number of versions that need to be loaded to rebuild the content of a version.
+     */
+    public static final int SNAPSHOT_INTERVAL = 20;
+
     @ManyToOne
     private Submission submission;
 
     @ManyToOne
     private User author;
 
+    /**
+     * Either the full content of the version (a snapshot) or a delta to the content of the previous version of the submission (see {@link TextDelta})
+     */
+    @JsonIgnore
     @Column(name = "content")
+    private String storedContent;
+
+    @JsonIgnore
+    @Column(name = "delta")
+    private boolean delta = false;
+
+    /**
+     * The full content of the version, for deltas it has to be rebuilt with {@link #rebuildContent(SubmissionVersion)}
+     */
+    @Transient
     private String content;
 
     @CreatedDate
@@ -57,8 +81,64 @@ public class SubmissionVersion extends DomainObject {
         return content;
     }
 
+    /**
+     * Sets the full content of this version and stores it as a full snapshot
+     *
+     * @param content the full content
+     */
     public void setContent(String content) {
+        setContent(content, null);
+    }
+
+    /**
+     * Sets the full content of this version and stores it as a delta to the content of the previous version, if the delta is smaller than the content itself.
+     *
+     * @param content         the full content
+     * @param previousContent the full content of the previous version or null, if this version should be stored as a full snapshot
+     */
+    public void setContent(String content, @Nullable String previousContent) {
         this.content = content;
+        if (content != null && previousContent != null) {
+            String contentDelta = TextDelta.compute(previousContent, content);
+            if (contentDelta.length() < content.length()) {
+                this.storedContent = contentDelta;
+                this.delta = true;
+                return;
+            }
+        }
+        this.storedContent = content;
+        this.delta = false;
+    }
+
+    /**
+     * Rebuilds the full content of this version from the stored content and the (already rebuilt) previous version
+     *
+     * @param previousVersion the previous version of the submission, may only be null if this version is a full snapshot
+     */
+    public void rebuildContent(@Nullable SubmissionVersion previousVersion) {
+        if (delta) {
+            String previousContent = previousVersion != null && previousVersion.getContent() != null ? previousVersion.getContent() : "";
+            this.content = TextDelta.apply(previousContent, storedContent);
+        }
+        else {
+            this.content = storedContent;
+        }
+    }
+
+    public String getStoredContent() {
+        return storedContent;
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    @PostLoad
+    public void onLoad() {
+        // full snapshots do not need to be rebuilt
+        if (!delta) {
+            this.content = storedContent;
+        }
     }
 
     public Instant getCreatedDate() {
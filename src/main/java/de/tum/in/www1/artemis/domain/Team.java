@@ -15,6 +15,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import de.tum.in.www1.artemis.domain.participation.Participant;
+import de.tum.in.www1.artemis.service.listeners.CourseDashboardListener;
 
 /**
  * A Team of students.
@@ -23,6 +24,7 @@ import de.tum.in.www1.artemis.domain.participation.Participant;
 @Table(name = "team", uniqueConstraints = { @UniqueConstraint(columnNames = { "exercise_id", "short_name" }) })
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
+@EntityListeners(CourseDashboardListener.class)
 public class Team extends AbstractAuditingEntity implements Participant {
 
     @Column(name = "name")
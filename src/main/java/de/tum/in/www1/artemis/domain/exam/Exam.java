@@ -19,11 +19,14 @@ import com.fasterxml.jackson.annotation.*;
 import de.tum.in.www1.artemis.domain.Course;
 import de.tum.in.www1.artemis.domain.DomainObject;
 import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.service.listeners.CourseDashboardListener;
+import de.tum.in.www1.artemis.service.listeners.ExamContentListener;
 
 @Entity
 @Table(name = "exam")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
+@EntityListeners({ CourseDashboardListener.class, ExamContentListener.class })
 public class Exam extends DomainObject {
 
     @Column(name = "title", nullable = false)
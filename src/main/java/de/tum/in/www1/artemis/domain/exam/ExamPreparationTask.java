@@ -0,0 +1,81 @@
+package de.tum.in.www1.artemis.domain.exam;
+
+import java.time.ZonedDateTime;
+
+import javax.persistence.*;
+
+import de.tum.in.www1.artemis.domain.DomainObject;
+
+/**
+ * The preparation of the exercises (i.e. the participations and initial submissions) of one student exam, persisted so that the preparation of an exam can be
+ * distributed across all instances of the cluster and resumed if an instance fails.
+ * The tasks are executed by the {@link de.tum.in.www1.artemis.service.exam.StudentExamService}.
+ */
+@Entity
+@Table(name = "exam_preparation_task")
+public class ExamPreparationTask extends DomainObject {
+
+    public enum Status {
+        QUEUED, RUNNING, FINISHED, FAILED
+    }
+
+    @Column(name = "exam_id", nullable = false)
+    private long examId;
+
+    @Column(name = "student_exam_id", nullable = false)
+    private long studentExamId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "participation_count", nullable = false)
+    private int participationCount;
+
+    @Column(name = "status_date", nullable = false)
+    private ZonedDateTime statusDate;
+
+    public ExamPreparationTask() {
+        // needed for Hibernate
+    }
+
+    public ExamPreparationTask(long examId, long studentExamId) {
+        this.examId = examId;
+        this.studentExamId = studentExamId;
+        this.status = Status.QUEUED;
+        this.statusDate = ZonedDateTime.now();
+    }
+
+    public long getExamId() {
+        return examId;
+    }
+
+    public long getStudentExamId() {
+        return studentExamId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getParticipationCount() {
+        return participationCount;
+    }
+
+    public ZonedDateTime getStatusDate() {
+        return statusDate;
+    }
+
+    @Override
+    public String toString() {
+        return "ExamPreparationTask{id=" + getId() + ", examId=" + examId + ", studentExamId=" + studentExamId + ", status=" + status + ", attempts=" + attempts
+                + ", participationCount=" + participationCount + ", statusDate=" + statusDate + "}";
+    }
+}
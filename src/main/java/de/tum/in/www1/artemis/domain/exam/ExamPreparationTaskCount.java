@@ -0,0 +1,11 @@
+package de.tum.in.www1.artemis.domain.exam;
+
+/**
+ * The number of preparation tasks of an exam with one status and the number of participations they have generated
+ *
+ * @param status             the status of the tasks
+ * @param count              the number of tasks with the status
+ * @param participationCount the number of participations generated by these tasks
+ */
+public record ExamPreparationTaskCount(ExamPreparationTask.Status status, Long count, Long participationCount) {
+}
@@ -0,0 +1,88 @@
+package de.tum.in.www1.artemis.domain.lti;
+
+import java.time.ZonedDateTime;
+
+import javax.persistence.*;
+
+import de.tum.in.www1.artemis.domain.DomainObject;
+
+/**
+ * The pending or last transmission of the score of an LTI 1.3 resource launch to the LMS (outbox of the grade passback).
+ * There is at most one passback per launch: new results of the participation replace the pending score, so that only the latest score is sent.
+ */
+@Entity
+@Table(name = "lti_score_passback")
+public class LtiScorePassback extends DomainObject {
+
+    public enum Status {
+        PENDING, SENDING, DELIVERED, FAILED
+    }
+
+    @Column(name = "launch_id", nullable = false, unique = true)
+    private long launchId;
+
+    @Column(name = "participation_id", nullable = false)
+    private long participationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_date", nullable = false)
+    private ZonedDateTime nextAttemptDate;
+
+    @Column(name = "status_date", nullable = false)
+    private ZonedDateTime statusDate;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    public LtiScorePassback() {
+        // needed for Hibernate
+    }
+
+    public LtiScorePassback(long launchId, long participationId) {
+        this.launchId = launchId;
+        this.participationId = participationId;
+        this.status = Status.PENDING;
+        this.statusDate = ZonedDateTime.now();
+        this.nextAttemptDate = statusDate;
+    }
+
+    public long getLaunchId() {
+        return launchId;
+    }
+
+    public long getParticipationId() {
+        return participationId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public ZonedDateTime getNextAttemptDate() {
+        return nextAttemptDate;
+    }
+
+    public ZonedDateTime getStatusDate() {
+        return statusDate;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "LtiScorePassback{id=" + getId() + ", launchId=" + launchId + ", participationId=" + participationId + ", status=" + status + ", attempts=" + attempts
+                + ", nextAttemptDate=" + nextAttemptDate + "}";
+    }
+}
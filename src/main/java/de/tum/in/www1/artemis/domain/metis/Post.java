@@ -48,6 +48,14 @@ public class Post extends Posting {
     @Column(name = "text")
     private Set<String> tags = new HashSet<>();
 
+    /**
+     * The full-text search index of the post. It is derived from the title, the content and the tags whenever one of them is set.
+     */
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "post_search_token", joinColumns = @JoinColumn(name = "post_id"))
+    @JsonIgnore
+    private Set<PostSearchToken> searchTokens = new HashSet<>();
+
     @ManyToOne
     @JsonIncludeProperties({ "id", "title" })
     private Exercise exercise;
@@ -91,6 +99,13 @@ public class Post extends Posting {
 
     public void setTitle(String title) {
         this.title = title;
+        updateSearchTokens();
+    }
+
+    @Override
+    public void setContent(String content) {
+        super.setContent(content);
+        updateSearchTokens();
     }
 
     public Boolean isVisibleForStudents() {
@@ -143,10 +158,24 @@ public class Post extends Posting {
 
     public void setTags(Set<String> tags) {
         this.tags = tags;
+        updateSearchTokens();
     }
 
     public void addTag(String tag) {
         this.tags.add(tag);
+        updateSearchTokens();
+    }
+
+    public Set<PostSearchToken> getSearchTokens() {
+        return searchTokens;
+    }
+
+    /**
+     * Rebuilds the search index of this post from its title, content and tags.
+     * The collection is replaced instead of modified, so that this also works for detached posts whose search tokens have not been loaded.
+     */
+    public void updateSearchTokens() {
+        this.searchTokens = PostSearchToken.of(title, getContent(), tags);
     }
 
     public Exercise getExercise() {
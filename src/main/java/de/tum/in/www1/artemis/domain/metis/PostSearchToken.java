@@ -0,0 +1,117 @@
+package de.tum.in.www1.artemis.domain.metis;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+/**
+ * A single normalized word of a post (from its title, content or tags) stored in the full-text search index of Metis.
+ * The weight reflects how often and where (title, tags, content) the word occurs in the post and is used to rank search results.
+ */
+@Embeddable
+public class PostSearchToken {
+
+    /**
+     * Maximum length of a token, longer words are cut off (prefix matching still works for them)
+     */
+    public static final int MAX_TOKEN_LENGTH = 50;
+
+    /**
+     * Maximum number of distinct tokens stored per post, so that very long posts do not bloat the index
+     */
+    public static final int MAX_TOKENS_PER_POST = 1000;
+
+    private static final int TITLE_WEIGHT = 3;
+
+    private static final int TAG_WEIGHT = 2;
+
+    private static final int CONTENT_WEIGHT = 1;
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Column(name = "token", length = MAX_TOKEN_LENGTH)
+    private String token;
+
+    @Column(name = "weight")
+    private int weight;
+
+    public PostSearchToken() {
+        // needed for Hibernate
+    }
+
+    public PostSearchToken(String token, int weight) {
+        this.token = token;
+        this.weight = weight;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Splits the given text into lower-cased words (sequences of letters and digits). The same normalization is applied to indexed posts and to search terms.
+     *
+     * @param text the text to split, may be null
+     * @return the distinct tokens in the order of their first occurrence
+     */
+    public static List<String> tokenize(String text) {
+        return words(text).distinct().toList();
+    }
+
+    /**
+     * Builds the search tokens of a post. Every occurrence of a word adds the weight of the field it occurs in (title, tag or content) to the weight of its token.
+     *
+     * @param title   the title of the post
+     * @param content the content of the post
+     * @param tags    the tags of the post
+     * @return the search tokens of the post
+     */
+    public static Set<PostSearchToken> of(String title, String content, Collection<String> tags) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        addWeights(weights, title, TITLE_WEIGHT);
+        if (tags != null) {
+            tags.forEach(tag -> addWeights(weights, tag, TAG_WEIGHT));
+        }
+        addWeights(weights, content, CONTENT_WEIGHT);
+
+        Set<PostSearchToken> searchTokens = new HashSet<>();
+        weights.entrySet().stream().limit(MAX_TOKENS_PER_POST).forEach(entry -> searchTokens.add(new PostSearchToken(entry.getKey(), entry.getValue())));
+        return searchTokens;
+    }
+
+    private static void addWeights(Map<String, Integer> weights, String text, int weight) {
+        words(text).forEach(word -> weights.merge(word, weight, Integer::sum));
+    }
+
+    private static Stream<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return Stream.empty();
+        }
+        return TOKEN_SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT)).filter(word -> !word.isEmpty())
+                .map(word -> word.length() > MAX_TOKEN_LENGTH ? word.substring(0, MAX_TOKEN_LENGTH) : word);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        PostSearchToken that = (PostSearchToken) obj;
+        return weight == that.weight && Objects.equals(token, that.token);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(token, weight);
+    }
+}
@@ -13,10 +13,12 @@ import de.tum.in.www1.artemis.domain.Exercise;
 import de.tum.in.www1.artemis.domain.Team;
 import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.domain.view.QuizView;
+import de.tum.in.www1.artemis.service.listeners.CourseDashboardListener;
 
 @Entity
 @DiscriminatorValue(value = "SP")
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
+@EntityListeners(CourseDashboardListener.class)
 public class StudentParticipation extends Participation {
 
     @Column(name = "presentation_score")
@@ -14,9 +14,11 @@ import de.tum.in.www1.artemis.domain.Exercise;
 import de.tum.in.www1.artemis.domain.Team;
 import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.domain.metis.Post;
+import de.tum.in.www1.artemis.service.listeners.CourseDashboardListener;
 
 @Entity
 @Table(name = "plagiarism_case")
+@EntityListeners(CourseDashboardListener.class)
 public class PlagiarismCase extends AbstractAuditingEntity {
 
     @ManyToOne
@@ -16,6 +16,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import de.jplag.Submission;
 import de.tum.in.www1.artemis.domain.DomainObject;
 import de.tum.in.www1.artemis.domain.Exercise;
+import de.tum.in.www1.artemis.domain.TextSubmission;
 import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.domain.plagiarism.modeling.ModelingSubmissionElement;
@@ -137,6 +138,26 @@ public class PlagiarismSubmission<E extends PlagiarismSubmissionElement> extends
         return submission;
     }
 
+    /**
+     * Create a new PlagiarismSubmission instance from an existing Text Submission
+     *
+     * @param textSubmission the Text Submission to create the PlagiarismSubmission from
+     * @return a new PlagiarismSubmission instance
+     */
+    public static PlagiarismSubmission<TextSubmissionElement> fromTextSubmission(TextSubmission textSubmission) {
+        PlagiarismSubmission<TextSubmissionElement> submission = new PlagiarismSubmission<>();
+
+        submission.setSubmissionId(textSubmission.getId());
+        String studentLogin = ((StudentParticipation) textSubmission.getParticipation()).getParticipantIdentifier();
+        submission.setStudentLogin(studentLogin != null ? studentLogin : "unknown");
+
+        if (textSubmission.getLatestResult() != null) {
+            submission.setScore(textSubmission.getLatestResult().getScore());
+        }
+
+        return submission;
+    }
+
     public String getStudentLogin() {
         return studentLogin;
     }
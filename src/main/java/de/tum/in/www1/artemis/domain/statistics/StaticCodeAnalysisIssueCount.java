@@ -0,0 +1,11 @@
+package de.tum.in.www1.artemis.domain.statistics;
+
+/**
+ * The number of static code analysis feedbacks of one category in a single result.
+ *
+ * @param resultId     the id of the result
+ * @param feedbackText the text of the feedback, which consists of the static code analysis identifier and the category name
+ * @param issueCount   the number of feedbacks of this category in the result
+ */
+public record StaticCodeAnalysisIssueCount(Long resultId, String feedbackText, Long issueCount) {
+}
@@ -0,0 +1,106 @@
+package de.tum.in.www1.artemis.domain.statistics;
+
+import java.time.ZonedDateTime;
+
+import javax.persistence.*;
+
+import de.tum.in.www1.artemis.domain.DomainObject;
+import de.tum.in.www1.artemis.domain.enumeration.GraphType;
+import de.tum.in.www1.artemis.domain.enumeration.StatisticsView;
+
+/**
+ * A pre-aggregated bucket of a statistics graph: the number of entries of one graph type in one view (Artemis, course or exercise) within one hour or one day.
+ * For graphs counting distinct users, the bucket additionally stores a HyperLogLog sketch of the users, so that buckets can be merged into larger time slots.
+ * The buckets are computed by the {@link de.tum.in.www1.artemis.service.StatisticsRollupService}.
+ */
+@Entity
+@Table(name = "statistics_rollup")
+public class StatisticsRollup extends DomainObject {
+
+    /**
+     * The entity id used for buckets of the Artemis view, which does not refer to a course or an exercise
+     */
+    public static final long ARTEMIS_ENTITY_ID = 0L;
+
+    public enum Granularity {
+        HOUR, DAY
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "graph_type", nullable = false)
+    private GraphType graphType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "statistics_view", nullable = false)
+    private StatisticsView view;
+
+    @Column(name = "entity_id", nullable = false)
+    private long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private ZonedDateTime bucketStart;
+
+    @Column(name = "amount", nullable = false)
+    private long amount;
+
+    @Column(name = "sketch")
+    private byte[] sketch;
+
+    public StatisticsRollup() {
+        // needed for Hibernate
+    }
+
+    public StatisticsRollup(GraphType graphType, StatisticsView view, long entityId, Granularity granularity, ZonedDateTime bucketStart) {
+        this.graphType = graphType;
+        this.view = view;
+        this.entityId = entityId;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+
+    public GraphType getGraphType() {
+        return graphType;
+    }
+
+    public StatisticsView getView() {
+        return view;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public ZonedDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public void setAmount(long amount) {
+        this.amount = amount;
+    }
+
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+    }
+
+    @Override
+    public String toString() {
+        return "StatisticsRollup{id=" + getId() + ", graphType=" + graphType + ", view=" + view + ", entityId=" + entityId + ", granularity=" + granularity + ", bucketStart="
+                + bucketStart + ", amount=" + amount + "}";
+    }
+}
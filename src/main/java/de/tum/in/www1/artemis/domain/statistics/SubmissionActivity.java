@@ -0,0 +1,29 @@
+package de.tum.in.www1.artemis.domain.statistics;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A single submission with the information needed to assign it to the statistics views (Artemis, course and exercise) when computing statistics rollups.
+ *
+ * @param submissionDate  the date of the submission
+ * @param exerciseId      the id of the exercise of the submission
+ * @param courseId        the id of the course of a course exercise, null for exam exercises
+ * @param testCourse      whether the course of a course exercise is a test course, null for exam exercises
+ * @param exerciseGroupId the id of the exercise group of an exam exercise, null for course exercises
+ * @param login           the login of the student who submitted, null if the submission is not counted as activity of a student
+ */
+public record SubmissionActivity(ZonedDateTime submissionDate, Long exerciseId, Long courseId, Boolean testCourse, Long exerciseGroupId, String login) {
+
+    public SubmissionActivity(ZonedDateTime submissionDate, Long exerciseId, Long courseId, Boolean testCourse, Long exerciseGroupId) {
+        this(submissionDate, exerciseId, courseId, testCourse, exerciseGroupId, null);
+    }
+
+    /**
+     * The Artemis view includes all exam exercises and all exercises of courses that are not test courses
+     *
+     * @return whether the submission is shown in the Artemis view
+     */
+    public boolean isShownInArtemisView() {
+        return exerciseGroupId != null || Boolean.FALSE.equals(testCourse);
+    }
+}
@@ -0,0 +1,11 @@
+package de.tum.in.www1.artemis.domain.statistics;
+
+/**
+ * The number of passed and failed test case feedbacks with the same name in the latest automatic results of an exercise.
+ *
+ * @param testName  the name of the test case (the text of the feedback)
+ * @param numPassed the number of positive feedbacks
+ * @param numFailed the number of negative feedbacks
+ */
+public record TestCaseFeedbackCount(String testName, Long numPassed, Long numFailed) {
+}
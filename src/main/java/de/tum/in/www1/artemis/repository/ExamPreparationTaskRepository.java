@@ -0,0 +1,157 @@
+package de.tum.in.www1.artemis.repository;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.tum.in.www1.artemis.domain.exam.ExamPreparationTask;
+import de.tum.in.www1.artemis.domain.exam.ExamPreparationTaskCount;
+
+/**
+ * Spring Data JPA repository for the preparation tasks of the student exams of an exam
+ */
+@Repository
+public interface ExamPreparationTaskRepository extends JpaRepository<ExamPreparationTask, Long> {
+
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.domain.exam.ExamPreparationTaskCount(t.status, COUNT(t), SUM(t.participationCount))
+            FROM ExamPreparationTask t
+            WHERE t.examId = :examId
+            GROUP BY t.status
+            """)
+    List<ExamPreparationTaskCount> countByExamIdGroupByStatus(@Param("examId") long examId);
+
+    @Query("""
+            SELECT t.id
+            FROM ExamPreparationTask t
+            WHERE t.status IN :statuses
+                AND t.statusDate < :statusDate
+            """)
+    List<Long> findIdsByStatusInAndStatusDateBefore(@Param("statuses") Set<ExamPreparationTask.Status> statuses, @Param("statusDate") ZonedDateTime statusDate);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            UPDATE ExamPreparationTask t
+            SET t.status = :newStatus, t.statusDate = :statusDate, t.attempts = t.attempts + 1
+            WHERE t.id = :taskId
+                AND t.status = :expectedStatus
+            """)
+    int updateStatusAndIncrementAttempts(@Param("taskId") long taskId, @Param("expectedStatus") ExamPreparationTask.Status expectedStatus,
+            @Param("newStatus") ExamPreparationTask.Status newStatus, @Param("statusDate") ZonedDateTime statusDate);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            UPDATE ExamPreparationTask t
+            SET t.status = :status, t.statusDate = :statusDate, t.participationCount = t.participationCount + :generatedParticipations
+            WHERE t.id = :taskId
+                AND t.status = :expectedStatus
+                AND t.attempts = :attempts
+            """)
+    int updateStatusAndAddParticipations(@Param("taskId") long taskId, @Param("expectedStatus") ExamPreparationTask.Status expectedStatus, @Param("attempts") int attempts,
+            @Param("status") ExamPreparationTask.Status status, @Param("statusDate") ZonedDateTime statusDate, @Param("generatedParticipations") int generatedParticipations);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            UPDATE ExamPreparationTask t
+            SET t.statusDate = :statusDate
+            WHERE t.id IN :taskIds
+                AND t.status IN :statuses
+            """)
+    void updateStatusDateByIdInAndStatusIn(@Param("taskIds") Collection<Long> taskIds, @Param("statuses") Set<ExamPreparationTask.Status> statuses,
+            @Param("statusDate") ZonedDateTime statusDate);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            UPDATE ExamPreparationTask t
+            SET t.status = :newStatus, t.statusDate = :statusDate
+            WHERE t.id = :taskId
+                AND t.status IN :expectedStatuses
+                AND t.statusDate < :expectedStatusDate
+            """)
+    int updateStatusIfStatusInAndStatusDateBefore(@Param("taskId") long taskId, @Param("expectedStatuses") Set<ExamPreparationTask.Status> expectedStatuses,
+            @Param("expectedStatusDate") ZonedDateTime expectedStatusDate, @Param("newStatus") ExamPreparationTask.Status newStatus, @Param("statusDate") ZonedDateTime statusDate);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            UPDATE ExamPreparationTask t
+            SET t.status = :status, t.statusDate = :statusDate
+            WHERE t.id IN :taskIds
+            """)
+    void updateStatus(@Param("taskIds") Collection<Long> taskIds, @Param("status") ExamPreparationTask.Status status, @Param("statusDate") ZonedDateTime statusDate);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            DELETE FROM ExamPreparationTask t
+            WHERE t.examId = :examId
+            """)
+    void deleteAllByExamId(@Param("examId") long examId);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            DELETE FROM ExamPreparationTask t
+            WHERE t.status IN :statuses
+                AND t.statusDate < :statusDate
+            """)
+    void deleteAllByStatusInAndStatusDateBefore(@Param("statuses") Set<ExamPreparationTask.Status> statuses, @Param("statusDate") ZonedDateTime statusDate);
+
+    /**
+     * Claims the queued task for the calling thread. Only one of several concurrent (or duplicated) executions of the task can claim it, because the status is
+     * changed atomically in the database.
+     *
+     * @param taskId the id of the task
+     * @return true if the task has been claimed, false if it is not queued (anymore)
+     */
+    default boolean claim(long taskId) {
+        return updateStatusAndIncrementAttempts(taskId, ExamPreparationTask.Status.QUEUED, ExamPreparationTask.Status.RUNNING, ZonedDateTime.now()) == 1;
+    }
+
+    /**
+     * Completes the execution of a claimed task. The task is only updated if it has not been resumed in the meantime, i.e. it is still running the claimed attempt.
+     *
+     * @param taskId                  the id of the task
+     * @param attempts                the number of attempts of the task after it has been claimed by the calling execution
+     * @param status                  the new status of the task
+     * @param generatedParticipations the number of participations generated by the execution
+     * @return true if the task has been updated, false if it has been resumed by another execution or has been deleted
+     */
+    default boolean complete(long taskId, int attempts, ExamPreparationTask.Status status, int generatedParticipations) {
+        return updateStatusAndAddParticipations(taskId, ExamPreparationTask.Status.RUNNING, attempts, status, ZonedDateTime.now(), generatedParticipations) == 1;
+    }
+
+    /**
+     * Renews the lease of the given tasks if they are queued or running, so that they are not resumed while they are executed or wait for their execution.
+     *
+     * @param taskIds the ids of the tasks
+     */
+    default void renewLeases(Collection<Long> taskIds) {
+        updateStatusDateByIdInAndStatusIn(taskIds, Set.of(ExamPreparationTask.Status.QUEUED, ExamPreparationTask.Status.RUNNING), ZonedDateTime.now());
+    }
+
+    /**
+     * Queues the task again if it is queued or running and its lease has expired. Only one of several concurrent calls can resume the task, because the status date is
+     * changed atomically in the database.
+     *
+     * @param taskId     the id of the task
+     * @param leaseUntil the date before which the status of the task must have been set (or renewed) for its lease to be expired
+     * @return true if the task has been queued again, false if its lease has been renewed in the meantime or it is not queued or running anymore
+     */
+    default boolean requeueIfLeaseExpired(long taskId, ZonedDateTime leaseUntil) {
+        return updateStatusIfStatusInAndStatusDateBefore(taskId, Set.of(ExamPreparationTask.Status.QUEUED, ExamPreparationTask.Status.RUNNING), leaseUntil,
+                ExamPreparationTask.Status.QUEUED, ZonedDateTime.now()) == 1;
+    }
+}
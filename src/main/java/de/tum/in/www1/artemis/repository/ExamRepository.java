@@ -64,6 +64,36 @@ public interface ExamRepository extends JpaRepository<Exam, Long> {
     Set<Exam> findByCourseIdsForUser(@Param("courseIds") Set<Long> courseIds, @Param("userId") Long userId, @Param("groupNames") Set<String> groupNames,
             @Param("now") ZonedDateTime now);
 
+    /**
+     * Get the next visible date of the exams of a course, i.e. the next time an exam becomes visible for the students
+     *
+     * @param courseId the id of the course
+     * @param now      the current date
+     * @return the earliest visible date after now or an empty optional if all exams are already visible
+     */
+    @Query("""
+            SELECT MIN(e.visibleDate)
+            FROM Exam e
+            WHERE e.course.id = :courseId
+                AND e.visibleDate > :now
+            """)
+    Optional<ZonedDateTime> findNextVisibleDateByCourseId(@Param("courseId") long courseId, @Param("now") ZonedDateTime now);
+
+    /**
+     * Query which fetches the ids of all exams that start within the given period.
+     *
+     * @param from the start of the period
+     * @param to   the end of the period
+     * @return the ids of the exams starting between the two dates
+     */
+    @Query("""
+            SELECT e.id
+            FROM Exam e
+            WHERE e.startDate >= :from
+                AND e.startDate <= :to
+            """)
+    Set<Long> findIdsByStartDateBetween(@Param("from") ZonedDateTime from, @Param("to") ZonedDateTime to);
+
     @Query("""
             SELECT exam
             FROM Exam exam
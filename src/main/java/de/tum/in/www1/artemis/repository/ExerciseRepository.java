@@ -33,6 +33,21 @@ public interface ExerciseRepository extends JpaRepository<Exercise, Long> {
             """)
     Set<Exercise> findByCourseIdWithCategories(@Param("courseId") Long courseId);
 
+    /**
+     * Get the next release date of the exercises of a course, i.e. the next time an exercise becomes visible for the students
+     *
+     * @param courseId the id of the course
+     * @param now      the current date
+     * @return the earliest release date after now or an empty optional if all exercises have been released
+     */
+    @Query("""
+            SELECT MIN(e.releaseDate)
+            FROM Exercise e
+            WHERE e.course.id = :courseId
+                AND e.releaseDate > :now
+            """)
+    Optional<ZonedDateTime> findNextReleaseDateByCourseId(@Param("courseId") long courseId, @Param("now") ZonedDateTime now);
+
     @Query("""
             SELECT e
             FROM Exercise e
@@ -19,6 +19,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.tum.in.www1.artemis.config.Constants;
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.*;
+import de.tum.in.www1.artemis.domain.statistics.StaticCodeAnalysisIssueCount;
+import de.tum.in.www1.artemis.domain.statistics.TestCaseFeedbackCount;
 import de.tum.in.www1.artemis.service.dto.StaticCodeAnalysisReportDTO;
 
 /**
@@ -46,6 +48,62 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     @Query("select feedback from Feedback feedback where feedback.gradingInstruction.id in :gradingInstructionsIds")
     List<Feedback> findFeedbackByGradingInstructionIds(@Param("gradingInstructionsIds") List<Long> gradingInstructionsIds);
 
+    /**
+     * Counts the passed and failed test case feedbacks per test name in the latest automatic result of each student of the given exercise.
+     * The aggregation is done by the database, so that the feedback does not have to be loaded.
+     *
+     * @param exerciseId the id of the programming exercise
+     * @return the number of passed and failed feedbacks per test name
+     */
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.domain.statistics.TestCaseFeedbackCount(
+                f.text,
+                SUM(CASE WHEN f.positive = true THEN 1 ELSE 0 END),
+                SUM(CASE WHEN f.positive = true THEN 0 ELSE 1 END)
+            )
+            FROM Feedback f
+                JOIN f.result r
+            WHERE r.participation.exercise.id = :exerciseId
+                AND r.participation.student.id IS NOT NULL
+                AND f.type = de.tum.in.www1.artemis.domain.enumeration.FeedbackType.AUTOMATIC
+                AND f.text NOT LIKE 'SCAFeedbackIdentifier:%'
+                AND r.completionDate = (
+                    SELECT max(rr.completionDate)
+                    FROM Result rr
+                    WHERE rr.assessmentType = 'AUTOMATIC'
+                        AND rr.participation.exercise.id = :exerciseId
+                        AND rr.participation.student.id = r.participation.student.id
+                )
+            GROUP BY f.text
+            """)
+    List<TestCaseFeedbackCount> countTestCaseFeedbacksOfLatestAutomaticResultsByExerciseId(@Param("exerciseId") long exerciseId);
+
+    /**
+     * Counts the static code analysis feedbacks per category in the latest automatic result of each student of the given exercise.
+     * Only one row per result and category is returned instead of every single feedback.
+     *
+     * @param exerciseId the id of the programming exercise
+     * @return the number of static code analysis feedbacks per result and category
+     */
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.domain.statistics.StaticCodeAnalysisIssueCount(r.id, f.text, COUNT(f.id))
+            FROM Feedback f
+                JOIN f.result r
+            WHERE r.participation.exercise.id = :exerciseId
+                AND r.participation.student.id IS NOT NULL
+                AND f.type = de.tum.in.www1.artemis.domain.enumeration.FeedbackType.AUTOMATIC
+                AND f.text LIKE 'SCAFeedbackIdentifier:%'
+                AND r.completionDate = (
+                    SELECT max(rr.completionDate)
+                    FROM Result rr
+                    WHERE rr.assessmentType = 'AUTOMATIC'
+                        AND rr.participation.exercise.id = :exerciseId
+                        AND rr.participation.student.id = r.participation.student.id
+                )
+            GROUP BY r.id, f.text
+            """)
+    List<StaticCodeAnalysisIssueCount> countStaticCodeAnalysisFeedbacksOfLatestAutomaticResultsByExerciseId(@Param("exerciseId") long exerciseId);
+
     /**
      * Save the given feedback elements to the database in case they are not yet connected to a result
      *
@@ -0,0 +1,115 @@
+package de.tum.in.www1.artemis.repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.tum.in.www1.artemis.domain.lti.LtiScorePassback;
+import de.tum.in.www1.artemis.domain.lti.LtiScorePassback.Status;
+import de.tum.in.www1.artemis.web.rest.dto.LtiScorePassbackDTO;
+
+/**
+ * Spring Data JPA repository for the outbox of the LTI 1.3 grade passback
+ */
+@Repository
+public interface LtiScorePassbackRepository extends JpaRepository<LtiScorePassback, Long> {
+
+    @Query("""
+            SELECT p
+            FROM LtiScorePassback p
+            WHERE p.status = :status
+                AND p.nextAttemptDate <= :date
+            ORDER BY p.nextAttemptDate
+            """)
+    List<LtiScorePassback> findByStatusAndNextAttemptDateBefore(@Param("status") Status status, @Param("date") ZonedDateTime date, Pageable pageable);
+
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.web.rest.dto.LtiScorePassbackDTO(l.exercise.id, l.user.login, p.status, p.attempts, p.statusDate, p.nextAttemptDate, p.lastError)
+            FROM LtiScorePassback p, LtiResourceLaunch l
+            WHERE p.launchId = l.id
+                AND l.exercise.course.id = :courseId
+            ORDER BY p.statusDate DESC
+            """)
+    List<LtiScorePassbackDTO> findAllByCourseId(@Param("courseId") long courseId);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            UPDATE LtiScorePassback p
+            SET p.participationId = :participationId, p.status = :status, p.attempts = 0, p.nextAttemptDate = :date, p.statusDate = :date, p.lastError = NULL
+            WHERE p.launchId = :launchId
+            """)
+    int updateParticipationIdAndStatusByLaunchId(@Param("launchId") long launchId, @Param("participationId") long participationId, @Param("status") Status status,
+            @Param("date") ZonedDateTime date);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            UPDATE LtiScorePassback p
+            SET p.status = :newStatus, p.statusDate = :date, p.lastError = NULL
+            WHERE p.id = :passbackId
+                AND p.status = :expectedStatus
+            """)
+    int updateStatus(@Param("passbackId") long passbackId, @Param("expectedStatus") Status expectedStatus, @Param("newStatus") Status newStatus,
+            @Param("date") ZonedDateTime date);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            UPDATE LtiScorePassback p
+            SET p.status = :newStatus, p.statusDate = :date, p.attempts = p.attempts + 1, p.nextAttemptDate = :nextAttemptDate, p.lastError = :error
+            WHERE p.id = :passbackId
+                AND p.status = :expectedStatus
+            """)
+    void updateStatusAfterFailedAttempt(@Param("passbackId") long passbackId, @Param("expectedStatus") Status expectedStatus, @Param("newStatus") Status newStatus,
+            @Param("date") ZonedDateTime date, @Param("nextAttemptDate") ZonedDateTime nextAttemptDate, @Param("error") String error);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            UPDATE LtiScorePassback p
+            SET p.status = :newStatus, p.statusDate = :date
+            WHERE p.status = :expectedStatus
+                AND p.statusDate < :statusDate
+            """)
+    void updateStatusByStatusAndStatusDateBefore(@Param("expectedStatus") Status expectedStatus, @Param("statusDate") ZonedDateTime statusDate,
+            @Param("newStatus") Status newStatus, @Param("date") ZonedDateTime date);
+
+    /**
+     * Schedules the transmission of the latest score of the participation for the launch. If a transmission for the launch is still pending, it is replaced, so that
+     * repeated results only lead to one transmission.
+     *
+     * @param launchId        the id of the LTI 1.3 resource launch
+     * @param participationId the id of the participation with the new result
+     */
+    default void enqueue(long launchId, long participationId) {
+        if (updateParticipationIdAndStatusByLaunchId(launchId, participationId, Status.PENDING, ZonedDateTime.now()) > 0) {
+            return;
+        }
+        try {
+            save(new LtiScorePassback(launchId, participationId));
+        }
+        catch (DataIntegrityViolationException ex) {
+            // the passback has been created concurrently for another result
+            updateParticipationIdAndStatusByLaunchId(launchId, participationId, Status.PENDING, ZonedDateTime.now());
+        }
+    }
+
+    /**
+     * Claims the pending passback for the calling thread, so that it is not sent twice
+     *
+     * @param passbackId the id of the passback
+     * @return true if the passback has been claimed, false if it is not pending (anymore)
+     */
+    default boolean claim(long passbackId) {
+        return updateStatus(passbackId, Status.PENDING, Status.SENDING, ZonedDateTime.now()) == 1;
+    }
+}
@@ -1,6 +1,7 @@
 package de.tum.in.www1.artemis.repository;
 
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -40,4 +41,19 @@ public interface PushNotificationDeviceConfigurationRepository extends JpaReposi
     @Modifying
     @Query("DELETE FROM PushNotificationDeviceConfiguration p WHERE p.expirationDate <= now()")
     void deleteExpiredDeviceConfigurations();
+
+    /**
+     * Deletes the device configurations with the given tokens, e.g. because the tokens have been rejected by the relay
+     *
+     * @param tokens     the tokens of the devices
+     * @param deviceType the device type of the tokens. Either Firebase or APNS.
+     */
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            DELETE FROM PushNotificationDeviceConfiguration p
+            WHERE p.token IN :tokens
+                AND p.deviceType = :deviceType
+            """)
+    void deleteByTokenInAndDeviceType(@Param("tokens") Set<String> tokens, @Param("deviceType") PushNotificationDeviceType deviceType);
 }
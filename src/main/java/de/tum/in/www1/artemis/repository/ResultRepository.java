@@ -69,6 +69,27 @@ public interface ResultRepository extends JpaRepository<Result, Long> {
               """)
     List<Result> findLatestAutomaticResultsWithEagerFeedbacksForExercise(@Param("exerciseId") Long exerciseId);
 
+    /**
+     * Counts the latest automatic results of the students in an exercise, see {@link #findLatestAutomaticResultsWithEagerFeedbacksForExercise(Long)}.
+     *
+     * @param exerciseId the id of the exercise
+     * @return the number of latest automatic results
+     */
+    @Query("""
+            SELECT COUNT(r.id)
+            FROM Result r
+            WHERE r.completionDate = (
+                    SELECT max(rr.completionDate)
+                    FROM Result rr
+                    WHERE rr.assessmentType = 'AUTOMATIC'
+                        AND rr.participation.exercise.id = :exerciseId
+                        AND rr.participation.student.id = r.participation.student.id
+                )
+                AND r.participation.exercise.id = :exerciseId
+                AND r.participation.student.id IS NOT NULL
+            """)
+    long countLatestAutomaticResultsForExercise(@Param("exerciseId") long exerciseId);
+
     @EntityGraph(type = LOAD, attributePaths = "feedbacks")
     Optional<Result> findFirstWithFeedbacksByParticipationIdOrderByCompletionDateDesc(Long participationId);
 
@@ -572,17 +572,28 @@ public interface StatisticsRepository extends JpaRepository<User, Long> {
             else {
                 date = (ZonedDateTime) listElement.getDay();
             }
-            Integer index = switch (span) {
-                case DAY -> date.getHour();
-                case WEEK, MONTH -> Math.toIntExact(ChronoUnit.DAYS.between(startDate, date));
-                case QUARTER -> getWeekOfDate(date);
-                case YEAR -> date.getMonth().getValue();
-            };
-            addUserToTimeslot(users, listElement, index);
+            addUserToTimeslot(users, listElement, getTimeSlotIndex(span, date, startDate));
         }
         return mergeUsersPerTimeslotIntoList(users, span, startDate);
     }
 
+    /**
+     * Gets the index of the timeslot (depending on the spanType) the given date belongs to, entries with the same index are counted in the same timeslot
+     *
+     * @param span      DAY, WEEK, MONTH, QUARTER or YEAR
+     * @param date      the date of the entry
+     * @param startDate the startDate of the period
+     * @return the hour, the day since the startDate, the calendar week or the month of the date
+     */
+    default Integer getTimeSlotIndex(SpanType span, ZonedDateTime date, ZonedDateTime startDate) {
+        return switch (span) {
+            case DAY -> date.getHour();
+            case WEEK, MONTH -> Math.toIntExact(ChronoUnit.DAYS.between(startDate, date));
+            case QUARTER -> getWeekOfDate(date);
+            case YEAR -> date.getMonth().getValue();
+        };
+    }
+
     /**
      * This method is normally invoked in a for each loop and adds a user based on the list element in case it does not yet exist in the users map
      *
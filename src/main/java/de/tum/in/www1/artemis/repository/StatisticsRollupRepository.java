@@ -0,0 +1,112 @@
+package de.tum.in.www1.artemis.repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import de.tum.in.www1.artemis.domain.enumeration.GraphType;
+import de.tum.in.www1.artemis.domain.enumeration.StatisticsView;
+import de.tum.in.www1.artemis.domain.statistics.StatisticsRollup;
+import de.tum.in.www1.artemis.domain.statistics.SubmissionActivity;
+
+/**
+ * Spring Data JPA repository for the pre-aggregated buckets of the statistics pages
+ */
+@Repository
+public interface StatisticsRollupRepository extends JpaRepository<StatisticsRollup, Long> {
+
+    @Query("""
+            SELECT r
+            FROM StatisticsRollup r
+            WHERE r.graphType = :graphType
+                AND r.view = :view
+                AND r.entityId = :entityId
+                AND r.granularity = :granularity
+                AND r.bucketStart >= :startDate
+                AND r.bucketStart < :endDate
+            """)
+    List<StatisticsRollup> findBuckets(@Param("graphType") GraphType graphType, @Param("view") StatisticsView view, @Param("entityId") long entityId,
+            @Param("granularity") StatisticsRollup.Granularity granularity, @Param("startDate") ZonedDateTime startDate, @Param("endDate") ZonedDateTime endDate);
+
+    @Query("""
+            SELECT r
+            FROM StatisticsRollup r
+            WHERE r.bucketStart >= :startDate
+                AND r.bucketStart < :endDate
+            """)
+    List<StatisticsRollup> findAllByBucketStartInRange(@Param("startDate") ZonedDateTime startDate, @Param("endDate") ZonedDateTime endDate);
+
+    @Query("""
+            SELECT MIN(r.bucketStart)
+            FROM StatisticsRollup r
+            WHERE r.graphType = :graphType
+                AND r.view = :view
+                AND r.granularity = :granularity
+            """)
+    ZonedDateTime findFirstBucketStart(@Param("graphType") GraphType graphType, @Param("view") StatisticsView view,
+            @Param("granularity") StatisticsRollup.Granularity granularity);
+
+    @Query("""
+            SELECT MAX(r.bucketStart)
+            FROM StatisticsRollup r
+            WHERE r.graphType = :graphType
+                AND r.view = :view
+                AND r.granularity = :granularity
+            """)
+    ZonedDateTime findLastBucketStart(@Param("graphType") GraphType graphType, @Param("view") StatisticsView view,
+            @Param("granularity") StatisticsRollup.Granularity granularity);
+
+    /**
+     * The hourly submission buckets of the Artemis view are written for every compacted hour (also if there were no submissions),
+     * therefore their first bucket is the start of the time range covered by the rollups.
+     *
+     * @return the start of the first compacted hour or null if nothing has been compacted yet
+     */
+    default ZonedDateTime findFirstCompactedHour() {
+        return findFirstBucketStart(GraphType.SUBMISSIONS, StatisticsView.ARTEMIS, StatisticsRollup.Granularity.HOUR);
+    }
+
+    /**
+     * @return the start of the last compacted hour or null if nothing has been compacted yet
+     * @see #findFirstCompactedHour()
+     */
+    default ZonedDateTime findLastCompactedHour() {
+        return findLastBucketStart(GraphType.SUBMISSIONS, StatisticsView.ARTEMIS, StatisticsRollup.Granularity.HOUR);
+    }
+
+    @Query("""
+            SELECT MIN(s.submissionDate)
+            FROM Submission s
+            """)
+    ZonedDateTime findFirstSubmissionDate();
+
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.domain.statistics.SubmissionActivity(s.submissionDate, e.id, c.id, c.testCourse, eg.id)
+            FROM Submission s
+                JOIN s.participation p
+                JOIN p.exercise e
+                LEFT JOIN e.course c
+                LEFT JOIN e.exerciseGroup eg
+            WHERE s.submissionDate >= :startDate
+                AND s.submissionDate < :endDate
+            """)
+    List<SubmissionActivity> findSubmissionActivities(@Param("startDate") ZonedDateTime startDate, @Param("endDate") ZonedDateTime endDate);
+
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.domain.statistics.SubmissionActivity(s.submissionDate, e.id, c.id, c.testCourse, eg.id, u.login)
+            FROM StudentParticipation p
+                JOIN p.submissions s
+                JOIN p.student u
+                JOIN p.exercise e
+                LEFT JOIN e.course c
+                LEFT JOIN e.exerciseGroup eg
+            WHERE s.submissionDate >= :startDate
+                AND s.submissionDate < :endDate
+                AND u.login NOT LIKE '%test%'
+            """)
+    List<SubmissionActivity> findStudentSubmissionActivities(@Param("startDate") ZonedDateTime startDate, @Param("endDate") ZonedDateTime endDate);
+}
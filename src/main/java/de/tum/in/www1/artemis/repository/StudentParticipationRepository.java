@@ -297,6 +297,68 @@ public interface StudentParticipationRepository extends JpaRepository<StudentPar
             """)
     Optional<StudentParticipation> findByIdWithManualResultAndFeedbacks(@Param("participationId") Long participationId);
 
+    /**
+     * Get the ids of the participations of an exercise in ascending order, starting after the given id (keyset pagination).
+     * The size of the returned chunk is determined by the page size of the given pageable, its page number should always be 0.
+     *
+     * @param exerciseId the id of the exercise
+     * @param lastId     the last participation id of the previous chunk, 0 for the first chunk
+     * @param pageable   the pageable defining the chunk size
+     * @return the ids of the next chunk of participations
+     */
+    @Query("""
+            SELECT p.id
+            FROM StudentParticipation p
+            WHERE p.exercise.id = :exerciseId
+                AND p.id > :lastId
+            ORDER BY p.id ASC
+            """)
+    List<Long> findIdsByExerciseIdAndIdGreaterThan(@Param("exerciseId") long exerciseId, @Param("lastId") long lastId, Pageable pageable);
+
+    @Query("""
+            SELECT COUNT(p.id)
+            FROM StudentParticipation p
+            WHERE p.exercise.id = :exerciseId
+            """)
+    long countByExerciseId(@Param("exerciseId") long exerciseId);
+
+    /**
+     * Get the given participations with each latest {@link AssessmentType#AUTOMATIC} result and feedbacks (determined by id).
+     *
+     * @param participationIds the ids of the participations
+     * @return the participations that have such a result
+     */
+    @Query("""
+            SELECT DISTINCT p
+            FROM StudentParticipation p
+                LEFT JOIN FETCH p.results r
+                LEFT JOIN FETCH r.feedbacks
+                LEFT JOIN FETCH r.submission s
+            WHERE p.id IN :participationIds
+                AND (r.id = (SELECT max(pr.id) FROM p.results pr
+                    LEFT JOIN pr.submission prs
+                    WHERE pr.assessmentType = 'AUTOMATIC' AND (prs.type <> 'ILLEGAL' OR prs.type IS NULL)))
+            """)
+    List<StudentParticipation> findByIdsWithLatestAutomaticResultAndFeedbacks(@Param("participationIds") Collection<Long> participationIds);
+
+    /**
+     * Get the given participations with their manual results and feedbacks.
+     *
+     * @param participationIds the ids of the participations
+     * @return the participations that have such a result
+     */
+    @Query("""
+            SELECT DISTINCT p
+            FROM StudentParticipation p
+                LEFT JOIN FETCH p.results r
+                LEFT JOIN FETCH r.feedbacks
+                LEFT JOIN FETCH r.submission s
+            WHERE p.id IN :participationIds
+                AND (s.type <> 'ILLEGAL' OR s.type IS NULL)
+                AND (r.assessmentType = 'MANUAL' OR r.assessmentType = 'SEMI_AUTOMATIC')
+            """)
+    List<StudentParticipation> findByIdsWithManualResultAndFeedbacks(@Param("participationIds") Collection<Long> participationIds);
+
     @Query("""
             SELECT DISTINCT p
             FROM StudentParticipation p
@@ -307,6 +369,16 @@ public interface StudentParticipationRepository extends JpaRepository<StudentPar
             """)
     List<StudentParticipation> findByExerciseIdAndStudentIdWithEagerLegalSubmissions(@Param("exerciseId") Long exerciseId, @Param("studentId") Long studentId);
 
+    @Query("""
+            SELECT DISTINCT p
+            FROM StudentParticipation p
+                LEFT JOIN FETCH p.submissions s
+            WHERE p.exercise.id IN :#{#exerciseIds}
+                AND p.student.id = :#{#studentId}
+                AND (s.type <> 'ILLEGAL' or s.type is null)
+            """)
+    List<StudentParticipation> findByExerciseIdsAndStudentIdWithEagerLegalSubmissions(@Param("exerciseIds") Collection<Long> exerciseIds, @Param("studentId") long studentId);
+
     @Query("""
             SELECT DISTINCT p
             FROM StudentParticipation p
@@ -1,21 +1,102 @@
 package de.tum.in.www1.artemis.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import de.tum.in.www1.artemis.domain.SubmissionVersion;
 
 /**
  * Spring Data repository for the SubmissionVersion entity.
+ * <p>
+ * Versions are stored as full snapshots followed by deltas to the respective previous version (see {@link SubmissionVersion#SNAPSHOT_INTERVAL}),
+ * therefore the content of a version can only be rebuilt together with the versions since the last snapshot before it.
  */
 @Repository
 public interface SubmissionVersionRepository extends JpaRepository<SubmissionVersion, Long> {
 
-    @Query("select version from SubmissionVersion version left join version.submission submission left join submission.versions where submission.id = :#{#submissionId} and version.id = (select max(id) from submission.versions)")
-    Optional<SubmissionVersion> findLatestVersion(@Param("submissionId") long submissionId);
+    /**
+     * Locks the row of the submission until the end of the current transaction. Deltas are computed against the latest version, so concurrent saves of the same
+     * submission (e.g. an auto save and a manual save) have to be serialized, otherwise both would store a delta to the same version.
+     *
+     * @param submissionId the id of the submission whose versions are saved
+     * @return the id of the submission, or an empty optional if it does not exist
+     */
+    @Query(value = "SELECT s.id FROM submission s WHERE s.id = :submissionId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockSubmission(@Param("submissionId") long submissionId);
 
+    @Query("""
+            SELECT version
+            FROM SubmissionVersion version
+            WHERE version.submission.id = :submissionId
+                AND version.id >= (
+                    SELECT MAX(snapshot.id)
+                    FROM SubmissionVersion snapshot
+                    WHERE snapshot.submission.id = :submissionId
+                        AND snapshot.delta = false
+                )
+            ORDER BY version.id
+            """)
+    List<SubmissionVersion> findVersionsSinceLastSnapshot(@Param("submissionId") long submissionId);
+
+    /**
+     * Finds the last full snapshot of the submission and all later versions and rebuilds their content
+     *
+     * @param submissionId the id of the submission
+     * @return the versions since the last snapshot ordered by id, the last one is the latest version of the submission
+     */
+    default List<SubmissionVersion> findVersionsSinceLastSnapshotWithContent(long submissionId) {
+        List<SubmissionVersion> versions = findVersionsSinceLastSnapshot(submissionId);
+        SubmissionVersion previousVersion = null;
+        for (SubmissionVersion version : versions) {
+            version.rebuildContent(previousVersion);
+            previousVersion = version;
+        }
+        return versions;
+    }
+
+    /**
+     * Finds the latest version of the submission with its rebuilt content
+     *
+     * @param submissionId the id of the submission
+     * @return the latest version or an empty optional if the submission has no versions
+     */
+    default Optional<SubmissionVersion> findLatestVersion(long submissionId) {
+        List<SubmissionVersion> versions = findVersionsSinceLastSnapshotWithContent(submissionId);
+        return versions.isEmpty() ? Optional.empty() : Optional.of(versions.get(versions.size() - 1));
+    }
+
+    @Query("""
+            SELECT DISTINCT version.submission.id
+            FROM SubmissionVersion version
+            WHERE version.submission.id > :lastSubmissionId
+            ORDER BY version.submission.id
+            """)
+    List<Long> findSubmissionIdsWithVersionsGreaterThan(@Param("lastSubmissionId") long lastSubmissionId, Pageable pageable);
+
+    @Query("""
+            SELECT version
+            FROM SubmissionVersion version
+            WHERE version.submission.id IN :submissionIds
+            ORDER BY version.submission.id, version.id
+            """)
+    List<SubmissionVersion> findAllBySubmissionIdsOrderById(@Param("submissionIds") Collection<Long> submissionIds);
+
+    @Transactional // ok because of modifying query
+    @Modifying
+    @Query("""
+            UPDATE SubmissionVersion version
+            SET version.storedContent = :storedContent, version.delta = :delta
+            WHERE version.id = :versionId
+            """)
+    // Do not update last modified date
+    void updateStoredContent(@Param("versionId") long versionId, @Param("storedContent") String storedContent, @Param("delta") boolean delta);
 }
@@ -25,6 +25,7 @@ import de.tum.in.www1.artemis.domain.Organization;
 import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.domain.enumeration.SortingOrder;
 import de.tum.in.www1.artemis.security.Role;
+import de.tum.in.www1.artemis.security.RequestScopedUserCache;
 import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.dto.UserDTO;
 import de.tum.in.www1.artemis.web.rest.dto.UserPageableSearchDTO;
@@ -83,6 +84,15 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     @EntityGraph(type = LOAD, attributePaths = { "groups", "authorities" })
     Set<User> findAllWithGroupsAndAuthoritiesByIdIn(Set<Long> ids);
 
+    @EntityGraph(type = LOAD, attributePaths = { "groups", "authorities" })
+    Set<User> findAllWithGroupsAndAuthoritiesByRegistrationNumberIn(Set<String> registrationNumbers);
+
+    @EntityGraph(type = LOAD, attributePaths = { "groups", "authorities" })
+    Set<User> findAllWithGroupsAndAuthoritiesByLoginIn(Set<String> logins);
+
+    @EntityGraph(type = LOAD, attributePaths = { "groups", "authorities" })
+    Set<User> findAllWithGroupsAndAuthoritiesByEmailIn(Set<String> emails);
+
     @EntityGraph(type = LOAD, attributePaths = { "groups", "authorities", "organizations" })
     Optional<User> findOneWithGroupsAndAuthoritiesAndOrganizationsById(Long id);
 
@@ -379,13 +389,14 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
 
     /**
      * Get user with user groups and authorities of currently logged-in user
+     * Note: within a REST request, the user is only loaded once from the database (see {@link RequestScopedUserCache})
      *
      * @return currently logged-in user
      */
     @NotNull
     default User getUserWithGroupsAndAuthorities() {
         String currentUserLogin = getCurrentUserLogin();
-        Optional<User> user = findOneWithGroupsAndAuthoritiesByLogin(currentUserLogin);
+        Optional<User> user = RequestScopedUserCache.get(currentUserLogin, this::findOneWithGroupsAndAuthoritiesByLogin);
         return unwrapOptionalUser(user, currentUserLogin);
     }
 
@@ -429,13 +440,14 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
 
     /**
      * Get user with user groups and authorities with the username (i.e. user.getLogin() or principal.getName())
+     * Note: within a REST request, the user is only loaded once from the database (see {@link RequestScopedUserCache})
      *
      * @param username the username of the user who should be retrieved from the database
      * @return the user that belongs to the given principal with eagerly loaded groups and authorities
      */
     @NotNull
     default User getUserWithGroupsAndAuthorities(@NotNull String username) {
-        Optional<User> user = findOneWithGroupsAndAuthoritiesByLogin(username);
+        Optional<User> user = RequestScopedUserCache.get(username, this::findOneWithGroupsAndAuthoritiesByLogin);
         return unwrapOptionalUser(user, username);
     }
 
@@ -50,7 +50,8 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
                                 .and(getOwnSpecification(postContextFilter.getFilterToOwn(), userId)))
                         .and(getAnsweredOrReactedSpecification(postContextFilter.getFilterToAnsweredOrReacted(), userId))
                         .and(getUnresolvedSpecification(postContextFilter.getFilterToUnresolved()))
-                        .and(getSortSpecification(pagingEnabled, postContextFilter.getPostSortCriterion(), postContextFilter.getSortingOrder())));
+                        .and(getSortSpecification(pagingEnabled, postContextFilter.getPostSortCriterion(), postContextFilter.getSortingOrder()))
+                        .and(getSearchRankingSpecification(pagingEnabled, postContextFilter.getSearchText())));
 
         if (pagingEnabled) {
             return findAll(specification, pageable);
@@ -92,6 +93,15 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
             """)
     List<Post> findPostsByPlagiarismCaseId(@Param("plagiarismCaseId") Long plagiarismCaseId);
 
+    /**
+     * Loads the posts and messages with ascending ids page by page, e.g. to (re-)build the search index of all posts
+     *
+     * @param lastId   the largest id of the previous page
+     * @param pageable the size of the page
+     * @return the next posts ordered by id
+     */
+    List<Post> findByIdGreaterThanOrderByIdAsc(Long lastId, Pageable pageable);
+
     default Post findPostByIdElseThrow(Long postId) throws EntityNotFoundException {
         return findById(postId).filter(post -> post.getConversation() == null).orElseThrow(() -> new EntityNotFoundException("Post", postId));
     }
@@ -2,12 +2,12 @@ package de.tum.in.www1.artemis.repository.specs;
 
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.JoinType;
-import javax.persistence.criteria.Predicate;
 
 import org.springframework.data.jpa.domain.Specification;
 
 import de.tum.in.www1.artemis.domain.metis.AnswerPost_;
 import de.tum.in.www1.artemis.domain.metis.Post;
+import de.tum.in.www1.artemis.domain.metis.PostSearchToken;
 import de.tum.in.www1.artemis.domain.metis.Post_;
 import de.tum.in.www1.artemis.domain.metis.conversation.Conversation_;
 
@@ -33,7 +33,8 @@ public class MessageSpecs {
 
     /**
      * Specification which filters Messages according to a search string in a match-all-manner
-     * message is only kept if the search string (which is not a #id pattern) is included in the message content (all strings lowercased)
+     * message is only kept if the search string is a #id pattern matching the message id or if every word of the search string is the prefix of a word in the message content
+     * (all strings lowercased). The words are looked up in the search index of the posts (see {@link PostSearchToken}).
      *
      * @param searchText Text to be searched within messages
      * @return specification used to chain DB operations
@@ -50,11 +51,7 @@ public class MessageSpecs {
             }
             else {
                 // regular search on content
-                Expression<String> searchTextLiteral = criteriaBuilder.literal("%" + searchText.toLowerCase() + "%");
-
-                Predicate searchInMessageContent = criteriaBuilder.like(criteriaBuilder.lower(root.get(Post_.CONTENT)), searchTextLiteral);
-
-                return criteriaBuilder.and(searchInMessageContent);
+                return PostSpecs.matchesAllSearchTerms(root, query, criteriaBuilder, PostSearchToken.tokenize(searchText));
             }
         });
     }
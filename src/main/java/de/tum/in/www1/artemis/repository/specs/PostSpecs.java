@@ -162,7 +162,8 @@ public class PostSpecs {
 
     /**
      * Specification which filters Posts according to a search string in a match-all-manner
-     * post is only kept if the search string (which is not a #id pattern) is included in either the post title, content or tag (all strings lowercased)
+     * post is only kept if the search string is a #id pattern matching the post id or if every word of the search string is the prefix of a word in the post title, content or
+     * tags (all strings lowercased). The words are looked up in the search index of the posts (see {@link PostSearchToken}).
      *
      * @param searchText Text to be searched within posts
      * @return specification used to chain DB operations
@@ -179,17 +180,68 @@ public class PostSpecs {
             }
             else {
                 // regular search on content, title, and tags
-                Expression<String> searchTextLiteral = criteriaBuilder.literal("%" + searchText.toLowerCase() + "%");
-
-                Predicate searchInPostTitle = criteriaBuilder.like(criteriaBuilder.lower(root.get(Post_.TITLE)), searchTextLiteral);
-                Predicate searchInPostContent = criteriaBuilder.like(criteriaBuilder.lower(root.get(Post_.CONTENT)), searchTextLiteral);
-                Predicate searchInPostTags = criteriaBuilder.like(criteriaBuilder.lower(criteriaBuilder.concat(root.join(Post_.TAGS, JoinType.LEFT), " ")), searchTextLiteral);
+                return matchesAllSearchTerms(root, query, criteriaBuilder, PostSearchToken.tokenize(searchText));
+            }
+        });
+    }
 
-                return criteriaBuilder.or(searchInPostTitle, searchInPostContent, searchInPostTags);
+    /**
+     * Specification which ranks the Posts matching a search string (only for Course Discussion page)
+     * posts with more and heavier weighted matches (title before tags before content) come first, the remaining sort order is used for posts with the same relevance
+     * Note: requires the posts to be grouped by their id, see {@link #distinct()}
+     *
+     * @param pagingEnabled whether to sort the fetched Posts or not
+     * @param searchText    Text to be searched within posts
+     * @return specification used to chain DB operations
+     */
+    public static Specification<Post> getSearchRankingSpecification(boolean pagingEnabled, String searchText) {
+        return ((root, query, criteriaBuilder) -> {
+            // the count query of a page does not have to be sorted
+            if (!pagingEnabled || searchText == null || searchText.startsWith("#") || Long.class == query.getResultType()) {
+                return null;
             }
+            List<String> searchTerms = PostSearchToken.tokenize(searchText);
+            if (searchTerms.isEmpty()) {
+                return null;
+            }
+
+            SetJoin<Post, PostSearchToken> matchingTokens = root.join(Post_.searchTokens, JoinType.LEFT);
+            matchingTokens.on(criteriaBuilder
+                    .or(searchTerms.stream().map(searchTerm -> criteriaBuilder.like(matchingTokens.get(PostSearchToken_.token), searchTerm + "%")).toArray(Predicate[]::new)));
+
+            List<Order> orderList = new ArrayList<>();
+            orderList.add(criteriaBuilder.desc(criteriaBuilder.sum(matchingTokens.get(PostSearchToken_.weight))));
+            orderList.addAll(query.getOrderList());
+            query.orderBy(orderList);
+            return null;
         });
     }
 
+    /**
+     * Creates a predicate that only keeps posts for which every search term is the prefix of a word in the search index.
+     * Every term is looked up separately with an uncorrelated subquery, which allows the database to use the index on the tokens for the prefix search.
+     *
+     * @param root            the posts to filter
+     * @param query           the query the predicate is used in
+     * @param criteriaBuilder the criteria builder of the query
+     * @param searchTerms     normalized search terms (see {@link PostSearchToken#tokenize(String)})
+     * @return the predicate, which does not match any post if there are no search terms
+     */
+    static Predicate matchesAllSearchTerms(Root<Post> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder, List<String> searchTerms) {
+        if (searchTerms.isEmpty()) {
+            return criteriaBuilder.disjunction();
+        }
+        List<Predicate> predicates = new ArrayList<>();
+        for (String searchTerm : searchTerms) {
+            Subquery<Long> matchingPosts = query.subquery(Long.class);
+            Root<Post> indexedPost = matchingPosts.from(Post.class);
+            SetJoin<Post, PostSearchToken> searchToken = indexedPost.join(Post_.searchTokens);
+            matchingPosts.select(indexedPost.<Long>get(Post_.ID)).where(criteriaBuilder.like(searchToken.get(PostSearchToken_.token), searchTerm + "%"));
+            predicates.add(root.get(Post_.ID).in(matchingPosts));
+        }
+        return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+    }
+
     /**
      * Specification which sorts Posts (only for Course Discussion page)
      * 1. criterion: displayPriority is PINNED && Announcement -> 1. precedence ASC
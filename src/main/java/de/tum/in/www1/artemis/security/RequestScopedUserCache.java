@@ -0,0 +1,92 @@
+package de.tum.in.www1.artemis.security;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import de.tum.in.www1.artemis.domain.User;
+
+/**
+ * Memoizes the users (with groups and authorities) that have been loaded during a single REST request.
+ * <p>
+ * Many endpoints resolve the current user several times, directly and through the helpers of the {@link de.tum.in.www1.artemis.service.AuthorizationCheckService}.
+ * The cache is only active between {@link #enable(HttpServletRequest)} and {@link #disable(HttpServletRequest)}, which are invoked by an interceptor around every handled
+ * request (see {@link de.tum.in.www1.artemis.config.RequestScopedUserCacheConfiguration}). Outside of a request (e.g. scheduled tasks, websocket messages or threads spawned
+ * by a request) the users are always loaded from the database.
+ * <p>
+ * The cached entries are evicted whenever a user is saved through the user services, so that changes of the groups or authorities become visible immediately.
+ */
+public final class RequestScopedUserCache {
+
+    private static final String CACHE_ATTRIBUTE = RequestScopedUserCache.class.getName();
+
+    private RequestScopedUserCache() {
+    }
+
+    /**
+     * Activates the cache for the given request
+     *
+     * @param request the request that is about to be handled
+     */
+    public static void enable(HttpServletRequest request) {
+        request.setAttribute(CACHE_ATTRIBUTE, new HashMap<String, User>());
+    }
+
+    /**
+     * Deactivates the cache for the given request and drops all cached users
+     *
+     * @param request the request that has been handled
+     */
+    public static void disable(HttpServletRequest request) {
+        request.removeAttribute(CACHE_ATTRIBUTE);
+    }
+
+    /**
+     * Returns the user with the given login from the cache of the current request or loads it with the given loader and caches it. If no request is active, the loader is
+     * always invoked.
+     *
+     * @param login  the login of the user
+     * @param loader loads the user with groups and authorities from the database
+     * @return the (cached) user, or an empty optional if the loader could not find the user
+     */
+    public static Optional<User> get(String login, Function<String, Optional<User>> loader) {
+        Map<String, User> cache = getCache();
+        if (cache == null) {
+            return loader.apply(login);
+        }
+        User cachedUser = cache.get(login);
+        if (cachedUser != null) {
+            return Optional.of(cachedUser);
+        }
+        Optional<User> user = loader.apply(login);
+        user.ifPresent(loadedUser -> cache.put(login, loadedUser));
+        return user;
+    }
+
+    /**
+     * Removes the user with the given login from the cache of the current request, e.g. because its groups or authorities changed
+     *
+     * @param login the login of the user
+     */
+    public static void evict(String login) {
+        Map<String, User> cache = getCache();
+        if (cache != null && login != null) {
+            cache.remove(login);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, User> getCache() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return null;
+        }
+        return (Map<String, User>) requestAttributes.getAttribute(CACHE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+}
@@ -4,6 +4,7 @@ import java.net.URI;
 import java.security.KeyPair;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +16,7 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JOSEObjectType;
@@ -41,6 +43,15 @@ public class Lti13TokenRetriever {
 
     private static final int JWT_LIFETIME = 60;
 
+    // access tokens are refreshed shortly before they expire, so that they do not expire while a request is sent
+    private static final int TOKEN_REFRESH_MARGIN = 60;
+
+    // used if the platform does not specify the lifetime of the access token (recommended lifetime according to the LTI specification)
+    private static final int DEFAULT_TOKEN_LIFETIME = 3600;
+
+    // clientRegistrationId + scopes -> access token
+    private final Map<String, AccessToken> cachedTokens = new ConcurrentHashMap<>();
+
     public Lti13TokenRetriever(OAuth2JWKSService keyPairService, RestTemplate restTemplate) {
         this.oAuth2JWKSService = keyPairService;
         this.restTemplate = restTemplate;
@@ -55,6 +66,44 @@ public class Lti13TokenRetriever {
      * @return the access token to be used to authenticate requests to the client's LTI 1.3 platform.
      */
     public String getToken(ClientRegistration clientRegistration, String... scopes) {
+        AccessToken accessToken = requestToken(clientRegistration, scopes);
+        return accessToken != null ? accessToken.value() : null;
+    }
+
+    /**
+     * Like {@link #getToken(ClientRegistration, String...)}, but reuses the access token of previous calls for the same client and scopes until shortly before it
+     * expires. Concurrent calls for the same client and scopes only request one token.
+     *
+     * @param clientRegistration to query a token for
+     * @param scopes             to ask access for
+     * @return the access token to be used to authenticate requests to the client's LTI 1.3 platform.
+     */
+    public String getCachedToken(ClientRegistration clientRegistration, String... scopes) {
+        Objects.requireNonNull(clientRegistration, "You must supply a clientRegistration.");
+        AccessToken accessToken = cachedTokens.compute(getCacheKey(clientRegistration, scopes), (key, cachedToken) -> {
+            if (cachedToken != null && cachedToken.expiresAt().isAfter(Instant.now().plusSeconds(TOKEN_REFRESH_MARGIN))) {
+                return cachedToken;
+            }
+            return requestToken(clientRegistration, scopes);
+        });
+        return accessToken != null ? accessToken.value() : null;
+    }
+
+    /**
+     * Removes the cached access token, e.g. because the platform rejected it before it expired
+     *
+     * @param clientRegistration the client of the token
+     * @param scopes             the scopes of the token
+     */
+    public void evictCachedToken(ClientRegistration clientRegistration, String... scopes) {
+        cachedTokens.remove(getCacheKey(clientRegistration, scopes));
+    }
+
+    private static String getCacheKey(ClientRegistration clientRegistration, String... scopes) {
+        return clientRegistration.getRegistrationId() + " " + String.join(" ", scopes);
+    }
+
+    private AccessToken requestToken(ClientRegistration clientRegistration, String... scopes) {
         log.info("Trying to retrieve access token for client");
 
         Objects.requireNonNull(clientRegistration, "You must supply a clientRegistration.");
@@ -77,7 +126,9 @@ public class Lti13TokenRetriever {
             if (exchange.getBody() == null) {
                 return null;
             }
-            return JsonParser.parseString(exchange.getBody()).getAsJsonObject().get("access_token").getAsString();
+            JsonObject response = JsonParser.parseString(exchange.getBody()).getAsJsonObject();
+            int lifetime = response.has("expires_in") ? response.get("expires_in").getAsInt() : DEFAULT_TOKEN_LIFETIME;
+            return new AccessToken(response.get("access_token").getAsString(), Instant.now().plusSeconds(lifetime));
         }
         catch (HttpClientErrorException e) {
             log.error("Could not retrieve access token for client {}: {}", clientRegistration.getClientId(), e.getMessage());
@@ -121,4 +172,7 @@ public class Lti13TokenRetriever {
         formData.add("client_assertion", signedJWT.serialize());
         return formData;
     }
+
+    private record AccessToken(String value, Instant expiresAt) {
+    }
 }
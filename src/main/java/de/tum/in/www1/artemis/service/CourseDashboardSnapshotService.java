@@ -0,0 +1,286 @@
+package de.tum.in.www1.artemis.service;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.participation.Participation;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.repository.ExamRepository;
+import de.tum.in.www1.artemis.repository.ExerciseRepository;
+import de.tum.in.www1.artemis.repository.TeamRepository;
+import de.tum.in.www1.artemis.web.rest.dto.CourseForDashboardDTO;
+import de.tum.in.www1.artemis.web.rest.errors.InternalServerErrorException;
+
+/**
+ * Stores the serialized {@link CourseForDashboardDTO} of each student and course, so that repeated loads of the course dashboard do not have to load the course,
+ * the participations and the results again and recalculate the scores.
+ * <p>
+ * Each snapshot depends on a shared part (the course with its exercises, lectures, exams, competencies and tutorial groups) and on a per-student part (the participations,
+ * submissions, results and plagiarism cases of the student and the student's teams). Both parts have a version stamp that is changed by the entity listeners whenever
+ * the underlying data changes (see {@link de.tum.in.www1.artemis.service.listeners.CourseDashboardListener}). A snapshot is only served if none of the stamps it has been
+ * built with has changed, if the groups of the user are unchanged, and if no date of the course (e.g. a release or due date) has passed since it has been built.
+ * <p>
+ * The shared part is also stored on its own (the course with its lectures and exercises as loaded from the database, before it is filtered for the user), so that
+ * rebuilding the snapshots of all students after a change of the course content only loads the course once.
+ * <p>
+ * The stamps are changed after the commit of the transaction that changed the data, because a snapshot built by a concurrent request before the commit would otherwise
+ * contain the old data with the new stamps. Each stamp is only changed once per transaction.
+ */
+@Service
+public class CourseDashboardSnapshotService {
+
+    private final Logger log = LoggerFactory.getLogger(CourseDashboardSnapshotService.class);
+
+    // upper bound for changes that are not covered by the invalidation events, e.g. released attachments or the competency progress
+    static final Duration MAX_SNAPSHOT_AGE = Duration.ofMinutes(5);
+
+    private static final Duration VERSION_TIME_TO_LIVE = Duration.ofDays(1);
+
+    private final ObjectMapper objectMapper;
+
+    private final ExerciseRepository exerciseRepository;
+
+    private final ExamRepository examRepository;
+
+    private final TeamRepository teamRepository;
+
+    // "course-{id}", "user-{id}" or "team-{id}" -> random stamp that is changed on every invalidation, a missing stamp counts as 0
+    private final IMap<String, Long> versions;
+
+    // "{courseId}-{userId}" -> snapshot of the course dashboard of the user
+    private final IMap<String, Snapshot> snapshots;
+
+    // courseId -> snapshot of the course with its lectures and exercises, which is the same for all users
+    private final IMap<Long, CourseSnapshot> courseSnapshots;
+
+    /**
+     * The serialized dashboard of a student in a course
+     *
+     * @param body        the dashboard as JSON
+     * @param etag        the entity tag of the body
+     * @param versions    the version stamps of the shared and the per-student parts at the time the dashboard has been built
+     * @param permissions the groups and authorities of the user at the time the dashboard has been built
+     * @param validUntil  the date until which the dashboard can be used
+     */
+    public record Snapshot(byte[] body, String etag, Map<String, Long> versions, Set<String> permissions, ZonedDateTime validUntil) implements Serializable {
+    }
+
+    public CourseDashboardSnapshotService(ObjectMapper objectMapper, ExerciseRepository exerciseRepository, ExamRepository examRepository, TeamRepository teamRepository,
+            HazelcastInstance hazelcastInstance) {
+        this.objectMapper = objectMapper;
+        this.exerciseRepository = exerciseRepository;
+        this.examRepository = examRepository;
+        this.teamRepository = teamRepository;
+        this.versions = hazelcastInstance.getMap("courseDashboardVersions");
+        this.snapshots = hazelcastInstance.getMap("courseDashboardSnapshots");
+        this.courseSnapshots = hazelcastInstance.getMap("courseDashboardCourseSnapshots");
+    }
+
+    /**
+     * Returns the snapshot of the dashboard of the user in the course if it is still valid, otherwise builds and stores a new one.
+     * The supplier is also responsible for the access check, no snapshot is stored if it throws an exception.
+     *
+     * @param courseId          the id of the course
+     * @param user              the user with groups and authorities
+     * @param refresh           whether the user explicitly requested a refresh, which skips the stored snapshot
+     * @param dashboardSupplier builds the dashboard if there is no valid snapshot
+     * @return the valid snapshot
+     */
+    public Snapshot getOrCreateSnapshot(long courseId, User user, boolean refresh, Supplier<CourseForDashboardDTO> dashboardSupplier) {
+        final String snapshotKey = courseId + "-" + user.getId();
+        final ZonedDateTime now = ZonedDateTime.now();
+        final Set<String> permissions = getPermissions(user);
+        if (!refresh) {
+            Snapshot snapshot = snapshots.get(snapshotKey);
+            if (snapshot != null && now.isBefore(snapshot.validUntil()) && permissions.equals(snapshot.permissions())
+                    && snapshot.versions().equals(getVersions(snapshot.versions().keySet()))) {
+                return snapshot;
+            }
+        }
+
+        // the stamps are read before the dashboard is built, so that changes during the build invalidate the new snapshot
+        Set<String> versionKeys = new HashSet<>();
+        versionKeys.add(courseKey(courseId));
+        versionKeys.add(userKey(user.getId()));
+        teamRepository.findAllByCourseIdAndUserIdOrderByIdDesc(courseId, user.getId()).forEach(team -> versionKeys.add(teamKey(team.getId())));
+        Map<String, Long> currentVersions = getVersions(versionKeys);
+
+        CourseForDashboardDTO dashboard = dashboardSupplier.get();
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(dashboard);
+        }
+        catch (JsonProcessingException ex) {
+            throw new InternalServerErrorException("Could not serialize the dashboard of course " + courseId + ": " + ex.getMessage());
+        }
+        ZonedDateTime validUntil = getValidUntil(dashboard.course(), now);
+        Snapshot snapshot = new Snapshot(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"", currentVersions, permissions, validUntil);
+        snapshots.set(snapshotKey, snapshot, Math.max(1, Duration.between(now, validUntil).toMillis()), TimeUnit.MILLISECONDS);
+        return snapshot;
+    }
+
+    /**
+     * Returns the course with its lectures and exercises from the shared snapshot if it is still valid, otherwise loads and stores it.
+     * Each call returns a new copy, so the caller can filter the lectures and exercises for the user.
+     *
+     * @param courseId       the id of the course
+     * @param courseSupplier loads the course with its lectures and exercises if there is no valid snapshot
+     * @return the course with its lectures and exercises, not filtered for any user
+     */
+    public Course getCourseWithLecturesAndExercises(long courseId, Supplier<Course> courseSupplier) {
+        // the stamp is read before the course is loaded, so that changes during the load invalidate the new snapshot
+        long version = Objects.requireNonNullElse(versions.get(courseKey(courseId)), 0L);
+        CourseSnapshot courseSnapshot = courseSnapshots.get(courseId);
+        if (courseSnapshot != null && courseSnapshot.version() == version) {
+            return courseSnapshot.course();
+        }
+        Course course = courseSupplier.get();
+        // changes that raise no event (e.g. released attachments) are covered by the time to live
+        courseSnapshots.set(courseId, new CourseSnapshot(course, version), MAX_SNAPSHOT_AGE.toMillis(), TimeUnit.MILLISECONDS);
+        return course;
+    }
+
+    /**
+     * Invalidates the snapshots of all users of the course, e.g. because an exercise, lecture or exam of the course has changed
+     *
+     * @param courseId the id of the course
+     */
+    public void invalidateCourse(long courseId) {
+        invalidate(courseKey(courseId));
+    }
+
+    /**
+     * Invalidates the snapshots of the user in all courses, e.g. because the user has received a new result
+     *
+     * @param userId the id of the user
+     */
+    public void invalidateUser(long userId) {
+        invalidate(userKey(userId));
+    }
+
+    /**
+     * Invalidates the snapshots of all members of the team, e.g. because the team has received a new result
+     *
+     * @param teamId the id of the team
+     */
+    public void invalidateTeam(long teamId) {
+        invalidate(teamKey(teamId));
+    }
+
+    /**
+     * Invalidates the snapshots of the participant of the participation
+     *
+     * @param participation the participation that has changed
+     */
+    public void invalidateParticipation(StudentParticipation participation) {
+        participation.getStudent().ifPresent(student -> invalidateUser(student.getId()));
+        participation.getTeam().ifPresent(team -> invalidateTeam(team.getId()));
+    }
+
+    private void invalidate(String versionKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changeVersion(versionKey);
+            return;
+        }
+        // the listeners are called for each changed entity, so the keys of the transaction are collected and each stamp is only changed once after the commit
+        PendingInvalidations pendingInvalidations = TransactionSynchronizationManager.getSynchronizations().stream().filter(PendingInvalidations.class::isInstance)
+                .map(PendingInvalidations.class::cast).filter(synchronization -> synchronization.service == this).findFirst().orElseGet(() -> {
+                    PendingInvalidations synchronization = new PendingInvalidations(this);
+                    TransactionSynchronizationManager.registerSynchronization(synchronization);
+                    return synchronization;
+                });
+        pendingInvalidations.versionKeys.add(versionKey);
+    }
+
+    private void changeVersion(String versionKey) {
+        versions.set(versionKey, ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE), VERSION_TIME_TO_LIVE.toMillis(), TimeUnit.MILLISECONDS);
+        log.debug("Invalidated the course dashboard snapshots of {}", versionKey);
+    }
+
+    /**
+     * The version keys invalidated in the current transaction, which are changed after the commit (and dropped if the transaction is rolled back)
+     */
+    private static class PendingInvalidations implements TransactionSynchronization {
+
+        private final CourseDashboardSnapshotService service;
+
+        private final Set<String> versionKeys = new LinkedHashSet<>();
+
+        private PendingInvalidations(CourseDashboardSnapshotService service) {
+            this.service = service;
+        }
+
+        @Override
+        public void afterCommit() {
+            versionKeys.forEach(service::changeVersion);
+        }
+    }
+
+    private Map<String, Long> getVersions(Set<String> versionKeys) {
+        Map<String, Long> storedVersions = versions.getAll(versionKeys);
+        return versionKeys.stream().collect(Collectors.toMap(key -> key, key -> storedVersions.getOrDefault(key, 0L)));
+    }
+
+    private static Set<String> getPermissions(User user) {
+        Set<String> permissions = new HashSet<>(user.getGroups());
+        user.getAuthorities().forEach(authority -> permissions.add(authority.getName()));
+        return permissions;
+    }
+
+    /**
+     * The dashboard changes when one of the dates of the course passes, e.g. results are only shown after the assessment due date and exercises are only shown after their
+     * release date. The snapshot is therefore only valid until the next of these dates (but at most for {@link #MAX_SNAPSHOT_AGE}).
+     */
+    private ZonedDateTime getValidUntil(Course course, ZonedDateTime now) {
+        Stream<ZonedDateTime> exerciseDates = course.getExercises().stream().flatMap(exercise -> {
+            Stream<ZonedDateTime> dates = Stream.of(exercise.getReleaseDate(), exercise.getStartDate(), exercise.getDueDate(), exercise.getAssessmentDueDate(),
+                    exercise.getExampleSolutionPublicationDate());
+            if (Hibernate.isInitialized(exercise.getStudentParticipations())) {
+                dates = Stream.concat(dates, exercise.getStudentParticipations().stream().map(Participation::getIndividualDueDate));
+            }
+            return dates;
+        });
+        Stream<ZonedDateTime> examDates = course.getExams().stream().flatMap(exam -> Stream.of(exam.getVisibleDate(), exam.getStartDate(), exam.getEndDate(),
+                exam.getPublishResultsDate(), exam.getExamStudentReviewStart(), exam.getExamStudentReviewEnd()));
+        // exercises and exams that are not yet visible are not part of the dashboard, so their dates have to be loaded separately
+        Stream<ZonedDateTime> hiddenDates = Stream.of(exerciseRepository.findNextReleaseDateByCourseId(course.getId(), now),
+                examRepository.findNextVisibleDateByCourseId(course.getId(), now)).flatMap(Optional::stream);
+
+        ZonedDateTime maxValidUntil = now.plus(MAX_SNAPSHOT_AGE);
+        return Stream.of(exerciseDates, examDates, hiddenDates).flatMap(dates -> dates).filter(Objects::nonNull).filter(date -> date.isAfter(now))
+                .filter(date -> date.isBefore(maxValidUntil)).min(Comparator.naturalOrder()).orElse(maxValidUntil);
+    }
+
+    private static String courseKey(long courseId) {
+        return "course-" + courseId;
+    }
+
+    private static String userKey(long userId) {
+        return "user-" + userId;
+    }
+
+    private static String teamKey(long teamId) {
+        return "team-" + teamId;
+    }
+}
@@ -146,6 +146,8 @@ public class CourseService {
 
     private final ConversationRepository conversationRepository;
 
+    private final CourseDashboardSnapshotService courseDashboardSnapshotService;
+
     public CourseService(Environment env, ArtemisAuthenticationProvider artemisAuthenticationProvider, CourseRepository courseRepository, ExerciseService exerciseService,
             ExerciseDeletionService exerciseDeletionService, AuthorizationCheckService authCheckService, UserRepository userRepository, LectureService lectureService,
             GroupNotificationRepository groupNotificationRepository, ExerciseGroupRepository exerciseGroupRepository, AuditEventRepository auditEventRepository,
@@ -156,7 +158,7 @@ public class CourseService {
             ComplaintResponseRepository complaintResponseRepository, SubmissionRepository submissionRepository, ProgrammingExerciseRepository programmingExerciseRepository,
             ExerciseRepository exerciseRepository, ParticipantScoreRepository participantScoreRepository, TutorialGroupRepository tutorialGroupRepository,
             TutorialGroupService tutorialGroupService, TutorialGroupsConfigurationRepository tutorialGroupsConfigurationRepository,
-            PlagiarismCaseRepository plagiarismCaseRepository, ConversationRepository conversationRepository) {
+            PlagiarismCaseRepository plagiarismCaseRepository, ConversationRepository conversationRepository, CourseDashboardSnapshotService courseDashboardSnapshotService) {
         this.env = env;
         this.artemisAuthenticationProvider = artemisAuthenticationProvider;
         this.courseRepository = courseRepository;
@@ -193,6 +195,7 @@ public class CourseService {
         this.tutorialGroupsConfigurationRepository = tutorialGroupsConfigurationRepository;
         this.plagiarismCaseRepository = plagiarismCaseRepository;
         this.conversationRepository = conversationRepository;
+        this.courseDashboardSnapshotService = courseDashboardSnapshotService;
     }
 
     /**
@@ -247,9 +250,13 @@ public class CourseService {
      * @return the course including exercises, lectures, exams, competencies and tutorial groups (filtered for given user)
      */
     public Course findOneWithExercisesAndLecturesAndExamsAndCompetenciesAndTutorialGroupsForUser(Long courseId, User user, boolean refresh) {
-        Course course = courseRepository.findByIdWithLecturesElseThrow(courseId);
-        // Load exercises with categories separately because this is faster than loading them with lectures and exam above (the query would become too complex)
-        course.setExercises(exerciseRepository.findByCourseIdWithCategories(course.getId()));
+        // the course with lectures and exercises is the same for all users, so it is shared between the dashboard snapshots of the users
+        Course course = courseDashboardSnapshotService.getCourseWithLecturesAndExercises(courseId, () -> {
+            Course courseWithLectures = courseRepository.findByIdWithLecturesElseThrow(courseId);
+            // Load exercises with categories separately because this is faster than loading them with lectures and exam above (the query would become too complex)
+            courseWithLectures.setExercises(exerciseRepository.findByCourseIdWithCategories(courseId));
+            return courseWithLectures;
+        });
         course.setExercises(exerciseService.filterExercisesForCourse(course, user));
         exerciseService.loadExerciseDetailsIfNecessary(course, user);
         course.setExams(examRepository.findByCourseIdsForUser(Set.of(course.getId()), user.getId(), user.getGroups(), ZonedDateTime.now()));
@@ -477,14 +484,12 @@ public class CourseService {
         var course = courseRepository.findByIdElseThrow(courseId);
         String courseGroupName = course.defineCourseGroupName(courseGroup);
         Role courseGroupRole = Role.fromString(courseGroup);
+        List<Optional<User>> foundStudents = userService.findUsersAndAddToCourse(studentDTOs, StudentDTO::getRegistrationNumber, StudentDTO::getLogin, StudentDTO::getEmail,
+                courseGroupName, courseGroupRole);
         List<StudentDTO> notFoundStudentsDTOs = new ArrayList<>();
-        for (var studentDto : studentDTOs) {
-            var registrationNumber = studentDto.getRegistrationNumber();
-            var login = studentDto.getLogin();
-            var email = studentDto.getEmail();
-            Optional<User> optionalStudent = userService.findUserAndAddToCourse(registrationNumber, courseGroupName, courseGroupRole, login, email);
-            if (optionalStudent.isEmpty()) {
-                notFoundStudentsDTOs.add(studentDto);
+        for (int i = 0; i < studentDTOs.size(); i++) {
+            if (foundStudents.get(i).isEmpty()) {
+                notFoundStudentsDTOs.add(studentDTOs.get(i));
             }
         }
 
@@ -89,6 +89,20 @@ public class ModelingSubmissionService extends SubmissionService {
      * @return the saved modelingSubmission entity
      */
     public ModelingSubmission handleModelingSubmission(ModelingSubmission modelingSubmission, ModelingExercise exercise, User user) {
+        return handleModelingSubmission(modelingSubmission, exercise, user, ZonedDateTime.now());
+    }
+
+    /**
+     * Saves the given submission whose changes have been made at the given date. The due date of course exercises is checked against this date, e.g. for the merged edits
+     * of a team, which are only saved once the team has stopped editing.
+     *
+     * @param modelingSubmission the submission that should be saved
+     * @param exercise           the exercise the submission belongs to
+     * @param user               the user who initiated the save
+     * @param editDate           the date of the last change of the submission, it is used as submission date
+     * @return the saved modelingSubmission entity
+     */
+    public ModelingSubmission handleModelingSubmission(ModelingSubmission modelingSubmission, ModelingExercise exercise, User user, ZonedDateTime editDate) {
         final var optionalParticipation = participationService.findOneByExerciseAndStudentLoginWithEagerSubmissionsAnyState(exercise, user.getLogin());
         if (optionalParticipation.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.FAILED_DEPENDENCY, "No participation found for " + user.getLogin() + " in exercise " + exercise.getId());
@@ -96,7 +110,8 @@ public class ModelingSubmissionService extends SubmissionService {
         final var participation = optionalParticipation.get();
         final var dueDate = ExerciseDateService.getDueDate(participation);
         // Important: for exam exercises, we should NOT check the exercise due date, we only check if for course exercises
-        if (dueDate.isPresent() && exerciseDateService.isAfterDueDate(participation) && participation.getInitializationDate().isBefore(dueDate.get())) {
+        final boolean isAfterDueDate = exercise.isExamExercise() ? exerciseDateService.isAfterDueDate(participation) : dueDate.map(editDate::isAfter).orElse(false);
+        if (dueDate.isPresent() && isAfterDueDate && participation.getInitializationDate().isBefore(dueDate.get())) {
             throw new AccessForbiddenException();
         }
 
@@ -105,10 +120,10 @@ public class ModelingSubmissionService extends SubmissionService {
 
         // update submission properties
         // NOTE: from now on we always set submitted to true to prevent problems here! Except for late submissions of course exercises to prevent issues in auto-save
-        if (exercise.isExamExercise() || exerciseDateService.isBeforeDueDate(participation)) {
+        if (exercise.isExamExercise() || !isAfterDueDate) {
             modelingSubmission.setSubmitted(true);
         }
-        modelingSubmission = save(modelingSubmission, exercise, user, participation);
+        modelingSubmission = save(modelingSubmission, exercise, user, participation, editDate);
         return modelingSubmission;
     }
 
@@ -119,10 +134,12 @@ public class ModelingSubmissionService extends SubmissionService {
      * @param participation      the participation the submission belongs to
      * @param modelingExercise   the exercise the submission belongs to
      * @param user               the user who initiated the save
+     * @param submissionDate     the date of the submission
      * @return the textSubmission entity that was saved to the database
      */
-    private ModelingSubmission save(ModelingSubmission modelingSubmission, ModelingExercise modelingExercise, User user, StudentParticipation participation) {
-        modelingSubmission.setSubmissionDate(ZonedDateTime.now());
+    private ModelingSubmission save(ModelingSubmission modelingSubmission, ModelingExercise modelingExercise, User user, StudentParticipation participation,
+            ZonedDateTime submissionDate) {
+        modelingSubmission.setSubmissionDate(submissionDate);
         modelingSubmission.setType(SubmissionType.MANUAL);
         participation.addSubmission(modelingSubmission);
 
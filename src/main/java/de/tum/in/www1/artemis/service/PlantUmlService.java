@@ -1,22 +1,33 @@
 package de.tum.in.www1.artemis.service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import de.tum.in.www1.artemis.web.rest.errors.InternalServerErrorException;
 import net.sourceforge.plantuml.FileFormat;
-import net.sourceforge.plantuml.FileFormatOption;
-import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.version.Version;
 
 @Service
 public class PlantUmlService {
@@ -29,8 +40,43 @@ public class PlantUmlService {
 
     private static final Path PATH_TMP_THEME = Paths.get(System.getProperty("java.io.tmpdir"), "artemis-puml-theme");
 
+    // node-local cache of the rendered diagrams, the file names are the hashes of the input
+    private static final Path PATH_TMP_CACHE = Paths.get(System.getProperty("java.io.tmpdir"), "artemis-puml-cache");
+
+    private static final Duration CACHE_RETENTION = Duration.ofDays(30);
+
+    // the PlantUML jar used by the render processes, extracted from the application archive if necessary
+    private static final Path PATH_TMP_PLANTUML_JAR = Paths.get(System.getProperty("java.io.tmpdir"), "artemis-plantuml.jar");
+
+    private static final String PLANTUML_MAIN_CLASS = "net.sourceforge.plantuml.Run";
+
+    private static final String RENDER_PROCESS_MAX_HEAP = "256m";
+
+    // renders are CPU intensive, so only a few render processes run in parallel and the remaining renders wait in the queue of the pool
+    private static final int RENDER_THREADS = 4;
+
+    // the maximum time a request waits for its diagram, including the time in the queue
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final Pattern DIAGRAM_PATTERN = Pattern.compile("@startuml([^@]*)@enduml");
+
+    // same pattern as in the client, which replaces the test colors with the state of the tests before requesting the diagram
+    private static final Pattern TESTS_COLOR_PATTERN = Pattern.compile("testsColor\\(((?:[^()]+\\([^()]+\\))*[^()]*)\\)");
+
     private final ResourceLoaderService resourceLoaderService;
 
+    private final ExecutorService renderExecutor = Executors.newFixedThreadPool(RENDER_THREADS);
+
+    // the maximum time of a single render including the start of the render process, the process is killed afterwards
+    @Value("${artemis.plantuml.render-timeout-seconds:15}")
+    private long renderTimeoutSeconds;
+
+    // hash of the input (and render version) -> render that is currently running or waiting in the queue
+    private final Map<String, CompletableFuture<byte[]>> pendingRenders = new ConcurrentHashMap<>();
+
+    // changes whenever PlantUML or the themes are updated, so that cached diagrams of the previous version are not used any more
+    private final String renderVersion;
+
     public PlantUmlService(ResourceLoaderService resourceLoaderService) throws IOException {
         this.resourceLoaderService = resourceLoaderService;
 
@@ -38,9 +84,30 @@ public class PlantUmlService {
         Files.deleteIfExists(PATH_TMP_THEME.resolve(DARK_THEME_FILE_NAME));
         Files.deleteIfExists(PATH_TMP_THEME.resolve(LIGHT_THEME_FILE_NAME));
         ensureThemes();
+        renderVersion = DigestUtils.sha256Hex(Version.versionString() + Files.readString(PATH_TMP_THEME.resolve(DARK_THEME_FILE_NAME))
+                + Files.readString(PATH_TMP_THEME.resolve(LIGHT_THEME_FILE_NAME)));
+        extractPlantUmlJar();
+        renderExecutor.execute(this::deleteExpiredCachedDiagrams);
+    }
 
-        System.setProperty("PLANTUML_SECURITY_PROFILE", "ALLOWLIST");
-        System.setProperty("plantuml.allowlist.path", PATH_TMP_THEME.toAbsolutePath().toString());
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdownNow();
+    }
+
+    /**
+     * The render processes need the PlantUML jar on their class path. When Artemis runs from its war file, the jar is nested in the war and has to be extracted first.
+     */
+    private void extractPlantUmlJar() throws IOException {
+        // e.g. jar:file:/opt/artemis/Artemis.war!/WEB-INF/lib/plantuml-1.2023.6.jar!/ for the nested jar or file:/.../plantuml-1.2023.6.jar otherwise
+        final String location = Version.class.getProtectionDomain().getCodeSource().getLocation().toString();
+        final URL jarUrl = new URL(location.endsWith("!/") ? location.substring(0, location.length() - 2) : location);
+        try (InputStream jar = jarUrl.openStream()) {
+            // copy to a temporary file first, so that the render processes of other instances on the same host never see a partially written jar
+            Path temporaryJar = Files.createTempFile(PATH_TMP_PLANTUML_JAR.getParent(), "artemis-plantuml", ".tmp");
+            Files.copy(jar, temporaryJar, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporaryJar, PATH_TMP_PLANTUML_JAR, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
     private void ensureThemes() {
@@ -70,14 +137,9 @@ public class PlantUmlService {
      * @return The generated PNG as a byte array
      * @throws IOException if generateImage can't create the PNG
      */
-    @Cacheable(value = "plantUmlPng", unless = "#result == null || #result.length == 0")
     public byte[] generatePng(final String plantUml, final boolean useDarkTheme) throws IOException {
         var input = validateInputAndApplyTheme(plantUml, useDarkTheme);
-        try (final var bos = new ByteArrayOutputStream()) {
-            final var reader = new SourceStringReader(input);
-            reader.outputImage(bos, new FileFormatOption(FileFormat.PNG));
-            return bos.toByteArray();
-        }
+        return awaitRender(render(input, FileFormat.PNG));
     }
 
     /**
@@ -88,13 +150,178 @@ public class PlantUmlService {
      * @return ResponseEntity PNG stream
      * @throws IOException if generateImage can't create the SVG
      */
-    @Cacheable(value = "plantUmlSvg", unless = "#result == null || #result.isEmpty()")
     public String generateSvg(final String plantUml, final boolean useDarkTheme) throws IOException {
         var input = validateInputAndApplyTheme(plantUml, useDarkTheme);
-        try (final var bos = new ByteArrayOutputStream()) {
-            final var reader = new SourceStringReader(input);
-            reader.outputImage(bos, new FileFormatOption(FileFormat.SVG));
-            return bos.toString(StandardCharsets.UTF_8);
+        return new String(awaitRender(render(input, FileFormat.SVG)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Renders the diagrams of a problem statement in the background, so that they are already cached when the students open the exercise.
+     * The diagrams are rendered as SVG in both themes and without test results (all test colors grey), which is how the client requests them before the first result.
+     *
+     * @param problemStatement the markdown of the problem statement, can be null
+     */
+    public void preRenderDiagrams(@Nullable String problemStatement) {
+        if (problemStatement == null) {
+            return;
+        }
+        Matcher diagramMatcher = DIAGRAM_PATTERN.matcher(problemStatement);
+        while (diagramMatcher.find()) {
+            String plantUml = TESTS_COLOR_PATTERN.matcher(diagramMatcher.group()).replaceAll("grey");
+            for (boolean useDarkTheme : new boolean[] { false, true }) {
+                try {
+                    render(validateInputAndApplyTheme(plantUml, useDarkTheme), FileFormat.SVG);
+                }
+                catch (IllegalArgumentException | IOException e) {
+                    log.debug("Could not pre-render PlantUML diagram: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the diagram from the disk cache or renders it on the render pool. Concurrent requests for the same diagram share the same render.
+     * The pool only waits for the render processes, which are killed after the render timeout, so a pathological diagram cannot block a thread of the pool.
+     *
+     * @param input  the PlantUML input including the theme
+     * @param format the format of the image
+     * @return the future of the rendered image
+     * @throws IOException if the cached image could not be read
+     */
+    private CompletableFuture<byte[]> render(String input, FileFormat format) throws IOException {
+        final String key = DigestUtils.sha256Hex(renderVersion + format.name() + input);
+        final Path cachedImage = PATH_TMP_CACHE.resolve(key + "." + format.name().toLowerCase());
+        try {
+            return CompletableFuture.completedFuture(Files.readAllBytes(cachedImage));
+        }
+        catch (NoSuchFileException e) {
+            // not rendered yet
+        }
+
+        CompletableFuture<byte[]> newRender = new CompletableFuture<>();
+        CompletableFuture<byte[]> pendingRender = pendingRenders.putIfAbsent(key, newRender);
+        if (pendingRender != null) {
+            return pendingRender;
+        }
+        try {
+            renderExecutor.execute(() -> {
+                try {
+                    newRender.complete(renderAndStore(input, format, cachedImage));
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    newRender.completeExceptionally(e);
+                }
+                catch (Exception e) {
+                    newRender.completeExceptionally(e);
+                }
+                finally {
+                    pendingRenders.remove(key, newRender);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            pendingRenders.remove(key, newRender);
+            newRender.completeExceptionally(e);
+        }
+        return newRender;
+    }
+
+    private byte[] renderAndStore(String input, FileFormat format, Path cachedImage) throws IOException, InterruptedException, TimeoutException {
+        // render to a temporary file first, so that concurrent readers never see a partially written image
+        Files.createDirectories(PATH_TMP_CACHE);
+        Path temporaryImage = Files.createTempFile(PATH_TMP_CACHE, "render", ".tmp");
+        try {
+            renderInProcess(input, format, temporaryImage);
+            byte[] image = Files.readAllBytes(temporaryImage);
+            Files.move(temporaryImage, cachedImage, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return image;
+        }
+        finally {
+            Files.deleteIfExists(temporaryImage);
+        }
+    }
+
+    /**
+     * Renders the diagram in a separate JVM. PlantUML does not react to interrupts, so a render in a thread of this JVM could not be stopped, but the process is killed
+     * when it exceeds the render timeout. The process also sandboxes the render: it has a small heap of its own and uses the allowlist security profile of PlantUML, which
+     * only allows reading the themes.
+     *
+     * @param input  the PlantUML input including the theme
+     * @param format the format of the image
+     * @param output the file the image is written to
+     */
+    private void renderInProcess(String input, FileFormat format, Path output) throws IOException, InterruptedException, TimeoutException {
+        final List<String> command = List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-Xmx" + RENDER_PROCESS_MAX_HEAP, "-Djava.awt.headless=true",
+                "-DPLANTUML_SECURITY_PROFILE=ALLOWLIST", "-Dplantuml.allowlist.path=" + PATH_TMP_THEME.toAbsolutePath(), "-cp", PATH_TMP_PLANTUML_JAR.toString(),
+                PLANTUML_MAIN_CLASS, "-pipe", "-charset", "UTF-8", "-t" + format.name().toLowerCase());
+        final Process process = new ProcessBuilder(command).redirectOutput(output.toFile()).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            try (OutputStream processInput = process.getOutputStream()) {
+                processInput.write(input.getBytes(StandardCharsets.UTF_8));
+            }
+            if (!process.waitFor(renderTimeoutSeconds, TimeUnit.SECONDS)) {
+                log.warn("Rendering a PlantUML diagram took longer than {} seconds, the render process is killed", renderTimeoutSeconds);
+                throw new TimeoutException("Rendering the PlantUML diagram took too long");
+            }
+        }
+        finally {
+            // no-op if the process has already exited
+            process.destroyForcibly();
+        }
+        // PlantUML also renders syntax errors as image, so only a missing image is an error
+        if (Files.size(output) == 0) {
+            throw new IOException("The PlantUML render process exited with code " + process.exitValue() + " without an image");
+        }
+    }
+
+    private byte[] awaitRender(CompletableFuture<byte[]> render) throws IOException {
+        try {
+            return render.get(REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerErrorException("Interrupted while rendering the PlantUML diagram");
+        }
+        catch (TimeoutException e) {
+            throw new InternalServerErrorException("Rendering the PlantUML diagram took too long");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof TimeoutException) {
+                throw new InternalServerErrorException("Rendering the PlantUML diagram took too long");
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new InternalServerErrorException("Error while rendering the PlantUML diagram: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Deletes cached diagrams that have not been rendered within {@link #CACHE_RETENTION}
+     */
+    private void deleteExpiredCachedDiagrams() {
+        if (!Files.isDirectory(PATH_TMP_CACHE)) {
+            return;
+        }
+        final Instant expiry = Instant.now().minus(CACHE_RETENTION);
+        try (Stream<Path> cachedImages = Files.list(PATH_TMP_CACHE)) {
+            cachedImages.forEach(path -> {
+                try {
+                    if (Files.getLastModifiedTime(path).toInstant().isBefore(expiry)) {
+                        Files.deleteIfExists(path);
+                    }
+                }
+                catch (IOException e) {
+                    log.debug("Unable to delete cached PlantUML diagram {}: {}", path, e.getMessage());
+                }
+            });
+        }
+        catch (IOException e) {
+            log.warn("Unable to clean up the PlantUML cache: {}", e.getMessage());
         }
     }
 
@@ -130,8 +130,14 @@ public class QuizSubmissionService extends AbstractQuizSubmissionService<QuizSub
         // set submission date
         quizSubmission.setSubmissionDate(ZonedDateTime.now());
 
-        // save submission to HashMap
-        quizScheduleService.updateSubmission(exerciseId, userLogin, quizSubmission);
+        if (quizSubmission.isSubmitted()) {
+            // save submission to HashMap
+            quizScheduleService.updateSubmission(exerciseId, userLogin, quizSubmission);
+        }
+        else {
+            // intermediate saves are buffered on this node and forwarded in batches
+            quizScheduleService.bufferSubmission(exerciseId, userLogin, quizSubmission);
+        }
 
         log.info("{} Saved quiz submission for user {} in quiz {} after {} µs ", logText, userLogin, exerciseId, (System.nanoTime() - start) / 1000);
         return quizSubmission;
@@ -0,0 +1,252 @@
+package de.tum.in.www1.artemis.service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.domain.enumeration.GraphType;
+import de.tum.in.www1.artemis.domain.enumeration.SpanType;
+import de.tum.in.www1.artemis.domain.enumeration.StatisticsView;
+import de.tum.in.www1.artemis.domain.statistics.StatisticsEntry;
+import de.tum.in.www1.artemis.domain.statistics.StatisticsRollup;
+import de.tum.in.www1.artemis.domain.statistics.SubmissionActivity;
+import de.tum.in.www1.artemis.repository.StatisticsRepository;
+import de.tum.in.www1.artemis.repository.StatisticsRollupRepository;
+import de.tum.in.www1.artemis.service.util.HyperLogLog;
+import de.tum.in.www1.artemis.service.util.TimeLogUtil;
+
+/**
+ * Maintains and reads the pre-aggregated hourly and daily buckets ({@link StatisticsRollup}) of the graphs based on the submissions table, which is by far the largest table
+ * queried by the statistics pages. The number of active users is estimated by merging the {@link HyperLogLog} sketches of the buckets of a time slot.
+ * <p>
+ * The buckets are (re-)computed by {@link #compactRecentBuckets()}, which is invoked regularly by the
+ * {@link de.tum.in.www1.artemis.service.scheduled.StatisticsRollupScheduleService}. Charts read the buckets up to the last compacted hour and query the submissions of the
+ * remaining (short) period since then directly, so the charts are always up to date. Charts starting before the first compacted hour and all other graph types are
+ * computed directly from the database as before.
+ */
+@Service
+public class StatisticsRollupService {
+
+    private static final Set<GraphType> ROLLED_UP_GRAPH_TYPES = EnumSet.of(GraphType.SUBMISSIONS, GraphType.ACTIVE_USERS);
+
+    /**
+     * The compacted period that is recomputed in every compaction, so that submissions with a slightly earlier submission date that were saved after the last compaction are
+     * included
+     */
+    private static final long RECOMPUTED_DAYS = 1;
+
+    private final Logger log = LoggerFactory.getLogger(StatisticsRollupService.class);
+
+    private final StatisticsRollupRepository statisticsRollupRepository;
+
+    private final StatisticsRepository statisticsRepository;
+
+    public StatisticsRollupService(StatisticsRollupRepository statisticsRollupRepository, StatisticsRepository statisticsRepository) {
+        this.statisticsRollupRepository = statisticsRollupRepository;
+        this.statisticsRepository = statisticsRepository;
+    }
+
+    /**
+     * Gets the entries of a graph for the given period in the same form as {@link StatisticsRepository#getNumberOfEntriesPerTimeSlot}. If the period is covered by the rollups,
+     * the entries are computed from the buckets, otherwise the call is delegated to the statistics repository.
+     *
+     * @param graphType the type of graph the data should be fetched for
+     * @param span      the spanType for which the call is executed
+     * @param startDate the startDate of which the data should be fetched
+     * @param endDate   the endDate of which the data should be fetched
+     * @param view      the view in which the data will be displayed (Artemis, Course, Exercise)
+     * @param entityId  the entityId which is null for a user statistics call and contains the id for the other statistics pages
+     * @return a list of entries, each containing a date and the amount of entries at this date
+     */
+    public List<StatisticsEntry> getNumberOfEntriesPerTimeSlot(GraphType graphType, SpanType span, ZonedDateTime startDate, ZonedDateTime endDate, StatisticsView view,
+            @Nullable Long entityId) {
+        if (ROLLED_UP_GRAPH_TYPES.contains(graphType) && (view == StatisticsView.ARTEMIS || entityId != null)) {
+            ZonedDateTime firstCompactedHour = statisticsRollupRepository.findFirstCompactedHour();
+            if (firstCompactedHour != null && !firstCompactedHour.isAfter(startDate)) {
+                ZonedDateTime compactedUntil = statisticsRollupRepository.findLastCompactedHour().plusHours(1);
+                if (compactedUntil.isAfter(startDate)) {
+                    return getNumberOfEntriesPerTimeSlotFromRollups(graphType, span, startDate, endDate, view, entityId, compactedUntil);
+                }
+            }
+        }
+        return statisticsRepository.getNumberOfEntriesPerTimeSlot(graphType, span, startDate, endDate, view, entityId);
+    }
+
+    private List<StatisticsEntry> getNumberOfEntriesPerTimeSlotFromRollups(GraphType graphType, SpanType span, ZonedDateTime startDate, ZonedDateTime endDate,
+            StatisticsView view, @Nullable Long entityId, ZonedDateTime compactedUntil) {
+        var granularity = span == SpanType.DAY ? StatisticsRollup.Granularity.HOUR : StatisticsRollup.Granularity.DAY;
+        long rollupEntityId = view == StatisticsView.ARTEMIS ? StatisticsRollup.ARTEMIS_ENTITY_ID : entityId;
+        // the buckets after the end of the period are not part of the chart, e.g. for past periods
+        ZonedDateTime bucketsUntil = endDate.isBefore(compactedUntil) ? endDate : compactedUntil;
+        List<StatisticsRollup> buckets = statisticsRollupRepository.findBuckets(graphType, view, rollupEntityId, granularity, startDate, bucketsUntil);
+        boolean hasUncompactedPeriod = !compactedUntil.isAfter(endDate);
+        ZoneId zone = startDate.getZone();
+
+        if (graphType == GraphType.SUBMISSIONS) {
+            List<StatisticsEntry> entries = new ArrayList<>();
+            buckets.forEach(bucket -> entries.add(new StatisticsEntry(bucket.getBucketStart().withZoneSameInstant(zone), bucket.getAmount())));
+            if (hasUncompactedPeriod) {
+                entries.addAll(statisticsRepository.getNumberOfEntriesPerTimeSlot(graphType, span, compactedUntil, endDate, view, entityId));
+            }
+            return entries;
+        }
+
+        // the distinct users of a time slot are estimated by merging the sketches of all buckets (and the users of the uncompacted period) in this time slot
+        Map<Integer, HyperLogLog> sketchesPerTimeSlot = new HashMap<>();
+        Map<Integer, ZonedDateTime> datesPerTimeSlot = new HashMap<>();
+        for (StatisticsRollup bucket : buckets) {
+            ZonedDateTime date = bucket.getBucketStart().withZoneSameInstant(zone);
+            int index = statisticsRepository.getTimeSlotIndex(span, date, startDate);
+            sketchesPerTimeSlot.computeIfAbsent(index, key -> new HyperLogLog()).merge(HyperLogLog.fromBytes(bucket.getSketch()));
+            datesPerTimeSlot.putIfAbsent(index, date);
+        }
+        if (hasUncompactedPeriod) {
+            for (StatisticsEntry entry : getActiveUsers(compactedUntil, endDate, view, entityId)) {
+                ZonedDateTime date = (ZonedDateTime) entry.getDay();
+                int index = statisticsRepository.getTimeSlotIndex(span, date, startDate);
+                sketchesPerTimeSlot.computeIfAbsent(index, key -> new HyperLogLog()).add(entry.getUsername());
+                datesPerTimeSlot.putIfAbsent(index, date);
+            }
+        }
+        List<StatisticsEntry> entries = new ArrayList<>();
+        sketchesPerTimeSlot.forEach((index, sketch) -> entries.add(new StatisticsEntry(datesPerTimeSlot.get(index), sketch.estimate())));
+        return entries;
+    }
+
+    private List<StatisticsEntry> getActiveUsers(ZonedDateTime startDate, ZonedDateTime endDate, StatisticsView view, @Nullable Long entityId) {
+        return switch (view) {
+            case ARTEMIS -> statisticsRepository.getActiveUsers(startDate, endDate);
+            case COURSE -> statisticsRepository.getActiveUsersForCourse(startDate, endDate, statisticsRepository.findExerciseIdsByCourseId(entityId));
+            case EXERCISE -> statisticsRepository.getActiveUsersForExercise(startDate, endDate, entityId);
+        };
+    }
+
+    /**
+     * Computes the buckets of all hours since the last compaction (including the last day before, see {@link #RECOMPUTED_DAYS}) up to the current hour.
+     * If nothing has been compacted yet, all submissions are compacted starting with the first one.
+     */
+    public void compactRecentBuckets() {
+        ZonedDateTime lastCompactedHour = statisticsRollupRepository.findLastCompactedHour();
+        ZonedDateTime from = lastCompactedHour != null ? lastCompactedHour.minusDays(RECOMPUTED_DAYS) : statisticsRollupRepository.findFirstSubmissionDate();
+        if (from != null) {
+            compact(from, ZonedDateTime.now());
+        }
+    }
+
+    /**
+     * Computes the hourly and daily buckets of all complete hours between the start of the day of the given start date and the given end date. Existing buckets in this period
+     * are updated in place, so that charts never miss a bucket while the compaction is running.
+     *
+     * @param from  a date within the first day that should be compacted
+     * @param until the end of the compacted period, only complete hours before this date are compacted
+     */
+    public void compact(ZonedDateTime from, ZonedDateTime until) {
+        long start = System.nanoTime();
+        ZoneId zone = ZoneId.systemDefault();
+        ZonedDateTime end = until.withZoneSameInstant(zone).truncatedTo(ChronoUnit.HOURS);
+        ZonedDateTime dayStart = from.withZoneSameInstant(zone).truncatedTo(ChronoUnit.DAYS);
+        int compactedDays = 0;
+        while (dayStart.isBefore(end)) {
+            ZonedDateTime nextDayStart = dayStart.plusDays(1);
+            compactDay(dayStart, nextDayStart.isBefore(end) ? nextDayStart : end);
+            dayStart = nextDayStart;
+            compactedDays++;
+        }
+        log.info("Compacted the statistics rollups of {} days until {} in {}", compactedDays, end, TimeLogUtil.formatDurationFrom(start));
+    }
+
+    /**
+     * Computes the buckets of one day and saves them, replacing the previous buckets of this day.
+     *
+     * @param dayStart the start of the day
+     * @param end      the end of the compacted period of this day, either the start of the next day or the start of the current hour
+     */
+    private void compactDay(ZonedDateTime dayStart, ZonedDateTime end) {
+        Map<BucketKey, StatisticsRollup> buckets = new HashMap<>();
+        Map<BucketKey, HyperLogLog> sketches = new HashMap<>();
+
+        // the hourly submission buckets of the Artemis view are written for every compacted hour, they determine the time range covered by the rollups
+        for (ZonedDateTime hour = dayStart; hour.isBefore(end); hour = hour.plusHours(1)) {
+            getOrCreateBucket(buckets, GraphType.SUBMISSIONS, StatisticsView.ARTEMIS, StatisticsRollup.ARTEMIS_ENTITY_ID, StatisticsRollup.Granularity.HOUR, hour);
+        }
+        getOrCreateBucket(buckets, GraphType.SUBMISSIONS, StatisticsView.ARTEMIS, StatisticsRollup.ARTEMIS_ENTITY_ID, StatisticsRollup.Granularity.DAY, dayStart);
+
+        for (SubmissionActivity activity : statisticsRollupRepository.findSubmissionActivities(dayStart, end)) {
+            ZonedDateTime hour = activity.submissionDate().withZoneSameInstant(dayStart.getZone()).truncatedTo(ChronoUnit.HOURS);
+            forEachView(activity, (view, entityId) -> {
+                var hourlyBucket = getOrCreateBucket(buckets, GraphType.SUBMISSIONS, view, entityId, StatisticsRollup.Granularity.HOUR, hour);
+                hourlyBucket.setAmount(hourlyBucket.getAmount() + 1);
+                var dailyBucket = getOrCreateBucket(buckets, GraphType.SUBMISSIONS, view, entityId, StatisticsRollup.Granularity.DAY, dayStart);
+                dailyBucket.setAmount(dailyBucket.getAmount() + 1);
+            });
+        }
+
+        for (SubmissionActivity activity : statisticsRollupRepository.findStudentSubmissionActivities(dayStart, end)) {
+            ZonedDateTime hour = activity.submissionDate().withZoneSameInstant(dayStart.getZone()).truncatedTo(ChronoUnit.HOURS);
+            forEachView(activity, (view, entityId) -> {
+                var hourlyBucket = getOrCreateBucket(buckets, GraphType.ACTIVE_USERS, view, entityId, StatisticsRollup.Granularity.HOUR, hour);
+                sketches.computeIfAbsent(BucketKey.of(hourlyBucket), key -> new HyperLogLog()).add(activity.login());
+                var dailyBucket = getOrCreateBucket(buckets, GraphType.ACTIVE_USERS, view, entityId, StatisticsRollup.Granularity.DAY, dayStart);
+                sketches.computeIfAbsent(BucketKey.of(dailyBucket), key -> new HyperLogLog()).add(activity.login());
+            });
+        }
+        sketches.forEach((key, sketch) -> {
+            var bucket = buckets.get(key);
+            bucket.setAmount(sketch.estimate());
+            bucket.setSketch(sketch.toBytes());
+        });
+
+        // update the existing buckets of this day in place and delete the ones that do not exist anymore
+        List<StatisticsRollup> bucketsToSave = new ArrayList<>();
+        List<StatisticsRollup> bucketsToDelete = new ArrayList<>();
+        for (StatisticsRollup existingBucket : statisticsRollupRepository.findAllByBucketStartInRange(dayStart, dayStart.plusDays(1))) {
+            var bucket = buckets.remove(BucketKey.of(existingBucket));
+            if (bucket != null) {
+                existingBucket.setAmount(bucket.getAmount());
+                existingBucket.setSketch(bucket.getSketch());
+                bucketsToSave.add(existingBucket);
+            }
+            else {
+                bucketsToDelete.add(existingBucket);
+            }
+        }
+        bucketsToSave.addAll(buckets.values());
+        statisticsRollupRepository.saveAll(bucketsToSave);
+        statisticsRollupRepository.deleteAll(bucketsToDelete);
+    }
+
+    /**
+     * Invokes the given consumer for all views (and the corresponding entity ids) the submission is shown in
+     */
+    private static void forEachView(SubmissionActivity activity, BiConsumer<StatisticsView, Long> consumer) {
+        if (activity.isShownInArtemisView()) {
+            consumer.accept(StatisticsView.ARTEMIS, StatisticsRollup.ARTEMIS_ENTITY_ID);
+        }
+        if (activity.courseId() != null) {
+            consumer.accept(StatisticsView.COURSE, activity.courseId());
+        }
+        consumer.accept(StatisticsView.EXERCISE, activity.exerciseId());
+    }
+
+    private static StatisticsRollup getOrCreateBucket(Map<BucketKey, StatisticsRollup> buckets, GraphType graphType, StatisticsView view, long entityId,
+            StatisticsRollup.Granularity granularity, ZonedDateTime bucketStart) {
+        return buckets.computeIfAbsent(new BucketKey(graphType, view, entityId, granularity, bucketStart.toInstant()),
+                key -> new StatisticsRollup(graphType, view, entityId, granularity, bucketStart));
+    }
+
+    private record BucketKey(GraphType graphType, StatisticsView view, long entityId, StatisticsRollup.Granularity granularity, Instant bucketStart) {
+
+        static BucketKey of(StatisticsRollup bucket) {
+            return new BucketKey(bucket.getGraphType(), bucket.getView(), bucket.getEntityId(), bucket.getGranularity(), bucket.getBucketStart().toInstant());
+        }
+    }
+}
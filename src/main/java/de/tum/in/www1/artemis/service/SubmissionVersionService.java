@@ -1,8 +1,11 @@
 package de.tum.in.www1.artemis.service;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -40,15 +43,14 @@ public class SubmissionVersionService {
      * @param user       Author of the submission update
      * @return created/updated submission version
      */
+    @Transactional // ok because the submission is locked until its version has been saved
     public SubmissionVersion saveVersionForTeam(Submission submission, User user) {
-        return submissionVersionRepository.findLatestVersion(submission.getId()).map(latestVersion -> {
-            if (latestVersion.getAuthor().equals(user)) {
-                return updateExistingVersion(latestVersion, submission);
-            }
-            else {
-                return saveVersionForIndividual(submission, user);
-            }
-        }).orElseGet(() -> saveVersionForIndividual(submission, user));
+        submissionVersionRepository.lockSubmission(submission.getId());
+        List<SubmissionVersion> versionsSinceLastSnapshot = submissionVersionRepository.findVersionsSinceLastSnapshotWithContent(submission.getId());
+        if (!versionsSinceLastSnapshot.isEmpty() && versionsSinceLastSnapshot.get(versionsSinceLastSnapshot.size() - 1).getAuthor().equals(user)) {
+            return updateExistingVersion(versionsSinceLastSnapshot, submission);
+        }
+        return saveNewVersion(submission, user, versionsSinceLastSnapshot);
     }
 
     /**
@@ -58,17 +60,39 @@ public class SubmissionVersionService {
      * @param user       Author of the submission update
      * @return created/updated submission version
      */
+    @Transactional // ok because the submission is locked until its version has been saved
     public SubmissionVersion saveVersionForIndividual(Submission submission, User user) {
+        submissionVersionRepository.lockSubmission(submission.getId());
+        return saveNewVersion(submission, user, submissionVersionRepository.findVersionsSinceLastSnapshotWithContent(submission.getId()));
+    }
+
+    /**
+     * Saves a new version, which is stored as a delta to the latest version unless the maximum number of versions since the last full snapshot is reached.
+     * The submission has to be locked, so that no other version is saved between reading the latest version and saving the delta to it.
+     */
+    private SubmissionVersion saveNewVersion(Submission submission, User user, List<SubmissionVersion> versionsSinceLastSnapshot) {
+        String previousContent = null;
+        if (!versionsSinceLastSnapshot.isEmpty() && versionsSinceLastSnapshot.size() < SubmissionVersion.SNAPSHOT_INTERVAL) {
+            previousContent = versionsSinceLastSnapshot.get(versionsSinceLastSnapshot.size() - 1).getContent();
+        }
         SubmissionVersion version = new SubmissionVersion();
         version.setAuthor(user);
         version.setSubmission(submission);
-        version.setContent(getSubmissionContent(submission));
+        version.setContent(getSubmissionContent(submission), previousContent);
         return submissionVersionRepository.save(version);
     }
 
-    private SubmissionVersion updateExistingVersion(SubmissionVersion version, Submission submission) {
-        version.setContent(getSubmissionContent(submission));
-        return submissionVersionRepository.save(version);
+    /**
+     * Updates the content of the latest version, which stays a delta to the version before it (or a full snapshot)
+     */
+    private SubmissionVersion updateExistingVersion(List<SubmissionVersion> versionsSinceLastSnapshot, Submission submission) {
+        SubmissionVersion version = versionsSinceLastSnapshot.get(versionsSinceLastSnapshot.size() - 1);
+        SubmissionVersion previousVersion = version.isDelta() ? versionsSinceLastSnapshot.get(versionsSinceLastSnapshot.size() - 2) : null;
+        version.setContent(getSubmissionContent(submission), previousVersion != null ? previousVersion.getContent() : null);
+        SubmissionVersion savedVersion = submissionVersionRepository.save(version);
+        // the merged version only contains the stored content, the full content has to be rebuilt
+        savedVersion.rebuildContent(previousVersion);
+        return savedVersion;
     }
 
     private String getSubmissionContent(Submission submission) {
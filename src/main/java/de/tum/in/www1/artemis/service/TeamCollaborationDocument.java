@@ -0,0 +1,179 @@
+package de.tum.in.www1.artemis.service;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import de.tum.in.www1.artemis.service.util.TextOperation;
+
+/**
+ * The merged state of the text or model that the members of a team are currently editing together, shared between all server instances.
+ * <p>
+ * For text exercises, the document keeps the latest operations, so that operations of clients that have not yet received them can be transformed against them.
+ */
+class TeamCollaborationDocument implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    static final int MAX_HISTORY_SIZE = 100;
+
+    private final long exerciseId;
+
+    private final Set<String> teamLogins;
+
+    // the due date until which the team can edit the document, null if there is no due date
+    private Instant dueDate;
+
+    private Long submissionId;
+
+    private String content;
+
+    private String explanationText;
+
+    private long revision;
+
+    private final List<TextOperation> history = new ArrayList<>();
+
+    private String lastEditor;
+
+    private Instant lastEditDate;
+
+    private Instant firstUnsavedEditDate;
+
+    private boolean dirty;
+
+    TeamCollaborationDocument(long exerciseId, Set<String> teamLogins, Instant dueDate, Long submissionId, String content, String explanationText, long revision) {
+        this.exerciseId = exerciseId;
+        this.teamLogins = teamLogins;
+        this.dueDate = dueDate;
+        this.submissionId = submissionId;
+        this.content = content;
+        this.explanationText = explanationText;
+        this.revision = revision;
+    }
+
+    long getExerciseId() {
+        return exerciseId;
+    }
+
+    boolean isEditableBy(String login) {
+        return teamLogins.contains(login);
+    }
+
+    boolean isAfterDueDate(Instant date) {
+        return dueDate != null && date.isAfter(dueDate);
+    }
+
+    void setDueDate(Instant dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    Long getSubmissionId() {
+        return submissionId;
+    }
+
+    String getContent() {
+        return content;
+    }
+
+    String getExplanationText() {
+        return explanationText;
+    }
+
+    long getRevision() {
+        return revision;
+    }
+
+    String getLastEditor() {
+        return lastEditor;
+    }
+
+    Instant getLastEditDate() {
+        return lastEditDate;
+    }
+
+    Instant getFirstUnsavedEditDate() {
+        return firstUnsavedEditDate;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Marks the document as saved up to the given revision
+     *
+     * @param savedRevision the revision that has been written to the database
+     * @param submissionId  the id of the saved submission
+     */
+    void saved(long savedRevision, Long submissionId) {
+        this.submissionId = submissionId;
+        if (revision == savedRevision) {
+            dirty = false;
+        }
+        else {
+            // the edits made while saving are still unsaved
+            firstUnsavedEditDate = Instant.now();
+        }
+    }
+
+    /**
+     * Returns the operations that have been applied since the given revision
+     *
+     * @param clientRevision the revision of the document the client knows
+     * @return the operations since the revision or null if they are not available (anymore)
+     */
+    List<TextOperation> getOperationsSince(long clientRevision) {
+        long firstRevisionInHistory = revision - history.size();
+        if (clientRevision < firstRevisionInHistory || clientRevision > revision) {
+            return null;
+        }
+        return List.copyOf(history.subList((int) (clientRevision - firstRevisionInHistory), history.size()));
+    }
+
+    /**
+     * Applies an operation that has been transformed against all operations of the current revision
+     *
+     * @param operation the operation
+     * @param login     the login of the user who edited the text
+     */
+    void applyOperation(TextOperation operation, String login) {
+        content = operation.apply(content);
+        history.add(operation);
+        if (history.size() > MAX_HISTORY_SIZE) {
+            history.remove(0);
+        }
+        edited(login);
+    }
+
+    /**
+     * Replaces the content, e.g. after a patch of a model has been merged into it
+     *
+     * @param content         the new content
+     * @param explanationText the new explanation text, null if it did not change
+     * @param login           the login of the user who edited the model
+     */
+    void replaceContent(String content, String explanationText, String login) {
+        this.content = content;
+        if (explanationText != null) {
+            this.explanationText = explanationText;
+        }
+        // the history of text operations is meaningless for models, clients always receive all patches in the order of their revisions
+        history.clear();
+        edited(login);
+    }
+
+    private void edited(String login) {
+        revision++;
+        lastEditor = login;
+        lastEditDate = Instant.now();
+        if (!dirty) {
+            firstUnsavedEditDate = lastEditDate;
+            dirty = true;
+        }
+    }
+}
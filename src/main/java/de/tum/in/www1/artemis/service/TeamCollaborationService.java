@@ -0,0 +1,442 @@
+package de.tum.in.www1.artemis.service;
+
+import static de.tum.in.www1.artemis.service.compass.utils.JSONMapping.*;
+import static java.util.stream.Collectors.toSet;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
+import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.repository.ExerciseRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.security.SecurityUtils;
+import de.tum.in.www1.artemis.service.util.TextOperation;
+import de.tum.in.www1.artemis.web.rest.errors.AccessForbiddenException;
+import de.tum.in.www1.artemis.web.websocket.dto.TeamCollaborationStateDTO;
+import de.tum.in.www1.artemis.web.websocket.dto.TeamModelPatchDTO;
+import de.tum.in.www1.artemis.web.websocket.dto.TeamTextOperationDTO;
+
+/**
+ * Merges the concurrent edits of the members of a team into the text or model of their submission.
+ * <p>
+ * Clients only exchange the changes instead of the whole submission: operations (see {@link TextOperation}) for texts and patches of the changed elements for models.
+ * The merged document of each participation is kept in a distributed Hazelcast map, so that edits arriving at different server instances are merged into the same
+ * document. The document is written to the database once the team has stopped editing for {@link #PERSIST_DELAY} (or at the latest after {@link #MAX_PERSIST_DELAY}),
+ * instead of on every edit. The participations with unsaved changes are kept in a distributed map as well and each instance persists the documents of the partitions it
+ * owns, so that the changes are still saved if the instance that received them is stopped.
+ * <p>
+ * Edits are only accepted until the due date. The changes are saved with the date of the last edit, so that edits made shortly before the due date are still saved.
+ */
+@Service
+public class TeamCollaborationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TeamCollaborationService.class);
+
+    static final Duration PERSIST_DELAY = Duration.ofSeconds(3);
+
+    static final Duration MAX_PERSIST_DELAY = Duration.ofSeconds(30);
+
+    private static final Duration PERSIST_RETRY_DELAY = Duration.ofSeconds(10);
+
+    private static final Duration DOCUMENT_TIME_TO_LIVE = Duration.ofHours(2);
+
+    private final ObjectMapper objectMapper;
+
+    private final UserRepository userRepository;
+
+    private final StudentParticipationRepository studentParticipationRepository;
+
+    private final ExerciseRepository exerciseRepository;
+
+    private final TextSubmissionService textSubmissionService;
+
+    private final ModelingSubmissionService modelingSubmissionService;
+
+    // participationId -> merged document
+    private final IMap<Long, TeamCollaborationDocument> documents;
+
+    // participationId -> earliest date of the next attempt to persist the unsaved changes of the document
+    private final IMap<Long, Instant> pendingPersists;
+
+    // participationId -> no value, the lock of a participation is held while its submission is written to the database
+    private final IMap<Long, Boolean> persistLocks;
+
+    public TeamCollaborationService(ObjectMapper objectMapper, UserRepository userRepository, StudentParticipationRepository studentParticipationRepository,
+            ExerciseRepository exerciseRepository, TextSubmissionService textSubmissionService, ModelingSubmissionService modelingSubmissionService,
+            HazelcastInstance hazelcastInstance) {
+        this.objectMapper = objectMapper;
+        this.userRepository = userRepository;
+        this.studentParticipationRepository = studentParticipationRepository;
+        this.exerciseRepository = exerciseRepository;
+        this.textSubmissionService = textSubmissionService;
+        this.modelingSubmissionService = modelingSubmissionService;
+        this.documents = hazelcastInstance.getMap("teamCollaborationDocuments");
+        this.pendingPersists = hazelcastInstance.getMap("teamCollaborationPendingPersists");
+        this.persistLocks = hazelcastInstance.getMap("teamCollaborationPersistLocks");
+    }
+
+    /**
+     * Returns the current merged text or model of the participation
+     *
+     * @param participationId the id of the team participation
+     * @param login           the login of the team member
+     * @return the current state of the document
+     */
+    public TeamCollaborationStateDTO getState(long participationId, String login) {
+        documents.lock(participationId);
+        try {
+            TeamCollaborationDocument document = getDocument(participationId, login);
+            return new TeamCollaborationStateDTO(document.getRevision(), document.getContent(), document.getExplanationText());
+        }
+        finally {
+            documents.unlock(participationId);
+        }
+    }
+
+    /**
+     * Merges an operation of a team member into the text of the participation. The operation is transformed against all operations that have been applied since the
+     * revision the client has based its operation on.
+     *
+     * @param participationId the id of the team participation
+     * @param clientOperation the operation and the revision it is based on
+     * @param login           the login of the team member
+     * @return the transformed operation that has to be sent to all team members or an empty optional if the client is out of sync and has to load the state again or if the
+     *         due date has passed
+     */
+    public Optional<TeamTextOperationDTO> applyTextOperation(long participationId, TeamTextOperationDTO clientOperation, String login) {
+        documents.lock(participationId);
+        try {
+            TeamCollaborationDocument document = getDocument(participationId, login);
+            if (isAfterDueDate(participationId, document)) {
+                return Optional.empty();
+            }
+            List<TextOperation> concurrentOperations = document.getOperationsSince(clientOperation.revision());
+            if (concurrentOperations == null || clientOperation.operation() == null) {
+                return Optional.empty();
+            }
+            TextOperation operation = clientOperation.operation();
+            for (TextOperation concurrentOperation : concurrentOperations) {
+                operation = TextOperation.transform(operation, concurrentOperation).x();
+            }
+            document.applyOperation(operation, login);
+            updateDocument(participationId, document);
+            return Optional.of(new TeamTextOperationDTO(document.getRevision(), operation, login));
+        }
+        catch (IllegalArgumentException ex) {
+            log.warn("Could not apply the text operation of {} to participation {}: {}", login, participationId, ex.getMessage());
+            return Optional.empty();
+        }
+        finally {
+            documents.unlock(participationId);
+        }
+    }
+
+    /**
+     * Merges a patch of a team member into the model of the participation. Changes of the same element are resolved in the order in which they arrive (last writer wins).
+     *
+     * @param participationId the id of the team participation
+     * @param patch           the changed parts of the model
+     * @param login           the login of the team member
+     * @return the patch with the new revision that has to be sent to all team members or an empty optional if the patch cannot be applied or if the due date has passed
+     */
+    public Optional<TeamModelPatchDTO> applyModelPatch(long participationId, TeamModelPatchDTO patch, String login) {
+        documents.lock(participationId);
+        try {
+            TeamCollaborationDocument document = getDocument(participationId, login);
+            if (isAfterDueDate(participationId, document)) {
+                return Optional.empty();
+            }
+            document.replaceContent(applyModelPatch(document.getContent(), patch), patch.explanationText(), login);
+            updateDocument(participationId, document);
+            return Optional.of(new TeamModelPatchDTO(document.getRevision(), patch.elements(), patch.relationships(), patch.removedIds(), patch.properties(),
+                    patch.explanationText(), login));
+        }
+        catch (JsonProcessingException | IllegalArgumentException ex) {
+            log.warn("Could not apply the model patch of {} to participation {}: {}", login, participationId, ex.getMessage());
+            return Optional.empty();
+        }
+        finally {
+            documents.unlock(participationId);
+        }
+    }
+
+    /**
+     * Saves the whole submission of the participation, e.g. of a client that does not send single changes, and removes the merged document. The document is loaded again
+     * from the database on the next change. The submission is not saved while the merged document is written to the database, so that the older merged document cannot
+     * overwrite it.
+     *
+     * @param participationId the id of the team participation
+     * @param saveSubmission  saves the whole submission
+     * @param <T>             the type of the submission
+     * @return the saved submission
+     */
+    public <T extends Submission> T replaceSubmission(long participationId, Supplier<T> saveSubmission) {
+        persistLocks.lock(participationId);
+        try {
+            T submission = saveSubmission.get();
+            documents.lock(participationId);
+            try {
+                documents.delete(participationId);
+                pendingPersists.delete(participationId);
+            }
+            finally {
+                documents.unlock(participationId);
+            }
+            return submission;
+        }
+        finally {
+            persistLocks.unlock(participationId);
+        }
+    }
+
+    /**
+     * Returns the document of the participation, loading it from the latest submission if no team member has edited it recently. Must be called while holding the lock.
+     */
+    private TeamCollaborationDocument getDocument(long participationId, String login) {
+        TeamCollaborationDocument document = documents.get(participationId);
+        if (document == null) {
+            StudentParticipation participation = studentParticipationRepository.findByIdWithLegalSubmissionsElseThrow(participationId);
+            Set<String> teamLogins = participation.getStudents().stream().map(User::getLogin).collect(toSet());
+            Optional<Submission> latestSubmission = participation.findLatestSubmission();
+            Long submissionId = latestSubmission.map(Submission::getId).orElse(null);
+            Instant dueDate = getDueDate(participation);
+            // the initial revision is the current time, so that revisions of evicted documents that are still known to clients are never valid for the new document
+            long revision = Instant.now().toEpochMilli();
+            if (latestSubmission.orElse(null) instanceof ModelingSubmission modelingSubmission) {
+                document = new TeamCollaborationDocument(participation.getExercise().getId(), teamLogins, dueDate, submissionId, modelingSubmission.getModel(),
+                        modelingSubmission.getExplanationText(), revision);
+            }
+            else {
+                String text = latestSubmission.orElse(null) instanceof TextSubmission textSubmission ? textSubmission.getText() : null;
+                document = new TeamCollaborationDocument(participation.getExercise().getId(), teamLogins, dueDate, submissionId, Objects.requireNonNullElse(text, ""), null,
+                        revision);
+            }
+            documents.set(participationId, document, DOCUMENT_TIME_TO_LIVE.toSeconds(), TimeUnit.SECONDS);
+        }
+        if (!document.isEditableBy(login)) {
+            throw new AccessForbiddenException("Participation", participationId);
+        }
+        return document;
+    }
+
+    /**
+     * Returns the due date until which the team can edit the submission of the participation, in the same way as the submission services check it when saving
+     *
+     * @param participation the team participation
+     * @return the due date or null if the team can edit the submission without a time limit, e.g. because it has started the exercise after the due date
+     */
+    private static Instant getDueDate(StudentParticipation participation) {
+        return ExerciseDateService.getDueDate(participation)
+                .filter(dueDate -> participation.getInitializationDate() == null || participation.getInitializationDate().isBefore(dueDate)).map(ZonedDateTime::toInstant)
+                .orElse(null);
+    }
+
+    /**
+     * Checks whether the due date of the document has passed. Once it has passed, the due date is loaded again, because it might have been extended since the
+     * document has been loaded. Must be called while holding the lock.
+     */
+    private boolean isAfterDueDate(long participationId, TeamCollaborationDocument document) {
+        if (!document.isAfterDueDate(Instant.now())) {
+            return false;
+        }
+        document.setDueDate(getDueDate(studentParticipationRepository.findByIdElseThrow(participationId)));
+        documents.set(participationId, document, DOCUMENT_TIME_TO_LIVE.toSeconds(), TimeUnit.SECONDS);
+        return document.isAfterDueDate(Instant.now());
+    }
+
+    /**
+     * Stores the changed document and marks it as unsaved. Must be called while holding the lock.
+     */
+    private void updateDocument(long participationId, TeamCollaborationDocument document) {
+        documents.set(participationId, document, DOCUMENT_TIME_TO_LIVE.toSeconds(), TimeUnit.SECONDS);
+        pendingPersists.putIfAbsent(participationId, Instant.now(), DOCUMENT_TIME_TO_LIVE.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Persists the unsaved documents of the partitions owned by this instance. If an instance is stopped, its partitions (including the backups of the unsaved documents)
+     * are taken over by the remaining instances, which then persist the documents.
+     * Note: Active on all instances.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void persistIdleDocuments() {
+        Instant now = Instant.now();
+        for (Long participationId : pendingPersists.localKeySet()) {
+            Instant nextAttempt = pendingPersists.get(participationId);
+            if (nextAttempt != null && !nextAttempt.isAfter(now)) {
+                persistIfIdle(participationId);
+            }
+        }
+    }
+
+    /**
+     * Writes the document of the participation to the database if it has not been edited during the last {@link #PERSIST_DELAY}, if it has unsaved changes for longer
+     * than {@link #MAX_PERSIST_DELAY} or if the due date has passed. Otherwise, it is checked again by the next {@link #persistIdleDocuments()}. If the document cannot be
+     * written, it is kept with its unsaved changes and written again after {@link #PERSIST_RETRY_DELAY}.
+     *
+     * @param participationId the id of the team participation
+     */
+    void persistIfIdle(long participationId) {
+        persistLocks.lock(participationId);
+        try {
+            persistIfIdleWhileLocked(participationId);
+        }
+        finally {
+            persistLocks.unlock(participationId);
+        }
+    }
+
+    private void persistIfIdleWhileLocked(long participationId) {
+        TeamCollaborationDocument document;
+        documents.lock(participationId);
+        try {
+            document = documents.get(participationId);
+            if (document == null || !document.isDirty()) {
+                pendingPersists.delete(participationId);
+                return;
+            }
+            Instant now = Instant.now();
+            // no more edits are accepted after the due date, so the document is written right away
+            if (document.getLastEditDate().plus(PERSIST_DELAY).isAfter(now) && document.getFirstUnsavedEditDate().plus(MAX_PERSIST_DELAY).isAfter(now)
+                    && !document.isAfterDueDate(now)) {
+                return;
+            }
+        }
+        finally {
+            documents.unlock(participationId);
+        }
+
+        // write outside the lock of the document, so that the team can continue editing in the meantime
+        Long submissionId;
+        try {
+            submissionId = persist(document);
+        }
+        catch (Exception ex) {
+            log.warn("Could not save the merged submission of participation {}, trying again in {}: {}", participationId, PERSIST_RETRY_DELAY, ex.getMessage());
+            pendingPersists.set(participationId, Instant.now().plus(PERSIST_RETRY_DELAY), DOCUMENT_TIME_TO_LIVE.toSeconds(), TimeUnit.SECONDS);
+            return;
+        }
+
+        documents.lock(participationId);
+        try {
+            TeamCollaborationDocument currentDocument = documents.get(participationId);
+            if (currentDocument != null) {
+                currentDocument.saved(document.getRevision(), submissionId);
+                documents.set(participationId, currentDocument, DOCUMENT_TIME_TO_LIVE.toSeconds(), TimeUnit.SECONDS);
+            }
+            if (currentDocument == null || !currentDocument.isDirty()) {
+                pendingPersists.delete(participationId);
+            }
+        }
+        finally {
+            documents.unlock(participationId);
+        }
+    }
+
+    private Long persist(TeamCollaborationDocument document) {
+        // Without this, custom jpa repository methods don't work in scheduled tasks and in the websocket channel.
+        SecurityUtils.setAuthorizationObject();
+        final User user = userRepository.getUserWithGroupsAndAuthorities(document.getLastEditor());
+        final Exercise exercise = exerciseRepository.findByIdElseThrow(document.getExerciseId());
+        // the due date has already been checked when the edits were applied, the save might only happen after the due date
+        final ZonedDateTime editDate = ZonedDateTime.ofInstant(document.getLastEditDate(), ZoneId.systemDefault());
+
+        if (exercise instanceof ModelingExercise modelingExercise) {
+            ModelingSubmission modelingSubmission = new ModelingSubmission();
+            modelingSubmission.setId(document.getSubmissionId());
+            modelingSubmission.setModel(document.getContent());
+            modelingSubmission.setExplanationText(document.getExplanationText());
+            return modelingSubmissionService.handleModelingSubmission(modelingSubmission, modelingExercise, user, editDate).getId();
+        }
+        else if (exercise instanceof TextExercise textExercise) {
+            TextSubmission textSubmission = new TextSubmission(document.getSubmissionId());
+            textSubmission.setText(document.getContent());
+            return textSubmissionService.handleTextSubmission(textSubmission, textExercise, user, editDate).getId();
+        }
+        throw new IllegalArgumentException("Exercise type '" + exercise.getExerciseType() + "' not allowed.");
+    }
+
+    private String applyModelPatch(String model, TeamModelPatchDTO patch) throws JsonProcessingException {
+        ObjectNode modelNode = model == null || model.isBlank() ? objectMapper.createObjectNode() : (ObjectNode) objectMapper.readTree(model);
+        if (patch.properties() != null) {
+            patch.properties().forEach((property, value) -> {
+                if (!ELEMENTS.equals(property) && !RELATIONSHIPS.equals(property)) {
+                    modelNode.set(property, value);
+                }
+            });
+        }
+        upsertById(modelNode, ELEMENTS, patch.elements());
+        upsertById(modelNode, RELATIONSHIPS, patch.relationships());
+        if (patch.removedIds() != null && !patch.removedIds().isEmpty()) {
+            Set<String> removedIds = new HashSet<>(patch.removedIds());
+            removeById(modelNode.get(ELEMENTS), removedIds);
+            removeById(modelNode.get(RELATIONSHIPS), removedIds);
+        }
+        return objectMapper.writeValueAsString(modelNode);
+    }
+
+    /**
+     * Adds or replaces the given nodes in the given field of the model, which is either an array of nodes or an object from id to node (depending on the Apollon version)
+     */
+    private static void upsertById(ObjectNode modelNode, String field, List<JsonNode> nodes) {
+        if (nodes == null || nodes.isEmpty()) {
+            return;
+        }
+        if (nodes.stream().anyMatch(node -> !node.hasNonNull(ELEMENT_ID))) {
+            throw new IllegalArgumentException("All changed " + field + " need an id");
+        }
+        if (modelNode.get(field) instanceof ObjectNode nodesById) {
+            nodes.forEach(node -> nodesById.set(node.get(ELEMENT_ID).asText(), node));
+            return;
+        }
+        ArrayNode nodeArray = modelNode.get(field) instanceof ArrayNode existingArray ? existingArray : modelNode.putArray(field);
+        Map<String, Integer> indexById = new HashMap<>();
+        for (int index = 0; index < nodeArray.size(); index++) {
+            indexById.put(nodeArray.get(index).path(ELEMENT_ID).asText(), index);
+        }
+        for (JsonNode node : nodes) {
+            Integer index = indexById.get(node.get(ELEMENT_ID).asText());
+            if (index != null) {
+                nodeArray.set(index, node);
+            }
+            else {
+                indexById.put(node.get(ELEMENT_ID).asText(), nodeArray.size());
+                nodeArray.add(node);
+            }
+        }
+    }
+
+    private static void removeById(JsonNode nodes, Set<String> removedIds) {
+        if (nodes instanceof ObjectNode nodesById) {
+            nodesById.remove(removedIds);
+        }
+        else if (nodes instanceof ArrayNode nodeArray) {
+            for (int index = nodeArray.size() - 1; index >= 0; index--) {
+                if (removedIds.contains(nodeArray.get(index).path(ELEMENT_ID).asText())) {
+                    nodeArray.remove(index);
+                }
+            }
+        }
+    }
+}
@@ -31,27 +31,6 @@ public class TextSubmissionExportService extends SubmissionExportService {
         }
     }
 
-    /**
-     * Save the content of the given TextSubmission to a file.
-     *
-     * @param submission            that will be saved to a file
-     * @param studentLogin          of the given submission
-     * @param submissionsFolderName base folder name to save the file to
-     */
-    public void saveSubmissionToFile(TextSubmission submission, String studentLogin, String submissionsFolderName) throws IOException {
-        String submissionFileName = String.format("%s-%s%s", submission.getId(), studentLogin, this.getFileEndingForSubmission(submission));
-
-        File submissionExportFile = new File(submissionsFolderName, submissionFileName);
-
-        if (!submissionExportFile.exists()) {
-            submissionExportFile.createNewFile();
-        }
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(submissionExportFile, StandardCharsets.UTF_8))) {
-            writer.write(submission.getText());
-        }
-    }
-
     @Override
     protected String getFileEndingForSubmission(Submission submission) {
         return ".txt";
@@ -55,6 +55,20 @@ public class TextSubmissionService extends SubmissionService {
      * @return the saved text submission
      */
     public TextSubmission handleTextSubmission(TextSubmission textSubmission, TextExercise exercise, User user) {
+        return handleTextSubmission(textSubmission, exercise, user, ZonedDateTime.now());
+    }
+
+    /**
+     * Handles a text submission whose changes have been made at the given date and saves it in the database. The due date of course exercises is checked against this
+     * date, e.g. for the merged edits of a team, which are only saved once the team has stopped editing.
+     *
+     * @param textSubmission the text submission that should be saved
+     * @param exercise       the corresponding text exercise
+     * @param user           the user who initiated the save/submission
+     * @param editDate       the date of the last change of the submission, it is used as submission date
+     * @return the saved text submission
+     */
+    public TextSubmission handleTextSubmission(TextSubmission textSubmission, TextExercise exercise, User user, ZonedDateTime editDate) {
         // Don't allow submissions after the due date (except if the exercise was started after the due date)
         final var optionalParticipation = participationService.findOneByExerciseAndStudentLoginWithEagerSubmissionsAnyState(exercise, user.getLogin());
         if (optionalParticipation.isEmpty()) {
@@ -63,15 +77,16 @@ public class TextSubmissionService extends SubmissionService {
         final var participation = optionalParticipation.get();
         final var dueDate = ExerciseDateService.getDueDate(participation);
         // Important: for exam exercises, we should NOT check the exercise due date, we only check if for course exercises
-        if (dueDate.isPresent() && exerciseDateService.isAfterDueDate(participation) && participation.getInitializationDate().isBefore(dueDate.get())) {
+        final boolean isAfterDueDate = exercise.isExamExercise() ? exerciseDateService.isAfterDueDate(participation) : dueDate.map(editDate::isAfter).orElse(false);
+        if (dueDate.isPresent() && isAfterDueDate && participation.getInitializationDate().isBefore(dueDate.get())) {
             throw new AccessForbiddenException();
         }
 
         // NOTE: from now on we always set submitted to true to prevent problems here! Except for late submissions of course exercises to prevent issues in auto-save
-        if (exercise.isExamExercise() || exerciseDateService.isBeforeDueDate(participation)) {
+        if (exercise.isExamExercise() || !isAfterDueDate) {
             textSubmission.setSubmitted(true);
         }
-        textSubmission = save(textSubmission, participation, exercise, user);
+        textSubmission = save(textSubmission, participation, exercise, user, editDate);
         return textSubmission;
     }
 
@@ -82,11 +97,12 @@ public class TextSubmissionService extends SubmissionService {
      * @param participation  the participation the submission belongs to
      * @param textExercise   the exercise the submission belongs to
      * @param user           the user who initiated the save
+     * @param submissionDate the date of the submission
      * @return the textSubmission entity that was saved to the database
      */
-    private TextSubmission save(TextSubmission textSubmission, StudentParticipation participation, TextExercise textExercise, User user) {
+    private TextSubmission save(TextSubmission textSubmission, StudentParticipation participation, TextExercise textExercise, User user, ZonedDateTime submissionDate) {
         // update submission properties
-        textSubmission.setSubmissionDate(ZonedDateTime.now());
+        textSubmission.setSubmissionDate(submissionDate);
         textSubmission.setType(SubmissionType.MANUAL);
         participation.addSubmission(textSubmission);
 
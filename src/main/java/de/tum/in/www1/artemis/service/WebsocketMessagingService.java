@@ -3,16 +3,34 @@ package de.tum.in.www1.artemis.service;
 import static de.tum.in.www1.artemis.config.Constants.*;
 
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 import de.tum.in.www1.artemis.domain.Exercise;
+import de.tum.in.www1.artemis.domain.Feedback;
 import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
 import de.tum.in.www1.artemis.domain.participation.Participation;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
@@ -24,6 +42,33 @@ import de.tum.in.www1.artemis.service.exam.ExamDateService;
 @Service
 public class WebsocketMessagingService {
 
+    private final Logger log = LoggerFactory.getLogger(WebsocketMessagingService.class);
+
+    // the default prefix of user destinations, see SimpMessagingTemplate#convertAndSendToUser
+    private static final String USER_DESTINATION_PREFIX = "/user/";
+
+    private static final long STAFF_RESULT_WINDOW_MILLIS = 1000;
+
+    // if there are more results for an exercise within one window, the remaining ones are sent to the staff without feedback
+    private static final int MAX_STAFF_RESULTS_WITH_FEEDBACK_PER_WINDOW = 10;
+
+    /**
+     * Ignores the participation of the result, which is replaced by a participation that only contains the id in the views of the result
+     */
+    @JsonIgnoreProperties("participation")
+    private interface ResultWithoutParticipation {
+    }
+
+    /**
+     * The results for an exercise that were sent to the staff within a time window
+     *
+     * @param start          the start of the window
+     * @param resultCount    the number of results within the window
+     * @param hasSubscribers whether a staff member subscribed to the results of the exercise at the start of the window
+     */
+    private record StaffResultWindow(long start, int resultCount, boolean hasSubscribers) {
+    }
+
     private final SimpMessageSendingOperations messagingTemplate;
 
     private final ExamDateService examDateService;
@@ -32,12 +77,24 @@ public class WebsocketMessagingService {
 
     private final AuthorizationCheckService authCheckService;
 
+    private final SimpUserRegistry userRegistry;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectMapper resultViewMapper;
+
+    private final Map<Long, StaffResultWindow> staffResultWindows = new ConcurrentHashMap<>();
+
     public WebsocketMessagingService(SimpMessageSendingOperations messagingTemplate, ExamDateService examDateService, ExerciseDateService exerciseDateService,
-            AuthorizationCheckService authCheckService) {
+            AuthorizationCheckService authCheckService, SimpUserRegistry userRegistry, MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter) {
         this.messagingTemplate = messagingTemplate;
         this.examDateService = examDateService;
         this.exerciseDateService = exerciseDateService;
         this.authCheckService = authCheckService;
+        this.userRegistry = userRegistry;
+        // the same object mapper is used for websocket messages, see WebsocketConfiguration
+        this.objectMapper = mappingJackson2HttpMessageConverter.getObjectMapper();
+        this.resultViewMapper = objectMapper.copy().addMixIn(Result.class, ResultWithoutParticipation.class);
     }
 
     /**
@@ -63,58 +120,140 @@ public class WebsocketMessagingService {
 
     /**
      * Broadcast a new result to the client.
+     * <p>
+     * The result itself is not modified. Instead, a view is created for each audience (students, staff) and serialized once for all of its recipients.
+     * The participation of the views only contains its id, as the participation is already known to the client. This also cuts off the exercise (including the
+     * potentially huge problem statement) and the course with all potential attributes.
+     * Staff members only receive the result if they subscribed to the results of the exercise; if there are many results at once (e.g. during an exam), the
+     * results are sent to them without the feedback (marked with <code>feedbacksOmitted</code>), which the client loads when it is needed.
      *
      * @param participation the id is used in the destination (so that only clients who have subscribed the specific participation will receive the result)
-     * @param result        the new result that should be sent to the client. It typically includes feedback, its participation will be cut off here to reduce the payload size.
-     *                          As the participation is already known to the client, we do not need to send it. This also cuts of the exercise (including the potentially huge
-     *                          problem statement and the course with all potential attributes
+     * @param result        the new result that should be sent to the client. It typically includes feedback
      */
     public void broadcastNewResult(Participation participation, Result result) {
-        // remove unnecessary properties to reduce the data sent to the client (we should not send the exercise and its potentially huge problem statement)
-        var originalParticipation = result.getParticipation();
-        result.setParticipation(originalParticipation.copyParticipationId());
-
-        final var originalAssessor = result.getAssessor();
-        final var originalFeedback = new ArrayList<>(result.getFeedbacks());
-
-        // TODO: Are there other cases that must be handled here?
-        if (participation instanceof StudentParticipation studentParticipation) {
-            final Exercise exercise = studentParticipation.getExercise();
-            boolean isWorkingPeriodOver;
-            if (exercise.isExamExercise()) {
-                isWorkingPeriodOver = examDateService.isExerciseWorkingPeriodOver(exercise, studentParticipation);
-            }
-            else {
-                isWorkingPeriodOver = exerciseDateService.isAfterLatestDueDate(exercise);
+        try {
+            ObjectNode staffView = resultViewMapper.valueToTree(result);
+            staffView.set("participation", objectMapper.valueToTree(result.getParticipation().copyParticipationId()));
+
+            // TODO: Are there other cases that must be handled here?
+            if (participation instanceof StudentParticipation studentParticipation) {
+                broadcastNewResultToStudents(studentParticipation, result, staffView);
             }
-            // Don't send students results after the exam ended
-            boolean isAfterExamEnd = isWorkingPeriodOver && exercise.isExamExercise() && !exercise.getExamViaExerciseGroupOrCourseMember().isTestExam();
-            // If the assessment due date is not over yet, do not send manual feedback to students!
-            boolean isAutomaticAssessmentOrDueDateOver = AssessmentType.AUTOMATIC == result.getAssessmentType() || exercise.getAssessmentDueDate() == null
-                    || ZonedDateTime.now().isAfter(exercise.getAssessmentDueDate());
+            broadcastNewResultToStaff(participation.getExercise().getId(), staffView);
+        }
+        catch (JsonProcessingException e) {
+            log.error("Exception occurred while serializing the new result {}", result.getId(), e);
+        }
+    }
 
-            if (isAutomaticAssessmentOrDueDateOver && !isAfterExamEnd) {
-                result.filterSensitiveInformation();
+    private void broadcastNewResultToStudents(StudentParticipation studentParticipation, Result result, ObjectNode staffView) throws JsonProcessingException {
+        final Exercise exercise = studentParticipation.getExercise();
+        boolean isWorkingPeriodOver;
+        if (exercise.isExamExercise()) {
+            isWorkingPeriodOver = examDateService.isExerciseWorkingPeriodOver(exercise, studentParticipation);
+        }
+        else {
+            isWorkingPeriodOver = exerciseDateService.isAfterLatestDueDate(exercise);
+        }
+        // Don't send students results after the exam ended
+        boolean isAfterExamEnd = isWorkingPeriodOver && exercise.isExamExercise() && !exercise.getExamViaExerciseGroupOrCourseMember().isTestExam();
+        // If the assessment due date is not over yet, do not send manual feedback to students!
+        boolean isAutomaticAssessmentOrDueDateOver = AssessmentType.AUTOMATIC == result.getAssessmentType() || exercise.getAssessmentDueDate() == null
+                || ZonedDateTime.now().isAfter(exercise.getAssessmentDueDate());
+        if (!isAutomaticAssessmentOrDueDateOver || isAfterExamEnd) {
+            return;
+        }
 
-                studentParticipation.getStudents().stream().filter(student -> authCheckService.isAtLeastTeachingAssistantForExercise(exercise, student))
-                        .forEach(user -> messagingTemplate.convertAndSendToUser(user.getLogin(), NEW_RESULT_TOPIC, result));
+        Map<Boolean, List<User>> studentsByIsAtLeastTeachingAssistant = studentParticipation.getStudents().stream()
+                .collect(Collectors.partitioningBy(student -> authCheckService.isAtLeastTeachingAssistantForExercise(exercise, student)));
 
-                result.filterSensitiveFeedbacks(!isWorkingPeriodOver);
+        // Students should not see information about their assessor, teaching assistants (e.g. in a test run) still see all feedbacks
+        ObjectNode viewWithoutAssessor = staffView.deepCopy();
+        viewWithoutAssessor.remove("assessor");
+        sendResultToUsers(studentsByIsAtLeastTeachingAssistant.get(true), viewWithoutAssessor);
+
+        if (!studentsByIsAtLeastTeachingAssistant.get(false).isEmpty()) {
+            sendResultToUsers(studentsByIsAtLeastTeachingAssistant.get(false), filterSensitiveFeedbacks(result, viewWithoutAssessor, !isWorkingPeriodOver));
+        }
+    }
 
-                studentParticipation.getStudents().stream().filter(student -> !authCheckService.isAtLeastTeachingAssistantForExercise(exercise, student))
-                        .forEach(user -> messagingTemplate.convertAndSendToUser(user.getLogin(), NEW_RESULT_TOPIC, result));
+    /**
+     * Removes the feedbacks that should not be passed to the student from the view, see {@link Result#filterSensitiveFeedbacks(boolean)}
+     */
+    private ObjectNode filterSensitiveFeedbacks(Result result, ObjectNode view, boolean isBeforeDueDate) {
+        ObjectNode studentView = view.deepCopy();
+        // the feedback views have the same order as the feedbacks of the result
+        JsonNode feedbackViews = view.path("feedbacks");
+        ArrayNode visibleFeedbackViews = studentView.arrayNode();
+        int testCaseCount = 0;
+        int passedTestCaseCount = 0;
+        for (int i = 0; i < result.getFeedbacks().size(); i++) {
+            Feedback feedback = result.getFeedbacks().get(i);
+            if (feedback == null || feedback.isInvisible() || (isBeforeDueDate && feedback.isAfterDueDate())) {
+                continue;
+            }
+            visibleFeedbackViews.add(feedbackViews.get(i));
+            if (feedback.isTestFeedback()) {
+                testCaseCount++;
+                if (Boolean.TRUE.equals(feedback.isPositive())) {
+                    passedTestCaseCount++;
+                }
             }
         }
+        if (visibleFeedbackViews.isEmpty()) {
+            studentView.remove("feedbacks");
+        }
+        else {
+            studentView.set("feedbacks", visibleFeedbackViews);
+        }
+        studentView.put("testCaseCount", Math.min(testCaseCount, SIZE_OF_UNSIGNED_TINYINT));
+        studentView.put("passedTestCaseCount", Math.min(passedTestCaseCount, SIZE_OF_UNSIGNED_TINYINT));
+        return studentView;
+    }
 
-        // Restore information that should not go to students but tutors, instructors, and admins should still see
-        result.setAssessor(originalAssessor);
-        result.setFeedbacks(originalFeedback);
+    private void sendResultToUsers(List<User> users, ObjectNode view) throws JsonProcessingException {
+        if (users.isEmpty()) {
+            return;
+        }
+        byte[] payload = objectMapper.writeValueAsBytes(view);
+        for (User user : users) {
+            messagingTemplate.send(USER_DESTINATION_PREFIX + user.getLogin() + NEW_RESULT_TOPIC, MessageBuilder.withPayload(payload).build());
+        }
+    }
 
-        // Send to tutors, instructors and admins
-        messagingTemplate.convertAndSend(getNonPersonalExerciseResultDestination(participation.getExercise().getId()), result);
+    private void broadcastNewResultToStaff(long exerciseId, ObjectNode staffView) throws JsonProcessingException {
+        String destination = getNonPersonalExerciseResultDestination(exerciseId);
+        StaffResultWindow window = staffResultWindows.compute(exerciseId, (id, currentWindow) -> {
+            long now = System.currentTimeMillis();
+            if (currentWindow == null || now - currentWindow.start() >= STAFF_RESULT_WINDOW_MILLIS) {
+                // the subscriptions are only checked once per window, as all subscriptions of all connected users have to be searched
+                boolean hasSubscribers = !userRegistry.findSubscriptions(subscription -> destination.equals(subscription.getDestination())).isEmpty();
+                return new StaffResultWindow(now, 1, hasSubscribers);
+            }
+            return new StaffResultWindow(currentWindow.start(), currentWindow.resultCount() + 1, currentWindow.hasSubscribers());
+        });
+        if (!window.hasSubscribers()) {
+            return;
+        }
 
-        // recover the participation because we might want to use it again after this method
-        result.setParticipation(originalParticipation);
+        ObjectNode view = staffView;
+        if (window.resultCount() > MAX_STAFF_RESULTS_WITH_FEEDBACK_PER_WINDOW) {
+            view = staffView.deepCopy();
+            view.remove("feedbacks");
+            view.put("feedbacksOmitted", true);
+        }
+        messagingTemplate.send(destination, MessageBuilder.withPayload(objectMapper.writeValueAsBytes(view)).build());
+    }
+
+    /**
+     * Removes the result windows of the exercises without new results, so that the windows of all exercises that ever received a result are not kept in memory.
+     * Note: Active on all instances, as every instance counts the results that it broadcasts itself.
+     */
+    @Scheduled(fixedRate = 60 * 1000)
+    public void evictIdleStaffResultWindows() {
+        long now = System.currentTimeMillis();
+        // only removes a window if it has not been replaced in the meantime
+        staffResultWindows.values().removeIf(window -> now - window.start() >= STAFF_RESULT_WINDOW_MILLIS);
     }
 
     /**
@@ -1,22 +1,16 @@
 package de.tum.in.www1.artemis.service.connectors.localci;
 
 import java.io.IOException;
-import java.io.StringReader;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamReader;
 
-import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,7 +21,6 @@ import com.github.dockerjava.api.command.CreateContainerResponse;
 import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.model.HostConfig;
 
-import de.tum.in.www1.artemis.config.localvcci.LocalCIConfiguration;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseParticipation;
 import de.tum.in.www1.artemis.exception.LocalCIException;
 import de.tum.in.www1.artemis.exception.localvc.LocalVCInternalException;
@@ -54,10 +47,7 @@ public class LocalCIBuildJobExecutionService {
 
     private final LocalCIContainerService localCIContainerService;
 
-    /**
-     * Instead of creating a new XMLInputFactory for every build job, it is created once and provided as a Bean (see {@link LocalCIConfiguration#localCIXMLInputFactory()}).
-     */
-    private final XMLInputFactory localCIXMLInputFactory;
+    private final LocalCITestResultParser localCITestResultParser;
 
     @Value("${artemis.version-control.url}")
     private URL localVCBaseUrl;
@@ -66,11 +56,11 @@ public class LocalCIBuildJobExecutionService {
     private String localVCBasePath;
 
     public LocalCIBuildJobExecutionService(LocalCIBuildPlanService localCIBuildPlanService, Optional<VersionControlService> versionControlService,
-            LocalCIContainerService localCIContainerService, XMLInputFactory localCIXMLInputFactory) {
+            LocalCIContainerService localCIContainerService, LocalCITestResultParser localCITestResultParser) {
         this.localCIBuildPlanService = localCIBuildPlanService;
         this.versionControlService = versionControlService;
         this.localCIContainerService = localCIContainerService;
-        this.localCIXMLInputFactory = localCIXMLInputFactory;
+        this.localCITestResultParser = localCITestResultParser;
     }
 
     public enum LocalCIBuildJobRepositoryType {
@@ -228,99 +218,15 @@ public class LocalCIBuildJobExecutionService {
         List<LocalCIBuildResult.LocalCITestJobDTO> failedTests = new ArrayList<>();
         List<LocalCIBuildResult.LocalCITestJobDTO> successfulTests = new ArrayList<>();
 
-        TarArchiveEntry tarEntry;
-        while ((tarEntry = testResultsTarInputStream.getNextTarEntry()) != null) {
-
-            // Go through all tar entries that are test result files.
-            if (!isValidTestResultFile(tarEntry)) {
-                continue;
-            }
-
-            // Read the contents of the tar entry as a string.
-            String xmlString = readTarEntryContent(testResultsTarInputStream);
-
-            processTestResultFile(xmlString, failedTests, successfulTests);
+        // The test results are streamed from the container into the parser, which adds every test case to the lists as soon as it is read.
+        try (testResultsTarInputStream) {
+            localCITestResultParser.parseTestResults(testResultsTarInputStream, successfulTests::add, failedTests::add);
         }
 
         return constructBuildResult(failedTests, successfulTests, assignmentRepoBranchName, assignmentRepoCommitHash, testsRepoCommitHash, !failedTests.isEmpty(),
                 buildCompletedDate);
     }
 
-    private boolean isValidTestResultFile(TarArchiveEntry tarArchiveEntry) {
-        return !tarArchiveEntry.isDirectory() && tarArchiveEntry.getName().endsWith(".xml") && tarArchiveEntry.getName().startsWith("test/TEST-")
-                && tarArchiveEntry.getName().endsWith(".xml");
-    }
-
-    private String readTarEntryContent(TarArchiveInputStream tarArchiveInputStream) throws IOException {
-        return IOUtils.toString(tarArchiveInputStream, StandardCharsets.UTF_8);
-    }
-
-    /**
-     * Processes a test result file and adds the failed and successful tests to the corresponding lists.
-     *
-     * @param testResultFileString The string that represents the test results XML file.
-     * @param failedTests          The list of failed tests.
-     * @param successfulTests      The list of successful tests.
-     * @throws XMLStreamException    if the XML stream reader cannot be created or there is an error while parsing the XML file
-     * @throws IllegalStateException if the first start element of the XML file is not a "testsuite" node
-     */
-    private void processTestResultFile(String testResultFileString, List<LocalCIBuildResult.LocalCITestJobDTO> failedTests,
-            List<LocalCIBuildResult.LocalCITestJobDTO> successfulTests) throws XMLStreamException {
-        // Create an XML stream reader for the string that represents the test results XML file.
-        XMLStreamReader xmlStreamReader = localCIXMLInputFactory.createXMLStreamReader(new StringReader(testResultFileString));
-
-        // Move to the first start element.
-        while (xmlStreamReader.hasNext() && !xmlStreamReader.isStartElement()) {
-            xmlStreamReader.next();
-        }
-
-        // Check if the start element is the "testsuite" node.
-        if (!("testsuite".equals(xmlStreamReader.getLocalName()))) {
-            throw new IllegalStateException("Expected testsuite element, but got " + xmlStreamReader.getLocalName());
-        }
-
-        // Go through all testcase nodes.
-        while (xmlStreamReader.hasNext()) {
-            xmlStreamReader.next();
-
-            if (!xmlStreamReader.isStartElement() || !("testcase".equals(xmlStreamReader.getLocalName()))) {
-                continue;
-            }
-
-            // Now we are at the start of a "testcase" node.
-            processTestCaseNode(xmlStreamReader, failedTests, successfulTests);
-        }
-
-        // Close the XML stream reader.
-        xmlStreamReader.close();
-    }
-
-    private void processTestCaseNode(XMLStreamReader xmlStreamReader, List<LocalCIBuildResult.LocalCITestJobDTO> failedTests,
-            List<LocalCIBuildResult.LocalCITestJobDTO> successfulTests) throws XMLStreamException {
-        // Extract the name attribute from the "testcase" node. This is the name of the test case.
-        String name = xmlStreamReader.getAttributeValue(null, "name");
-
-        // Check if there is a failure node inside the testcase node.
-        // Call next() until there is an end element (no failure node exists inside the testcase node) or a start element (failure node exists inside the
-        // testcase node).
-        xmlStreamReader.next();
-        while (!(xmlStreamReader.isEndElement() || xmlStreamReader.isStartElement())) {
-            xmlStreamReader.next();
-        }
-        if (xmlStreamReader.isStartElement() && "failure".equals(xmlStreamReader.getLocalName())) {
-            // Extract the message attribute from the "failure" node.
-            String error = xmlStreamReader.getAttributeValue(null, "message");
-
-            // Add the failed test to the list of failed tests.
-            List<String> errors = error != null ? List.of(error) : List.of();
-            failedTests.add(new LocalCIBuildResult.LocalCITestJobDTO(name, errors));
-        }
-        else {
-            // Add the successful test to the list of successful tests.
-            successfulTests.add(new LocalCIBuildResult.LocalCITestJobDTO(name, List.of()));
-        }
-    }
-
     /**
      * Constructs a {@link LocalCIBuildResult} that indicates a failed build from the given parameters. The lists of failed and successful tests are both empty which will be
      * interpreted as a failed build by Artemis.
@@ -0,0 +1,143 @@
+package de.tum.in.www1.artemis.service.connectors.localci;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.config.localvcci.LocalCIConfiguration;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildResult;
+
+/**
+ * Parses the JUnit XML test reports that are copied out of a local CI build container.
+ * The reports are read directly from the tar stream returned by Docker without buffering the entries in memory. Test cases are handed to the caller one by one as soon as
+ * they are parsed, and the content of the failure nodes (e.g. stack traces) is never materialized.
+ */
+@Service
+@Profile("localci")
+public class LocalCITestResultParser {
+
+    /**
+     * Maximum number of characters of a failure message that is kept. Longer messages are cut off while parsing so that a single test case with a huge message (e.g. an assertion
+     * printing a large collection) does not end up in the build result.
+     */
+    public static final int MAX_FAILURE_MESSAGE_LENGTH = 50_000;
+
+    /**
+     * Instead of creating a new XMLInputFactory for every build job, it is created once and provided as a Bean (see {@link LocalCIConfiguration#localCIXMLInputFactory()}).
+     */
+    private final XMLInputFactory localCIXMLInputFactory;
+
+    public LocalCITestResultParser(XMLInputFactory localCIXMLInputFactory) {
+        this.localCIXMLInputFactory = localCIXMLInputFactory;
+    }
+
+    /**
+     * Parses all test result files contained in the given tar stream and passes every test case to the matching consumer as soon as it was read.
+     *
+     * @param testResultsTarInputStream The tar stream containing the test result files as returned by the container.
+     * @param successfulTestConsumer    Receives every successful test case.
+     * @param failedTestConsumer        Receives every failed test case.
+     * @throws IOException           if the tar stream cannot be read
+     * @throws XMLStreamException    if the XML stream reader cannot be created or there is an error while parsing an XML file
+     * @throws IllegalStateException if the first start element of an XML file is not a "testsuite" node
+     */
+    public void parseTestResults(TarArchiveInputStream testResultsTarInputStream, Consumer<LocalCIBuildResult.LocalCITestJobDTO> successfulTestConsumer,
+            Consumer<LocalCIBuildResult.LocalCITestJobDTO> failedTestConsumer) throws IOException, XMLStreamException {
+        TarArchiveEntry tarEntry;
+        while ((tarEntry = testResultsTarInputStream.getNextTarEntry()) != null) {
+
+            // Go through all tar entries that are test result files.
+            if (!isValidTestResultFile(tarEntry)) {
+                continue;
+            }
+
+            // The tar stream only returns the bytes of the current entry, so it can be handed to the XML parser directly. Closing the XML stream reader does not close the
+            // underlying tar stream, which stays open for the following entries.
+            XMLStreamReader xmlStreamReader = localCIXMLInputFactory.createXMLStreamReader(testResultsTarInputStream);
+            try {
+                processTestResultFile(xmlStreamReader, successfulTestConsumer, failedTestConsumer);
+            }
+            finally {
+                xmlStreamReader.close();
+            }
+        }
+    }
+
+    private boolean isValidTestResultFile(TarArchiveEntry tarArchiveEntry) {
+        return !tarArchiveEntry.isDirectory() && tarArchiveEntry.getName().startsWith("test/TEST-") && tarArchiveEntry.getName().endsWith(".xml");
+    }
+
+    /**
+     * Processes a test result file and passes the failed and successful tests to the corresponding consumers.
+     *
+     * @param xmlStreamReader        The XML stream reader positioned at the start of the test results XML file.
+     * @param successfulTestConsumer Receives every successful test case.
+     * @param failedTestConsumer     Receives every failed test case.
+     * @throws XMLStreamException    if there is an error while parsing the XML file
+     * @throws IllegalStateException if the first start element of the XML file is not a "testsuite" node
+     */
+    private void processTestResultFile(XMLStreamReader xmlStreamReader, Consumer<LocalCIBuildResult.LocalCITestJobDTO> successfulTestConsumer,
+            Consumer<LocalCIBuildResult.LocalCITestJobDTO> failedTestConsumer) throws XMLStreamException {
+        // Move to the first start element.
+        while (xmlStreamReader.hasNext() && !xmlStreamReader.isStartElement()) {
+            xmlStreamReader.next();
+        }
+
+        // Check if the start element is the "testsuite" node.
+        if (!xmlStreamReader.isStartElement() || !("testsuite".equals(xmlStreamReader.getLocalName()))) {
+            throw new IllegalStateException("Expected testsuite element, but got " + (xmlStreamReader.isStartElement() ? xmlStreamReader.getLocalName() : "no element"));
+        }
+
+        // Go through all testcase nodes.
+        while (xmlStreamReader.hasNext()) {
+            xmlStreamReader.next();
+
+            if (!xmlStreamReader.isStartElement() || !("testcase".equals(xmlStreamReader.getLocalName()))) {
+                continue;
+            }
+
+            // Now we are at the start of a "testcase" node.
+            processTestCaseNode(xmlStreamReader, successfulTestConsumer, failedTestConsumer);
+        }
+    }
+
+    private void processTestCaseNode(XMLStreamReader xmlStreamReader, Consumer<LocalCIBuildResult.LocalCITestJobDTO> successfulTestConsumer,
+            Consumer<LocalCIBuildResult.LocalCITestJobDTO> failedTestConsumer) throws XMLStreamException {
+        // Extract the name attribute from the "testcase" node. This is the name of the test case.
+        String name = xmlStreamReader.getAttributeValue(null, "name");
+
+        // Check if there is a failure node inside the testcase node.
+        // Call next() until there is an end element (no failure node exists inside the testcase node) or a start element (failure node exists inside the
+        // testcase node). The text in between is skipped without being copied into a string.
+        xmlStreamReader.next();
+        while (!(xmlStreamReader.isEndElement() || xmlStreamReader.isStartElement())) {
+            xmlStreamReader.next();
+        }
+        if (xmlStreamReader.isStartElement() && "failure".equals(xmlStreamReader.getLocalName())) {
+            // Extract the message attribute from the "failure" node. The body of the node usually contains the stack trace, which is not needed and therefore not read.
+            String error = truncateFailureMessage(xmlStreamReader.getAttributeValue(null, "message"));
+
+            List<String> errors = error != null ? List.of(error) : List.of();
+            failedTestConsumer.accept(new LocalCIBuildResult.LocalCITestJobDTO(name, errors));
+        }
+        else {
+            successfulTestConsumer.accept(new LocalCIBuildResult.LocalCITestJobDTO(name, List.of()));
+        }
+    }
+
+    private String truncateFailureMessage(String message) {
+        if (message == null || message.length() <= MAX_FAILURE_MESSAGE_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_FAILURE_MESSAGE_LENGTH);
+    }
+}
@@ -0,0 +1,190 @@
+package de.tum.in.www1.artemis.service.connectors.localvc;
+
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_LOCALVC_AUTHORIZATION_CACHE;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.predicates.QueryConstants;
+
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.exception.localvc.LocalVCInternalException;
+import de.tum.in.www1.artemis.web.rest.repository.RepositoryActionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caches the results of the authentication and authorization checks of git requests to the local VC server, because git clients send several requests per command
+ * (and IDEs fetch periodically) which would otherwise all verify the password hash and query the database.
+ * <p>
+ * Verified credentials are only kept on this node, as a keyed digest together with the password hash of the user at the time of the verification. A changed password
+ * (on any node) therefore invalidates them. Authorization decisions are shared in the cluster and keyed by the groups of the user, so that group changes invalidate
+ * them as well. They are evicted when the repositories of an exercise are locked or unlocked and when the exercise is updated.
+ */
+@Service
+@Profile("localvc")
+public class LocalVCAccessCacheService {
+
+    private static final long CREDENTIALS_TIME_TO_LIVE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final long AUTHORIZATIONS_TIME_TO_LIVE_SECONDS = 60;
+
+    // expired credentials are removed once the cache grows beyond this size, they are not used in any case
+    private static final int CREDENTIALS_CLEANUP_THRESHOLD = 10000;
+
+    private static final String CREDENTIALS_DIGEST_ALGORITHM = "HmacSHA256";
+
+    private static final String CACHE_METER_NAME = "artemis.localvc.access.cache";
+
+    private static final String KEY_SEPARATOR = "|";
+
+    private record VerifiedCredentials(byte[] digest, String passwordHash, long expiresAt) {
+    }
+
+    // login -> credentials that were verified by the authentication manager
+    private final Map<String, VerifiedCredentials> verifiedCredentials = new ConcurrentHashMap<>();
+
+    // "{projectKey}|{repositoryTypeOrUserName}|{isPracticeRepository}|{login}|{hash of the groups}|{action}" -> true, only granted access is cached
+    private final IMap<String, Boolean> authorizations;
+
+    // random key generated on startup, so that the digests cannot be used to guess passwords (even with a dump of the memory of another node)
+    private final SecretKeySpec credentialsKey;
+
+    private final Counter credentialsHitCounter;
+
+    private final Counter credentialsMissCounter;
+
+    private final Counter authorizationsHitCounter;
+
+    private final Counter authorizationsMissCounter;
+
+    public LocalVCAccessCacheService(HazelcastInstance hazelcastInstance, MeterRegistry meterRegistry) {
+        this.authorizations = hazelcastInstance.getMap(HAZELCAST_LOCALVC_AUTHORIZATION_CACHE);
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.credentialsKey = new SecretKeySpec(key, CREDENTIALS_DIGEST_ALGORITHM);
+        this.credentialsHitCounter = cacheCounter("credentials", "hit").register(meterRegistry);
+        this.credentialsMissCounter = cacheCounter("credentials", "miss").register(meterRegistry);
+        this.authorizationsHitCounter = cacheCounter("authorizations", "hit").register(meterRegistry);
+        this.authorizationsMissCounter = cacheCounter("authorizations", "miss").register(meterRegistry);
+    }
+
+    private Counter.Builder cacheCounter(String cache, String result) {
+        return Counter.builder(CACHE_METER_NAME).description("Number of lookups in the caches of the local VC access checks").tag("cache", cache).tag("result", result);
+    }
+
+    /**
+     * Checks whether the password of the user has recently been verified by the authentication manager.
+     *
+     * @param user     the user with the given login, as currently stored in the database
+     * @param password the password of the git request
+     * @return true if the credentials were verified and the password of the user did not change since then
+     */
+    public boolean areCredentialsVerified(User user, String password) {
+        VerifiedCredentials credentials = verifiedCredentials.get(user.getLogin());
+        boolean verified = credentials != null && credentials.expiresAt() > System.currentTimeMillis() && user.getActivated()
+                && Objects.equals(credentials.passwordHash(), user.getPassword()) && MessageDigest.isEqual(credentials.digest(), digest(user.getLogin(), password));
+        (verified ? credentialsHitCounter : credentialsMissCounter).increment();
+        return verified;
+    }
+
+    /**
+     * Remembers the credentials after they have been verified by the authentication manager.
+     *
+     * @param user     the authenticated user
+     * @param password the verified password
+     */
+    public void putVerifiedCredentials(User user, String password) {
+        long now = System.currentTimeMillis();
+        if (verifiedCredentials.size() > CREDENTIALS_CLEANUP_THRESHOLD) {
+            verifiedCredentials.values().removeIf(credentials -> credentials.expiresAt() <= now);
+        }
+        verifiedCredentials.put(user.getLogin(), new VerifiedCredentials(digest(user.getLogin(), password), user.getPassword(), now + CREDENTIALS_TIME_TO_LIVE_MILLIS));
+    }
+
+    private byte[] digest(String login, String password) {
+        try {
+            Mac mac = Mac.getInstance(CREDENTIALS_DIGEST_ALGORITHM);
+            mac.init(credentialsKey);
+            return mac.doFinal((login + ":" + password).getBytes(StandardCharsets.UTF_8));
+        }
+        catch (GeneralSecurityException e) {
+            throw new LocalVCInternalException("Could not compute the digest of the credentials", e);
+        }
+    }
+
+    /**
+     * Checks whether the user was recently granted the action on the repository.
+     *
+     * @param repositoryUrl        the URL of the requested repository
+     * @param user                 the authenticated user including their groups
+     * @param repositoryActionType the requested action
+     * @return true if the access was granted and did not expire or get evicted since then
+     */
+    public boolean isAuthorized(LocalVCRepositoryUrl repositoryUrl, User user, RepositoryActionType repositoryActionType) {
+        boolean authorized = authorizations.containsKey(authorizationKey(repositoryUrl, user, repositoryActionType));
+        (authorized ? authorizationsHitCounter : authorizationsMissCounter).increment();
+        return authorized;
+    }
+
+    /**
+     * Remembers that the user was granted the action on the repository.
+     *
+     * @param repositoryUrl        the URL of the requested repository
+     * @param user                 the authenticated user including their groups
+     * @param repositoryActionType the granted action
+     */
+    public void putAuthorization(LocalVCRepositoryUrl repositoryUrl, User user, RepositoryActionType repositoryActionType) {
+        authorizations.set(authorizationKey(repositoryUrl, user, repositoryActionType), Boolean.TRUE, AUTHORIZATIONS_TIME_TO_LIVE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Evicts the authorization decisions for all repositories of a project, e.g. because the dates of the exercise changed.
+     *
+     * @param projectKey the project key of the exercise
+     */
+    public void evictAuthorizations(String projectKey) {
+        evictAuthorizationsByPrefix(projectKey + KEY_SEPARATOR);
+    }
+
+    /**
+     * Evicts the authorization decisions for a repository, e.g. because it was locked or unlocked.
+     *
+     * @param repositoryUrl the URL of the repository
+     */
+    public void evictAuthorizations(LocalVCRepositoryUrl repositoryUrl) {
+        evictAuthorizationsByPrefix(repositoryUrl.getProjectKey() + KEY_SEPARATOR + repositoryUrl.getRepositoryTypeOrUserName() + KEY_SEPARATOR);
+    }
+
+    private void evictAuthorizationsByPrefix(String prefix) {
+        authorizations.removeAll(Predicates.like(QueryConstants.KEY_ATTRIBUTE_NAME.value(), prefix + "%"));
+    }
+
+    /**
+     * Clears both caches.
+     */
+    public void clear() {
+        verifiedCredentials.clear();
+        authorizations.clear();
+    }
+
+    private static String authorizationKey(LocalVCRepositoryUrl repositoryUrl, User user, RepositoryActionType repositoryActionType) {
+        return String.join(KEY_SEPARATOR, repositoryUrl.getProjectKey(), repositoryUrl.getRepositoryTypeOrUserName(), String.valueOf(repositoryUrl.isPracticeRepository()),
+                user.getLogin(), String.valueOf(user.getGroups().hashCode()), repositoryActionType.name());
+    }
+}
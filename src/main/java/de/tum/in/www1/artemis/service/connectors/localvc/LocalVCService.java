@@ -59,10 +59,13 @@ public class LocalVCService extends AbstractVersionControlService {
     @Value("${artemis.version-control.local-vcs-repo-path}")
     private String localVCBasePath;
 
+    private final LocalVCAccessCacheService localVCAccessCacheService;
+
     public LocalVCService(UrlService urlService, GitService gitService, ApplicationContext applicationContext,
             ProgrammingExerciseStudentParticipationRepository studentParticipationRepository, ProgrammingExerciseRepository programmingExerciseRepository,
-            TemplateProgrammingExerciseParticipationRepository templateProgrammingExerciseParticipationRepository) {
+            TemplateProgrammingExerciseParticipationRepository templateProgrammingExerciseParticipationRepository, LocalVCAccessCacheService localVCAccessCacheService) {
         super(applicationContext, gitService, urlService, studentParticipationRepository, programmingExerciseRepository, templateProgrammingExerciseParticipationRepository);
+        this.localVCAccessCacheService = localVCAccessCacheService;
     }
 
     @Override
@@ -71,6 +74,10 @@ public class LocalVCService extends AbstractVersionControlService {
         // if the exercise allows for usage of an offline IDE.
         // For local VCS, users are allowed to access the repository by default if they have access to the repository URL.
         // Instead, the LocalVCFetchFilter and LocalVCPushFilter block requests if offline IDE usage is not allowed.
+        // The cached access decisions for the repository are evicted, as this method is also used to unlock the repository.
+        if (participation.getVcsRepositoryUrl() != null) {
+            localVCAccessCacheService.evictAuthorizations(new LocalVCRepositoryUrl(participation.getVcsRepositoryUrl().toString(), localVCBaseUrl));
+        }
     }
 
     @Override
@@ -102,6 +109,7 @@ public class LocalVCService extends AbstractVersionControlService {
      */
     @Override
     public void deleteProject(String projectKey) {
+        localVCAccessCacheService.evictAuthorizations(projectKey);
         try {
             Path projectPath = Path.of(localVCBasePath, projectKey);
             FileUtils.deleteDirectory(projectPath.toFile());
@@ -122,6 +130,7 @@ public class LocalVCService extends AbstractVersionControlService {
 
         LocalVCRepositoryUrl localVCRepositoryUrl = new LocalVCRepositoryUrl(repositoryUrl.toString(), localVCBaseUrl);
         Path localRepositoryPath = localVCRepositoryUrl.getLocalRepositoryPath(localVCBasePath);
+        localVCAccessCacheService.evictAuthorizations(localVCRepositoryUrl);
 
         try {
             FileUtils.deleteDirectory(localRepositoryPath.toFile());
@@ -147,6 +156,8 @@ public class LocalVCService extends AbstractVersionControlService {
     @Override
     public void setRepositoryPermissionsToReadOnly(VcsRepositoryUrl repositoryUrl, String projectKey, Set<User> users) {
         // Not implemented for local VC. All checks for whether a student can access a repository are conducted in the LocalVCFetchFilter and LocalVCPushFilter.
+        // Only the cached access decisions for the repository are evicted.
+        localVCAccessCacheService.evictAuthorizations(new LocalVCRepositoryUrl(repositoryUrl.toString(), localVCBaseUrl));
     }
 
     /**
@@ -71,6 +71,8 @@ public class LocalVCServletService {
 
     private final ProgrammingExerciseParticipationService programmingExerciseParticipationService;
 
+    private final LocalVCAccessCacheService localVCAccessCacheService;
+
     @Value("${artemis.version-control.url}")
     private URL localVCBaseUrl;
 
@@ -88,7 +90,8 @@ public class LocalVCServletService {
 
     public LocalVCServletService(AuthenticationManagerBuilder authenticationManagerBuilder, UserRepository userRepository,
             ProgrammingExerciseRepository programmingExerciseRepository, RepositoryAccessService repositoryAccessService, AuthorizationCheckService authorizationCheckService,
-            Optional<LocalCIConnectorService> localCIConnectorService, ProgrammingExerciseParticipationService programmingExerciseParticipationService) {
+            Optional<LocalCIConnectorService> localCIConnectorService, ProgrammingExerciseParticipationService programmingExerciseParticipationService,
+            LocalVCAccessCacheService localVCAccessCacheService) {
         this.authenticationManagerBuilder = authenticationManagerBuilder;
         this.userRepository = userRepository;
         this.programmingExerciseRepository = programmingExerciseRepository;
@@ -96,6 +99,7 @@ public class LocalVCServletService {
         this.authorizationCheckService = authorizationCheckService;
         this.localCIConnectorService = localCIConnectorService;
         this.programmingExerciseParticipationService = programmingExerciseParticipationService;
+        this.localVCAccessCacheService = localVCAccessCacheService;
     }
 
     /**
@@ -168,6 +172,11 @@ public class LocalVCServletService {
         String projectKey = localVCRepositoryUrl.getProjectKey();
         String repositoryTypeOrUserName = localVCRepositoryUrl.getRepositoryTypeOrUserName();
 
+        if (localVCAccessCacheService.isAuthorized(localVCRepositoryUrl, user, repositoryActionType)) {
+            log.debug("Authorizing user {} for repository {} from the cache took {}", user.getLogin(), localVCRepositoryUrl, TimeLogUtil.formatDurationFrom(timeNanoStart));
+            return;
+        }
+
         ProgrammingExercise exercise;
 
         try {
@@ -184,6 +193,11 @@ public class LocalVCServletService {
 
         authorizeUser(repositoryTypeOrUserName, user, exercise, repositoryActionType, localVCRepositoryUrl.isPracticeRepository());
 
+        // Only read access to course exercises is cached: write access ends with the (individual) due date and the access to exam exercises with the individual working time.
+        if (repositoryActionType == RepositoryActionType.READ && exercise.isCourseExercise()) {
+            localVCAccessCacheService.putAuthorization(localVCRepositoryUrl, user, repositoryActionType);
+        }
+
         log.info("Authorizing user {} for repository {} took {}", user.getLogin(), localVCRepositoryUrl, TimeLogUtil.formatDurationFrom(timeNanoStart));
     }
 
@@ -200,17 +214,29 @@ public class LocalVCServletService {
 
         try {
             SecurityUtils.checkUsernameAndPasswordValidity(username, password);
+        }
+        catch (AccessForbiddenException e) {
+            throw new LocalVCAuthException(e);
+        }
 
+        Optional<User> knownUser = userRepository.findOneWithGroupsAndAuthoritiesByLogin(username);
+        if (knownUser.isPresent() && localVCAccessCacheService.areCredentialsVerified(knownUser.get(), password)) {
+            return knownUser.get();
+        }
+
+        try {
             // Try to authenticate the user.
             UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(username, password);
             authenticationManagerBuilder.getObject().authenticate(authenticationToken);
         }
-        catch (AccessForbiddenException | AuthenticationException e) {
+        catch (AuthenticationException e) {
             throw new LocalVCAuthException(e);
         }
 
-        // Check that the user exists.
-        return userRepository.findOneByLogin(username).orElseThrow(LocalVCAuthException::new);
+        // Check that the user exists. It is loaded again, because the authentication might have created or updated it (e.g. for LDAP users).
+        User user = userRepository.findOneWithGroupsAndAuthoritiesByLogin(username).orElseThrow(LocalVCAuthException::new);
+        localVCAccessCacheService.putVerifiedCredentials(user, password);
+        return user;
     }
 
     private String checkAuthorizationHeader(String authorizationHeader) throws LocalVCAuthException {
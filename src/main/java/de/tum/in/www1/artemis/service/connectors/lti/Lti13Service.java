@@ -5,7 +5,6 @@ import java.net.URL;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
@@ -30,7 +29,6 @@ import de.tum.in.www1.artemis.domain.lti.*;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.repository.*;
 import de.tum.in.www1.artemis.security.lti.Lti13TokenRetriever;
-import de.tum.in.www1.artemis.service.OnlineCourseConfigurationService;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 import net.minidev.json.JSONObject;
 
@@ -51,25 +49,21 @@ public class Lti13Service {
 
     private final LtiService ltiService;
 
-    private final ResultRepository resultRepository;
+    private final LtiScorePassbackRepository scorePassbackRepository;
 
     private final Lti13TokenRetriever tokenRetriever;
 
-    private final OnlineCourseConfigurationService onlineCourseConfigurationService;
-
     private final RestTemplate restTemplate;
 
     public Lti13Service(UserRepository userRepository, ExerciseRepository exerciseRepository, CourseRepository courseRepository, Lti13ResourceLaunchRepository launchRepository,
-            LtiService ltiService, ResultRepository resultRepository, Lti13TokenRetriever tokenRetriever, OnlineCourseConfigurationService onlineCourseConfigurationService,
-            RestTemplate restTemplate) {
+            LtiService ltiService, LtiScorePassbackRepository scorePassbackRepository, Lti13TokenRetriever tokenRetriever, RestTemplate restTemplate) {
         this.userRepository = userRepository;
         this.exerciseRepository = exerciseRepository;
         this.courseRepository = courseRepository;
         this.ltiService = ltiService;
         this.launchRepository = launchRepository;
-        this.resultRepository = resultRepository;
+        this.scorePassbackRepository = scorePassbackRepository;
         this.tokenRetriever = tokenRetriever;
-        this.onlineCourseConfigurationService = onlineCourseConfigurationService;
         this.restTemplate = restTemplate;
     }
 
@@ -145,51 +139,41 @@ public class Lti13Service {
     }
 
     /**
-     * This method is pinged on new exercise results. It sends a message to the related LTI 1.3 platforms with the new score.
+     * This method is pinged on new exercise results. It schedules the transmission of the new score to the related LTI 1.3 platforms, the scores are sent
+     * asynchronously by the {@link LtiScorePassbackService}.
      *
      * @param participation The exercise participation for which a new result is available
      */
     public void onNewResult(StudentParticipation participation) {
-        Course course = courseRepository.findByIdWithEagerOnlineCourseConfigurationElseThrow(participation.getExercise().getCourseViaExerciseGroupOrCourseMember().getId());
-        ClientRegistration clientRegistration = onlineCourseConfigurationService.getClientRegistration(course.getOnlineCourseConfiguration());
-        if (clientRegistration == null) {
-            log.error("Could not transmit score to external LMS for course {}: client registration not found", course.getTitle());
-            return;
-        }
-
         participation.getStudents().forEach(student -> {
             // there can be multiple launches for one exercise and student if the student has used more than one LTI 1.3 platform
             // to launch the exercise (for example multiple lms)
             Collection<LtiResourceLaunch> launches = launchRepository.findByUserAndExercise(student, participation.getExercise());
-
-            if (launches.isEmpty()) {
-                return;
-            }
-
-            Optional<Result> result = resultRepository.findFirstWithSubmissionAndFeedbacksByParticipationIdOrderByCompletionDateDesc(participation.getId());
-
-            if (result.isEmpty()) {
-                log.error("onNewResult triggered for participation {} but no result could be found", participation.getId());
-                return;
-            }
-
-            String concatenatedFeedbacks = result.get().getFeedbacks().stream().map(Feedback::getDetailText).collect(Collectors.joining(". "));
-
-            launches.forEach(launch -> submitScore(launch, clientRegistration, concatenatedFeedbacks, result.get().getScore()));
+            launches.stream().filter(launch -> StringUtils.hasLength(launch.getScoreLineItemUrl()))
+                    .forEach(launch -> scorePassbackRepository.enqueue(launch.getId(), participation.getId()));
         });
     }
 
-    protected void submitScore(LtiResourceLaunch launch, ClientRegistration clientRegistration, String comment, Double score) {
+    /**
+     * Sends the score of a launch to the LTI 1.3 platform
+     *
+     * @param launch             the launch of the exercise by the student
+     * @param clientRegistration the client registration of the platform
+     * @param comment            the feedback of the result
+     * @param score              the score of the result
+     * @throws IllegalStateException                           if no access token can be retrieved
+     * @throws org.springframework.web.client.RestClientException if the platform cannot be reached or rejects the score
+     */
+    public void submitScore(LtiResourceLaunch launch, ClientRegistration clientRegistration, String comment, Double score) {
         String scoreLineItemUrl = getScoresUrl(launch.getScoreLineItemUrl());
         if (scoreLineItemUrl == null) {
             return;
         }
 
-        String token = tokenRetriever.getToken(clientRegistration, Scopes.AGS_SCORE);
+        String token = tokenRetriever.getCachedToken(clientRegistration, Scopes.AGS_SCORE);
 
         if (token == null) {
-            log.error("Could not transmit score to {}: missing token", clientRegistration.getClientId());
-            return;
+            throw new IllegalStateException("Could not transmit score to " + clientRegistration.getClientId() + ": missing token");
         }
 
         HttpHeaders headers = new HttpHeaders();
@@ -201,9 +185,10 @@ public class Lti13Service {
             restTemplate.postForEntity(scoreLineItemUrl, httpRequest, Object.class);
             log.info("Submitted score for {} to client {}", launch.getUser().getLogin(), clientRegistration.getClientId());
         }
-        catch (HttpClientErrorException e) {
-            String message = "Could not submit score for " + launch.getUser().getLogin() + " to client " + clientRegistration.getClientId() + ": " + e.getMessage();
-            log.error(message);
+        catch (HttpClientErrorException.Unauthorized e) {
+            // the platform does not accept the cached token anymore, e.g. because it has been revoked
+            tokenRetriever.evictCachedToken(clientRegistration, Scopes.AGS_SCORE);
+            throw e;
         }
     }
 
@@ -0,0 +1,166 @@
+package de.tum.in.www1.artemis.service.connectors.lti;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.domain.DomainObject;
+import de.tum.in.www1.artemis.domain.Feedback;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.lti.LtiResourceLaunch;
+import de.tum.in.www1.artemis.domain.lti.LtiScorePassback;
+import de.tum.in.www1.artemis.domain.lti.LtiScorePassback.Status;
+import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.service.OnlineCourseConfigurationService;
+
+/**
+ * Sends the scores scheduled by {@link Lti13Service#onNewResult} to the LTI 1.3 platforms.
+ * <p>
+ * The latest result of each participation is loaded once per batch (no matter how many results have been created since the last transmission), the scores are sent
+ * with a bounded number of concurrent requests, and failed transmissions are retried with an exponential backoff.
+ */
+@Service
+public class LtiScorePassbackService {
+
+    private final Logger log = LoggerFactory.getLogger(LtiScorePassbackService.class);
+
+    static final int MAX_ATTEMPTS = 8;
+
+    static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(2);
+
+    // passbacks that are still sending after this time belong to an instance that has been stopped while sending them
+    private static final Duration SENDING_TIMEOUT = Duration.ofMinutes(10);
+
+    private static final int BATCH_SIZE = 200;
+
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final LtiScorePassbackRepository scorePassbackRepository;
+
+    private final Lti13ResourceLaunchRepository launchRepository;
+
+    private final ResultRepository resultRepository;
+
+    private final CourseRepository courseRepository;
+
+    private final OnlineCourseConfigurationService onlineCourseConfigurationService;
+
+    private final Lti13Service lti13Service;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS);
+
+    public LtiScorePassbackService(LtiScorePassbackRepository scorePassbackRepository, Lti13ResourceLaunchRepository launchRepository, ResultRepository resultRepository,
+            CourseRepository courseRepository, OnlineCourseConfigurationService onlineCourseConfigurationService, Lti13Service lti13Service) {
+        this.scorePassbackRepository = scorePassbackRepository;
+        this.launchRepository = launchRepository;
+        this.resultRepository = resultRepository;
+        this.courseRepository = courseRepository;
+        this.onlineCourseConfigurationService = onlineCourseConfigurationService;
+        this.lti13Service = lti13Service;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // running transmissions are finished, claimed scores that have not been sent are sent again once their sending timeout has passed
+        executor.shutdown();
+    }
+
+    /**
+     * Sends all scores whose transmission is due. Scores that are scheduled while sending are sent on the next call.
+     */
+    public void sendPendingScores() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        scorePassbackRepository.updateStatusByStatusAndStatusDateBefore(Status.SENDING, now.minus(SENDING_TIMEOUT), Status.PENDING, now);
+
+        List<LtiScorePassback> passbacks;
+        do {
+            passbacks = scorePassbackRepository.findByStatusAndNextAttemptDateBefore(Status.PENDING, now, PageRequest.of(0, BATCH_SIZE));
+            sendScores(passbacks);
+        }
+        while (passbacks.size() == BATCH_SIZE);
+    }
+
+    private void sendScores(List<LtiScorePassback> passbacks) {
+        Map<Long, LtiResourceLaunch> launches = launchRepository.findAllById(passbacks.stream().map(LtiScorePassback::getLaunchId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(DomainObject::getId, Function.identity()));
+        // participationId -> latest result, courseId -> client registration
+        Map<Long, Optional<Result>> latestResults = new HashMap<>();
+        Map<Long, Optional<ClientRegistration>> clientRegistrations = new HashMap<>();
+
+        List<CompletableFuture<Void>> transmissions = new ArrayList<>();
+        for (LtiScorePassback passback : passbacks) {
+            if (!scorePassbackRepository.claim(passback.getId())) {
+                continue;
+            }
+            LtiResourceLaunch launch = launches.get(passback.getLaunchId());
+            if (launch == null) {
+                handleFailedAttempt(passback, "LTI launch not found", true);
+                continue;
+            }
+            Optional<Result> result = latestResults.computeIfAbsent(passback.getParticipationId(),
+                    resultRepository::findFirstWithSubmissionAndFeedbacksByParticipationIdOrderByCompletionDateDesc);
+            if (result.isEmpty()) {
+                handleFailedAttempt(passback, "No result found for participation " + passback.getParticipationId(), true);
+                continue;
+            }
+            Optional<ClientRegistration> clientRegistration = clientRegistrations.computeIfAbsent(launch.getExercise().getCourseViaExerciseGroupOrCourseMember().getId(),
+                    this::findClientRegistration);
+            if (clientRegistration.isEmpty()) {
+                handleFailedAttempt(passback, "Client registration not found", true);
+                continue;
+            }
+
+            String comment = result.get().getFeedbacks().stream().map(Feedback::getDetailText).collect(Collectors.joining(". "));
+            Double score = result.get().getScore();
+            transmissions.add(CompletableFuture.runAsync(() -> sendScore(passback, launch, clientRegistration.get(), comment, score), executor));
+        }
+        CompletableFuture.allOf(transmissions.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private Optional<ClientRegistration> findClientRegistration(long courseId) {
+        var course = courseRepository.findByIdWithEagerOnlineCourseConfigurationElseThrow(courseId);
+        return Optional.ofNullable(onlineCourseConfigurationService.getClientRegistration(course.getOnlineCourseConfiguration()));
+    }
+
+    private void sendScore(LtiScorePassback passback, LtiResourceLaunch launch, ClientRegistration clientRegistration, String comment, Double score) {
+        try {
+            lti13Service.submitScore(launch, clientRegistration, comment, score);
+            // if a new result has been scheduled in the meantime, the passback stays pending and the new score is sent next time
+            scorePassbackRepository.updateStatus(passback.getId(), Status.SENDING, Status.DELIVERED, ZonedDateTime.now());
+        }
+        catch (Exception ex) {
+            handleFailedAttempt(passback, ex.getMessage(), false);
+        }
+    }
+
+    private void handleFailedAttempt(LtiScorePassback passback, String error, boolean permanent) {
+        int attempts = passback.getAttempts() + 1;
+        Status status = permanent || attempts >= MAX_ATTEMPTS ? Status.FAILED : Status.PENDING;
+        Duration backoff = INITIAL_BACKOFF.multipliedBy(1L << Math.min(attempts - 1, 16));
+        if (backoff.compareTo(MAX_BACKOFF) > 0) {
+            backoff = MAX_BACKOFF;
+        }
+        ZonedDateTime now = ZonedDateTime.now();
+        scorePassbackRepository.updateStatusAfterFailedAttempt(passback.getId(), Status.SENDING, status, now, now.plus(backoff), StringUtils.abbreviate(error, MAX_ERROR_LENGTH));
+        log.warn("Could not transmit score of participation {} for LTI launch {} (attempt {}, now {}): {}", passback.getParticipationId(), passback.getLaunchId(), attempts,
+                status, error);
+    }
+}
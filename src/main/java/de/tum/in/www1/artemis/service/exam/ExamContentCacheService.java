@@ -0,0 +1,264 @@
+package de.tum.in.www1.artemis.service.exam;
+
+import static de.tum.in.www1.artemis.config.Constants.EXAM_START_WAIT_TIME_MINUTES;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import de.tum.in.www1.artemis.domain.Exercise;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.exam.Exam;
+import de.tum.in.www1.artemis.domain.exam.ExerciseGroup;
+import de.tum.in.www1.artemis.domain.exam.StudentExam;
+import de.tum.in.www1.artemis.domain.participation.Participation;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import de.tum.in.www1.artemis.repository.ExamRepository;
+import de.tum.in.www1.artemis.repository.QuizExerciseRepository;
+import de.tum.in.www1.artemis.service.AuthorizationCheckService;
+import de.tum.in.www1.artemis.service.util.TimeLogUtil;
+import de.tum.in.www1.artemis.web.rest.errors.InternalServerErrorException;
+
+/**
+ * Caches the content of the exercises of an exam that is the same for all students (e.g. the problem statements and the quiz questions), so that the start of an exam
+ * does not load and serialize it again for every student.
+ * <p>
+ * The content of each exercise is stored serialized and filtered as for the conduction by a student (see {@link ExamService#filterExerciseForConduction}). When a student
+ * loads the student exam for the conduction, only the per-student overlay (the student exam with its participations, submissions and exam session) is serialized and
+ * combined with the cached content. The content is kept in memory on every instance and built shortly before the start of the exam. It is rebuilt when an exercise or the
+ * exam changes (see {@link de.tum.in.www1.artemis.service.listeners.ExamContentListener}), which is propagated to all instances with a version stamp in Hazelcast, and at
+ * the latest after {@link #MAX_CONTENT_AGE}.
+ */
+@Service
+public class ExamContentCacheService {
+
+    private final Logger log = LoggerFactory.getLogger(ExamContentCacheService.class);
+
+    // upper bound for changes that are not covered by the invalidation events, e.g. changed quiz questions
+    static final Duration MAX_CONTENT_AGE = Duration.ofMinutes(5);
+
+    private static final Duration VERSION_TIME_TO_LIVE = Duration.ofDays(1);
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter exerciseWriter;
+
+    // serializes the participations without their exercise, as they are nested in the exercise (like in Exercise#studentParticipations)
+    private final ObjectWriter participationsWriter;
+
+    // serializes the student exam without its exercises, which are taken from the cached content
+    private final ObjectMapper studentExamWithoutExercisesMapper;
+
+    private final ExamRepository examRepository;
+
+    private final QuizExerciseRepository quizExerciseRepository;
+
+    private final ExamService examService;
+
+    private final AuthorizationCheckService authorizationCheckService;
+
+    // exam id -> random stamp that is changed on every invalidation, a missing stamp counts as 0
+    private final IMap<Long, Long> versions;
+
+    // exam id -> content of the exam on this instance, which might still be built by another thread
+    private final Map<Long, CacheEntry> contents = new ConcurrentHashMap<>();
+
+    /**
+     * The content of the exercises of an exam that is shared by all students
+     *
+     * @param exercises the JSON object of each exercise (by id) without its closing brace, so that the participations of a student can be appended
+     */
+    public record ExamContent(Map<Long, String> exercises) {
+
+        private boolean containsAll(List<Exercise> studentExamExercises) {
+            return studentExamExercises.stream().allMatch(exercise -> exercises.containsKey(exercise.getId()));
+        }
+    }
+
+    private record CacheEntry(long version, long createdAt, CompletableFuture<ExamContent> content) {
+
+        private boolean isValid(long currentVersion, long now) {
+            return version == currentVersion && now - createdAt < MAX_CONTENT_AGE.toMillis() && !content.isCompletedExceptionally();
+        }
+    }
+
+    @JsonIgnoreProperties("exercises")
+    private abstract static class StudentExamWithoutExercises {
+    }
+
+    /**
+     * The participations are serialized on their own, so the ignored properties of {@link Exercise#getStudentParticipations()} do not apply. Their exercise is a separate
+     * instance that has not been filtered for the conduction and must not be sent to the students.
+     */
+    @JsonIgnoreProperties("exercise")
+    private abstract static class ParticipationWithoutExercise {
+    }
+
+    public ExamContentCacheService(ObjectMapper objectMapper, ExamRepository examRepository, QuizExerciseRepository quizExerciseRepository, ExamService examService,
+            AuthorizationCheckService authorizationCheckService, HazelcastInstance hazelcastInstance) {
+        this.objectMapper = objectMapper;
+        this.exerciseWriter = objectMapper.writerFor(Exercise.class);
+        ObjectMapper participationsMapper = objectMapper.copy().addMixIn(Participation.class, ParticipationWithoutExercise.class);
+        this.participationsWriter = participationsMapper.writerFor(new TypeReference<Set<StudentParticipation>>() {
+        });
+        this.studentExamWithoutExercisesMapper = objectMapper.copy().addMixIn(StudentExam.class, StudentExamWithoutExercises.class);
+        this.examRepository = examRepository;
+        this.quizExerciseRepository = quizExerciseRepository;
+        this.examService = examService;
+        this.authorizationCheckService = authorizationCheckService;
+        this.versions = hazelcastInstance.getMap("examContentVersions");
+    }
+
+    /**
+     * Returns the shared content of the exercises of the student exam, if the student exam can be served with it. This is not the case for test runs, for instructors and
+     * after the results have been published, as they see more information than students during the exam.
+     *
+     * @param studentExam the student exam with its exercises that is loaded for the conduction
+     * @param user        the user with groups and authorities who conducts the student exam
+     * @return the content of the exam, or an empty optional if the student exam has to be prepared without it
+     */
+    public Optional<ExamContent> findContentForConduction(StudentExam studentExam, User user) {
+        if (studentExam.isTestRun() || studentExam.areResultsPublishedYet() || authorizationCheckService.isAtLeastInstructorInCourse(studentExam.getExam().getCourse(), user)) {
+            return Optional.empty();
+        }
+        // exercises that have been added after the content has been built are covered by the invalidation, but might not have reached this instance yet
+        return getContent(studentExam.getExam().getId()).filter(content -> content.containsAll(studentExam.getExercises()));
+    }
+
+    /**
+     * Serializes the student exam for the conduction. If the content of the exam is given, the exercises are taken from it and only the participations of the student
+     * (see {@link ExamService#fetchParticipationsSubmissionsAndResultsForExam}) are serialized, otherwise the exercises of the student exam have to be filtered already.
+     *
+     * @param studentExam the prepared student exam
+     * @param content     the shared content of the exam, or null if the student exam has been prepared without it
+     * @return the student exam as JSON
+     */
+    public byte[] serializeForConduction(StudentExam studentExam, ExamContent content) {
+        try {
+            if (content == null) {
+                return objectMapper.writeValueAsBytes(studentExam);
+            }
+            ObjectNode studentExamJson = studentExamWithoutExercisesMapper.valueToTree(studentExam);
+            if (!studentExam.getExercises().isEmpty()) {
+                ArrayNode exercisesJson = studentExamJson.putArray("exercises");
+                for (Exercise exercise : studentExam.getExercises()) {
+                    var exerciseJson = new StringBuilder(content.exercises().get(exercise.getId()));
+                    // empty collections are not included in the JSON of an exercise
+                    if (!exercise.getStudentParticipations().isEmpty()) {
+                        exerciseJson.append(",\"studentParticipations\":").append(participationsWriter.writeValueAsString(exercise.getStudentParticipations()));
+                    }
+                    exercisesJson.addRawValue(new RawValue(exerciseJson.append('}').toString()));
+                }
+            }
+            return objectMapper.writeValueAsBytes(studentExamJson);
+        }
+        catch (JsonProcessingException ex) {
+            throw new InternalServerErrorException("Could not serialize the student exam " + studentExam.getId() + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the content of the exam, which is built if this instance does not have a valid one yet. Concurrent calls wait for the same build.
+     *
+     * @param examId the id of the exam
+     * @return the content of the exam, or an empty optional if it could not be built
+     */
+    public Optional<ExamContent> getContent(long examId) {
+        // the stamp is read before the content is built, so that changes during the build invalidate the new content
+        long version = versions.getOrDefault(examId, 0L);
+        long now = System.currentTimeMillis();
+        var newEntry = new CacheEntry(version, now, new CompletableFuture<>());
+        CacheEntry entry = contents.compute(examId, (id, existingEntry) -> existingEntry != null && existingEntry.isValid(version, now) ? existingEntry : newEntry);
+        if (entry == newEntry) {
+            try {
+                newEntry.content().complete(buildContent(examId));
+            }
+            catch (RuntimeException ex) {
+                contents.remove(examId, newEntry);
+                newEntry.content().completeExceptionally(ex);
+            }
+        }
+        try {
+            return Optional.of(entry.content().join());
+        }
+        catch (CompletionException | CancellationException ex) {
+            log.warn("Could not build the content of exam {}: {}", examId, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Invalidates the content of the exam on all instances, e.g. because one of its exercises has changed
+     *
+     * @param examId the id of the exam
+     */
+    public void invalidateExam(long examId) {
+        versions.set(examId, ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE), VERSION_TIME_TO_LIVE.toMillis(), TimeUnit.MILLISECONDS);
+        log.debug("Invalidated the content of exam {}", examId);
+    }
+
+    /**
+     * Builds the content of the exams that start soon on this instance, so that the first students do not have to wait for it, and removes the content of past exams.
+     * Note: Active on all instances, as the content is kept in the memory of each instance.
+     */
+    @Scheduled(cron = "15 * * * * *") // execute this every minute at xx:xx:15
+    public void prepareContentOfUpcomingExams() {
+        long now = System.currentTimeMillis();
+        contents.values().removeIf(entry -> now - entry.createdAt() >= MAX_CONTENT_AGE.toMillis());
+
+        // students can load the exam EXAM_START_WAIT_TIME_MINUTES minutes before its start, late students still start it some time after the start
+        ZonedDateTime currentDate = ZonedDateTime.now();
+        Set<Long> examIds = examRepository.findIdsByStartDateBetween(currentDate.minus(MAX_CONTENT_AGE), currentDate.plusMinutes(EXAM_START_WAIT_TIME_MINUTES + 1));
+        examIds.forEach(this::getContent);
+    }
+
+    private ExamContent buildContent(long examId) {
+        long start = System.nanoTime();
+        Exam exam = examRepository.findWithExerciseGroupsAndExercisesByIdOrElseThrow(examId);
+        Map<Long, String> exercises = new HashMap<>();
+        for (ExerciseGroup exerciseGroup : exam.getExerciseGroups()) {
+            for (Exercise exercise : exerciseGroup.getExercises()) {
+                Exercise exerciseForConduction = exercise;
+                if (exercise instanceof QuizExercise) {
+                    // the questions cannot be loaded together with the other exercises, see ExamService#loadQuizExercisesForStudentExam
+                    QuizExercise quizExercise = quizExerciseRepository.findByIdWithQuestionsElseThrow(exercise.getId());
+                    quizExercise.filterForStudentsDuringQuiz();
+                    exerciseForConduction = quizExercise;
+                }
+                examService.filterExerciseForConduction(exerciseForConduction, false);
+                exerciseForConduction.setStudentParticipations(Set.of());
+                exercises.put(exercise.getId(), serializeWithoutClosingBrace(exerciseForConduction));
+            }
+        }
+        log.info("Built the content of exam {} with {} exercises in {}", examId, exercises.size(), TimeLogUtil.formatDurationFrom(start));
+        return new ExamContent(exercises);
+    }
+
+    private String serializeWithoutClosingBrace(Exercise exercise) {
+        try {
+            String json = exerciseWriter.writeValueAsString(exercise);
+            return json.substring(0, json.length() - 1);
+        }
+        catch (JsonProcessingException ex) {
+            throw new InternalServerErrorException("Could not serialize the exercise " + exercise.getId() + ": " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package de.tum.in.www1.artemis.service.exam;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.hazelcast.spring.context.SpringAware;
+
+import de.tum.in.www1.artemis.domain.exam.ExamPreparationTask;
+
+/**
+ * Task to execute the persisted preparation task with the given id that can be serialized and distributed to any instance of the cluster
+ */
+@SpringAware
+final class ExamPreparationTaskExecution implements Callable<ExamPreparationTask.Status>, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    final long taskId;
+
+    @Autowired // ok
+    transient StudentExamService studentExamService;
+
+    ExamPreparationTaskExecution(long taskId) {
+        this.taskId = taskId;
+    }
+
+    @Override
+    public ExamPreparationTask.Status call() {
+        return studentExamService.executePreparationTask(taskId);
+    }
+}
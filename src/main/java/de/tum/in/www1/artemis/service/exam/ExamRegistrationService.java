@@ -1,11 +1,13 @@
 package de.tum.in.www1.artemis.service.exam;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.actuate.audit.AuditEventRepository;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -21,6 +23,7 @@ import de.tum.in.www1.artemis.security.Role;
 import de.tum.in.www1.artemis.service.AuthorizationCheckService;
 import de.tum.in.www1.artemis.service.ParticipationService;
 import de.tum.in.www1.artemis.service.user.UserService;
+import de.tum.in.www1.artemis.web.rest.dto.ExamRegistrationProgressDTO;
 import de.tum.in.www1.artemis.web.rest.dto.ExamUserDTO;
 import de.tum.in.www1.artemis.web.rest.errors.AccessForbiddenException;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
@@ -32,6 +35,10 @@ import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 @Service
 public class ExamRegistrationService {
 
+    private static final String EXAM_REGISTRATION_PROGRESS_TOPIC = "/topic/exams/%s/registration-progress";
+
+    private static final int REGISTRATION_CHUNK_SIZE = 100;
+
     private final Logger log = LoggerFactory.getLogger(ExamRegistrationService.class);
 
     private final UserRepository userRepository;
@@ -54,9 +61,11 @@ public class ExamRegistrationService {
 
     private final AuthorizationCheckService authorizationCheckService;
 
+    private final SimpMessageSendingOperations messagingTemplate;
+
     public ExamRegistrationService(ExamUserRepository examUserRepository, ExamRepository examRepository, UserService userService, ParticipationService participationService,
             UserRepository userRepository, AuditEventRepository auditEventRepository, CourseRepository courseRepository, StudentExamRepository studentExamRepository,
-            StudentParticipationRepository studentParticipationRepository, AuthorizationCheckService authorizationCheckService) {
+            StudentParticipationRepository studentParticipationRepository, AuthorizationCheckService authorizationCheckService, SimpMessageSendingOperations messagingTemplate) {
         this.examRepository = examRepository;
         this.userService = userService;
         this.userRepository = userRepository;
@@ -67,6 +76,7 @@ public class ExamRegistrationService {
         this.studentParticipationRepository = studentParticipationRepository;
         this.authorizationCheckService = authorizationCheckService;
         this.examUserRepository = examUserRepository;
+        this.messagingTemplate = messagingTemplate;
     }
 
     /**
@@ -76,6 +86,9 @@ public class ExamRegistrationService {
      * <p>
      * This method first tries to find the student in the internal Artemis user database (because the user is most probably already using Artemis).
      * In case the user cannot be found, we additionally search the (TUM) LDAP in case it is configured properly.
+     * <p>
+     * The students are processed in chunks: the users of a chunk are resolved with a few set-based queries, compared with the already registered exam users in memory and
+     * the new or changed exam users are saved together. After each chunk, the progress (including the students that could not be found) is sent via websocket.
      *
      * @param courseId     the id of the course
      * @param examId       the id of the exam
@@ -90,44 +103,16 @@ public class ExamRegistrationService {
             throw new AccessForbiddenException("Registration of students is only allowed for real exams");
         }
 
-        List<ExamUserDTO> notFoundStudentsDTOs = new ArrayList<>();
-        for (var examUserDto : examUserDTOs) {
-            var registrationNumber = examUserDto.registrationNumber();
-            var login = examUserDto.login();
-            var email = examUserDto.email();
-            Optional<User> optionalStudent = userService.findUserAndAddToCourse(registrationNumber, course.getStudentGroupName(), Role.STUDENT, login, email);
-            if (optionalStudent.isEmpty()) {
-                notFoundStudentsDTOs.add(examUserDto);
-            }
-            else {
-                User student = optionalStudent.get();
-                Optional<ExamUser> examUserOptional = examUserRepository.findByExamIdAndUserId(exam.getId(), student.getId());
-
-                if ((examUserOptional.isEmpty() || !exam.getExamUsers().contains(examUserOptional.get())) && !authorizationCheckService.isInstructorInCourse(course, student)
-                        && !authorizationCheckService.isAdmin(student)) {
-                    ExamUser registeredExamUser = new ExamUser();
-                    registeredExamUser.setUser(optionalStudent.get());
-                    registeredExamUser.setExam(exam);
-
-                    if (StringUtils.hasText(examUserDto.room())) {
-                        registeredExamUser.setPlannedRoom(examUserDto.room());
-                    }
-                    if (StringUtils.hasText(examUserDto.seat())) {
-                        registeredExamUser.setPlannedSeat(examUserDto.seat());
-                    }
-                    registeredExamUser = examUserRepository.save(registeredExamUser);
-                    exam.addExamUser(registeredExamUser);
-                }
+        Map<Long, ExamUser> examUsersByUserId = new HashMap<>();
+        exam.getExamUsers().forEach(examUser -> examUsersByUserId.put(examUser.getUser().getId(), examUser));
 
-                if (examUserOptional.isPresent() && exam.getExamUsers().contains(examUserOptional.get())) {
-                    ExamUser examUser = examUserOptional.get();
-                    examUser.setPlannedRoom(examUserDto.room());
-                    examUser.setPlannedSeat(examUserDto.seat());
-                    examUser = examUserRepository.save(examUser);
-                    exam.addExamUser(examUser);
-                }
-
-            }
+        List<ExamUserDTO> notFoundStudentsDTOs = new ArrayList<>();
+        for (int chunkStart = 0; chunkStart < examUserDTOs.size(); chunkStart += REGISTRATION_CHUNK_SIZE) {
+            var chunk = examUserDTOs.subList(chunkStart, Math.min(chunkStart + REGISTRATION_CHUNK_SIZE, examUserDTOs.size()));
+            var notFoundStudentsOfChunk = registerChunkOfStudentsForExam(course, exam, examUsersByUserId, chunk);
+            notFoundStudentsDTOs.addAll(notFoundStudentsOfChunk);
+            sendRegistrationProgress(exam.getId(),
+                    new ExamRegistrationProgressDTO(chunkStart + chunk.size(), examUserDTOs.size(), notFoundStudentsOfChunk, chunkStart + chunk.size() == examUserDTOs.size()));
         }
         examRepository.save(exam);
 
@@ -150,6 +135,69 @@ public class ExamRegistrationService {
         return notFoundStudentsDTOs;
     }
 
+    /**
+     * Registers one chunk of students for the exam: the users are resolved (and added to the course) in bulk, the diff against the registered exam users is computed
+     * in memory and all new or updated exam users are saved together
+     *
+     * @param course            the course of the exam
+     * @param exam              the exam with eagerly loaded exam users
+     * @param examUsersByUserId the exam users of the exam by the id of their user, new exam users are added
+     * @param examUserDTOs      the students of the chunk
+     * @return the students of the chunk who could not be found
+     */
+    private List<ExamUserDTO> registerChunkOfStudentsForExam(Course course, Exam exam, Map<Long, ExamUser> examUsersByUserId, List<ExamUserDTO> examUserDTOs) {
+        List<Optional<User>> foundStudents = userService.findUsersAndAddToCourse(examUserDTOs, ExamUserDTO::registrationNumber, ExamUserDTO::login, ExamUserDTO::email,
+                course.getStudentGroupName(), Role.STUDENT);
+
+        List<ExamUserDTO> notFoundStudentsDTOs = new ArrayList<>();
+        // the same student might appear several times within the chunk, the map ensures that each exam user is only saved once
+        Map<Long, ExamUser> examUsersToSave = new LinkedHashMap<>();
+        for (int i = 0; i < examUserDTOs.size(); i++) {
+            var examUserDto = examUserDTOs.get(i);
+            Optional<User> optionalStudent = foundStudents.get(i);
+            if (optionalStudent.isEmpty()) {
+                notFoundStudentsDTOs.add(examUserDto);
+                continue;
+            }
+            User student = optionalStudent.get();
+            ExamUser examUser = examUsersByUserId.get(student.getId());
+            if (examUser != null) {
+                examUser.setPlannedRoom(examUserDto.room());
+                examUser.setPlannedSeat(examUserDto.seat());
+                examUsersToSave.put(student.getId(), examUser);
+            }
+            else if (!authorizationCheckService.isInstructorInCourse(course, student) && !authorizationCheckService.isAdmin(student)) {
+                ExamUser registeredExamUser = new ExamUser();
+                registeredExamUser.setUser(student);
+                registeredExamUser.setExam(exam);
+
+                if (StringUtils.hasText(examUserDto.room())) {
+                    registeredExamUser.setPlannedRoom(examUserDto.room());
+                }
+                if (StringUtils.hasText(examUserDto.seat())) {
+                    registeredExamUser.setPlannedSeat(examUserDto.seat());
+                }
+                examUsersByUserId.put(student.getId(), registeredExamUser);
+                examUsersToSave.put(student.getId(), registeredExamUser);
+            }
+        }
+
+        for (ExamUser savedExamUser : examUserRepository.saveAll(examUsersToSave.values())) {
+            examUsersByUserId.put(savedExamUser.getUser().getId(), savedExamUser);
+            exam.addExamUser(savedExamUser);
+        }
+        return notFoundStudentsDTOs;
+    }
+
+    private void sendRegistrationProgress(Long examId, ExamRegistrationProgressDTO progress) {
+        try {
+            messagingTemplate.convertAndSend(EXAM_REGISTRATION_PROGRESS_TOPIC.formatted(examId), progress);
+        }
+        catch (Exception e) {
+            log.warn("Failed to send the registration progress of exam {}", examId, e);
+        }
+    }
+
     /**
      * Returns <code>true</code> if the current user is registered for the exam
      *
@@ -317,18 +365,22 @@ public class ExamRegistrationService {
     public void addAllStudentsOfCourseToExam(Long courseId, Exam exam) {
         Course course = courseRepository.findByIdElseThrow(courseId);
         var students = userRepository.getStudents(course);
+        Set<Long> registeredUserIds = exam.getExamUsers().stream().map(examUser -> examUser.getUser().getId()).collect(Collectors.toSet());
 
         Map<String, Object> userData = new HashMap<>();
         userData.put("exam", exam.getTitle());
+        List<ExamUser> newExamUsers = new ArrayList<>();
         for (int i = 0; i < students.size(); i++) {
             var student = students.get(i);
-            Optional<ExamUser> registeredExamUserCheckOptional = examUserRepository.findByExamIdAndUserId(exam.getId(), student.getId());
-            if (registeredExamUserCheckOptional.isEmpty() && !authorizationCheckService.isInstructorInCourse(course, student) && !authorizationCheckService.isAdmin(student)) {
-                ExamUser registeredExamUser = createExamUser(exam, student);
-                exam.addExamUser(registeredExamUser);
+            if (!registeredUserIds.contains(student.getId()) && !authorizationCheckService.isInstructorInCourse(course, student) && !authorizationCheckService.isAdmin(student)) {
+                ExamUser registeredExamUser = new ExamUser();
+                registeredExamUser.setExam(exam);
+                registeredExamUser.setUser(student);
+                newExamUsers.add(registeredExamUser);
                 userData.put("student " + i, student.toDatabaseString());
             }
         }
+        examUserRepository.saveAll(newExamUsers).forEach(exam::addExamUser);
 
         examRepository.save(exam);
         AuditEvent auditEvent = new AuditEvent(userRepository.getUser().getLogin(), Constants.ADD_USER_TO_EXAM, userData);
@@ -430,7 +430,7 @@ public class ExamService {
      * Finds the participation in participations that belongs to the given exercise and filters all unnecessary and sensitive information.
      * This ensures all relevant associations are available.
      * Handles setting the participation results using {@link #setResultIfNecessary(StudentExam, StudentParticipation, boolean)}.
-     * Filters sensitive information using {@link Exercise#filterSensitiveInformation()} and {@link QuizSubmission#filterForExam(boolean, boolean)} for quiz exercises.
+     * Filters sensitive information using {@link #filterExerciseForConduction(Exercise, boolean)} and {@link QuizSubmission#filterForExam(boolean, boolean)} for quiz exercises.
      *
      * @param studentExam         the given student exam
      * @param exercise            the exercise for which the user participation should be filtered
@@ -438,22 +438,7 @@ public class ExamService {
      * @param isAtLeastInstructor flag for instructor access privileges
      */
     public void filterParticipationForExercise(StudentExam studentExam, Exercise exercise, List<StudentParticipation> participations, boolean isAtLeastInstructor) {
-        // remove the unnecessary inner course attribute
-        exercise.setCourse(null);
-        if (!(exercise instanceof QuizExercise)) {
-            // Note: quiz exercises are filtered below
-            exercise.filterSensitiveInformation();
-        }
-
-        if (!isAtLeastInstructor) {
-            // If the exerciseGroup (and the exam) will be filtered out, move example solution publication date to the exercise to preserve this information.
-            exercise.setExampleSolutionPublicationDate(exercise.getExerciseGroup().getExam().getExampleSolutionPublicationDate());
-            exercise.setExerciseGroup(null);
-        }
-
-        if (exercise instanceof ProgrammingExercise programmingExercise) {
-            programmingExercise.setTestRepositoryUrl(null);
-        }
+        filterExerciseForConduction(exercise, isAtLeastInstructor);
 
         // get user's participation for the exercise
         StudentParticipation participation = participations != null ? exercise.findParticipation(participations) : null;
@@ -486,6 +471,32 @@ public class ExamService {
         }
     }
 
+    /**
+     * Filters all unnecessary and sensitive information of the exercise itself (i.e. independent of the participation) for the conduction of an exam.
+     * Quiz exercises are not filtered here, see {@link #loadQuizExercisesForStudentExam(StudentExam)}.
+     *
+     * @param exercise            the exercise to filter
+     * @param isAtLeastInstructor flag for instructor access privileges
+     */
+    public void filterExerciseForConduction(Exercise exercise, boolean isAtLeastInstructor) {
+        // remove the unnecessary inner course attribute
+        exercise.setCourse(null);
+        if (!(exercise instanceof QuizExercise)) {
+            // Note: quiz exercises are filtered when they are loaded
+            exercise.filterSensitiveInformation();
+        }
+
+        if (!isAtLeastInstructor) {
+            // If the exerciseGroup (and the exam) will be filtered out, move example solution publication date to the exercise to preserve this information.
+            exercise.setExampleSolutionPublicationDate(exercise.getExerciseGroup().getExam().getExampleSolutionPublicationDate());
+            exercise.setExerciseGroup(null);
+        }
+
+        if (exercise instanceof ProgrammingExercise programmingExercise) {
+            programmingExercise.setTestRepositoryUrl(null);
+        }
+    }
+
     /**
      * Helper method which attaches the result to its participation.
      * For direct automatic feedback during the exam conduction for {@link ProgrammingExercise}, we need to attach the results.
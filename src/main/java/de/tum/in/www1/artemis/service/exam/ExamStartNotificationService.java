@@ -0,0 +1,52 @@
+package de.tum.in.www1.artemis.service.exam;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.service.WebsocketMessagingService;
+
+/**
+ * Notifies the instructors of an exam about started student exams (see the exam checklist). During the start of an exam, hundreds of students start their student exams
+ * within a minute, so the notifications are not sent for every student exam, but aggregated into the number of student exams that have been started on this instance
+ * since the last notification.
+ * Note: Active on all instances, each instance sends the notifications for the student exams started on it.
+ */
+@Service
+public class ExamStartNotificationService {
+
+    private final WebsocketMessagingService messagingService;
+
+    // exam id -> number of student exams started since the last notification
+    private final Map<Long, Integer> startedStudentExams = new ConcurrentHashMap<>();
+
+    public ExamStartNotificationService(WebsocketMessagingService messagingService) {
+        this.messagingService = messagingService;
+    }
+
+    /**
+     * Counts a started student exam for the next notification
+     *
+     * @param examId the id of the exam of the student exam
+     */
+    public void notifyStudentExamStarted(long examId) {
+        startedStudentExams.merge(examId, 1, Integer::sum);
+    }
+
+    /**
+     * Sends the number of started student exams of each exam
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void sendStartedNotifications() {
+        for (Long examId : new ArrayList<>(startedStudentExams.keySet())) {
+            // removing the count is atomic, student exams started afterwards are counted for the next notification
+            Integer count = startedStudentExams.remove(examId);
+            if (count != null) {
+                messagingService.sendMessage("/topic/exam/" + examId + "/started", count);
+            }
+        }
+    }
+}
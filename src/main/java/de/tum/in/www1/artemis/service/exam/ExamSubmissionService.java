@@ -1,13 +1,20 @@
 package de.tum.in.www1.artemis.service.exam;
 
+import java.io.Serializable;
+import java.time.Duration;
 import java.time.ZonedDateTime;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
 import de.tum.in.www1.artemis.domain.Exercise;
 import de.tum.in.www1.artemis.domain.ProgrammingExercise;
 import de.tum.in.www1.artemis.domain.Submission;
@@ -17,28 +24,70 @@ import de.tum.in.www1.artemis.domain.exam.StudentExam;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.repository.ExamRepository;
 import de.tum.in.www1.artemis.repository.StudentExamRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
 import de.tum.in.www1.artemis.service.AuthorizationCheckService;
 import de.tum.in.www1.artemis.service.ParticipationService;
 import de.tum.in.www1.artemis.web.rest.errors.AccessForbiddenException;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 
+/**
+ * Checks whether students are allowed to submit to exam exercises, which happens for every save of a submission (e.g. the auto save every 30 seconds).
+ * <p>
+ * To avoid loading the student exam with all its exercises for every save, the data of the student exam that is relevant for the check (see
+ * {@link SubmissionEligibility}) is cached in Hazelcast per student and exam. Changes of the student exam (e.g. of the working time or the hand-in) replace the cached
+ * data with an invalidation stamp (see {@link de.tum.in.www1.artemis.service.listeners.StudentExamListener}), so that data that has been loaded concurrently is not stored.
+ * Changes of the exercises of a student exam do not change the student exam itself, they are covered by {@link #ELIGIBILITY_TIME_TO_LIVE}.
+ */
 @Service
 public class ExamSubmissionService {
 
+    private final Logger log = LoggerFactory.getLogger(ExamSubmissionService.class);
+
+    private static final Duration ELIGIBILITY_TIME_TO_LIVE = Duration.ofMinutes(10);
+
     private final StudentExamRepository studentExamRepository;
 
+    private final StudentParticipationRepository studentParticipationRepository;
+
     private final ParticipationService participationService;
 
     private final AuthorizationCheckService authorizationCheckService;
 
     private final ExamRepository examRepository;
 
+    // "{examId}-{userId}" -> eligibility of the user's student exam, or only an invalidation stamp
+    private final IMap<String, CachedEligibility> eligibilities;
+
+    /**
+     * The data of a student exam that decides whether the student is allowed to submit to an exercise of the exam
+     *
+     * @param exerciseIds   the ids of the exercises of the student exam
+     * @param submitted     whether the student exam has been handed in
+     * @param workingTime   the individual working time in seconds
+     * @param startedDate   the date at which the student exam has been started, which defines the end of test exams
+     * @param submissionIds the id of the existing submission (by exercise id) that is overwritten by every save, not resolved for test exams
+     */
+    record SubmissionEligibility(Set<Long> exerciseIds, boolean submitted, Integer workingTime, ZonedDateTime startedDate, Map<Long, Long> submissionIds)
+            implements Serializable {
+    }
+
+    /**
+     * An entry of the cache, the eligibility is null if the student exam has been invalidated
+     *
+     * @param stamp       random stamp that is changed on every invalidation
+     * @param eligibility the cached eligibility or null
+     */
+    record CachedEligibility(long stamp, SubmissionEligibility eligibility) implements Serializable {
+    }
+
     public ExamSubmissionService(StudentExamRepository studentExamRepository, ExamRepository examRepository, ParticipationService participationService,
-            AuthorizationCheckService authorizationCheckService) {
+            AuthorizationCheckService authorizationCheckService, StudentParticipationRepository studentParticipationRepository, HazelcastInstance hazelcastInstance) {
         this.studentExamRepository = studentExamRepository;
         this.examRepository = examRepository;
         this.participationService = participationService;
         this.authorizationCheckService = authorizationCheckService;
+        this.studentParticipationRepository = studentParticipationRepository;
+        this.eligibilities = hazelcastInstance.getMap("examSubmissionEligibilities");
     }
 
     /**
@@ -65,16 +114,10 @@ public class ExamSubmissionService {
      */
     public boolean isAllowedToSubmitDuringExam(Exercise exercise, User user, boolean withGracePeriod) {
         if (exercise.isExamExercise()) {
-            // Get the student exam if it was not passed to the function
             Exam exam = exercise.getExerciseGroup().getExam();
-            // Step 1: Find real exam
-            Optional<StudentExam> optionalStudentExam = studentExamRepository.findWithExercisesByUserIdAndExamId(user.getId(), exam.getId());
-            if (optionalStudentExam.isEmpty()) {
-                // Step 2: Find latest (=the highest id) unsubmitted test exam
-                optionalStudentExam = studentExamRepository.findUnsubmittedStudentExamsForTestExamsWithExercisesByExamIdAndUserId(exam.getId(), user.getId()).stream()
-                        .max(Comparator.comparing(StudentExam::getId));
-            }
-            if (optionalStudentExam.isEmpty()) {
+            // Step 1 and 2: Find the real exam or the latest test exam of the user
+            Optional<SubmissionEligibility> optionalEligibility = getEligibility(exam.getId(), user);
+            if (optionalEligibility.isEmpty()) {
                 // Step 3: We check for test exams here for performance issues as this will not be the case for all students who are participating in the exam
                 // isAllowedToSubmitDuringExam is called everytime an exercise is saved (e.g. auto save every 30 seconds for every student) therefore it is best to limit
                 // unnecessary database calls
@@ -83,19 +126,19 @@ public class ExamSubmissionService {
                 }
                 return true;
             }
-            StudentExam studentExam = optionalStudentExam.get();
+            SubmissionEligibility eligibility = optionalEligibility.get();
             // Check that the current user is allowed to submit to this exercise
-            if (!studentExam.getExercises().contains(exercise)) {
+            if (!eligibility.exerciseIds().contains(exercise.getId())) {
                 return false;
             }
 
             // if the student exam was already submitted, the user cannot save anymore
-            if (Boolean.TRUE.equals(studentExam.isSubmitted()) || studentExam.getSubmissionDate() != null) {
+            if (eligibility.submitted()) {
                 return false;
             }
 
             // Check that the submission is in time
-            return isSubmissionInTime(exercise, studentExam, withGracePeriod);
+            return isSubmissionInTime(exercise, eligibility, withGracePeriod);
         }
         return true;
     }
@@ -127,6 +170,7 @@ public class ExamSubmissionService {
      * - If a submission exists, we will always overwrite this submission, even if the id of the received submission
      * deviates from the one we've got from the database.
      * - If no submission exists (on creation) we allow adding one (implicitly via repository.save()).
+     * The existing submission is usually known from the cached eligibility of the student exam, so that it does not have to be loaded.
      * <p>
      * TODO: we might want to move this to the SubmissionService
      *
@@ -141,6 +185,15 @@ public class ExamSubmissionService {
             return submission;
         }
 
+        if (!exercise.isTeamMode()) {
+            Optional<Long> existingSubmissionId = getEligibility(exercise.getExerciseGroup().getExam().getId(), user)
+                    .map(eligibility -> eligibility.submissionIds().get(exercise.getId()));
+            if (existingSubmissionId.isPresent()) {
+                submission.setId(existingSubmissionId.get());
+                return submission;
+            }
+        }
+
         List<StudentParticipation> participations = participationService.findByExerciseAndStudentIdWithEagerSubmissions(exercise, user.getId());
         if (!participations.isEmpty()) {
             Set<Submission> submissions = participations.get(0).getSubmissions();
@@ -156,13 +209,82 @@ public class ExamSubmissionService {
         return submission;
     }
 
-    private boolean isSubmissionInTime(Exercise exercise, StudentExam studentExam, boolean withGracePeriod) {
-        // The attributes of the exam (e.g. startDate) are missing. Therefore we need to load it.
+    /**
+     * Invalidates the cached eligibility of the user's student exams in the exam, e.g. because the working time has changed or the student exam has been submitted
+     *
+     * @param examId the id of the exam
+     * @param userId the id of the user
+     */
+    public void invalidateEligibility(long examId, long userId) {
+        eligibilities.set(eligibilityKey(examId, userId), new CachedEligibility(ThreadLocalRandom.current().nextLong(), null), ELIGIBILITY_TIME_TO_LIVE.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the eligibility of the real exam of the user or, if there is none, of the latest (=the highest id) unsubmitted test exam.
+     * The eligibility is loaded and cached if it is not cached yet.
+     */
+    private Optional<SubmissionEligibility> getEligibility(long examId, User user) {
+        String key = eligibilityKey(examId, user.getId());
+        CachedEligibility cachedEligibility = eligibilities.get(key);
+        if (cachedEligibility != null && cachedEligibility.eligibility() != null) {
+            return Optional.of(cachedEligibility.eligibility());
+        }
+
+        Optional<StudentExam> optionalStudentExam = studentExamRepository.findWithExercisesByUserIdAndExamId(user.getId(), examId);
+        if (optionalStudentExam.isEmpty()) {
+            optionalStudentExam = studentExamRepository.findUnsubmittedStudentExamsForTestExamsWithExercisesByExamIdAndUserId(examId, user.getId()).stream()
+                    .max(Comparator.comparing(StudentExam::getId));
+        }
+        if (optionalStudentExam.isEmpty()) {
+            return Optional.empty();
+        }
+        SubmissionEligibility eligibility = createEligibility(optionalStudentExam.get(), user);
+
+        // the eligibility is only stored if the student exam has not been invalidated while it was loaded, otherwise the loaded data might be outdated already
+        var newEntry = new CachedEligibility(cachedEligibility != null ? cachedEligibility.stamp() : 0, eligibility);
+        if (cachedEligibility == null) {
+            eligibilities.putIfAbsent(key, newEntry, ELIGIBILITY_TIME_TO_LIVE.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        else if (eligibilities.replace(key, cachedEligibility, newEntry)) {
+            eligibilities.setTtl(key, ELIGIBILITY_TIME_TO_LIVE.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return Optional.of(eligibility);
+    }
+
+    private SubmissionEligibility createEligibility(StudentExam studentExam, User user) {
+        Set<Long> exerciseIds = studentExam.getExercises().stream().map(Exercise::getId).collect(Collectors.toCollection(HashSet::new));
+        boolean submitted = Boolean.TRUE.equals(studentExam.isSubmitted()) || studentExam.getSubmissionDate() != null;
+        Map<Long, Long> submissionIds = new HashMap<>();
+        // test exams have participations for every attempt, so the submission is resolved for every save
+        if (!studentExam.isTestExam() && !exerciseIds.isEmpty()) {
+            for (StudentParticipation participation : studentParticipationRepository.findByExerciseIdsAndStudentIdWithEagerLegalSubmissions(exerciseIds, user.getId())) {
+                if (!participation.getSubmissions().isEmpty()) {
+                    submissionIds.putIfAbsent(participation.getExercise().getId(), participation.getSubmissions().iterator().next().getId());
+                }
+            }
+        }
+        log.debug("Loaded the submission eligibility of student exam {}", studentExam.getId());
+        return new SubmissionEligibility(exerciseIds, submitted, studentExam.getWorkingTime(), studentExam.getStartedDate(), submissionIds);
+    }
+
+    private boolean isSubmissionInTime(Exercise exercise, SubmissionEligibility eligibility, boolean withGracePeriod) {
+        // The attributes of the exam (e.g. startDate) might be outdated. Therefore we need to load it (usually from the second level cache).
         Exam exam = examRepository.findByIdElseThrow(exercise.getExerciseGroup().getExam().getId());
         ZonedDateTime calculatedEndDate = withGracePeriod ? exam.getEndDate().plusSeconds(exam.getGracePeriod()) : exam.getEndDate();
-        if (studentExam.getWorkingTime() != null && studentExam.getWorkingTime() > 0) {
+        if (eligibility.workingTime() != null && eligibility.workingTime() > 0) {
+            // the individual end date is calculated by the student exam
+            var studentExam = new StudentExam();
+            studentExam.setExam(exam);
+            studentExam.setWorkingTime(eligibility.workingTime());
+            studentExam.setStartedDate(eligibility.startedDate());
             calculatedEndDate = withGracePeriod ? studentExam.getIndividualEndDateWithGracePeriod() : studentExam.getIndividualEndDate();
         }
-        return exam.getStartDate().isBefore(ZonedDateTime.now()) && calculatedEndDate.isAfter(ZonedDateTime.now());
+        // test exams that have not been started yet have no end date
+        return calculatedEndDate != null && exam.getStartDate().isBefore(ZonedDateTime.now()) && calculatedEndDate.isAfter(ZonedDateTime.now());
+    }
+
+    private static String eligibilityKey(long examId, long userId) {
+        return examId + "-" + userId;
     }
 }
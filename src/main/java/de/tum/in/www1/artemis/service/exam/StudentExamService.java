@@ -1,16 +1,20 @@
 package de.tum.in.www1.artemis.service.exam;
 
 import static de.tum.in.www1.artemis.config.Constants.EXAM_EXERCISE_START_STATUS;
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_EXAM_PREPARATION_EXECUTOR;
 import static de.tum.in.www1.artemis.service.util.TimeLogUtil.formatDurationFrom;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.hibernate.Hibernate;
@@ -22,11 +26,18 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.hazelcast.config.Config;
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IExecutorService;
+
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
 import de.tum.in.www1.artemis.domain.exam.Exam;
+import de.tum.in.www1.artemis.domain.exam.ExamPreparationTask;
 import de.tum.in.www1.artemis.domain.exam.StudentExam;
 import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
 import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
@@ -55,6 +66,10 @@ public class StudentExamService {
 
     private static final String WORKING_TIME_CHANGE_DURING_CONDUCTION_TOPIC = "/topic/studentExams/%s/working-time-change-during-conduction";
 
+    private static final int MAX_PREPARATION_ATTEMPTS = 3;
+
+    private static final Duration PREPARATION_TASK_LEASE = Duration.ofMinutes(10);
+
     private final Logger log = LoggerFactory.getLogger(StudentExamService.class);
 
     private final ParticipationService participationService;
@@ -93,12 +108,22 @@ public class StudentExamService {
 
     private final TaskScheduler scheduler;
 
+    private final ExamPreparationTaskRepository examPreparationTaskRepository;
+
+    private final IExecutorService examPreparationExecutor;
+
+    private final ReentrantLock exercisePreparationStatusLock = new ReentrantLock();
+
+    // task id -> number of submissions and executions of the task on this instance that have not been completed yet, their leases are renewed periodically
+    private final Map<Long, Integer> leasedPreparationTasks = new ConcurrentHashMap<>();
+
     public StudentExamService(StudentExamRepository studentExamRepository, UserRepository userRepository, ParticipationService participationService,
             QuizSubmissionRepository quizSubmissionRepository, TextSubmissionRepository textSubmissionRepository, ModelingSubmissionRepository modelingSubmissionRepository,
             SubmissionVersionService submissionVersionService, ProgrammingExerciseParticipationService programmingExerciseParticipationService, SubmissionService submissionService,
             ProgrammingSubmissionRepository programmingSubmissionRepository, StudentParticipationRepository studentParticipationRepository, ExamQuizService examQuizService,
             ProgrammingExerciseRepository programmingExerciseRepository, ProgrammingTriggerService programmingTriggerService, ExamRepository examRepository,
-            CacheManager cacheManager, SimpMessageSendingOperations messagingTemplate, @Qualifier("taskScheduler") TaskScheduler scheduler) {
+            CacheManager cacheManager, SimpMessageSendingOperations messagingTemplate, @Qualifier("taskScheduler") TaskScheduler scheduler,
+            ExamPreparationTaskRepository examPreparationTaskRepository, HazelcastInstance hazelcastInstance) {
         this.participationService = participationService;
         this.studentExamRepository = studentExamRepository;
         this.userRepository = userRepository;
@@ -117,6 +142,18 @@ public class StudentExamService {
         this.cacheManager = cacheManager;
         this.messagingTemplate = messagingTemplate;
         this.scheduler = scheduler;
+        this.examPreparationTaskRepository = examPreparationTaskRepository;
+        this.examPreparationExecutor = hazelcastInstance.getExecutorService(HAZELCAST_EXAM_PREPARATION_EXECUTOR);
+    }
+
+    /**
+     * Configures Hazelcast for the StudentExamService before the HazelcastInstance is created.
+     *
+     * @param config the {@link Config} the StudentExamService-specific configuration should be added to
+     */
+    public static void configureHazelcast(Config config) {
+        // each instance prepares at most 10 student exams in parallel, the remaining tasks wait in the queue of the instance
+        config.getExecutorConfig(HAZELCAST_EXAM_PREPARATION_EXECUTOR).setPoolSize(10);
     }
 
     /**
@@ -463,10 +500,12 @@ public class StudentExamService {
      * @param studentExam             the studentExam for which the new participations should be set up
      * @param generatedParticipations the list where the newly generated participations should be added
      * @param startedDate             the Date to which the InitializationDate should be set, in order to link StudentExam <-> participation
+     * @return the number of exercises that could not be started
      */
-    private void setUpExerciseParticipationsAndSubmissionsWithInitializationDate(StudentExam studentExam, List<StudentParticipation> generatedParticipations,
+    private int setUpExerciseParticipationsAndSubmissionsWithInitializationDate(StudentExam studentExam, List<StudentParticipation> generatedParticipations,
             ZonedDateTime startedDate) {
         User student = studentExam.getUser();
+        int failedExercises = 0;
 
         for (Exercise exercise : studentExam.getExercises()) {
             // NOTE: the following code is performed in parallel threads, therefore we need to set the authorization here
@@ -507,71 +546,230 @@ public class StudentExamService {
                 catch (Exception ex) {
                     log.warn("FAILED: Start exercise for student exam {} and exercise {} and student {} with exception: {}", studentExam.getId(), exercise.getId(),
                             student.getParticipantIdentifier(), ex.getMessage(), ex);
+                    failedExercises++;
                 }
             }
         }
+        return failedExercises;
     }
 
     /**
      * Starts all the exercises of all the student exams of an exam
+     * <p>
+     * The preparation of each student exam is persisted as {@link ExamPreparationTask} and executed by the distributed Hazelcast executor, i.e. the tasks are spread across
+     * all instances of the cluster. Failed tasks are retried up to {@link #MAX_PREPARATION_ATTEMPTS} times, which is safe because exercises with an initialized
+     * participation are skipped. The lease of a task is renewed by {@link #renewPreparationTaskLeases()} as long as the instance that submitted or executes it is alive,
+     * tasks of a failed instance are resumed by {@link #resumeStalePreparationTasks()} once their lease has expired.
      *
      * @param examId exam to which the student exams belong
-     * @return a future that will yield the number of generated participations
+     * @return a future that will yield the number of generated participations once all tasks submitted by this instance have been executed
      */
     public CompletableFuture<Integer> startExercises(Long examId) {
         var exam = examRepository.findWithStudentExamsExercisesById(examId).orElseThrow(() -> new EntityNotFoundException("Exam", examId));
         var studentExams = exam.getStudentExams();
-        List<StudentParticipation> generatedParticipations = Collections.synchronizedList(new ArrayList<>());
 
         var cache = cacheManager.getCache(EXAM_EXERCISE_START_STATUS);
         if (cache != null) {
             cache.evict(examId);
         }
 
-        var finishedExamsCounter = new AtomicInteger(0);
-        var failedExamsCounter = new AtomicInteger(0);
-        var startedAt = ZonedDateTime.now();
-        var lock = new ReentrantLock();
-        sendAndCacheExercisePreparationStatus(examId, 0, 0, studentExams.size(), 0, startedAt, lock);
-        var threadPool = Executors.newFixedThreadPool(10);
-        var futures = studentExams.stream()
-                .map(studentExam -> CompletableFuture.runAsync(() -> setUpExerciseParticipationsAndSubmissions(studentExam, generatedParticipations), threadPool)
-                        .thenRun(() -> sendAndCacheExercisePreparationStatus(examId, finishedExamsCounter.incrementAndGet(), failedExamsCounter.get(), studentExams.size(),
-                                generatedParticipations.size(), startedAt, lock))
-                        .exceptionally(throwable -> {
-                            log.error("Exception while preparing exercises for student exam {}", studentExam.getId(), throwable);
-                            sendAndCacheExercisePreparationStatus(examId, finishedExamsCounter.get(), failedExamsCounter.incrementAndGet(), studentExams.size(),
-                                    generatedParticipations.size(), startedAt, lock);
-                            return null;
-                        }))
-                .toList().toArray(new CompletableFuture<?>[studentExams.size()]);
-        return CompletableFuture.allOf(futures).thenApply((emtpy) -> {
-            threadPool.shutdown();
-            sendAndCacheExercisePreparationStatus(examId, finishedExamsCounter.get(), failedExamsCounter.get(), studentExams.size(), generatedParticipations.size(), startedAt,
-                    lock);
-            return generatedParticipations.size();
-        });
+        // tasks of a previous preparation are replaced, their remaining executions cannot claim the deleted tasks anymore
+        examPreparationTaskRepository.deleteAllByExamId(examId);
+        var tasks = examPreparationTaskRepository.saveAll(studentExams.stream().map(studentExam -> new ExamPreparationTask(examId, studentExam.getId())).toList());
+
+        sendAndCacheExercisePreparationStatus(examId, new ExamExerciseStartPreparationStatus(0, 0, tasks.size(), 0, ZonedDateTime.now()));
+        if (tasks.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        var future = new CompletableFuture<Integer>();
+        var remainingTasks = new AtomicInteger(tasks.size());
+        for (var task : tasks) {
+            submitPreparationTask(task.getId(), status -> {
+                if (remainingTasks.decrementAndGet() == 0) {
+                    future.complete(sendExercisePreparationStatus(examId).participationCount());
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * Submits the preparation task with the given id to the distributed executor. Tasks that should be retried are submitted again.
+     *
+     * @param taskId       the id of the persisted task
+     * @param onCompletion invoked with the final status once the task has been executed (null if the execution failed unexpectedly)
+     */
+    private void submitPreparationTask(long taskId, Consumer<ExamPreparationTask.Status> onCompletion) {
+        // the task waits in the queue of the executor for a long time during large exams, it must not be resumed as long as this instance waits for its execution
+        acquireLease(taskId);
+        try {
+            examPreparationExecutor.submit(new ExamPreparationTaskExecution(taskId), new ExecutionCallback<>() {
+
+                @Override
+                public void onResponse(ExamPreparationTask.Status status) {
+                    releaseLease(taskId);
+                    if (status == ExamPreparationTask.Status.QUEUED) {
+                        submitPreparationTask(taskId, onCompletion);
+                    }
+                    else {
+                        onCompletion.accept(status);
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    // the task remains running and will be resumed once its lease has expired
+                    releaseLease(taskId);
+                    log.error("Exception while executing the exam preparation task {}", taskId, throwable);
+                    onCompletion.accept(null);
+                }
+            });
+        }
+        catch (RejectedExecutionException ex) {
+            // the task remains queued and will be resumed once its lease has expired
+            releaseLease(taskId);
+            log.error("Could not submit the exam preparation task {}", taskId, ex);
+            onCompletion.accept(null);
+        }
+    }
+
+    private void acquireLease(long taskId) {
+        leasedPreparationTasks.merge(taskId, 1, Integer::sum);
+    }
+
+    private void releaseLease(long taskId) {
+        leasedPreparationTasks.computeIfPresent(taskId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Renews the leases of the preparation tasks that have been submitted by or are executed on this instance, so that slow tasks are not resumed while they are still
+     * running or waiting in the queue of the executor.
+     * Note: Active on all instances, the period has to be considerably shorter than {@link #PREPARATION_TASK_LEASE}.
+     */
+    @Scheduled(fixedRate = 60 * 1000)
+    public void renewPreparationTaskLeases() {
+        var taskIds = new ArrayList<>(leasedPreparationTasks.keySet());
+        if (!taskIds.isEmpty()) {
+            examPreparationTaskRepository.renewLeases(taskIds);
+        }
+    }
+
+    /**
+     * Prepares the exercises of the student exam of the given task. Invoked by the distributed executor on any instance of the cluster.
+     *
+     * @param taskId the id of the persisted task
+     * @return the new status of the task: QUEUED if the task should be retried, null if the task has already been claimed by another execution, has been resumed by another
+     *         execution in the meantime or has been deleted
+     */
+    ExamPreparationTask.Status executePreparationTask(long taskId) {
+        if (!examPreparationTaskRepository.claim(taskId)) {
+            return null;
+        }
+        var task = examPreparationTaskRepository.findById(taskId).orElse(null);
+        if (task == null) {
+            return null;
+        }
+
+        List<StudentParticipation> generatedParticipations = Collections.synchronizedList(new ArrayList<>());
+        int failedExercises;
+        acquireLease(taskId);
+        try {
+            var studentExam = studentExamRepository.findWithExercisesById(task.getStudentExamId())
+                    .orElseThrow(() -> new EntityNotFoundException("Student exam", task.getStudentExamId()));
+            failedExercises = setUpExerciseParticipationsAndSubmissionsWithInitializationDate(studentExam, generatedParticipations, null);
+        }
+        catch (Exception ex) {
+            log.error("Exception while preparing exercises for student exam {}", task.getStudentExamId(), ex);
+            failedExercises = -1;
+        }
+        finally {
+            releaseLease(taskId);
+        }
+
+        ExamPreparationTask.Status status;
+        if (failedExercises == 0) {
+            status = ExamPreparationTask.Status.FINISHED;
+        }
+        else if (task.getAttempts() < MAX_PREPARATION_ATTEMPTS) {
+            log.info("Retry preparing exercises for student exam {} after attempt {}", task.getStudentExamId(), task.getAttempts());
+            status = ExamPreparationTask.Status.QUEUED;
+        }
+        else {
+            status = ExamPreparationTask.Status.FAILED;
+        }
+        if (!examPreparationTaskRepository.complete(taskId, task.getAttempts(), status, generatedParticipations.size())) {
+            log.warn("The exam preparation task {} has been resumed or deleted while it was executed", taskId);
+            return null;
+        }
+        if (status != ExamPreparationTask.Status.QUEUED) {
+            sendExercisePreparationStatus(task.getExamId());
+        }
+        return status;
+    }
+
+    /**
+     * Queues and submits all preparation tasks again whose lease has expired, i.e. that have not been renewed within {@link #PREPARATION_TASK_LEASE}, e.g. because the
+     * instance executing them has been stopped. Additionally, removes tasks of preparations that have been completed long ago.
+     */
+    public void resumeStalePreparationTasks() {
+        var now = ZonedDateTime.now();
+        var leaseUntil = now.minus(PREPARATION_TASK_LEASE);
+        var staleTaskIds = examPreparationTaskRepository.findIdsByStatusInAndStatusDateBefore(Set.of(ExamPreparationTask.Status.QUEUED, ExamPreparationTask.Status.RUNNING),
+                leaseUntil);
+        // the lease of a task might have been renewed in the meantime, so only the tasks whose lease has still expired when they are queued again are submitted
+        var resumedTaskIds = staleTaskIds.stream().filter(taskId -> examPreparationTaskRepository.requeueIfLeaseExpired(taskId, leaseUntil)).toList();
+        if (!resumedTaskIds.isEmpty()) {
+            log.info("Resume {} stale exam preparation tasks", resumedTaskIds.size());
+            resumedTaskIds.forEach(taskId -> submitPreparationTask(taskId, status -> {
+            }));
+        }
+        examPreparationTaskRepository.deleteAllByStatusInAndStatusDateBefore(Set.of(ExamPreparationTask.Status.FINISHED, ExamPreparationTask.Status.FAILED),
+                now.minusWeeks(1));
     }
 
-    private void sendAndCacheExercisePreparationStatus(Long examId, int finished, int failed, int overall, int participations, ZonedDateTime startTime, ReentrantLock lock) {
+    /**
+     * Computes the status of the preparation of the exam from the persisted tasks, so that it can be sent from any instance of the cluster
+     *
+     * @param examId the id of the exam
+     * @return the sent status
+     */
+    private ExamExerciseStartPreparationStatus sendExercisePreparationStatus(long examId) {
+        int finished = 0;
+        int failed = 0;
+        int overall = 0;
+        int participations = 0;
+        for (var taskCount : examPreparationTaskRepository.countByExamIdGroupByStatus(examId)) {
+            overall += taskCount.count();
+            participations += taskCount.participationCount();
+            if (taskCount.status() == ExamPreparationTask.Status.FINISHED) {
+                finished += taskCount.count();
+            }
+            else if (taskCount.status() == ExamPreparationTask.Status.FAILED) {
+                failed += taskCount.count();
+            }
+        }
+        var startedAt = getExerciseStartStatusOfExam(examId).map(ExamExerciseStartPreparationStatus::startedAt).orElseGet(ZonedDateTime::now);
+        return sendAndCacheExercisePreparationStatus(examId, new ExamExerciseStartPreparationStatus(finished, failed, overall, participations, startedAt));
+    }
+
+    private ExamExerciseStartPreparationStatus sendAndCacheExercisePreparationStatus(long examId, ExamExerciseStartPreparationStatus newStatus) {
         // Synchronizing and comparing to avoid race conditions here
         // Otherwise it can happen that a status with less completed exams is sent after one with a higher value
+        ExamExerciseStartPreparationStatus status = newStatus;
         try {
-            lock.lock();
-            ExamExerciseStartPreparationStatus status = null;
+            exercisePreparationStatusLock.lock();
             var cache = cacheManager.getCache(EXAM_EXERCISE_START_STATUS);
             if (cache != null) {
                 var oldValue = cache.get(examId);
                 if (oldValue != null) {
                     var oldStatus = (ExamExerciseStartPreparationStatus) oldValue.get();
                     if (oldStatus != null) {
-                        status = new ExamExerciseStartPreparationStatus(Math.max(finished, oldStatus.finished()), Math.max(failed, oldStatus.failed()),
-                                Math.max(overall, oldStatus.overall()), Math.max(participations, oldStatus.participationCount()), startTime);
+                        status = new ExamExerciseStartPreparationStatus(Math.max(newStatus.finished(), oldStatus.finished()), Math.max(newStatus.failed(), oldStatus.failed()),
+                                Math.max(newStatus.overall(), oldStatus.overall()), Math.max(newStatus.participationCount(), oldStatus.participationCount()),
+                                newStatus.startedAt());
                     }
                 }
-                if (status == null) {
-                    status = new ExamExerciseStartPreparationStatus(finished, failed, overall, participations, startTime);
-                }
                 cache.put(examId, status);
             }
             else {
@@ -583,8 +781,9 @@ public class StudentExamService {
             log.warn("Failed to send exercise preparation status", e);
         }
         finally {
-            lock.unlock();
+            exercisePreparationStatusLock.unlock();
         }
+        return status;
     }
 
     public Optional<ExamExerciseStartPreparationStatus> getExerciseStartStatusOfExam(Long examId) {
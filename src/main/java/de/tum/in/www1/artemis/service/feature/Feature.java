@@ -1,5 +1,5 @@
 package de.tum.in.www1.artemis.service.feature;
 
 public enum Feature {
-    ProgrammingExercises, PlagiarismChecks, Exports, ExamLiveStatistics, TutorialGroups
+    ProgrammingExercises, PlagiarismChecks, Exports, ExamLiveStatistics, TutorialGroups, QueryBudget
 }
@@ -0,0 +1,145 @@
+package de.tum.in.www1.artemis.service.hestia;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.*;
+import org.eclipse.jgit.errors.BinaryBlobException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.pack.PackConfig;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.domain.Repository;
+import de.tum.in.www1.artemis.service.connectors.GitService;
+
+/**
+ * Computes the changed lines between two commits, which can belong to different repositories (e.g. the template and the solution repository of an exercise).
+ * <p>
+ * The files are read directly from the trees of the two commits, so the working copies are neither used nor modified, and the changes are taken from the edit lists
+ * of the diff algorithm instead of being parsed from the textual git-diff output. As commits are immutable, the changes are cached by the two commit hashes.
+ */
+@Service
+public class GitDiffService {
+
+    private final Logger log = LoggerFactory.getLogger(GitDiffService.class);
+
+    // the same algorithm and comparator that are used by JGit (and git) for the textual diff
+    private static final DiffAlgorithm DIFF_ALGORITHM = DiffAlgorithm.getAlgorithm(DiffAlgorithm.SupportedAlgorithm.HISTOGRAM);
+
+    private final GitService gitService;
+
+    /**
+     * A block of consecutive changed lines in a file.
+     * The previous values are null for added lines and the new values are null for removed lines, replaced lines have both.
+     *
+     * @param filePath          the path of the file in the new commit, null if the file has been deleted
+     * @param previousFilePath  the path of the file in the old commit, null if the file has been added
+     * @param previousStartLine the first removed line in the old file (starting at 1)
+     * @param previousLineCount the number of removed lines
+     * @param startLine         the first added line in the new file (starting at 1)
+     * @param lineCount         the number of added lines
+     */
+    public record GitDiffChange(String filePath, String previousFilePath, Integer previousStartLine, Integer previousLineCount, Integer startLine, Integer lineCount)
+            implements Serializable {
+
+        private static GitDiffChange of(String filePath, String previousFilePath, Edit edit) {
+            boolean removed = edit.getLengthA() > 0;
+            boolean added = edit.getLengthB() > 0;
+            return new GitDiffChange(filePath, previousFilePath, removed ? edit.getBeginA() + 1 : null, removed ? edit.getLengthA() : null, added ? edit.getBeginB() + 1 : null,
+                    added ? edit.getLengthB() : null);
+        }
+    }
+
+    public GitDiffService(GitService gitService) {
+        this.gitService = gitService;
+    }
+
+    /**
+     * Computes the changed lines of all text files between two commits.
+     * Binary files are skipped. If one of the commits is not available in the local repository, the repository is fetched first.
+     *
+     * @param oldRepository the repository containing the old commit
+     * @param oldCommitHash the hash of the old commit
+     * @param newRepository the repository containing the new commit, can be the same as the old repository
+     * @param newCommitHash the hash of the new commit
+     * @return the changes ordered by file path
+     * @throws GitAPIException if the repository could not be fetched
+     * @throws IOException     if a commit, tree or file could not be read
+     */
+    @Cacheable(cacheNames = "gitDiffChanges", key = "#oldCommitHash + '-' + #newCommitHash")
+    public List<GitDiffChange> computeChanges(Repository oldRepository, String oldCommitHash, Repository newRepository, String newCommitHash)
+            throws GitAPIException, IOException {
+        Map<String, ObjectId> oldFiles = readFiles(oldRepository, oldCommitHash);
+        Map<String, ObjectId> newFiles = readFiles(newRepository, newCommitHash);
+        SortedSet<String> filePaths = new TreeSet<>(oldFiles.keySet());
+        filePaths.addAll(newFiles.keySet());
+
+        List<GitDiffChange> changes = new ArrayList<>();
+        try (ObjectReader oldReader = oldRepository.newObjectReader(); ObjectReader newReader = newRepository.newObjectReader()) {
+            for (String filePath : filePaths) {
+                ObjectId oldFile = oldFiles.get(filePath);
+                ObjectId newFile = newFiles.get(filePath);
+                if (Objects.equals(oldFile, newFile)) {
+                    continue;
+                }
+                // only the two versions of the current file are loaded at a time
+                RawText oldText = loadText(oldReader, oldFile);
+                RawText newText = loadText(newReader, newFile);
+                if (oldText == null || newText == null) {
+                    log.debug("Skipping binary file {} in the diff between {} and {}", filePath, oldCommitHash, newCommitHash);
+                    continue;
+                }
+                for (Edit edit : DIFF_ALGORITHM.diff(RawTextComparator.DEFAULT, oldText, newText)) {
+                    changes.add(GitDiffChange.of(newFile != null ? filePath : null, oldFile != null ? filePath : null, edit));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Reads the paths and blob ids of all files in the tree of a commit
+     */
+    private Map<String, ObjectId> readFiles(Repository repository, String commitHash) throws GitAPIException, IOException {
+        ObjectId commitId = ObjectId.fromString(commitHash);
+        if (!repository.getObjectDatabase().has(commitId)) {
+            gitService.fetchAll(repository);
+        }
+        Map<String, ObjectId> files = new HashMap<>();
+        try (RevWalk revWalk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(revWalk.parseCommit(commitId).getTree());
+            treeWalk.setRecursive(true);
+            while (treeWalk.next()) {
+                // skip submodules (gitlinks), which do not point to a blob of this repository
+                if (treeWalk.getFileMode(0).getObjectType() == Constants.OBJ_BLOB) {
+                    files.put(treeWalk.getPathString(), treeWalk.getObjectId(0));
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Loads a file as text, returns an empty text for a missing file and null for a binary file
+     */
+    private RawText loadText(ObjectReader reader, ObjectId blobId) throws IOException {
+        if (blobId == null) {
+            return RawText.EMPTY_TEXT;
+        }
+        try {
+            return RawText.load(reader.open(blobId, Constants.OBJ_BLOB), PackConfig.DEFAULT_BIG_FILE_THRESHOLD);
+        }
+        catch (BinaryBlobException e) {
+            return null;
+        }
+    }
+}
@@ -1,18 +1,12 @@
 package de.tum.in.www1.artemis.service.hestia;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.lib.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -41,6 +35,8 @@ public class ProgrammingExerciseGitDiffReportService {
 
     private final GitService gitService;
 
+    private final GitDiffService gitDiffService;
+
     private final ProgrammingExerciseGitDiffReportRepository programmingExerciseGitDiffReportRepository;
 
     private final ProgrammingSubmissionRepository programmingSubmissionRepository;
@@ -51,13 +47,12 @@ public class ProgrammingExerciseGitDiffReportService {
 
     private final SolutionProgrammingExerciseParticipationRepository solutionProgrammingExerciseParticipationRepository;
 
-    private final Pattern gitDiffLinePattern = Pattern.compile("@@ -(?<previousLine>\\d+)(,(?<previousLineCount>\\d+))? \\+(?<newLine>\\d+)(,(?<newLineCount>\\d+))? @@");
-
-    public ProgrammingExerciseGitDiffReportService(GitService gitService, ProgrammingExerciseGitDiffReportRepository programmingExerciseGitDiffReportRepository,
-            ProgrammingSubmissionRepository programmingSubmissionRepository, ProgrammingExerciseRepository programmingExerciseRepository,
-            TemplateProgrammingExerciseParticipationRepository templateProgrammingExerciseParticipationRepository,
+    public ProgrammingExerciseGitDiffReportService(GitService gitService, GitDiffService gitDiffService,
+            ProgrammingExerciseGitDiffReportRepository programmingExerciseGitDiffReportRepository, ProgrammingSubmissionRepository programmingSubmissionRepository,
+            ProgrammingExerciseRepository programmingExerciseRepository, TemplateProgrammingExerciseParticipationRepository templateProgrammingExerciseParticipationRepository,
             SolutionProgrammingExerciseParticipationRepository solutionProgrammingExerciseParticipationRepository) {
         this.gitService = gitService;
+        this.gitDiffService = gitDiffService;
         this.programmingExerciseGitDiffReportRepository = programmingExerciseGitDiffReportRepository;
         this.programmingSubmissionRepository = programmingSubmissionRepository;
         this.programmingExerciseRepository = programmingExerciseRepository;
@@ -94,13 +89,16 @@ public class ProgrammingExerciseGitDiffReportService {
 
         var templateHash = templateSubmission.getCommitHash();
         var solutionHash = solutionSubmission.getCommitHash();
+        if (templateHash == null || solutionHash == null || !ObjectId.isId(templateHash) || !ObjectId.isId(solutionHash)) {
+            return null;
+        }
         var existingReport = this.getReportOfExercise(programmingExercise);
         if (existingReport != null && canUseExistingReport(existingReport, templateHash, solutionHash)) {
             return existingReport;
         }
 
         try {
-            var newReport = generateReport(templateParticipation, solutionParticipation);
+            var newReport = generateReport(templateParticipation, templateHash, solutionParticipation, solutionHash);
             newReport.setTemplateRepositoryCommitHash(templateHash);
             newReport.setSolutionRepositoryCommitHash(solutionHash);
             newReport.setProgrammingExercise(programmingExercise);
@@ -160,214 +158,39 @@ public class ProgrammingExerciseGitDiffReportService {
 
     /**
      * Creates a new ProgrammingExerciseGitDiffReport for an exercise.
-     * It will take the git-diff between the template and solution repositories and return all changes.
+     * It will take the git-diff between the template and solution commits and return all changes.
      *
      * @param templateParticipation The participation for the template
+     * @param templateHash          The commit hash of the template
      * @param solutionParticipation The participation for the solution
+     * @param solutionHash          The commit hash of the solution
      * @return The changes between template and solution
      * @throws GitAPIException If there was an issue with JGit
      */
-    private ProgrammingExerciseGitDiffReport generateReport(TemplateProgrammingExerciseParticipation templateParticipation,
-            SolutionProgrammingExerciseParticipation solutionParticipation) throws GitAPIException, IOException {
-        var templateRepo = gitService.getOrCheckoutRepository(templateParticipation.getVcsRepositoryUrl(), true);
-        var solutionRepo = gitService.getOrCheckoutRepository(solutionParticipation.getVcsRepositoryUrl(), true);
-
-        gitService.resetToOriginHead(templateRepo);
-        gitService.pullIgnoreConflicts(templateRepo);
-        gitService.resetToOriginHead(solutionRepo);
-        gitService.pullIgnoreConflicts(solutionRepo);
-
-        var oldTreeParser = new FileTreeIterator(templateRepo);
-        var newTreeParser = new FileTreeIterator(solutionRepo);
-
-        try (ByteArrayOutputStream diffOutputStream = new ByteArrayOutputStream(); Git git = Git.wrap(templateRepo)) {
-            git.diff().setOldTree(oldTreeParser).setNewTree(newTreeParser).setOutputStream(diffOutputStream).call();
-            var diff = diffOutputStream.toString();
-            var programmingExerciseGitDiffEntries = extractDiffEntries(diff);
-            var report = new ProgrammingExerciseGitDiffReport();
-            for (ProgrammingExerciseGitDiffEntry gitDiffEntry : programmingExerciseGitDiffEntries) {
-                gitDiffEntry.setGitDiffReport(report);
-            }
-            report.setEntries(new HashSet<>(programmingExerciseGitDiffEntries));
-            return report;
-        }
-    }
-
-    /**
-     * Extracts the ProgrammingExerciseGitDiffEntry from the raw git-diff output
-     *
-     * @param diff The raw git-diff output
-     * @return The extracted ProgrammingExerciseGitDiffEntries
-     */
-    private List<ProgrammingExerciseGitDiffEntry> extractDiffEntries(String diff) {
-        var lines = diff.split("\n");
-        var parserState = new ParserState();
-
-        for (int i = 0; i < lines.length; i++) {
-            var line = lines[i];
-            // Filter out no new line message
-            if ("\\ No newline at end of file".equals(line)) {
-                continue;
-            }
-            var lineMatcher = gitDiffLinePattern.matcher(line);
-            if (lineMatcher.matches()) {
-                handleNewDiffBlock(lines, i, parserState, lineMatcher);
-            }
-            else if (!parserState.deactivateCodeReading) {
-                switch (line.charAt(0)) {
-                    case '+' -> handleAddition(parserState);
-                    case '-' -> handleRemoval(parserState);
-                    case ' ' -> handleUnchanged(parserState);
-                    default -> parserState.deactivateCodeReading = true;
-                }
-            }
-        }
-        if (!parserState.currentEntry.isEmpty()) {
-            parserState.entries.add(parserState.currentEntry);
-        }
-        return parserState.entries;
-    }
-
-    private void handleNewDiffBlock(String[] lines, int currentLine, ParserState parserState, Matcher lineMatcher) {
-        if (!parserState.currentEntry.isEmpty()) {
-            parserState.entries.add(parserState.currentEntry);
-        }
-        // Start of a new file
-        var newFilePath = getFilePath(lines, currentLine);
-        var newPreviousFilePath = getPreviousFilePath(lines, currentLine);
-        if (newFilePath != null || newPreviousFilePath != null) {
-            parserState.currentFilePath = newFilePath;
-            parserState.currentPreviousFilePath = newPreviousFilePath;
-        }
-        parserState.currentEntry = new ProgrammingExerciseGitDiffEntry();
-        parserState.currentEntry.setFilePath(parserState.currentFilePath);
-        parserState.currentEntry.setPreviousFilePath(parserState.currentPreviousFilePath);
-        parserState.currentLineCount = Integer.parseInt(lineMatcher.group("newLine"));
-        parserState.currentPreviousLineCount = Integer.parseInt(lineMatcher.group("previousLine"));
-        parserState.deactivateCodeReading = false;
-    }
-
-    private void handleUnchanged(ParserState parserState) {
-        var entry = parserState.currentEntry;
-        if (!entry.isEmpty()) {
-            parserState.entries.add(entry);
-        }
-        entry = new ProgrammingExerciseGitDiffEntry();
-        entry.setFilePath(parserState.currentFilePath);
-        entry.setPreviousFilePath(parserState.currentPreviousFilePath);
-
-        parserState.currentEntry = entry;
-        parserState.lastLineRemoveOperation = false;
-        parserState.currentLineCount++;
-        parserState.currentPreviousLineCount++;
-    }
-
-    private void handleRemoval(ParserState parserState) {
-        var entry = parserState.currentEntry;
-        if (!parserState.lastLineRemoveOperation && !entry.isEmpty()) {
-            parserState.entries.add(entry);
-            entry = new ProgrammingExerciseGitDiffEntry();
-            entry.setFilePath(parserState.currentFilePath);
-            entry.setPreviousFilePath(parserState.currentPreviousFilePath);
-        }
-        if (entry.getPreviousLineCount() == null) {
-            entry.setPreviousLineCount(0);
-            entry.setPreviousStartLine(parserState.currentPreviousLineCount);
-        }
-        entry.setPreviousLineCount(entry.getPreviousLineCount() + 1);
-
-        parserState.currentEntry = entry;
-        parserState.lastLineRemoveOperation = true;
-        parserState.currentPreviousLineCount++;
-    }
-
-    private void handleAddition(ParserState parserState) {
-        if (parserState.currentEntry.getLineCount() == null) {
-            parserState.currentEntry.setLineCount(0);
-            parserState.currentEntry.setStartLine(parserState.currentLineCount);
-        }
-        parserState.currentEntry.setLineCount(parserState.currentEntry.getLineCount() + 1);
-
-        parserState.lastLineRemoveOperation = false;
-        parserState.currentLineCount++;
-    }
-
-    /**
-     * Extracts the file path from the raw git-diff for a specified diff block
-     *
-     * @param lines       All lines of the raw git-diff
-     * @param currentLine The line where the gitDiffLinePattern matched
-     * @return The file path of the current diff block
-     */
-    private String getFilePath(String[] lines, int currentLine) {
-        if (currentLine > 1 && lines[currentLine - 1].startsWith("+++ ") && lines[currentLine - 2].startsWith("--- ")) {
-            var filePath = lines[currentLine - 1].substring(4);
-            // Check if the filePath is /dev/null (which means the file was deleted) and instead return null
-            if (DiffEntry.DEV_NULL.equals(filePath)) {
-                return null;
-            }
-            // Git diff usually puts the two repos into the subfolders 'a' and 'b' for comparison, which we filter out here
-            if (filePath.startsWith("a/") || filePath.startsWith("b/")) {
-                return filePath.substring(2);
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Extracts the previous file path from the raw git-diff for a specified diff block
-     *
-     * @param lines       All lines of the raw git-diff
-     * @param currentLine The line where the gitDiffLinePattern matched
-     * @return The previous file path of the current diff block
-     */
-    private String getPreviousFilePath(String[] lines, int currentLine) {
-        if (currentLine > 1 && lines[currentLine - 1].startsWith("+++ ") && lines[currentLine - 2].startsWith("--- ")) {
-            var filePath = lines[currentLine - 2].substring(4);
-            // Check if the filePath is /dev/null (which means the file was deleted) and instead return null
-            if (DiffEntry.DEV_NULL.equals(filePath)) {
-                return null;
-            }
-            // Git diff usually puts the two repos into the subfolders 'a' and 'b' for comparison, which we filter out here
-            if (filePath.startsWith("a/") || filePath.startsWith("b/")) {
-                return filePath.substring(2);
-            }
-        }
-        return null;
+    private ProgrammingExerciseGitDiffReport generateReport(TemplateProgrammingExerciseParticipation templateParticipation, String templateHash,
+            SolutionProgrammingExerciseParticipation solutionParticipation, String solutionHash) throws GitAPIException, IOException {
+        // the commits are read directly from the object databases, so the working copies do not have to be reset or pulled
+        var templateRepo = gitService.getOrCheckoutRepository(templateParticipation.getVcsRepositoryUrl(), false);
+        var solutionRepo = gitService.getOrCheckoutRepository(solutionParticipation.getVcsRepositoryUrl(), false);
+
+        var report = new ProgrammingExerciseGitDiffReport();
+        var entries = new HashSet<ProgrammingExerciseGitDiffEntry>();
+        for (var change : gitDiffService.computeChanges(templateRepo, templateHash, solutionRepo, solutionHash)) {
+            var entry = new ProgrammingExerciseGitDiffEntry();
+            entry.setFilePath(change.filePath());
+            entry.setPreviousFilePath(change.previousFilePath());
+            entry.setPreviousStartLine(change.previousStartLine());
+            entry.setPreviousLineCount(change.previousLineCount());
+            entry.setStartLine(change.startLine());
+            entry.setLineCount(change.lineCount());
+            entry.setGitDiffReport(report);
+            entries.add(entry);
+        }
+        report.setEntries(entries);
+        return report;
     }
 
     private boolean canUseExistingReport(ProgrammingExerciseGitDiffReport report, String templateHash, String solutionHash) {
         return report.getTemplateRepositoryCommitHash().equals(templateHash) && report.getSolutionRepositoryCommitHash().equals(solutionHash);
     }
-
-    /**
-     * Helper class for parsing the raw git-diff
-     */
-    private static class ParserState {
-
-        private final List<ProgrammingExerciseGitDiffEntry> entries;
-
-        private String currentFilePath;
-
-        private String currentPreviousFilePath;
-
-        private ProgrammingExerciseGitDiffEntry currentEntry;
-
-        private boolean deactivateCodeReading;
-
-        private boolean lastLineRemoveOperation;
-
-        private int currentLineCount;
-
-        private int currentPreviousLineCount;
-
-        public ParserState() {
-            entries = new ArrayList<>();
-            currentEntry = new ProgrammingExerciseGitDiffEntry();
-            deactivateCodeReading = true;
-            lastLineRemoveOperation = false;
-            currentLineCount = 0;
-            currentPreviousLineCount = 0;
-        }
-    }
 }
@@ -3,6 +3,9 @@ package de.tum.in.www1.artemis.service.ldap;
 import static de.tum.in.www1.artemis.config.Constants.TUM_LDAP_MATRIKEL_NUMBER;
 import static org.springframework.ldap.query.LdapQueryBuilder.query;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
@@ -13,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.ldap.query.ContainerCriteria;
 import org.springframework.ldap.query.SearchScope;
 import org.springframework.stereotype.Service;
 
@@ -22,6 +26,8 @@ import de.tum.in.www1.artemis.domain.User;
 @Profile("ldap")
 public class LdapUserService {
 
+    private static final int REGISTRATION_NUMBER_BATCH_SIZE = 50;
+
     private final Logger log = LoggerFactory.getLogger(LdapUserService.class);
 
     @Value("${artemis.user-management.ldap.base}")
@@ -40,8 +46,25 @@ public class LdapUserService {
         return ldapUserRepository.findOne(query().base(ldapBase).searchScope(SearchScope.SUBTREE).where("cn").is(username));
     }
 
-    public Optional<LdapUserDto> findByRegistrationNumber(final String registrationNumber) {
-        return ldapUserRepository.findOne(query().base(ldapBase).searchScope(SearchScope.SUBTREE).where(TUM_LDAP_MATRIKEL_NUMBER).is(registrationNumber));
+    /**
+     * Finds all LDAP users with one of the given registration numbers. The registration numbers are combined into OR-filters,
+     * so that only one LDAP search per {@link #REGISTRATION_NUMBER_BATCH_SIZE} registration numbers is necessary.
+     *
+     * @param registrationNumbers the registration numbers (= matriculation numbers) of the users
+     * @return all found LDAP users, users that cannot be found are not contained
+     */
+    public List<LdapUserDto> findAllByRegistrationNumbers(final Collection<String> registrationNumbers) {
+        List<String> distinctRegistrationNumbers = registrationNumbers.stream().distinct().toList();
+        List<LdapUserDto> ldapUsers = new ArrayList<>();
+        for (int start = 0; start < distinctRegistrationNumbers.size(); start += REGISTRATION_NUMBER_BATCH_SIZE) {
+            var batch = distinctRegistrationNumbers.subList(start, Math.min(start + REGISTRATION_NUMBER_BATCH_SIZE, distinctRegistrationNumbers.size()));
+            ContainerCriteria criteria = query().base(ldapBase).searchScope(SearchScope.SUBTREE).where(TUM_LDAP_MATRIKEL_NUMBER).is(batch.get(0));
+            for (String registrationNumber : batch.subList(1, batch.size())) {
+                criteria = criteria.or(TUM_LDAP_MATRIKEL_NUMBER).is(registrationNumber);
+            }
+            ldapUserRepository.findAll(criteria).forEach(ldapUsers::add);
+        }
+        return ldapUsers;
     }
 
     /**
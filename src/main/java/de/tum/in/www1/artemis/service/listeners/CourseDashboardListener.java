@@ -0,0 +1,114 @@
+package de.tum.in.www1.artemis.service.listeners;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.exam.Exam;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.plagiarism.PlagiarismCase;
+import de.tum.in.www1.artemis.domain.tutorialgroups.TutorialGroup;
+import de.tum.in.www1.artemis.service.CourseDashboardSnapshotService;
+
+/**
+ * Listener for changes of the entities shown on the course dashboard to invalidate the stored dashboard snapshots.
+ * Changes of the course content invalidate the snapshots of all users of the course, changes of participations, submissions and plagiarism cases only the snapshots
+ * of the affected students (results are handled by the {@link ResultListener}).
+ * <p>
+ * Only the ids of associated entities are accessed, so that no lazy associations are loaded while the persistence context is flushed. The snapshot service changes the
+ * version stamps after the commit of the transaction.
+ *
+ * @see CourseDashboardSnapshotService
+ */
+@Component
+public class CourseDashboardListener {
+
+    private CourseDashboardSnapshotService courseDashboardSnapshotService;
+
+    public CourseDashboardListener() {
+        // Empty constructor for Spring
+    }
+
+    @Autowired
+    public CourseDashboardListener(@Lazy CourseDashboardSnapshotService courseDashboardSnapshotService) {
+        this.courseDashboardSnapshotService = courseDashboardSnapshotService;
+    }
+
+    /**
+     * This callback method is called after an entity shown on the course dashboard is updated.
+     * Updates of submissions that do not change what the dashboard shows (e.g. autosaves) are skipped.
+     *
+     * @param entity the entity that was updated
+     */
+    @PostUpdate
+    public void updateEntity(Object entity) {
+        if (entity instanceof Submission submission && !submission.isSubmittedOrTypeChanged()) {
+            return;
+        }
+        createOrRemoveEntity(entity);
+    }
+
+    /**
+     * This callback method is called after an entity shown on the course dashboard is created or deleted.
+     *
+     * @param entity the entity that was created or deleted
+     */
+    @PostPersist
+    @PostRemove
+    public void createOrRemoveEntity(Object entity) {
+        if (entity instanceof Course course) {
+            courseDashboardSnapshotService.invalidateCourse(course.getId());
+        }
+        else if (entity instanceof Exercise exercise) {
+            // exam exercises are not shown on the course dashboard, their exam is handled separately
+            if (exercise.isCourseExercise()) {
+                invalidateCourse(exercise.getCourseViaExerciseGroupOrCourseMember());
+            }
+        }
+        else if (entity instanceof Lecture lecture) {
+            invalidateCourse(lecture.getCourse());
+        }
+        else if (entity instanceof Exam exam) {
+            invalidateCourse(exam.getCourse());
+        }
+        else if (entity instanceof Competency competency) {
+            invalidateCourse(competency.getCourse());
+        }
+        else if (entity instanceof TutorialGroup tutorialGroup) {
+            invalidateCourse(tutorialGroup.getCourse());
+        }
+        else if (entity instanceof StudentParticipation participation) {
+            courseDashboardSnapshotService.invalidateParticipation(participation);
+        }
+        else if (entity instanceof Submission submission) {
+            // a participation that has not been loaded (uninitialized proxy) is skipped instead of being loaded while flushing
+            if (submission.getParticipation() instanceof StudentParticipation participation) {
+                courseDashboardSnapshotService.invalidateParticipation(participation);
+            }
+        }
+        else if (entity instanceof PlagiarismCase plagiarismCase) {
+            if (plagiarismCase.getStudent() != null) {
+                courseDashboardSnapshotService.invalidateUser(plagiarismCase.getStudent().getId());
+            }
+        }
+        else if (entity instanceof Team team) {
+            courseDashboardSnapshotService.invalidateTeam(team.getId());
+            // new members do not depend on the team yet
+            if (Hibernate.isInitialized(team.getStudents())) {
+                team.getStudents().forEach(student -> courseDashboardSnapshotService.invalidateUser(student.getId()));
+            }
+        }
+    }
+
+    private void invalidateCourse(Course course) {
+        if (course != null) {
+            courseDashboardSnapshotService.invalidateCourse(course.getId());
+        }
+    }
+}
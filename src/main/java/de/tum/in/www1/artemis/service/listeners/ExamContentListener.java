@@ -0,0 +1,57 @@
+package de.tum.in.www1.artemis.service.listeners;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import de.tum.in.www1.artemis.domain.Exercise;
+import de.tum.in.www1.artemis.domain.exam.Exam;
+import de.tum.in.www1.artemis.service.exam.ExamContentCacheService;
+import de.tum.in.www1.artemis.service.util.TransactionUtil;
+
+/**
+ * Listener for changes of exams and exam exercises to invalidate the cached content of the exam that is served to the students during the conduction.
+ *
+ * @see ExamContentCacheService
+ */
+@Component
+public class ExamContentListener {
+
+    private ExamContentCacheService examContentCacheService;
+
+    public ExamContentListener() {
+        // Empty constructor for Spring
+    }
+
+    @Autowired
+    public ExamContentListener(@Lazy ExamContentCacheService examContentCacheService) {
+        this.examContentCacheService = examContentCacheService;
+    }
+
+    /**
+     * This callback method is called after an exam or an exercise is created, updated or deleted. The content is invalidated after the commit, so that requests
+     * that read the exam in the meantime do not cache the old content.
+     *
+     * @param entity the entity that was modified
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void createUpdateOrRemoveEntity(Object entity) {
+        if (entity instanceof Exam exam) {
+            invalidateExamAfterCommit(exam.getId());
+        }
+        else if (entity instanceof Exercise exercise && exercise.isExamExercise() && exercise.getExerciseGroup().getExam() != null) {
+            // only the id of the exam is accessed, so that it is not loaded while the persistence context is flushed
+            invalidateExamAfterCommit(exercise.getExerciseGroup().getExam().getId());
+        }
+    }
+
+    private void invalidateExamAfterCommit(long examId) {
+        TransactionUtil.runAfterCommit(() -> examContentCacheService.invalidateExam(examId));
+    }
+}
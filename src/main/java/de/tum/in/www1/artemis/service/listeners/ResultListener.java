@@ -10,11 +10,13 @@ import org.springframework.stereotype.Component;
 
 import de.tum.in.www1.artemis.domain.Result;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.service.CourseDashboardSnapshotService;
 import de.tum.in.www1.artemis.service.messaging.InstanceMessageSendService;
 import de.tum.in.www1.artemis.service.scheduled.ParticipantScoreScheduleService;
 
 /**
- * Listener for updates on {@link Result} entities to update the {@link de.tum.in.www1.artemis.domain.scores.ParticipantScore}.
+ * Listener for updates on {@link Result} entities to update the {@link de.tum.in.www1.artemis.domain.scores.ParticipantScore} and to invalidate the course dashboard
+ * snapshots of the participant.
  *
  * @see ParticipantScoreScheduleService
  */
@@ -23,13 +25,16 @@ public class ResultListener {
 
     private InstanceMessageSendService instanceMessageSendService;
 
+    private CourseDashboardSnapshotService courseDashboardSnapshotService;
+
     public ResultListener() {
         // Empty constructor for Spring
     }
 
     @Autowired
-    public ResultListener(@Lazy InstanceMessageSendService instanceMessageSendService) {
+    public ResultListener(@Lazy InstanceMessageSendService instanceMessageSendService, @Lazy CourseDashboardSnapshotService courseDashboardSnapshotService) {
         this.instanceMessageSendService = instanceMessageSendService;
+        this.courseDashboardSnapshotService = courseDashboardSnapshotService;
     }
 
     /**
@@ -43,6 +48,7 @@ public class ResultListener {
     public void createOrUpdateResult(Result result) {
         if (result.getParticipation() instanceof StudentParticipation participation) {
             instanceMessageSendService.sendParticipantScoreSchedule(participation.getExercise().getId(), participation.getParticipant().getId(), null);
+            courseDashboardSnapshotService.invalidateParticipation(participation);
         }
     }
 
@@ -59,6 +65,7 @@ public class ResultListener {
         // If the participation does not exist, we assume it will be deleted as well (no need to update the score in that case)
         if (result.getParticipation() instanceof StudentParticipation participation) {
             instanceMessageSendService.sendParticipantScoreSchedule(participation.getExercise().getId(), participation.getParticipant().getId(), result.getId());
+            courseDashboardSnapshotService.invalidateParticipation(participation);
         }
     }
 }
@@ -0,0 +1,51 @@
+package de.tum.in.www1.artemis.service.listeners;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import de.tum.in.www1.artemis.domain.exam.StudentExam;
+import de.tum.in.www1.artemis.service.exam.ExamSubmissionService;
+import de.tum.in.www1.artemis.service.util.TransactionUtil;
+
+/**
+ * Listener for changes of student exams (e.g. of the working time or the hand-in) to invalidate the cached data that decides whether the student is allowed to submit.
+ *
+ * @see ExamSubmissionService
+ */
+@Component
+public class StudentExamListener {
+
+    private ExamSubmissionService examSubmissionService;
+
+    public StudentExamListener() {
+        // Empty constructor for Spring
+    }
+
+    @Autowired
+    public StudentExamListener(@Lazy ExamSubmissionService examSubmissionService) {
+        this.examSubmissionService = examSubmissionService;
+    }
+
+    /**
+     * This callback method is called after a student exam is created, updated or deleted. The eligibility is invalidated after the commit, as auto saves in the
+     * meantime still load the old student exam and would cache it, because the stamp of the invalidation would not change anymore.
+     *
+     * @param studentExam the student exam that was modified
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void createUpdateOrRemoveStudentExam(StudentExam studentExam) {
+        // new test exam attempts replace the previous ones, so they have to be invalidated as well
+        if (studentExam.getExam() != null && studentExam.getUser() != null) {
+            long examId = studentExam.getExam().getId();
+            long userId = studentExam.getUser().getId();
+            TransactionUtil.runAfterCommit(() -> examSubmissionService.invalidateEligibility(examId, userId));
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package de.tum.in.www1.artemis.service.messaging;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_INSTANCE_MESSAGE_OUTBOX;
+
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,13 +10,20 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import de.tum.in.www1.artemis.service.feature.Feature;
 import de.tum.in.www1.artemis.service.feature.FeatureToggle;
 
 /**
  * This service is only active on a node that does not run with the 'scheduling' profile.
- * All requests are forwarded to a Hazelcast topic and a node with the 'scheduling' profile will then process it.
+ * All requests are stored in a Hazelcast outbox and a node with the 'scheduling' profile will then process it (see {@link InstanceMessageReceiveService}).
+ * The outbox is a distributed map keyed by the idempotency key of the message, so messages are not lost while the node with the 'scheduling' profile restarts, and a message
+ * that is sent again before it has been processed (e.g. one participant score update per result) is coalesced with the pending one.
  */
 @Service
 @Profile("!scheduling")
@@ -24,140 +31,161 @@ public class DistributedInstanceMessageSendService implements InstanceMessageSen
 
     private final Logger log = LoggerFactory.getLogger(DistributedInstanceMessageSendService.class);
 
-    private final ScheduledExecutorService exec = Executors.newScheduledThreadPool(1);
+    private final IMap<String, InstanceMessage> outbox;
 
-    private final HazelcastInstance hazelcastInstance;
+    private final MeterRegistry meterRegistry;
 
-    public DistributedInstanceMessageSendService(HazelcastInstance hazelcastInstance) {
-        this.hazelcastInstance = hazelcastInstance;
+    public DistributedInstanceMessageSendService(HazelcastInstance hazelcastInstance, MeterRegistry meterRegistry) {
+        this.outbox = hazelcastInstance.getMap(HAZELCAST_INSTANCE_MESSAGE_OUTBOX);
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
     public void sendProgrammingExerciseSchedule(Long exerciseId) {
         log.info("Sending schedule for programming exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE, exerciseId);
+        sendMessage(MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE, exerciseId);
     }
 
     @Override
     public void sendProgrammingExerciseScheduleCancel(Long exerciseId) {
         log.info("Sending schedule cancel for programming exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE_CANCEL, exerciseId);
+        sendMessage(MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE_CANCEL, exerciseId);
     }
 
     @Override
     public void sendModelingExerciseSchedule(Long exerciseId) {
         log.info("Sending schedule for modeling exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.MODELING_EXERCISE_SCHEDULE, exerciseId);
+        sendMessage(MessageTopic.MODELING_EXERCISE_SCHEDULE, exerciseId);
     }
 
     @Override
     public void sendModelingExerciseScheduleCancel(Long exerciseId) {
         log.info("Sending schedule cancel for modeling exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.MODELING_EXERCISE_SCHEDULE_CANCEL, exerciseId);
+        sendMessage(MessageTopic.MODELING_EXERCISE_SCHEDULE_CANCEL, exerciseId);
     }
 
     @Override
     public void sendModelingExerciseInstantClustering(Long exerciseId) {
         log.info("Sending schedule instant clustering for modeling exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.MODELING_EXERCISE_INSTANT_CLUSTERING, exerciseId);
+        sendMessage(MessageTopic.MODELING_EXERCISE_INSTANT_CLUSTERING, exerciseId);
     }
 
     @Override
     public void sendTextExerciseSchedule(Long exerciseId) {
         log.info("Sending schedule for text exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.TEXT_EXERCISE_SCHEDULE, exerciseId);
+        sendMessage(MessageTopic.TEXT_EXERCISE_SCHEDULE, exerciseId);
     }
 
     @Override
     public void sendTextExerciseScheduleCancel(Long exerciseId) {
         log.info("Sending schedule cancel for text exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.TEXT_EXERCISE_SCHEDULE_CANCEL, exerciseId);
+        sendMessage(MessageTopic.TEXT_EXERCISE_SCHEDULE_CANCEL, exerciseId);
     }
 
     @Override
     public void sendTextExerciseInstantClustering(Long exerciseId) {
         log.info("Sending schedule instant clustering for text exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.TEXT_EXERCISE_INSTANT_CLUSTERING, exerciseId);
+        sendMessage(MessageTopic.TEXT_EXERCISE_INSTANT_CLUSTERING, exerciseId);
     }
 
     @Override
     public void sendUnlockAllRepositories(Long exerciseId) {
         log.info("Sending unlock all repositories for programming exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.PROGRAMMING_EXERCISE_UNLOCK_REPOSITORIES, exerciseId);
+        sendMessage(MessageTopic.PROGRAMMING_EXERCISE_UNLOCK_REPOSITORIES, exerciseId);
     }
 
     @Override
     public void sendLockAllRepositories(Long exerciseId) {
         log.info("Sending lock all repositories for programming exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.PROGRAMMING_EXERCISE_LOCK_REPOSITORIES, exerciseId);
+        sendMessage(MessageTopic.PROGRAMMING_EXERCISE_LOCK_REPOSITORIES, exerciseId);
     }
 
     @Override
     public void sendUnlockAllRepositoriesWithoutEarlierIndividualDueDate(Long exerciseId) {
         log.info("Sending unlock all repositories without an individual due date before now for programming exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.PROGRAMMING_EXERCISE_UNLOCK_WITHOUT_EARLIER_DUE_DATE, exerciseId);
+        sendMessage(MessageTopic.PROGRAMMING_EXERCISE_UNLOCK_WITHOUT_EARLIER_DUE_DATE, exerciseId);
     }
 
     @Override
     public void sendLockAllRepositoriesWithoutLaterIndividualDueDate(Long exerciseId) {
         log.info("Sending lock all repositories without an individual due date after now for programming exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.PROGRAMMING_EXERCISE_LOCK_WITHOUT_LATER_DUE_DATE, exerciseId);
+        sendMessage(MessageTopic.PROGRAMMING_EXERCISE_LOCK_WITHOUT_LATER_DUE_DATE, exerciseId);
     }
 
     @Override
     public void sendRemoveNonActivatedUserSchedule(Long userId) {
         log.info("Sending remove non-activated user {} to broker.", userId);
-        sendMessageDelayed(MessageTopic.USER_MANAGEMENT_REMOVE_NON_ACTIVATED_USERS, userId);
+        sendMessage(MessageTopic.USER_MANAGEMENT_REMOVE_NON_ACTIVATED_USERS, userId);
     }
 
     @Override
     public void sendCancelRemoveNonActivatedUserSchedule(Long userId) {
         log.info("Sending cancel removal of non-activated user {} to broker.", userId);
-        sendMessageDelayed(MessageTopic.USER_MANAGEMENT_CANCEL_REMOVE_NON_ACTIVATED_USERS, userId);
+        sendMessage(MessageTopic.USER_MANAGEMENT_CANCEL_REMOVE_NON_ACTIVATED_USERS, userId);
     }
 
     @Override
     public void sendExerciseReleaseNotificationSchedule(Long exerciseId) {
         log.info("Sending prepare release notification for exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.EXERCISE_RELEASED_SCHEDULE, exerciseId);
+        sendMessage(MessageTopic.EXERCISE_RELEASED_SCHEDULE, exerciseId);
     }
 
     @Override
     public void sendAssessedExerciseSubmissionNotificationSchedule(Long exerciseId) {
         log.info("Sending prepare assessed exercise submitted notification for exercise {} to broker.", exerciseId);
-        sendMessageDelayed(MessageTopic.ASSESSED_EXERCISE_SUBMISSION_SCHEDULE, exerciseId);
+        sendMessage(MessageTopic.ASSESSED_EXERCISE_SUBMISSION_SCHEDULE, exerciseId);
     }
 
     @Override
     @FeatureToggle(Feature.ExamLiveStatistics)
     public void sendExamMonitoringSchedule(Long examId) {
         log.info("Sending schedule for exam monitoring {} to broker.", examId);
-        sendMessageDelayed(MessageTopic.EXAM_MONITORING_SCHEDULE, examId);
+        sendMessage(MessageTopic.EXAM_MONITORING_SCHEDULE, examId);
     }
 
     @Override
     public void sendExamMonitoringScheduleCancel(Long examId) {
         log.info("Sending schedule cancel for exam monitoring {} to broker.", examId);
-        sendMessageDelayed(MessageTopic.EXAM_MONITORING_SCHEDULE_CANCEL, examId);
+        sendMessage(MessageTopic.EXAM_MONITORING_SCHEDULE_CANCEL, examId);
     }
 
     @Override
     public void sendExamWorkingTimeChangeDuringConduction(Long studentExamId) {
         log.info("Sending schedule to reschedule student exam {} to broker.", studentExamId);
-        sendMessageDelayed(MessageTopic.STUDENT_EXAM_RESCHEDULE_DURING_CONDUCTION, studentExamId);
+        sendMessage(MessageTopic.STUDENT_EXAM_RESCHEDULE_DURING_CONDUCTION, studentExamId);
     }
 
     @Override
     public void sendParticipantScoreSchedule(Long exerciseId, Long participantId, Long resultId) {
         log.info("Sending schedule participant score update for exercise {} and participant {}.", exerciseId, participantId);
-        sendMessageDelayed(MessageTopic.PARTICIPANT_SCORE_SCHEDULE, exerciseId, participantId, resultId);
-    }
-
-    private void sendMessageDelayed(MessageTopic topic, Long payload) {
-        exec.schedule(() -> hazelcastInstance.getTopic(topic.toString()).publish(payload), 1, TimeUnit.SECONDS);
-    }
-
-    private void sendMessageDelayed(MessageTopic topic, Long... payload) {
-        exec.schedule(() -> hazelcastInstance.getTopic(topic.toString()).publish(payload), 1, TimeUnit.SECONDS);
+        sendMessage(MessageTopic.PARTICIPANT_SCORE_SCHEDULE, exerciseId, participantId, resultId);
+    }
+
+    private void sendMessage(MessageTopic topic, Long... payload) {
+        InstanceMessage message = InstanceMessage.of(topic, payload);
+        boolean coalesced;
+        try {
+            // the entry processor is executed atomically on the owner of the key, so a concurrent removal of a processed message cannot drop the new one
+            coalesced = outbox.executeOnKey(message.key(), new OutboxEntryProcessor(message));
+        }
+        catch (RuntimeException e) {
+            log.error("Could not send message {} to broker", message.key(), e);
+            return;
+        }
+        Counter.builder("artemis.instance.messages.sent").description("Number of messages sent to the node with the 'scheduling' profile").tag("topic", topic.toString())
+                .tag("coalesced", String.valueOf(coalesced)).register(meterRegistry).increment();
+    }
+
+    /**
+     * Adds a message to the outbox or coalesces it with the pending message with the same key
+     */
+    private record OutboxEntryProcessor(InstanceMessage message) implements EntryProcessor<String, InstanceMessage, Boolean> {
+
+        @Override
+        public Boolean process(Map.Entry<String, InstanceMessage> entry) {
+            InstanceMessage pendingMessage = entry.getValue();
+            entry.setValue(pendingMessage == null ? message : pendingMessage.coalesce(message));
+            return pendingMessage != null;
+        }
     }
 }
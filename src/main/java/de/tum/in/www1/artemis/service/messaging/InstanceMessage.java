@@ -0,0 +1,75 @@
+package de.tum.in.www1.artemis.service.messaging;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * A message between instances that is stored in the Hazelcast outbox until the node with the 'scheduling' profile has processed it.
+ * Messages with the same idempotency key that are sent before the previous one has been processed are coalesced into one message.
+ *
+ * @param id          the id of the latest message sent with this key, used to detect whether the message has been coalesced with a new one while it was processed
+ * @param topic       the topic of the message
+ * @param payload     the ids the message refers to
+ * @param firstSentAt the time (in milliseconds) the first of the coalesced messages has been sent, the coalescing window of the topic starts at this time
+ * @param lastSentAt  the time (in milliseconds) the latest of the coalesced messages has been sent, the commit delay starts at this time and the messages are processed in
+ *                        this order
+ * @param attempts    the number of failed attempts to process the message
+ */
+public record InstanceMessage(UUID id, MessageTopic topic, Long[] payload, long firstSentAt, long lastSentAt, int attempts) implements Serializable {
+
+    /**
+     * The minimum time between sending and processing a message, which gives the transaction of the sender the time to commit
+     */
+    public static final Duration COMMIT_DELAY = Duration.ofSeconds(1);
+
+    public static InstanceMessage of(MessageTopic topic, Long... payload) {
+        long now = System.currentTimeMillis();
+        return new InstanceMessage(UUID.randomUUID(), topic, payload, now, now, 0);
+    }
+
+    /**
+     * The idempotency key of the message: processing two messages with the same key has the same effect as processing only the latest one
+     *
+     * @return the topic followed by the payload
+     */
+    public String key() {
+        return topic + "-" + Arrays.stream(payload).filter(Objects::nonNull).map(String::valueOf).collect(Collectors.joining("-"));
+    }
+
+    /**
+     * Coalesces this (already sent) message with a new message with the same key
+     *
+     * @param message the new message
+     * @return the new message, which keeps the start of the coalescing window of this message
+     */
+    public InstanceMessage coalesce(InstanceMessage message) {
+        return new InstanceMessage(message.id, topic, message.payload, firstSentAt, message.lastSentAt, 0);
+    }
+
+    public InstanceMessage withFailedAttempt() {
+        return new InstanceMessage(id, topic, payload, firstSentAt, lastSentAt, attempts + 1);
+    }
+
+    /**
+     * The key of the entity the message refers to, the messages for the same entity have to be processed in the order in which they have been sent
+     *
+     * @return the entity type of the topic followed by the first id of the payload
+     */
+    public String entityKey() {
+        return topic.getEntity() + "-" + payload[0];
+    }
+
+    /**
+     * A message is due once the coalescing window of its topic has passed since the first message and the commit delay has passed since the latest message.
+     *
+     * @param now the current time in milliseconds
+     * @return whether the message can be processed
+     */
+    public boolean isDue(long now) {
+        return now >= firstSentAt + topic.getCoalescingWindow().toMillis() && now >= lastSentAt + COMMIT_DELAY.toMillis();
+    }
+}
@@ -1,14 +1,31 @@
 package de.tum.in.www1.artemis.service.messaging;
 
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_INSTANCE_MESSAGE_OUTBOX;
+
 import java.time.ZonedDateTime;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
@@ -19,7 +36,7 @@ import de.tum.in.www1.artemis.service.scheduled.cache.monitoring.ExamMonitoringS
 
 /**
  * This service is only available on a node with the 'scheduling' profile.
- * It receives messages from Hazelcast whenever another node sends a message to a specific topic and processes it on this node.
+ * It receives the messages that other nodes store in the Hazelcast outbox (see {@link DistributedInstanceMessageSendService}) and processes them on this node.
  */
 @Service
 @Profile("scheduling")
@@ -27,6 +44,15 @@ public class InstanceMessageReceiveService {
 
     private final Logger log = LoggerFactory.getLogger(InstanceMessageReceiveService.class);
 
+    private static final int MAX_ATTEMPTS = 3;
+
+    // topics whose processing can take minutes (it iterates over all participations), they are processed on their own threads to not block the other messages
+    private static final Set<MessageTopic> LONG_RUNNING_TOPICS = EnumSet.of(MessageTopic.PROGRAMMING_EXERCISE_UNLOCK_REPOSITORIES,
+            MessageTopic.PROGRAMMING_EXERCISE_LOCK_REPOSITORIES, MessageTopic.PROGRAMMING_EXERCISE_UNLOCK_WITHOUT_EARLIER_DUE_DATE,
+            MessageTopic.PROGRAMMING_EXERCISE_LOCK_WITHOUT_LATER_DUE_DATE);
+
+    private static final int LONG_RUNNING_THREADS = 2;
+
     private final ProgrammingExerciseScheduleService programmingExerciseScheduleService;
 
     private final ModelingExerciseScheduleService modelingExerciseScheduleService;
@@ -51,11 +77,26 @@ public class InstanceMessageReceiveService {
 
     private final UserRepository userRepository;
 
+    private final IMap<String, InstanceMessage> outbox;
+
+    private final Map<MessageTopic, Consumer<Long[]>> handlers = new EnumMap<>(MessageTopic.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer deliveryDelayTimer;
+
+    private final AtomicLong oldestPendingMessageAge = new AtomicLong();
+
+    private final ExecutorService longRunningExecutor = Executors.newFixedThreadPool(LONG_RUNNING_THREADS);
+
+    // the entity keys of the long-running messages that are being processed, later messages for these entities wait until they are finished
+    private final Set<String> entitiesInProgress = ConcurrentHashMap.newKeySet();
+
     public InstanceMessageReceiveService(ProgrammingExerciseRepository programmingExerciseRepository, ProgrammingExerciseScheduleService programmingExerciseScheduleService,
             ModelingExerciseRepository modelingExerciseRepository, ModelingExerciseScheduleService modelingExerciseScheduleService,
             ExamMonitoringScheduleService examMonitoringScheduleService, TextExerciseRepository textExerciseRepository, ExerciseRepository exerciseRepository,
             Optional<AtheneScheduleService> atheneScheduleService, HazelcastInstance hazelcastInstance, UserRepository userRepository, UserScheduleService userScheduleService,
-            NotificationScheduleService notificationScheduleService, ParticipantScoreScheduleService participantScoreScheduleService) {
+            NotificationScheduleService notificationScheduleService, ParticipantScoreScheduleService participantScoreScheduleService, MeterRegistry meterRegistry) {
         this.programmingExerciseRepository = programmingExerciseRepository;
         this.programmingExerciseScheduleService = programmingExerciseScheduleService;
         this.examMonitoringScheduleService = examMonitoringScheduleService;
@@ -69,82 +110,106 @@ public class InstanceMessageReceiveService {
         this.notificationScheduleService = notificationScheduleService;
         this.participantScoreScheduleService = participantScoreScheduleService;
 
-        hazelcastInstance.<Long>getTopic(MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processScheduleProgrammingExercise((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE_CANCEL.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processScheduleProgrammingExerciseCancel(message.getMessageObject());
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.MODELING_EXERCISE_SCHEDULE.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processScheduleModelingExercise((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.MODELING_EXERCISE_SCHEDULE_CANCEL.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processScheduleModelingExerciseCancel(message.getMessageObject());
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.MODELING_EXERCISE_INSTANT_CLUSTERING.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processModelingExerciseInstantClustering((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.TEXT_EXERCISE_SCHEDULE.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processScheduleTextExercise((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.TEXT_EXERCISE_SCHEDULE_CANCEL.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processTextExerciseScheduleCancel((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.TEXT_EXERCISE_INSTANT_CLUSTERING.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processTextExerciseInstantClustering((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.PROGRAMMING_EXERCISE_UNLOCK_REPOSITORIES.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processUnlockAllRepositories((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.PROGRAMMING_EXERCISE_LOCK_REPOSITORIES.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processLockAllRepositories((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.PROGRAMMING_EXERCISE_UNLOCK_WITHOUT_EARLIER_DUE_DATE.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processUnlockAllRepositoriesWithoutEarlierIndividualDueDate(message.getMessageObject());
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.PROGRAMMING_EXERCISE_LOCK_WITHOUT_LATER_DUE_DATE.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processLockAllRepositoriesWithoutLaterIndividualDueDate(message.getMessageObject());
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.USER_MANAGEMENT_REMOVE_NON_ACTIVATED_USERS.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processRemoveNonActivatedUser((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.USER_MANAGEMENT_CANCEL_REMOVE_NON_ACTIVATED_USERS.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processCancelRemoveNonActivatedUser((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.EXERCISE_RELEASED_SCHEDULE.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processScheduleExerciseReleasedNotification((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.ASSESSED_EXERCISE_SUBMISSION_SCHEDULE.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processScheduleAssessedExerciseSubmittedNotification((message.getMessageObject()));
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.EXAM_MONITORING_SCHEDULE.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processScheduleExamMonitoring(message.getMessageObject());
-        });
-        hazelcastInstance.<Long>getTopic(MessageTopic.EXAM_MONITORING_SCHEDULE_CANCEL.toString()).addMessageListener(message -> {
-            SecurityUtils.setAuthorizationObject();
-            processScheduleExamMonitoringCancel(message.getMessageObject());
-        });
-        hazelcastInstance.<Long[]>getTopic(MessageTopic.PARTICIPANT_SCORE_SCHEDULE.toString()).addMessageListener(message -> {
+        this.outbox = hazelcastInstance.getMap(HAZELCAST_INSTANCE_MESSAGE_OUTBOX);
+        this.meterRegistry = meterRegistry;
+
+        handlers.put(MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE, payload -> processScheduleProgrammingExercise(payload[0]));
+        handlers.put(MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE_CANCEL, payload -> processScheduleProgrammingExerciseCancel(payload[0]));
+        handlers.put(MessageTopic.MODELING_EXERCISE_SCHEDULE, payload -> processScheduleModelingExercise(payload[0]));
+        handlers.put(MessageTopic.MODELING_EXERCISE_SCHEDULE_CANCEL, payload -> processScheduleModelingExerciseCancel(payload[0]));
+        handlers.put(MessageTopic.MODELING_EXERCISE_INSTANT_CLUSTERING, payload -> processModelingExerciseInstantClustering(payload[0]));
+        handlers.put(MessageTopic.TEXT_EXERCISE_SCHEDULE, payload -> processScheduleTextExercise(payload[0]));
+        handlers.put(MessageTopic.TEXT_EXERCISE_SCHEDULE_CANCEL, payload -> processTextExerciseScheduleCancel(payload[0]));
+        handlers.put(MessageTopic.TEXT_EXERCISE_INSTANT_CLUSTERING, payload -> processTextExerciseInstantClustering(payload[0]));
+        handlers.put(MessageTopic.PROGRAMMING_EXERCISE_UNLOCK_REPOSITORIES, payload -> processUnlockAllRepositories(payload[0]));
+        handlers.put(MessageTopic.PROGRAMMING_EXERCISE_LOCK_REPOSITORIES, payload -> processLockAllRepositories(payload[0]));
+        handlers.put(MessageTopic.PROGRAMMING_EXERCISE_UNLOCK_WITHOUT_EARLIER_DUE_DATE, payload -> processUnlockAllRepositoriesWithoutEarlierIndividualDueDate(payload[0]));
+        handlers.put(MessageTopic.PROGRAMMING_EXERCISE_LOCK_WITHOUT_LATER_DUE_DATE, payload -> processLockAllRepositoriesWithoutLaterIndividualDueDate(payload[0]));
+        handlers.put(MessageTopic.USER_MANAGEMENT_REMOVE_NON_ACTIVATED_USERS, payload -> processRemoveNonActivatedUser(payload[0]));
+        handlers.put(MessageTopic.USER_MANAGEMENT_CANCEL_REMOVE_NON_ACTIVATED_USERS, payload -> processCancelRemoveNonActivatedUser(payload[0]));
+        handlers.put(MessageTopic.EXERCISE_RELEASED_SCHEDULE, payload -> processScheduleExerciseReleasedNotification(payload[0]));
+        handlers.put(MessageTopic.ASSESSED_EXERCISE_SUBMISSION_SCHEDULE, payload -> processScheduleAssessedExerciseSubmittedNotification(payload[0]));
+        handlers.put(MessageTopic.EXAM_MONITORING_SCHEDULE, payload -> processScheduleExamMonitoring(payload[0]));
+        handlers.put(MessageTopic.EXAM_MONITORING_SCHEDULE_CANCEL, payload -> processScheduleExamMonitoringCancel(payload[0]));
+        handlers.put(MessageTopic.STUDENT_EXAM_RESCHEDULE_DURING_CONDUCTION, payload -> processExamWorkingTimeChangeDuringConduction(payload[0]));
+        handlers.put(MessageTopic.PARTICIPANT_SCORE_SCHEDULE, payload -> processScheduleParticipantScore(payload[0], payload[1], payload[2]));
+
+        Gauge.builder("artemis.instance.messages.pending", outbox, IMap::size).description("Number of messages in the outbox that have not been processed yet")
+                .register(meterRegistry);
+        Gauge.builder("artemis.instance.messages.oldest.age", oldestPendingMessageAge, AtomicLong::get).description("Age of the oldest message in the outbox in milliseconds")
+                .baseUnit("milliseconds").register(meterRegistry);
+        this.deliveryDelayTimer = Timer.builder("artemis.instance.messages.delivery.delay").description("Time between sending and processing a message").register(meterRegistry);
+    }
+
+    /**
+     * Processes all messages in the outbox that are due (see {@link InstanceMessage#isDue}), in the order in which they have been sent.
+     * A message is only removed from the outbox after it has been processed (at-least-once delivery), so messages that are sent while this node is not running are processed
+     * after the restart. If a message has been coalesced with a new one while it was processed, the new one stays in the outbox and is processed again.
+     * Failed messages are retried in the next runs, up to {@link #MAX_ATTEMPTS} times.
+     * <p>
+     * The messages for the same entity (e.g. schedule, cancel and schedule again for an exercise) are processed in order: a message waits while an earlier message for its
+     * entity is not due yet or still being processed. Long-running messages (see {@link #LONG_RUNNING_TOPICS}) are processed on their own threads.
+     */
+    @Scheduled(fixedDelay = 500)
+    public void processPendingMessages() {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, InstanceMessage>> pendingMessages = new ArrayList<>(outbox.entrySet());
+        oldestPendingMessageAge.set(pendingMessages.stream().mapToLong(entry -> now - entry.getValue().firstSentAt()).max().orElse(0));
+        pendingMessages.sort(Comparator.comparingLong(entry -> entry.getValue().lastSentAt()));
+
+        Set<String> blockedEntities = new HashSet<>(entitiesInProgress);
+        for (var entry : pendingMessages) {
+            InstanceMessage message = entry.getValue();
+            String entityKey = message.entityKey();
+            if (!message.isDue(now) || blockedEntities.contains(entityKey)) {
+                blockedEntities.add(entityKey);
+            }
+            else if (LONG_RUNNING_TOPICS.contains(message.topic())) {
+                blockedEntities.add(entityKey);
+                entitiesInProgress.add(entityKey);
+                longRunningExecutor.execute(() -> {
+                    try {
+                        processMessage(entry.getKey(), message);
+                    }
+                    finally {
+                        entitiesInProgress.remove(entityKey);
+                    }
+                });
+            }
+            else {
+                processMessage(entry.getKey(), message);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        longRunningExecutor.shutdownNow();
+    }
+
+    private void processMessage(String key, InstanceMessage message) {
+        String result;
+        try {
             SecurityUtils.setAuthorizationObject();
-            processScheduleParticipantScore(message.getMessageObject()[0], message.getMessageObject()[1], message.getMessageObject()[2]);
-        });
+            handlers.get(message.topic()).accept(message.payload());
+            outbox.remove(key, message);
+            deliveryDelayTimer.record(System.currentTimeMillis() - message.firstSentAt(), TimeUnit.MILLISECONDS);
+            result = "success";
+        }
+        catch (Exception e) {
+            if (message.attempts() + 1 < MAX_ATTEMPTS) {
+                log.warn("Could not process message {} (attempt {}), will retry", key, message.attempts() + 1, e);
+                outbox.replace(key, message, message.withFailedAttempt());
+                result = "retry";
+            }
+            else {
+                log.error("Could not process message {} after {} attempts, dropping it", key, MAX_ATTEMPTS, e);
+                outbox.remove(key, message);
+                result = "dropped";
+            }
+        }
+        Counter.builder("artemis.instance.messages.processed").description("Number of messages processed by the node with the 'scheduling' profile")
+                .tag("topic", message.topic().toString()).tag("result", result).register(meterRegistry).increment();
     }
 
     public void processScheduleProgrammingExercise(Long exerciseId) {
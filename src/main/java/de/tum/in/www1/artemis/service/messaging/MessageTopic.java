@@ -1,37 +1,68 @@
 package de.tum.in.www1.artemis.service.messaging;
 
+import java.time.Duration;
+
 /**
  * Topic identifiers for Hazelcast messages between instances.
+ * Each topic has a coalescing window: a message is processed at the earliest after this window and all messages with the same idempotency key sent within the window are
+ * processed only once. Each topic also names the type of the entity its messages refer to (by the first id of the payload), the messages for the same entity are processed
+ * in the order in which they have been sent.
  */
 public enum MessageTopic {
 
     // @formatter:off
-    PROGRAMMING_EXERCISE_SCHEDULE("programming-exercise-schedule"),
-    PROGRAMMING_EXERCISE_SCHEDULE_CANCEL("programming-exercise-schedule-cancel"),
-    MODELING_EXERCISE_SCHEDULE("modeling-exercise-schedule"),
-    MODELING_EXERCISE_SCHEDULE_CANCEL("modeling-exercise-schedule-cancel"),
-    MODELING_EXERCISE_INSTANT_CLUSTERING("modeling-exercise-instant-clustering"),
-    TEXT_EXERCISE_SCHEDULE("text-exercise-schedule"),
-    TEXT_EXERCISE_SCHEDULE_CANCEL("text-exercise-schedule-cancel"),
-    TEXT_EXERCISE_INSTANT_CLUSTERING("text-exercise-instant-clustering"),
-    PROGRAMMING_EXERCISE_UNLOCK_REPOSITORIES("programming-exercise-unlock-repositories"),
-    PROGRAMMING_EXERCISE_LOCK_REPOSITORIES("programming-exercise-lock-repositories"),
-    PROGRAMMING_EXERCISE_UNLOCK_WITHOUT_EARLIER_DUE_DATE("programming-exercise-unlock-repositories-without-earlier-individual-due-date"),
-    PROGRAMMING_EXERCISE_LOCK_WITHOUT_LATER_DUE_DATE("programming-exercise-lock-repositories-without-later-individual-due-date"),
-    USER_MANAGEMENT_REMOVE_NON_ACTIVATED_USERS("user-management-remove-non-activated-users"),
-    USER_MANAGEMENT_CANCEL_REMOVE_NON_ACTIVATED_USERS("user-management-cancel-remove-non-activated-users"),
-    EXERCISE_RELEASED_SCHEDULE("exercise-released-schedule"),
-    ASSESSED_EXERCISE_SUBMISSION_SCHEDULE("assessed-exercise-submission-schedule"),
-    EXAM_MONITORING_SCHEDULE("exam-monitoring-schedule"),
-    EXAM_MONITORING_SCHEDULE_CANCEL("exam-monitoring-schedule-cancel"),
-    STUDENT_EXAM_RESCHEDULE_DURING_CONDUCTION("student-exam-reschedule-during-conduction"),
-    PARTICIPANT_SCORE_SCHEDULE("participant-score-schedule");
+    PROGRAMMING_EXERCISE_SCHEDULE("programming-exercise-schedule", Entity.EXERCISE),
+    PROGRAMMING_EXERCISE_SCHEDULE_CANCEL("programming-exercise-schedule-cancel", Entity.EXERCISE),
+    MODELING_EXERCISE_SCHEDULE("modeling-exercise-schedule", Entity.EXERCISE),
+    MODELING_EXERCISE_SCHEDULE_CANCEL("modeling-exercise-schedule-cancel", Entity.EXERCISE),
+    MODELING_EXERCISE_INSTANT_CLUSTERING("modeling-exercise-instant-clustering", Entity.EXERCISE),
+    TEXT_EXERCISE_SCHEDULE("text-exercise-schedule", Entity.EXERCISE),
+    TEXT_EXERCISE_SCHEDULE_CANCEL("text-exercise-schedule-cancel", Entity.EXERCISE),
+    TEXT_EXERCISE_INSTANT_CLUSTERING("text-exercise-instant-clustering", Entity.EXERCISE),
+    PROGRAMMING_EXERCISE_UNLOCK_REPOSITORIES("programming-exercise-unlock-repositories", Entity.EXERCISE),
+    PROGRAMMING_EXERCISE_LOCK_REPOSITORIES("programming-exercise-lock-repositories", Entity.EXERCISE),
+    PROGRAMMING_EXERCISE_UNLOCK_WITHOUT_EARLIER_DUE_DATE("programming-exercise-unlock-repositories-without-earlier-individual-due-date", Entity.EXERCISE),
+    PROGRAMMING_EXERCISE_LOCK_WITHOUT_LATER_DUE_DATE("programming-exercise-lock-repositories-without-later-individual-due-date", Entity.EXERCISE),
+    USER_MANAGEMENT_REMOVE_NON_ACTIVATED_USERS("user-management-remove-non-activated-users", Entity.USER),
+    USER_MANAGEMENT_CANCEL_REMOVE_NON_ACTIVATED_USERS("user-management-cancel-remove-non-activated-users", Entity.USER),
+    EXERCISE_RELEASED_SCHEDULE("exercise-released-schedule", Entity.EXERCISE),
+    ASSESSED_EXERCISE_SUBMISSION_SCHEDULE("assessed-exercise-submission-schedule", Entity.EXERCISE),
+    EXAM_MONITORING_SCHEDULE("exam-monitoring-schedule", Entity.EXAM),
+    EXAM_MONITORING_SCHEDULE_CANCEL("exam-monitoring-schedule-cancel", Entity.EXAM),
+    STUDENT_EXAM_RESCHEDULE_DURING_CONDUCTION("student-exam-reschedule-during-conduction", Entity.STUDENT_EXAM),
+    PARTICIPANT_SCORE_SCHEDULE("participant-score-schedule", Entity.PARTICIPANT_SCORE, Duration.ofSeconds(5));
     // @formatter:on
 
+    /**
+     * The type of the entity that the messages of a topic refer to
+     */
+    public enum Entity {
+        EXERCISE, USER, EXAM, STUDENT_EXAM, PARTICIPANT_SCORE
+    }
+
     private final String topic;
 
-    MessageTopic(String topic) {
+    private final Entity entity;
+
+    private final Duration coalescingWindow;
+
+    MessageTopic(String topic, Entity entity) {
+        // by default, only the messages sent within the commit delay of the latest message are coalesced
+        this(topic, entity, InstanceMessage.COMMIT_DELAY);
+    }
+
+    MessageTopic(String topic, Entity entity, Duration coalescingWindow) {
         this.topic = topic;
+        this.entity = entity;
+        this.coalescingWindow = coalescingWindow;
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public Duration getCoalescingWindow() {
+        return coalescingWindow;
     }
 
     @Override
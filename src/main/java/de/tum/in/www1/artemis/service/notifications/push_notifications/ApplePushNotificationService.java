@@ -1,5 +1,6 @@
 package de.tum.in.www1.artemis.service.notifications.push_notifications;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -8,8 +9,6 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import com.google.gson.Gson;
-
 import de.tum.in.www1.artemis.domain.push_notification.PushNotificationDeviceType;
 import de.tum.in.www1.artemis.repository.PushNotificationDeviceConfigurationRepository;
 
@@ -52,10 +51,20 @@ public class ApplePushNotificationService extends PushNotificationService {
     }
 
     @Override
-    void sendSpecificNotificationRequestsToEndpoint(List<RelayNotificationRequest> requests, String relayServerBaseUrl) {
+    int getMaxBatchSize() {
+        // The relay only accepts one message per request
+        return 1;
+    }
+
+    @Override
+    List<String> sendSpecificNotificationRequestsToEndpoint(List<RelayNotificationRequest> requests, String relayServerBaseUrl) {
+        List<String> rejectedTokens = new ArrayList<>();
         requests.forEach(request -> {
-            String body = new Gson().toJson(request);
-            sendRelayRequest(body, relayServerBaseUrl);
+            String body = gson.toJson(request);
+            if (!sendRelayRequest(body, relayServerBaseUrl)) {
+                rejectedTokens.add(request.token());
+            }
         });
+        return rejectedTokens;
     }
 }
@@ -2,16 +2,12 @@ package de.tum.in.www1.artemis.service.notifications.push_notifications;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import com.google.common.collect.Lists;
-import com.google.gson.Gson;
-
 import de.tum.in.www1.artemis.domain.push_notification.PushNotificationDeviceType;
 import de.tum.in.www1.artemis.repository.PushNotificationDeviceConfigurationRepository;
 
@@ -33,16 +29,6 @@ public class FirebasePushNotificationService extends PushNotificationService {
         repository = pushNotificationDeviceConfigurationRepository;
     }
 
-    @Override
-    void sendNotificationRequestsToEndpoint(List<RelayNotificationRequest> requests, String relayBaseUrl) {
-        // The relay server accepts at most 500 messages per batch
-        List<List<RelayNotificationRequest>> batches = Lists.partition(requests, 500);
-        var futures = batches.stream().map(batch -> CompletableFuture.runAsync(() -> sendSpecificNotificationRequestsToEndpoint(batch, relayBaseUrl))).toList()
-                .toArray(new CompletableFuture[0]);
-
-        CompletableFuture.allOf(futures);
-    }
-
     @Override
     protected PushNotificationDeviceConfigurationRepository getRepository() {
         return repository;
@@ -64,8 +50,16 @@ public class FirebasePushNotificationService extends PushNotificationService {
     }
 
     @Override
-    void sendSpecificNotificationRequestsToEndpoint(List<RelayNotificationRequest> requests, String relayServerBaseUrl) {
-        String body = new Gson().toJson(new FirebaseRelayNotificationRequests(requests));
+    int getMaxBatchSize() {
+        // The relay server accepts at most 500 messages per batch
+        return 500;
+    }
+
+    @Override
+    List<String> sendSpecificNotificationRequestsToEndpoint(List<RelayNotificationRequest> requests, String relayServerBaseUrl) {
+        String body = gson.toJson(new FirebaseRelayNotificationRequests(requests));
         sendRelayRequest(body, relayServerBaseUrl);
+        // the relay does not report which devices of a batch have been rejected
+        return List.of();
     }
 }
@@ -3,12 +3,13 @@ package de.tum.in.www1.artemis.service.notifications.push_notifications;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
 import java.time.Instant;
-import java.util.Base64;
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
+import javax.annotation.PreDestroy;
 import javax.crypto.Cipher;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
@@ -21,11 +22,14 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.retry.RetryCallback;
+import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 
 import de.tum.in.www1.artemis.config.Constants;
@@ -41,44 +45,56 @@ import de.tum.in.www1.artemis.service.notifications.InstantNotificationService;
 /**
  * Wraps the sending of iOS and Android Notifications to the Relay Service
  * Implements the encryption of the payload
+ * <p>
+ * The requests are grouped into batches (as far as the relay supports it) that are sent with a bounded number of concurrent requests. Devices that are rejected by the
+ * relay because their token is no longer registered are removed afterwards.
  */
 public abstract class PushNotificationService implements InstantNotificationService {
 
-    private static SecureRandom random = new SecureRandom();
+    private static final SecureRandom random = new SecureRandom();
 
-    private static Cipher cipher;
+    private static final Logger log = LoggerFactory.getLogger(PushNotificationService.class);
 
-    static {
-        try {
-            cipher = Cipher.getInstance(Constants.PUSH_NOTIFICATION_ENCRYPTION_ALGORITHM);
-        }
-        catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
-            throw new RuntimeException(e);
-        }
-    }
+    static final Gson gson = new Gson();
 
-    private static final Logger log = LoggerFactory.getLogger(PushNotificationService.class);
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
 
-    private static final Gson gson = new Gson();
+    // client errors (e.g. an unregistered device token) are not retried
+    private static final RetryTemplate retryTemplate = RetryTemplate.builder().exponentialBackoff(1000, 4, 60 * 1000)
+            .customPolicy(new SimpleRetryPolicy(4, Map.of(RestClientException.class, true, HttpClientErrorException.class, false))).build();
 
     private final RestTemplate restTemplate;
 
+    private final ExecutorService executor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS);
+
     protected PushNotificationService(RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
     /**
-     * Send all the notifications requests to the endpoint. Potentially, optimize the sending using a batched request.
+     * Send all the notifications requests to the endpoint in batches of {@link #getMaxBatchSize()} requests.
+     * Afterwards, the device configurations whose tokens have been rejected by the relay are deleted.
      *
      * @param requests           the requests previously built using buildSendRequest
      * @param relayServerBaseUrl the url of the relay
+     * @return a future that completes once all requests have been sent
      */
-    void sendNotificationRequestsToEndpoint(List<RelayNotificationRequest> requests, String relayServerBaseUrl) {
-        var futures = requests.stream()
-                .map(request -> CompletableFuture.runAsync(() -> sendSpecificNotificationRequestsToEndpoint(Collections.singletonList(request), relayServerBaseUrl))).toList()
-                .toArray(new CompletableFuture[0]);
-
-        CompletableFuture.allOf(futures);
+    CompletableFuture<Void> sendNotificationRequestsToEndpoint(List<RelayNotificationRequest> requests, String relayServerBaseUrl) {
+        List<CompletableFuture<List<String>>> futures = Lists.partition(requests, getMaxBatchSize()).stream()
+                .map(batch -> CompletableFuture.supplyAsync(() -> sendSpecificNotificationRequestsToEndpoint(batch, relayServerBaseUrl), executor)).toList();
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenRun(() -> {
+            Set<String> rejectedTokens = futures.stream().flatMap(future -> future.join().stream()).collect(Collectors.toSet());
+            if (!rejectedTokens.isEmpty()) {
+                log.info("Removing {} {} device configurations that have been rejected by the relay", rejectedTokens.size(), getDeviceType());
+                getRepository().deleteByTokenInAndDeviceType(rejectedTokens, getDeviceType());
+            }
+        });
     }
 
     /**
@@ -87,13 +103,11 @@ public abstract class PushNotificationService implements InstantNotificationServ
      *
      * @param body               to be sent to Hermes. Differs between iOS and Android
      * @param relayServerBaseUrl the url where Hermes is hosted
+     * @return false if the relay rejected the request because the device token is no longer registered, true otherwise
      */
-    @Async
-    void sendRelayRequest(String body, String relayServerBaseUrl) {
-        RetryTemplate template = RetryTemplate.builder().exponentialBackoff(1000, 4, 60 * 1000).retryOn(RestClientException.class).maxAttempts(4).build();
-
+    boolean sendRelayRequest(String body, String relayServerBaseUrl) {
         try {
-            template.execute((RetryCallback<Void, RestClientException>) context -> {
+            retryTemplate.execute((RetryCallback<Void, RestClientException>) context -> {
                 HttpHeaders httpHeaders = new HttpHeaders();
                 httpHeaders.setContentType(MediaType.APPLICATION_JSON);
                 HttpEntity<String> httpEntity = new HttpEntity<>(body, httpHeaders);
@@ -102,9 +116,13 @@ public abstract class PushNotificationService implements InstantNotificationServ
                 return null;
             });
         }
+        catch (HttpClientErrorException.Gone e) {
+            return false;
+        }
         catch (RestClientException e) {
             log.error("Could not send " + getDeviceType().toString() + " notifications");
         }
+        return true;
     }
 
     /**
@@ -147,15 +165,24 @@ public abstract class PushNotificationService implements InstantNotificationServ
         final String date = Instant.now().toString();
         final String payload = gson.toJson(new PushNotificationData(notification.getTransientPlaceholderValuesAsArray(), notification.getTarget(), type.name(), date));
 
-        final byte[] initializationVector = new byte[16];
+        // cipher instances are not thread-safe, so every call uses its own instance for all of its devices
+        final Cipher cipher;
+        try {
+            cipher = Cipher.getInstance(Constants.PUSH_NOTIFICATION_ENCRYPTION_ALGORITHM);
+        }
+        catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            log.error("Error creating the cipher for the push notification payload!", e);
+            return;
+        }
 
         List<RelayNotificationRequest> notificationRequests = userDeviceConfigurations.stream().flatMap(deviceConfiguration -> {
+            final byte[] initializationVector = new byte[16];
             random.nextBytes(initializationVector);
 
             SecretKey key = new SecretKeySpec(deviceConfiguration.getSecretKey(), "AES");
 
             String ivAsString = Base64.getEncoder().encodeToString(initializationVector);
-            Optional<String> payloadCiphertext = encrypt(payload, key, initializationVector);
+            Optional<String> payloadCiphertext = encrypt(cipher, payload, key, initializationVector);
 
             return payloadCiphertext.stream().map(s -> new RelayNotificationRequest(ivAsString, s, deviceConfiguration.getToken()));
         }).toList();
@@ -171,7 +198,19 @@ public abstract class PushNotificationService implements InstantNotificationServ
 
     abstract String getRelayPath();
 
-    abstract void sendSpecificNotificationRequestsToEndpoint(List<RelayNotificationRequest> requests, String relayServerBaseUrl);
+    /**
+     * @return the maximum number of requests the relay accepts in one call
+     */
+    abstract int getMaxBatchSize();
+
+    /**
+     * Sends one batch of requests to the relay
+     *
+     * @param requests           the requests of the batch, at most {@link #getMaxBatchSize()}
+     * @param relayServerBaseUrl the url of the relay
+     * @return the tokens of the devices that have been rejected by the relay
+     */
+    abstract List<String> sendSpecificNotificationRequestsToEndpoint(List<RelayNotificationRequest> requests, String relayServerBaseUrl);
 
     record PushNotificationData(String[] notificationPlaceholders, String target, String type, String date) {
     }
@@ -179,12 +218,13 @@ public abstract class PushNotificationService implements InstantNotificationServ
     /**
      * Perform symmetric AES encryption.
      *
+     * @param cipher               the cipher to use, must not be used by other threads concurrently
      * @param payload              the text to encrypt
      * @param key                  the secret key to encrypt with
      * @param initializationVector the initialization vector needed for CBC
      * @return the ciphertext
      */
-    private static Optional<String> encrypt(String payload, SecretKey key, byte[] initializationVector) {
+    private static Optional<String> encrypt(Cipher cipher, String payload, SecretKey key, byte[] initializationVector) {
         try {
             cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(initializationVector));
 
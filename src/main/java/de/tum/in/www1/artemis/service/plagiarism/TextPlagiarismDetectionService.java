@@ -1,32 +1,32 @@
 package de.tum.in.www1.artemis.service.plagiarism;
 
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.FileSystemUtils;
-
-import de.jplag.JPlag;
-import de.jplag.JPlagResult;
-import de.jplag.Language;
-import de.jplag.clustering.ClusteringOptions;
-import de.jplag.exceptions.ExitException;
-import de.jplag.options.JPlagOptions;
+
 import de.tum.in.www1.artemis.domain.PlagiarismCheckState;
 import de.tum.in.www1.artemis.domain.TextExercise;
 import de.tum.in.www1.artemis.domain.TextSubmission;
 import de.tum.in.www1.artemis.domain.participation.Participation;
-import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.plagiarism.PlagiarismComparison;
+import de.tum.in.www1.artemis.domain.plagiarism.PlagiarismMatch;
+import de.tum.in.www1.artemis.domain.plagiarism.PlagiarismStatus;
+import de.tum.in.www1.artemis.domain.plagiarism.PlagiarismSubmission;
 import de.tum.in.www1.artemis.domain.plagiarism.text.TextPlagiarismResult;
-import de.tum.in.www1.artemis.service.TextSubmissionExportService;
+import de.tum.in.www1.artemis.domain.plagiarism.text.TextSubmissionElement;
 import de.tum.in.www1.artemis.service.plagiarism.cache.PlagiarismCacheService;
+import de.tum.in.www1.artemis.service.plagiarism.text.GreedyStringTiling;
+import de.tum.in.www1.artemis.service.plagiarism.text.TextTokenSequence;
 import de.tum.in.www1.artemis.service.util.TimeLogUtil;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 
@@ -35,17 +35,42 @@ public class TextPlagiarismDetectionService {
 
     private final Logger log = LoggerFactory.getLogger(TextPlagiarismDetectionService.class);
 
-    private final TextSubmissionExportService textSubmissionExportService;
+    // the number of consecutive identical words that are considered a match
+    static final int MINIMUM_MATCH_LENGTH = 5;
+
+    private static final int MAX_COMPARISONS = 500;
+
+    private static final int PROGRESS_INTERVAL = 50;
 
     private final PlagiarismWebsocketService plagiarismWebsocketService;
 
     private final PlagiarismCacheService plagiarismCacheService;
 
-    public TextPlagiarismDetectionService(TextSubmissionExportService textSubmissionExportService, PlagiarismWebsocketService plagiarismWebsocketService,
-            PlagiarismCacheService plagiarismCacheService) {
-        this.textSubmissionExportService = textSubmissionExportService;
+    // shared by all checks instead of the common fork join pool, so that checks do not slow down the parallel streams of other requests
+    private final ExecutorService threadPool;
+
+    /**
+     * Two submissions whose similarity is above the threshold. The comparison (including an element for every word of both submissions) is only created for the
+     * pairs that are kept in the result.
+     *
+     * @param indexA     the index of the first submission
+     * @param indexB     the index of the second submission
+     * @param tiles      the matching words of both submissions
+     * @param similarity the similarity between 0 and 1
+     */
+    private record SimilarPair(int indexA, int indexB, List<GreedyStringTiling.Tile> tiles, double similarity) {
+    }
+
+    public TextPlagiarismDetectionService(PlagiarismWebsocketService plagiarismWebsocketService, PlagiarismCacheService plagiarismCacheService,
+            @Value("${artemis.plagiarism-checks.text.threads:4}") int numberOfThreads) {
         this.plagiarismWebsocketService = plagiarismWebsocketService;
         this.plagiarismCacheService = plagiarismCacheService;
+        this.threadPool = Executors.newFixedThreadPool(numberOfThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdownNow();
     }
 
     /**
@@ -70,16 +95,15 @@ public class TextPlagiarismDetectionService {
     }
 
     /**
-     * Download all submissions of the exercise, run JPlag, and return the result
+     * Tokenize all submissions of the exercise, compare them pairwise, and return the result
      *
      * @param textExercise        to detect plagiarism for
      * @param similarityThreshold ignore comparisons whose similarity is below this threshold (in % between 0 and 100)
      * @param minimumScore        consider only submissions whose score is greater or equal to this value
      * @param minimumSize         consider only submissions whose size is greater or equal to this value
-     * @return a zip file that can be returned to the client
-     * @throws ExitException is thrown if JPlag exits unexpectedly
+     * @return the at most 500 comparisons with the highest similarity
      */
-    public TextPlagiarismResult checkPlagiarism(TextExercise textExercise, float similarityThreshold, int minimumScore, int minimumSize) throws ExitException {
+    public TextPlagiarismResult checkPlagiarism(TextExercise textExercise, float similarityThreshold, int minimumScore, int minimumSize) {
         // Only one plagiarism check per course allowed
         var courseId = textExercise.getCourseViaExerciseGroupOrCourseMember().getId();
 
@@ -92,68 +116,35 @@ public class TextPlagiarismDetectionService {
             long start = System.nanoTime();
             String topic = plagiarismWebsocketService.getTextExercisePlagiarismCheckTopic(textExercise.getId());
 
-            // TODO: why do we have such a strange folder name?
-            final var submissionsFolderName = "./tmp/submissions";
-            final var submissionFolderFile = new File(submissionsFolderName);
-            submissionFolderFile.mkdirs();
-
             final List<TextSubmission> textSubmissions = textSubmissionsForComparison(textExercise, minimumScore, minimumSize);
             final var submissionsSize = textSubmissions.size();
-            log.info("Save text submissions for JPlag text comparison with {} submissions", submissionsSize);
+            log.info("Tokenize text submissions for text comparison with {} submissions", submissionsSize);
 
             if (textSubmissions.size() < 2) {
                 log.info("Insufficient amount of submissions for plagiarism detection. Inform the client with a bad request response.");
                 throw new BadRequestAlertException("Insufficient amount of valid and long enough submissions available for comparison", "Plagiarism Check", "notEnoughSubmissions");
             }
 
-            AtomicInteger processedSubmissionCount = new AtomicInteger(1);
-            textSubmissions.forEach(submission -> {
-                var progressMessage = "Getting submission: " + processedSubmissionCount + "/" + textSubmissions.size();
-                plagiarismWebsocketService.notifyInstructorAboutPlagiarismState(topic, PlagiarismCheckState.RUNNING, List.of(progressMessage));
-                submission.setResults(new ArrayList<>());
+            plagiarismWebsocketService.notifyInstructorAboutPlagiarismState(topic, PlagiarismCheckState.RUNNING, List.of("Tokenizing submissions"));
+            final List<TextTokenSequence> tokenSequences = getTokenSequences(textSubmissions);
 
-                StudentParticipation participation = (StudentParticipation) submission.getParticipation();
-                participation.setExercise(null);
-                participation.setSubmissions(null);
-
-                String participantIdentifier = participation.getParticipantIdentifier();
-                if (participantIdentifier == null) {
-                    participantIdentifier = "unknown";
-                }
-
-                try {
-                    textSubmissionExportService.saveSubmissionToFile(submission, participantIdentifier, submissionsFolderName);
-                }
-                catch (IOException e) {
-                    log.error(e.getMessage());
-                }
-
-                processedSubmissionCount.getAndIncrement();
-            });
-
-            log.info("Saving text submissions done");
-
-            // Important: for large courses with more than 1000 students, we might get more than one million results and 10 million files in the file system due to many 0% results,
-            // therefore we limit the results to at least 50% or 0.5 similarity, the passed threshold is between 0 and 100%
-            Language language = new de.jplag.text.Language();
-            JPlagOptions options = new JPlagOptions(language, Set.of(submissionFolderFile), Set.of())
-                    // JPlag expects a value between 0.0 and 1.0
-                    .withSimilarityThreshold(similarityThreshold / 100.0).withClusteringOptions(new ClusteringOptions().withEnabled(false));
-
-            log.info("Start JPlag Text comparison");
-            JPlag jplag = new JPlag(options);
-            JPlagResult jPlagResult = jplag.run();
-            log.info("JPlag Text comparison finished with {} comparisons. Will limit the number of comparisons to 500", jPlagResult.getAllComparisons().size());
-
-            log.info("Delete submission folder");
-            if (submissionFolderFile.exists()) {
-                FileSystemUtils.deleteRecursively(submissionFolderFile);
-            }
+            log.info("Start text comparison");
+            final double threshold = similarityThreshold / 100.0;
+            final List<SimilarPair> similarPairs = compare(tokenSequences, threshold, topic);
+            log.info("Text comparison finished with {} comparisons. Will limit the number of comparisons to {}", similarPairs.size(), MAX_COMPARISONS);
 
             TextPlagiarismResult textPlagiarismResult = new TextPlagiarismResult();
-            textPlagiarismResult.convertJPlagResult(jPlagResult, textExercise);
+            similarPairs.stream().sorted(Comparator.comparingDouble(SimilarPair::similarity).reversed()).limit(MAX_COMPARISONS).forEach(pair -> {
+                var comparison = createComparison(textSubmissions.get(pair.indexA()), tokenSequences.get(pair.indexA()), textSubmissions.get(pair.indexB()),
+                        tokenSequences.get(pair.indexB()), pair.tiles(), pair.similarity());
+                comparison.setPlagiarismResult(textPlagiarismResult);
+                textPlagiarismResult.getComparisons().add(comparison);
+            });
+            textPlagiarismResult.setDuration(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            textPlagiarismResult.setSimilarityDistribution(calculateSimilarityDistribution(similarPairs));
+            textPlagiarismResult.setExercise(textExercise);
 
-            log.info("JPlag text comparison for {} submissions done in {}", submissionsSize, TimeLogUtil.formatDurationFrom(start));
+            log.info("Text comparison for {} submissions done in {}", submissionsSize, TimeLogUtil.formatDurationFrom(start));
             plagiarismWebsocketService.notifyInstructorAboutPlagiarismState(topic, PlagiarismCheckState.COMPLETED, List.of());
             return textPlagiarismResult;
         }
@@ -165,4 +156,143 @@ public class TextPlagiarismDetectionService {
             plagiarismCacheService.setInactivePlagiarismCheck(courseId);
         }
     }
+
+    /**
+     * Returns the words of the submissions. Submissions whose text has not changed since a previous check are not tokenized again.
+     */
+    private List<TextTokenSequence> getTokenSequences(List<TextSubmission> textSubmissions) {
+        List<String> keys = textSubmissions.stream().map(submission -> submission.getId() + "-" + DigestUtils.sha1Hex(submission.getText())).toList();
+        Map<String, TextTokenSequence> cachedTokenSequences = plagiarismCacheService.getTextTokenSequences(new HashSet<>(keys));
+        Map<String, TextTokenSequence> newTokenSequences = new ConcurrentHashMap<>();
+        List<TextTokenSequence> tokenSequences = invokeAll(IntStream.range(0, textSubmissions.size()).<Callable<TextTokenSequence>>mapToObj(index -> () -> {
+            TextTokenSequence tokenSequence = cachedTokenSequences.get(keys.get(index));
+            if (tokenSequence == null) {
+                tokenSequence = TextTokenSequence.tokenize(textSubmissions.get(index).getText());
+                newTokenSequences.put(keys.get(index), tokenSequence);
+            }
+            return tokenSequence;
+        }).toList());
+        log.info("Tokenized {} text submissions, {} were cached", newTokenSequences.size(), cachedTokenSequences.size());
+        plagiarismCacheService.putTextTokenSequences(newTokenSequences);
+        return tokenSequences;
+    }
+
+    /**
+     * Compares all pairs of submissions that share at least one window of {@link #MINIMUM_MATCH_LENGTH} words, all other pairs have a similarity of 0.
+     * Each submission is compared with the following submissions in its own task, which only shares the (immutable) token sequences and window hashes with the
+     * other tasks.
+     *
+     * @return the pairs of submissions whose similarity is at least the threshold
+     */
+    private List<SimilarPair> compare(List<TextTokenSequence> tokenSequences, double threshold, String topic) {
+        final int size = tokenSequences.size();
+        final List<long[]> windowHashes = tokenSequences.stream().map(tokenSequence -> GreedyStringTiling.windowHashes(tokenSequence.tokens(), MINIMUM_MATCH_LENGTH))
+                .toList();
+        // window hash -> indices of the submissions containing the window
+        final Map<Long, Set<Integer>> submissionsByWindow = new HashMap<>();
+        for (int index = 0; index < size; index++) {
+            for (long hash : windowHashes.get(index)) {
+                submissionsByWindow.computeIfAbsent(hash, key -> new HashSet<>()).add(index);
+            }
+        }
+
+        AtomicInteger processedSubmissionCount = new AtomicInteger();
+        List<Callable<List<SimilarPair>>> tasks = IntStream.range(0, size).<Callable<List<SimilarPair>>>mapToObj(indexA -> () -> {
+            // submissions that share a window with submission A and have not been compared with it yet
+            BitSet candidates = new BitSet(size);
+            for (long hash : windowHashes.get(indexA)) {
+                submissionsByWindow.get(hash).stream().filter(indexB -> indexB > indexA).forEach(candidates::set);
+            }
+            TextTokenSequence tokensA = tokenSequences.get(indexA);
+            Map<Long, List<Integer>> windowsA = GreedyStringTiling.indexWindows(windowHashes.get(indexA));
+            List<SimilarPair> similarPairs = new ArrayList<>();
+            candidates.stream().forEach(indexB -> {
+                TextTokenSequence tokensB = tokenSequences.get(indexB);
+                List<GreedyStringTiling.Tile> tiles = GreedyStringTiling.tile(tokensA.tokens(), windowsA, tokensB.tokens(), windowHashes.get(indexB), MINIMUM_MATCH_LENGTH);
+                int matchedTokens = tiles.stream().mapToInt(GreedyStringTiling.Tile::length).sum();
+                double similarity = 2.0 * matchedTokens / (tokensA.size() + tokensB.size());
+                if (similarity >= threshold) {
+                    similarPairs.add(new SimilarPair(indexA, indexB, tiles, similarity));
+                }
+            });
+            int processed = processedSubmissionCount.incrementAndGet();
+            if (processed % PROGRESS_INTERVAL == 0) {
+                plagiarismWebsocketService.notifyInstructorAboutPlagiarismState(topic, PlagiarismCheckState.RUNNING,
+                        List.of("Comparing submissions: " + processed + "/" + size));
+            }
+            return similarPairs;
+        }).toList();
+        return invokeAll(tasks).stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * Runs the tasks on the thread pool of the plagiarism checks and waits until all of them are finished
+     *
+     * @return the results of the tasks in the order of the tasks
+     */
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : threadPool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during the text plagiarism check", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private PlagiarismComparison<TextSubmissionElement> createComparison(TextSubmission textSubmissionA, TextTokenSequence tokensA, TextSubmission textSubmissionB,
+            TextTokenSequence tokensB, List<GreedyStringTiling.Tile> tiles, double similarity) {
+        PlagiarismComparison<TextSubmissionElement> comparison = new PlagiarismComparison<>();
+        comparison.setSubmissionA(createPlagiarismSubmission(textSubmissionA, tokensA));
+        comparison.setSubmissionB(createPlagiarismSubmission(textSubmissionB, tokensB));
+        comparison.setMatches(tiles.stream().map(tile -> {
+            PlagiarismMatch match = new PlagiarismMatch();
+            match.setStartA(tile.startA());
+            match.setStartB(tile.startB());
+            match.setLength(tile.length());
+            return match;
+        }).collect(Collectors.toSet()));
+        // we store the similarity as a percentage between 0 and 100 in the database
+        comparison.setSimilarity(similarity * 100);
+        comparison.setStatus(PlagiarismStatus.NONE);
+        return comparison;
+    }
+
+    private PlagiarismSubmission<TextSubmissionElement> createPlagiarismSubmission(TextSubmission textSubmission, TextTokenSequence tokens) {
+        PlagiarismSubmission<TextSubmissionElement> submission = PlagiarismSubmission.fromTextSubmission(textSubmission);
+        List<TextSubmissionElement> elements = new ArrayList<>(tokens.size());
+        for (int index = 0; index < tokens.size(); index++) {
+            TextSubmissionElement element = new TextSubmissionElement();
+            element.setLine(tokens.lines()[index]);
+            element.setColumn(tokens.columns()[index]);
+            element.setLength(tokens.lengths()[index]);
+            element.setPlagiarismSubmission(submission);
+            elements.add(element);
+        }
+        submission.setElements(elements);
+        submission.setSize(tokens.size());
+        return submission;
+    }
+
+    /**
+     * Calculate the similarity distribution of the given pairs of submissions.
+     */
+    private int[] calculateSimilarityDistribution(List<SimilarPair> similarPairs) {
+        int[] similarityDistribution = new int[10];
+
+        similarPairs.stream().map(SimilarPair::similarity).map(similarity -> similarity * 10).map(Double::intValue).map(index -> index == 10 ? 9 : index)
+                .forEach(index -> similarityDistribution[index]++);
+
+        return similarityDistribution;
+    }
 }
@@ -1,20 +1,35 @@
 package de.tum.in.www1.artemis.service.plagiarism.cache;
 
 import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_ACTIVE_PLAGIARISM_CHECKS_PER_COURSE_CACHE;
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_TEXT_PLAGIARISM_TOKENS_CACHE;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.stereotype.Service;
 
 import com.hazelcast.collection.ISet;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import de.tum.in.www1.artemis.service.plagiarism.text.TextTokenSequence;
 
 @Service
 public class PlagiarismCacheService {
 
+    // the tokens are only kept for repeated checks of the same exercise, e.g. with a different similarity threshold
+    private static final long TEXT_TOKENS_TIME_TO_LIVE_IN_HOURS = 2;
+
     // Every course in this set is currently doing a plagiarism check
     private final ISet<Long> activePlagiarismChecksPerCourse;
 
+    // "{submissionId}-{hash of the text}" -> words of the text submission
+    private final IMap<String, TextTokenSequence> textTokenSequences;
+
     public PlagiarismCacheService(HazelcastInstance hazelcastInstance) {
         this.activePlagiarismChecksPerCourse = hazelcastInstance.getSet(HAZELCAST_ACTIVE_PLAGIARISM_CHECKS_PER_COURSE_CACHE);
+        this.textTokenSequences = hazelcastInstance.getMap(HAZELCAST_TEXT_PLAGIARISM_TOKENS_CACHE);
     }
 
     /**
@@ -44,4 +59,23 @@ public class PlagiarismCacheService {
     public void setInactivePlagiarismCheck(Long courseId) {
         activePlagiarismChecksPerCourse.remove(courseId);
     }
+
+    /**
+     * Returns the cached words of text submissions.
+     *
+     * @param keys the keys of the text submissions, consisting of the submission id and the hash of the text
+     * @return the cached token sequences by key, keys without a cached token sequence are missing
+     */
+    public Map<String, TextTokenSequence> getTextTokenSequences(Set<String> keys) {
+        return textTokenSequences.getAll(keys);
+    }
+
+    /**
+     * Caches the words of text submissions.
+     *
+     * @param tokenSequences the token sequences by key, consisting of the submission id and the hash of the text
+     */
+    public void putTextTokenSequences(Map<String, TextTokenSequence> tokenSequences) {
+        tokenSequences.forEach((key, tokenSequence) -> textTokenSequences.setAsync(key, tokenSequence, TEXT_TOKENS_TIME_TO_LIVE_IN_HOURS, TimeUnit.HOURS));
+    }
 }
@@ -0,0 +1,128 @@
+package de.tum.in.www1.artemis.service.plagiarism.text;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Greedy String Tiling (as used by JPlag) to find the non-overlapping common subsequences of two token sequences.
+ * <p>
+ * Matches are only searched at positions at which both sequences share a window of {@code minimumMatchLength} tokens, which are looked up by the hash of the window
+ * (similar to the Karp-Rabin variant of the algorithm). The window hashes also allow to skip pairs of sequences that do not share any window, as they cannot have a match.
+ * Windows with the same hash but different tokens only cost time, because the tokens of each match are compared one by one.
+ */
+public final class GreedyStringTiling {
+
+    /**
+     * A sequence of identical tokens in both sequences
+     *
+     * @param startA the index of the first token in sequence A
+     * @param startB the index of the first token in sequence B
+     * @param length the number of tokens
+     */
+    public record Tile(int startA, int startB, int length) {
+    }
+
+    private GreedyStringTiling() {
+    }
+
+    /**
+     * Calculates the hash of the window of tokens starting at each position of the sequence
+     *
+     * @param tokens             the token sequence
+     * @param minimumMatchLength the size of the windows
+     * @return the hashes of all windows, empty if the sequence is shorter than the window size
+     */
+    public static long[] windowHashes(long[] tokens, int minimumMatchLength) {
+        if (tokens.length < minimumMatchLength) {
+            return new long[0];
+        }
+        long[] hashes = new long[tokens.length - minimumMatchLength + 1];
+        for (int i = 0; i < hashes.length; i++) {
+            long hash = 0;
+            for (int k = 0; k < minimumMatchLength; k++) {
+                hash = hash * 31 + tokens[i + k];
+            }
+            hashes[i] = hash;
+        }
+        return hashes;
+    }
+
+    /**
+     * Groups the start positions of the windows by their hash
+     *
+     * @param windowHashes the hashes of the windows of a sequence, see {@link #windowHashes(long[], int)}
+     * @return the start positions of the windows by their hash
+     */
+    public static Map<Long, List<Integer>> indexWindows(long[] windowHashes) {
+        Map<Long, List<Integer>> windows = new HashMap<>();
+        for (int i = 0; i < windowHashes.length; i++) {
+            windows.computeIfAbsent(windowHashes[i], hash -> new ArrayList<>(1)).add(i);
+        }
+        return windows;
+    }
+
+    /**
+     * Finds the tiles of two token sequences. In each round, the longest matches that do not overlap with the tiles of the previous rounds become new tiles,
+     * until there is no match of at least the minimum match length left.
+     *
+     * @param tokensA            the tokens of sequence A
+     * @param windowsA           the windows of sequence A, see {@link #indexWindows(long[])}
+     * @param tokensB            the tokens of sequence B
+     * @param windowHashesB      the window hashes of sequence B, see {@link #windowHashes(long[], int)}
+     * @param minimumMatchLength the minimum number of tokens of a tile
+     * @return the tiles
+     */
+    public static List<Tile> tile(long[] tokensA, Map<Long, List<Integer>> windowsA, long[] tokensB, long[] windowHashesB, int minimumMatchLength) {
+        boolean[] markedA = new boolean[tokensA.length];
+        boolean[] markedB = new boolean[tokensB.length];
+        List<Tile> tiles = new ArrayList<>();
+        List<Tile> longestMatches = new ArrayList<>();
+        while (true) {
+            int maxLength = minimumMatchLength;
+            longestMatches.clear();
+            for (int startB = 0; startB < windowHashesB.length; startB++) {
+                List<Integer> startsA = markedB[startB] ? null : windowsA.get(windowHashesB[startB]);
+                if (startsA == null) {
+                    continue;
+                }
+                for (int startA : startsA) {
+                    int length = 0;
+                    while (startA + length < tokensA.length && startB + length < tokensB.length && !markedA[startA + length] && !markedB[startB + length]
+                            && tokensA[startA + length] == tokensB[startB + length]) {
+                        length++;
+                    }
+                    if (length > maxLength) {
+                        maxLength = length;
+                        longestMatches.clear();
+                    }
+                    if (length == maxLength) {
+                        longestMatches.add(new Tile(startA, startB, length));
+                    }
+                }
+            }
+            if (longestMatches.isEmpty()) {
+                return tiles;
+            }
+            for (Tile match : longestMatches) {
+                if (!isOccluded(match, markedA, markedB)) {
+                    for (int k = 0; k < match.length(); k++) {
+                        markedA[match.startA() + k] = true;
+                        markedB[match.startB() + k] = true;
+                    }
+                    tiles.add(match);
+                }
+            }
+        }
+    }
+
+    private static boolean isOccluded(Tile match, boolean[] markedA, boolean[] markedB) {
+        for (int k = 0; k < match.length(); k++) {
+            if (markedA[match.startA() + k] || markedB[match.startB() + k]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package de.tum.in.www1.artemis.service.plagiarism.text;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The words of a text submission as used by the text plagiarism detection.
+ * Each word is represented by the hash of its lower case form, together with its position in the text so that matches can be highlighted in the client.
+ * <p>
+ * The words are compared by their 64-bit hashes only. Two different words have the same hash with a probability of about 2^-64, so even among a million different words in
+ * the compared submissions a collision is very unlikely (about 3 * 10^-8). A collision would also only change a match if the words around it are identical as well, because
+ * a match needs at least five consecutive equal words.
+ *
+ * @param tokens  the hashes of the words
+ * @param lines   the line of each word (starting at 1)
+ * @param columns the column of each word within its line (starting at 1)
+ * @param lengths the number of characters of each word
+ */
+public record TextTokenSequence(long[] tokens, int[] lines, int[] columns, int[] lengths) implements Serializable {
+
+    private static final Pattern WORD_PATTERN = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Splits the text into words, punctuation and whitespace are ignored
+     *
+     * @param text the text of the submission
+     * @return the token sequence of the text
+     */
+    public static TextTokenSequence tokenize(String text) {
+        int capacity = Math.max(16, text.length() / 6);
+        long[] tokens = new long[capacity];
+        int[] lines = new int[capacity];
+        int[] columns = new int[capacity];
+        int[] lengths = new int[capacity];
+
+        int size = 0;
+        int line = 1;
+        int lineStart = 0;
+        int position = 0;
+        Matcher matcher = WORD_PATTERN.matcher(text);
+        while (matcher.find()) {
+            for (; position < matcher.start(); position++) {
+                if (text.charAt(position) == '\n') {
+                    line++;
+                    lineStart = position + 1;
+                }
+            }
+            if (size == tokens.length) {
+                tokens = Arrays.copyOf(tokens, size * 2);
+                lines = Arrays.copyOf(lines, size * 2);
+                columns = Arrays.copyOf(columns, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            tokens[size] = hashWord(matcher.group().toLowerCase(Locale.ROOT));
+            lines[size] = line;
+            columns[size] = matcher.start() - lineStart + 1;
+            lengths[size] = matcher.end() - matcher.start();
+            size++;
+        }
+        return new TextTokenSequence(Arrays.copyOf(tokens, size), Arrays.copyOf(lines, size), Arrays.copyOf(columns, size), Arrays.copyOf(lengths, size));
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-16 bytes of the word, {@link String#hashCode()} only has 32 bits and collides for many pairs of short words
+     */
+    private static long hashWord(String word) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < word.length(); i++) {
+            char character = word.charAt(i);
+            hash = (hash ^ (character >>> 8)) * FNV_PRIME;
+            hash = (hash ^ (character & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public int size() {
+        return tokens.length;
+    }
+}
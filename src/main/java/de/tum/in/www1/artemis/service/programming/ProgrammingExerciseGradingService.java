@@ -26,6 +26,8 @@ import de.tum.in.www1.artemis.domain.enumeration.CategoryState;
 import de.tum.in.www1.artemis.domain.enumeration.FeedbackType;
 import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
 import de.tum.in.www1.artemis.domain.participation.*;
+import de.tum.in.www1.artemis.domain.statistics.StaticCodeAnalysisIssueCount;
+import de.tum.in.www1.artemis.domain.statistics.TestCaseFeedbackCount;
 import de.tum.in.www1.artemis.domain.submissionpolicy.LockRepositoryPolicy;
 import de.tum.in.www1.artemis.domain.submissionpolicy.SubmissionPenaltyPolicy;
 import de.tum.in.www1.artemis.domain.submissionpolicy.SubmissionPolicy;
@@ -81,6 +83,8 @@ public class ProgrammingExerciseGradingService {
 
     private final StaticCodeAnalysisCategoryRepository staticCodeAnalysisCategoryRepository;
 
+    private final FeedbackRepository feedbackRepository;
+
     public ProgrammingExerciseGradingService(StudentParticipationRepository studentParticipationRepository, ResultRepository resultRepository,
             Optional<ContinuousIntegrationResultService> continuousIntegrationResultService, Optional<VersionControlService> versionControlService,
             ProgrammingExerciseFeedbackService programmingExerciseFeedbackService, SimpMessageSendingOperations messagingTemplate,
@@ -88,7 +92,7 @@ public class ProgrammingExerciseGradingService {
             SolutionProgrammingExerciseParticipationRepository solutionProgrammingExerciseParticipationRepository, ProgrammingSubmissionRepository programmingSubmissionRepository,
             AuditEventRepository auditEventRepository, GroupNotificationService groupNotificationService, ResultService resultService, ExerciseDateService exerciseDateService,
             SubmissionPolicyService submissionPolicyService, ProgrammingExerciseRepository programmingExerciseRepository, BuildLogEntryService buildLogService,
-            StaticCodeAnalysisCategoryRepository staticCodeAnalysisCategoryRepository) {
+            StaticCodeAnalysisCategoryRepository staticCodeAnalysisCategoryRepository, FeedbackRepository feedbackRepository) {
         this.studentParticipationRepository = studentParticipationRepository;
         this.continuousIntegrationResultService = continuousIntegrationResultService;
         this.resultRepository = resultRepository;
@@ -107,6 +111,7 @@ public class ProgrammingExerciseGradingService {
         this.exerciseDateService = exerciseDateService;
         this.buildLogService = buildLogService;
         this.staticCodeAnalysisCategoryRepository = staticCodeAnalysisCategoryRepository;
+        this.feedbackRepository = feedbackRepository;
     }
 
     /**
@@ -367,6 +372,9 @@ public class ProgrammingExerciseGradingService {
         }
 
         // We only apply submission policies if it is a student participation
+        if (isStudentParticipation) {
+            loadSubmissionPolicy(exercise);
+        }
         return calculateScoreForResult(testCases, relevantTestCases, result, exercise, isStudentParticipation);
     }
 
@@ -389,7 +397,7 @@ public class ProgrammingExerciseGradingService {
     public List<Result> updateAllResults(final ProgrammingExercise exercise) {
         final Set<ProgrammingExerciseTestCase> testCases = testCaseRepository.findByExerciseIdAndActive(exercise.getId(), true);
 
-        final Stream<Result> updatedTemplateAndSolutionResult = updateTemplateAndSolutionResults(exercise, testCases);
+        final List<Result> updatedTemplateAndSolutionResult = updateTemplateAndSolutionResults(exercise, testCases);
 
         final List<StudentParticipation> studentParticipations = new ArrayList<>();
         // We only update the latest automatic results here, later manual assessments are not affected
@@ -397,9 +405,9 @@ public class ProgrammingExerciseGradingService {
         // Also update manual results
         studentParticipations.addAll(studentParticipationRepository.findByExerciseIdWithManualResultAndFeedbacks(exercise.getId()));
 
-        final Stream<Result> updatedStudentResults = updateResults(exercise, testCases, studentParticipations);
+        final List<Result> updatedStudentResults = updateResults(exercise, testCases, studentParticipations);
 
-        return Stream.concat(updatedTemplateAndSolutionResult, updatedStudentResults).toList();
+        return Stream.concat(updatedTemplateAndSolutionResult.stream(), updatedStudentResults.stream()).toList();
     }
 
     /**
@@ -413,7 +421,7 @@ public class ProgrammingExerciseGradingService {
     public List<Result> updateResultsOnlyRegularDueDateParticipations(final ProgrammingExercise exercise) {
         final Set<ProgrammingExerciseTestCase> testCases = testCaseRepository.findByExerciseIdAndActive(exercise.getId(), true);
 
-        final Stream<Result> updatedTemplateAndSolutionResult = updateTemplateAndSolutionResults(exercise, testCases);
+        final List<Result> updatedTemplateAndSolutionResult = updateTemplateAndSolutionResults(exercise, testCases);
 
         final List<StudentParticipation> studentParticipations = new ArrayList<>();
         // We only update the latest automatic results here, later manual assessments are not affected
@@ -421,9 +429,9 @@ public class ProgrammingExerciseGradingService {
         // Also update manual results
         studentParticipations.addAll(studentParticipationRepository.findByExerciseIdWithManualResultAndFeedbacksWithoutIndividualDueDate(exercise.getId()));
 
-        final Stream<Result> updatedStudentResults = updateResults(exercise, testCases, studentParticipations);
+        final List<Result> updatedStudentResults = updateResults(exercise, testCases, studentParticipations);
 
-        return Stream.concat(updatedTemplateAndSolutionResult, updatedStudentResults).toList();
+        return Stream.concat(updatedTemplateAndSolutionResult.stream(), updatedStudentResults.stream()).toList();
     }
 
     /**
@@ -439,6 +447,7 @@ public class ProgrammingExerciseGradingService {
         final Set<ProgrammingExerciseTestCase> testCases = testCaseRepository.findByExerciseIdAndActive(exercise.getId(), true);
         final Set<ProgrammingExerciseTestCase> testCasesBeforeDueDate = filterTestCasesForStudents(testCases, true);
         final Set<ProgrammingExerciseTestCase> testCasesAfterDueDate = filterTestCasesForStudents(testCases, false);
+        loadSubmissionPolicy(exercise);
 
         final Optional<Result> updatedAutomaticResult = studentParticipationRepository.findByIdWithLatestAutomaticResultAndFeedbacks(participation.getId())
                 .flatMap(studentParticipation -> updateLatestResult(exercise, studentParticipation, testCases, testCasesBeforeDueDate, testCasesAfterDueDate, true));
@@ -454,14 +463,29 @@ public class ProgrammingExerciseGradingService {
      * @param exercise       the participations belong to.
      * @param allTestCases   of the programming exercise.
      * @param participations for which the latest results should be updated.
-     * @return all results that have been updated.
+     * @return all results that have been updated (not yet saved).
+     */
+    public List<Result> updateResults(final ProgrammingExercise exercise, final Set<ProgrammingExerciseTestCase> allTestCases, final List<StudentParticipation> participations) {
+        loadSubmissionPolicy(exercise);
+        return updateResultsWithLoadedSubmissionPolicy(exercise, allTestCases, participations);
+    }
+
+    /**
+     * Updates the latest results for the given participations like {@link #updateResults}, but uses the submission policy the exercise already contains.
+     * The exercise is not modified, so it can be shared between the threads that update different participations concurrently.
+     *
+     * @param exercise       the participations belong to, containing its current submission policy (see {@link #loadSubmissionPolicy}).
+     * @param allTestCases   of the programming exercise.
+     * @param participations for which the latest results should be updated.
+     * @return all results that have been updated (not yet saved).
      */
-    private Stream<Result> updateResults(final ProgrammingExercise exercise, final Set<ProgrammingExerciseTestCase> allTestCases, final List<StudentParticipation> participations) {
+    public List<Result> updateResultsWithLoadedSubmissionPolicy(final ProgrammingExercise exercise, final Set<ProgrammingExerciseTestCase> allTestCases,
+            final List<StudentParticipation> participations) {
         final Set<ProgrammingExerciseTestCase> testCasesBeforeDueDate = filterTestCasesForStudents(allTestCases, true);
         final Set<ProgrammingExerciseTestCase> testCasesAfterDueDate = filterTestCasesForStudents(allTestCases, false);
 
         return participations.stream().map(participation -> updateLatestResult(exercise, participation, allTestCases, testCasesBeforeDueDate, testCasesAfterDueDate, true))
-                .flatMap(Optional::stream);
+                .flatMap(Optional::stream).toList();
     }
 
     /**
@@ -469,10 +493,10 @@ public class ProgrammingExerciseGradingService {
      *
      * @param exercise  the template and solution belong to.
      * @param testCases of the exercise.
-     * @return a stream of results that have been updated.
+     * @return the results that have been updated (not yet saved).
      *         (maximum length two; if template and/or solution do not have a results, then fewer)
      */
-    private Stream<Result> updateTemplateAndSolutionResults(final ProgrammingExercise exercise, final Set<ProgrammingExerciseTestCase> testCases) {
+    public List<Result> updateTemplateAndSolutionResults(final ProgrammingExercise exercise, final Set<ProgrammingExerciseTestCase> testCases) {
         final Optional<Result> templateResult = templateProgrammingExerciseParticipationRepository
                 .findWithEagerResultsAndFeedbacksAndSubmissionsByProgrammingExerciseId(exercise.getId())
                 .flatMap(templateParticipation -> updateLatestResult(exercise, templateParticipation, testCases, testCases, testCases, false));
@@ -481,7 +505,7 @@ public class ProgrammingExerciseGradingService {
                 .findWithEagerResultsAndFeedbacksAndSubmissionsByProgrammingExerciseId(exercise.getId())
                 .flatMap(solutionParticipation -> updateLatestResult(exercise, solutionParticipation, testCases, testCases, testCases, false));
 
-        return Stream.of(templateResult, solutionResult).flatMap(Optional::stream);
+        return Stream.of(templateResult, solutionResult).flatMap(Optional::stream).toList();
     }
 
     /**
@@ -510,6 +534,16 @@ public class ProgrammingExerciseGradingService {
         return Optional.of(result);
     }
 
+    /**
+     * Loads the current submission policy into the exercise once, so that it is not loaded again for every result that is updated.
+     *
+     * @param exercise for which the submission policy should be loaded.
+     */
+    public void loadSubmissionPolicy(ProgrammingExercise exercise) {
+        SubmissionPolicy submissionPolicy = programmingExerciseRepository.findByIdWithSubmissionPolicyElseThrow(exercise.getId()).getSubmissionPolicy();
+        exercise.setSubmissionPolicy(submissionPolicy);
+    }
+
     /**
      * Creates an audit event logging that a re-evaluation was triggered.
      *
@@ -519,10 +553,22 @@ public class ProgrammingExerciseGradingService {
      * @param results  of the exercise.
      */
     public void logReEvaluate(User user, ProgrammingExercise exercise, Course course, List<Result> results) {
+        logReEvaluate(user, exercise, course, results.size());
+    }
+
+    /**
+     * Creates an audit event logging that a re-evaluation was triggered.
+     *
+     * @param user                   who triggered the re-evaluation.
+     * @param exercise               for which the evaluation was triggered.
+     * @param course                 the exercise belongs to.
+     * @param numberOfUpdatedResults the number of results that have been re-evaluated.
+     */
+    public void logReEvaluate(User user, ProgrammingExercise exercise, Course course, int numberOfUpdatedResults) {
         var auditEvent = new AuditEvent(user.getLogin(), Constants.RE_EVALUATE_RESULTS, "exercise=" + exercise.getTitle(), "course=" + course.getTitle(),
-                "results=" + results.size());
+                "results=" + numberOfUpdatedResults);
         auditEventRepository.add(auditEvent);
-        log.info("User {} triggered a re-evaluation of {} results for exercise {} with id {}", user.getLogin(), results.size(), exercise.getTitle(), exercise.getId());
+        log.info("User {} triggered a re-evaluation of {} results for exercise {} with id {}", user.getLogin(), numberOfUpdatedResults, exercise.getTitle(), exercise.getId());
     }
 
     /**
@@ -578,7 +624,7 @@ public class ProgrammingExerciseGradingService {
      * @param testCases             All test cases for the exercise
      * @param relevantTestCases     Test cases relevant at the current due date depending on visibility and permission
      * @param result                The result to be updated
-     * @param exercise              The current exercise
+     * @param exercise              The current exercise, has to contain the submission policy if it should be applied (see {@link #loadSubmissionPolicy})
      * @param applySubmissionPolicy true, if submission policies should be taken into account when updating the score.
      * @return The updated result
      */
@@ -600,11 +646,6 @@ public class ProgrammingExerciseGradingService {
         // Remove feedback that is in an invisible SCA category
         staticCodeAnalysisFeedback = staticCodeAnalysisCategoryRepository.categorizeScaFeedback(result, staticCodeAnalysisFeedback, exercise);
 
-        if (applySubmissionPolicy) {
-            SubmissionPolicy submissionPolicy = programmingExerciseRepository.findByIdWithSubmissionPolicyElseThrow(exercise.getId()).getSubmissionPolicy();
-            exercise.setSubmissionPolicy(submissionPolicy);
-        }
-
         // Case 1: There are tests and test case feedback, find out which tests were not executed or should only count to the score after the due date.
         if (!relevantTestCases.isEmpty() && !testCaseFeedback.isEmpty() && !result.getFeedbacks().isEmpty()) {
             filterAutomaticFeedbacksWithoutTestCase(result, testCases);
@@ -942,6 +983,8 @@ public class ProgrammingExerciseGradingService {
 
     /**
      * Calculates the statistics for the grading page.
+     * The feedback of the latest automatic results is aggregated by the database, so that only one row per test case and one row per result and static code analysis category
+     * has to be loaded instead of all feedback items.
      *
      * @param exerciseId The current exercise
      * @return The statistics object
@@ -953,6 +996,10 @@ public class ProgrammingExerciseGradingService {
         for (ProgrammingExerciseTestCase testCase : testCases) {
             testCaseStatsMap.put(testCase.getTestName(), new ProgrammingExerciseGradingStatisticsDTO.TestCaseStats(0, 0));
         }
+        for (TestCaseFeedbackCount feedbackCount : feedbackRepository.countTestCaseFeedbacksOfLatestAutomaticResultsByExerciseId(exerciseId)) {
+            testCaseStatsMap.put(feedbackCount.testName(),
+                    new ProgrammingExerciseGradingStatisticsDTO.TestCaseStats(feedbackCount.numPassed().intValue(), feedbackCount.numFailed().intValue()));
+        }
 
         // number of students per amount of detected issues per category
         final Set<StaticCodeAnalysisCategory> categories = staticCodeAnalysisCategoryRepository.findByExerciseId(exerciseId);
@@ -960,20 +1007,12 @@ public class ProgrammingExerciseGradingService {
         for (StaticCodeAnalysisCategory category : categories) {
             categoryIssuesStudentsMap.put(category.getName(), new HashMap<>());
         }
-
-        final var results = resultRepository.findLatestAutomaticResultsWithEagerFeedbacksForExercise(exerciseId);
-        for (Result result : results) {
-            // number of detected issues per category for this result
-            final var categoryIssuesMap = new HashMap<String, Integer>();
-            for (var feedback : result.getFeedbacks()) {
-                addFeedbackToStatistics(categoryIssuesMap, testCaseStatsMap, feedback);
-            }
-
-            mergeCategoryIssuesMap(categoryIssuesStudentsMap, categoryIssuesMap);
+        for (StaticCodeAnalysisIssueCount issueCount : feedbackRepository.countStaticCodeAnalysisFeedbacksOfLatestAutomaticResultsByExerciseId(exerciseId)) {
+            addIssueCountToStatistics(categoryIssuesStudentsMap, issueCount);
         }
 
         final var statistics = new ProgrammingExerciseGradingStatisticsDTO();
-        statistics.setNumParticipations(results.size());
+        statistics.setNumParticipations((int) resultRepository.countLatestAutomaticResultsForExercise(exerciseId));
         statistics.setTestCaseStatsMap(testCaseStatsMap);
         statistics.setCategoryIssuesMap(categoryIssuesStudentsMap);
 
@@ -981,45 +1020,18 @@ public class ProgrammingExerciseGradingService {
     }
 
     /**
-     * Merges the result map of a single student with the overall issues map
+     * Adds the number of issues of one category in a single result to the overall issues map
      *
-     * @param issuesAllStudents   The overall issues map for all students
-     * @param issuesSingleStudent The issues map for one student
+     * @param issuesAllStudents The overall issues map for all students
+     * @param issueCount        The number of issues of one category in one result
      */
-    private void mergeCategoryIssuesMap(final Map<String, Map<Integer, Integer>> issuesAllStudents, final Map<String, Integer> issuesSingleStudent) {
-        for (var entry : issuesSingleStudent.entrySet()) {
-            final String category = entry.getKey();
-            final Integer issueCount = entry.getValue();
-
-            issuesAllStudents.putIfAbsent(category, new HashMap<>());
-
-            var issuesStudentsMap = issuesAllStudents.get(category);
-            issuesStudentsMap.putIfAbsent(issueCount, 0);
-            // add 1 to the number of students for the category & issues
-            issuesStudentsMap.merge(issueCount, 1, Integer::sum);
+    private void addIssueCountToStatistics(final Map<String, Map<Integer, Integer>> issuesAllStudents, final StaticCodeAnalysisIssueCount issueCount) {
+        final String category = issueCount.feedbackText().substring(Feedback.STATIC_CODE_ANALYSIS_FEEDBACK_IDENTIFIER.length());
+        if (category.isEmpty()) {
+            return;
         }
-    }
 
-    /**
-     * Analyses the feedback and updates the statistics maps
-     *
-     * @param categoryIssuesMap The issues map for sca statistics
-     * @param testCaseStatsMap  The map for test case statistics
-     * @param feedback          The given feedback object
-     */
-    private void addFeedbackToStatistics(final Map<String, Integer> categoryIssuesMap, final Map<String, ProgrammingExerciseGradingStatisticsDTO.TestCaseStats> testCaseStatsMap,
-            final Feedback feedback) {
-        if (feedback.isStaticCodeAnalysisFeedback()) {
-            String categoryName = feedback.getText().substring(Feedback.STATIC_CODE_ANALYSIS_FEEDBACK_IDENTIFIER.length());
-            if (categoryName.isEmpty()) {
-                return;
-            }
-            categoryIssuesMap.compute(categoryName, (category, count) -> count == null ? 1 : count + 1);
-        }
-        else if (FeedbackType.AUTOMATIC.equals(feedback.getType())) {
-            String testName = feedback.getText();
-            testCaseStatsMap.putIfAbsent(testName, new ProgrammingExerciseGradingStatisticsDTO.TestCaseStats(0, 0));
-            testCaseStatsMap.get(testName).updateWithFeedback(feedback);
-        }
+        // add 1 to the number of students for the category & issues
+        issuesAllStudents.computeIfAbsent(category, key -> new HashMap<>()).merge(issueCount.issueCount().intValue(), 1, Integer::sum);
     }
 }
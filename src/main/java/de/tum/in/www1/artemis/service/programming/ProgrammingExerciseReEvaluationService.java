@@ -0,0 +1,198 @@
+package de.tum.in.www1.artemis.service.programming;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.ProgrammingExerciseTestCase;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.repository.ProgrammingExerciseTestCaseRepository;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.security.SecurityUtils;
+import de.tum.in.www1.artemis.service.util.TimeLogUtil;
+import de.tum.in.www1.artemis.web.rest.dto.ProgrammingExerciseReEvaluationPreviewDTO;
+import de.tum.in.www1.artemis.web.rest.dto.ProgrammingExerciseReEvaluationProgressDTO;
+
+/**
+ * Re-evaluates the latest results of all participations of a programming exercise, e.g. after the test case weights or the grading configuration changed.
+ * <p>
+ * Instead of loading all participations with their results and feedback at once, the participations are processed in chunks (keyset-paginated by participation id).
+ * The chunks are graded in parallel on a bounded thread pool that is shared by all re-evaluations and the updated results of each chunk are saved together, so that Hibernate
+ * can write them in JDBC batches.
+ * The progress is sent to the instructors via websocket.
+ */
+@Service
+public class ProgrammingExerciseReEvaluationService {
+
+    private final Logger log = LoggerFactory.getLogger(ProgrammingExerciseReEvaluationService.class);
+
+    private final ProgrammingExerciseGradingService programmingExerciseGradingService;
+
+    private final ProgrammingExerciseTestCaseRepository testCaseRepository;
+
+    private final StudentParticipationRepository studentParticipationRepository;
+
+    private final ResultRepository resultRepository;
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    @Value("${artemis.programming-exercise.re-evaluation.chunk-size:100}")
+    private int chunkSize;
+
+    // shared by all re-evaluations, so that concurrent re-evaluations of different exercises do not create more threads
+    private final ExecutorService threadPool;
+
+    public ProgrammingExerciseReEvaluationService(ProgrammingExerciseGradingService programmingExerciseGradingService, ProgrammingExerciseTestCaseRepository testCaseRepository,
+            StudentParticipationRepository studentParticipationRepository, ResultRepository resultRepository, SimpMessageSendingOperations messagingTemplate,
+            @Value("${artemis.programming-exercise.re-evaluation.threads:4}") int numberOfThreads) {
+        this.programmingExerciseGradingService = programmingExerciseGradingService;
+        this.testCaseRepository = testCaseRepository;
+        this.studentParticipationRepository = studentParticipationRepository;
+        this.resultRepository = resultRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.threadPool = Executors.newFixedThreadPool(numberOfThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdownNow();
+    }
+
+    /**
+     * Re-evaluates and saves the latest automatic and manual results of all student participations as well as the latest results of the template and solution participation.
+     * For details what will be updated for individual results, see {@link ProgrammingExerciseGradingService#updateAllResults}.
+     *
+     * @param exercise whose results should be re-evaluated.
+     * @return the number of results that have been updated.
+     */
+    public long reEvaluateAllResults(final ProgrammingExercise exercise) {
+        long start = System.nanoTime();
+        final Set<ProgrammingExerciseTestCase> testCases = testCaseRepository.findByExerciseIdAndActive(exercise.getId(), true);
+
+        final List<Result> updatedTemplateAndSolutionResults = programmingExerciseGradingService.updateTemplateAndSolutionResults(exercise, testCases);
+        resultRepository.saveAll(updatedTemplateAndSolutionResults);
+
+        final long updatedStudentResults = processInChunks(exercise, testCases, true).size();
+        log.info("Re-evaluated {} student results of programming exercise {} in {}", updatedStudentResults, exercise.getId(), TimeLogUtil.formatDurationFrom(start));
+        return updatedTemplateAndSolutionResults.size() + updatedStudentResults;
+    }
+
+    /**
+     * Calculates the scores the latest student results would get with the current grading configuration, without saving anything.
+     *
+     * @param exercise whose results should be re-evaluated.
+     * @return the score changes of the latest student results.
+     */
+    public ProgrammingExerciseReEvaluationPreviewDTO previewReEvaluation(final ProgrammingExercise exercise) {
+        final Set<ProgrammingExerciseTestCase> testCases = testCaseRepository.findByExerciseIdAndActive(exercise.getId(), true);
+        final List<ProgrammingExerciseReEvaluationPreviewDTO.ResultScoreDeltaDTO> deltas = processInChunks(exercise, testCases, false);
+
+        final var changedResults = deltas.stream().filter(delta -> Double.compare(delta.scoreBefore(), delta.scoreAfter()) != 0)
+                .sorted(Comparator.comparingLong(ProgrammingExerciseReEvaluationPreviewDTO.ResultScoreDeltaDTO::participationId)).toList();
+        final double averageScoreBefore = deltas.stream().mapToDouble(ProgrammingExerciseReEvaluationPreviewDTO.ResultScoreDeltaDTO::scoreBefore).average().orElse(0);
+        final double averageScoreAfter = deltas.stream().mapToDouble(ProgrammingExerciseReEvaluationPreviewDTO.ResultScoreDeltaDTO::scoreAfter).average().orElse(0);
+        return new ProgrammingExerciseReEvaluationPreviewDTO(deltas.size(), changedResults.size(), averageScoreBefore, averageScoreAfter, changedResults);
+    }
+
+    /**
+     * Loads the ids of all student participations chunk by chunk and re-evaluates the results of each chunk on the thread pool.
+     * The submission policy is loaded once before the chunks are processed, so that the threads only read the shared exercise.
+     *
+     * @param exercise  whose results should be re-evaluated.
+     * @param testCases the active test cases of the exercise.
+     * @param save      true, if the updated results should be saved and the progress should be sent via websocket.
+     * @return the score changes of all updated results.
+     */
+    private List<ProgrammingExerciseReEvaluationPreviewDTO.ResultScoreDeltaDTO> processInChunks(final ProgrammingExercise exercise,
+            final Set<ProgrammingExerciseTestCase> testCases, boolean save) {
+        final long totalParticipations = studentParticipationRepository.countByExerciseId(exercise.getId());
+        final var processedParticipations = new AtomicLong(0);
+        final var updatedResults = new AtomicLong(0);
+        final List<ProgrammingExerciseReEvaluationPreviewDTO.ResultScoreDeltaDTO> deltas = Collections.synchronizedList(new ArrayList<>());
+        programmingExerciseGradingService.loadSubmissionPolicy(exercise);
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        long lastId = 0;
+        List<Long> participationIds;
+        while (!(participationIds = studentParticipationRepository.findIdsByExerciseIdAndIdGreaterThan(exercise.getId(), lastId, PageRequest.of(0, chunkSize))).isEmpty()) {
+            lastId = participationIds.get(participationIds.size() - 1);
+            final List<Long> chunk = participationIds;
+            futures.add(CompletableFuture.runAsync(() -> {
+                // NOTE: the following code is performed in parallel threads, therefore we need to set the authorization here
+                SecurityUtils.setAuthorizationObject();
+                var chunkDeltas = reEvaluateChunk(exercise, testCases, chunk, save);
+                deltas.addAll(chunkDeltas);
+                long processed = processedParticipations.addAndGet(chunk.size());
+                long updated = updatedResults.addAndGet(chunkDeltas.size());
+                if (save) {
+                    sendProgress(exercise, new ProgrammingExerciseReEvaluationProgressDTO(processed, totalParticipations, updated, false));
+                }
+            }, threadPool));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        if (save) {
+            sendProgress(exercise, new ProgrammingExerciseReEvaluationProgressDTO(processedParticipations.get(), totalParticipations, updatedResults.get(), true));
+        }
+        return deltas;
+    }
+
+    /**
+     * Re-evaluates the latest automatic and manual results of the given participations and saves them together if requested.
+     *
+     * @param exercise         whose results should be re-evaluated, containing its submission policy. It is shared between the threads and must not be modified.
+     * @param testCases        the active test cases of the exercise.
+     * @param participationIds the ids of the participations in this chunk.
+     * @param save             true, if the updated results should be saved.
+     * @return the score changes of the updated results.
+     */
+    private List<ProgrammingExerciseReEvaluationPreviewDTO.ResultScoreDeltaDTO> reEvaluateChunk(final ProgrammingExercise exercise,
+            final Set<ProgrammingExerciseTestCase> testCases, List<Long> participationIds, boolean save) {
+        // We only update the latest automatic results here, later manual assessments are not affected. Manual results are updated as well.
+        final List<StudentParticipation> participations = Stream.concat(studentParticipationRepository.findByIdsWithLatestAutomaticResultAndFeedbacks(participationIds).stream(),
+                studentParticipationRepository.findByIdsWithManualResultAndFeedbacks(participationIds).stream()).toList();
+
+        // The results are updated in place, so we have to remember the previous scores
+        final Map<Result, Double> scoresBefore = new IdentityHashMap<>();
+        for (StudentParticipation participation : participations) {
+            Result latestResult = participation.findLatestLegalResult();
+            if (latestResult != null) {
+                scoresBefore.put(latestResult, Objects.requireNonNullElse(latestResult.getScore(), 0D));
+            }
+        }
+
+        final List<Result> updatedResults = programmingExerciseGradingService.updateResultsWithLoadedSubmissionPolicy(exercise, testCases, participations);
+        if (save) {
+            resultRepository.saveAll(updatedResults);
+        }
+
+        return updatedResults.stream().map(result -> {
+            var participation = (StudentParticipation) result.getParticipation();
+            return new ProgrammingExerciseReEvaluationPreviewDTO.ResultScoreDeltaDTO(participation.getId(), result.getId(), participation.getParticipantIdentifier(),
+                    scoresBefore.getOrDefault(result, 0D), Objects.requireNonNullElse(result.getScore(), 0D));
+        }).toList();
+    }
+
+    private void sendProgress(ProgrammingExercise exercise, ProgrammingExerciseReEvaluationProgressDTO progress) {
+        messagingTemplate.convertAndSend(getReEvaluationProgressTopic(exercise.getId()), progress);
+    }
+
+    public static String getReEvaluationProgressTopic(long exerciseId) {
+        return "/topic/programming-exercises/" + exerciseId + "/re-evaluation-progress";
+    }
+}
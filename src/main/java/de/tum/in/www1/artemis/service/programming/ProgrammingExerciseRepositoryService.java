@@ -23,6 +23,7 @@ import de.tum.in.www1.artemis.domain.enumeration.RepositoryType;
 import de.tum.in.www1.artemis.service.FileService;
 import de.tum.in.www1.artemis.service.ResourceLoaderService;
 import de.tum.in.www1.artemis.service.connectors.GitService;
+import de.tum.in.www1.artemis.service.connectors.localvc.LocalVCAccessCacheService;
 import de.tum.in.www1.artemis.service.connectors.vcs.VersionControlService;
 import de.tum.in.www1.artemis.service.messaging.InstanceMessageSendService;
 
@@ -57,13 +58,17 @@ public class ProgrammingExerciseRepositoryService {
 
     private final Optional<VersionControlService> versionControlService;
 
+    private final Optional<LocalVCAccessCacheService> localVCAccessCacheService;
+
     public ProgrammingExerciseRepositoryService(FileService fileService, GitService gitService, InstanceMessageSendService instanceMessageSendService,
-            ResourceLoaderService resourceLoaderService, Optional<VersionControlService> versionControlService) {
+            ResourceLoaderService resourceLoaderService, Optional<VersionControlService> versionControlService,
+            Optional<LocalVCAccessCacheService> localVCAccessCacheService) {
         this.fileService = fileService;
         this.gitService = gitService;
         this.instanceMessageSendService = instanceMessageSendService;
         this.resourceLoaderService = resourceLoaderService;
         this.versionControlService = versionControlService;
+        this.localVCAccessCacheService = localVCAccessCacheService;
     }
 
     /**
@@ -632,6 +637,9 @@ public class ProgrammingExerciseRepositoryService {
      * @param updatedProgrammingExercise      the updated exercise with new values
      */
     public void handleRepoAccessRightChanges(final ProgrammingExercise programmingExerciseBeforeUpdate, final ProgrammingExercise updatedProgrammingExercise) {
+        // the cached access decisions of the local VC server might depend on the changed dates or the offline IDE setting
+        localVCAccessCacheService.ifPresent(cacheService -> cacheService.evictAuthorizations(programmingExerciseBeforeUpdate.getProjectKey()));
+
         if (!programmingExerciseBeforeUpdate.isReleased()) {
             if (updatedProgrammingExercise.isReleased() && !Boolean.FALSE.equals(updatedProgrammingExercise.isAllowOfflineIde())) {
                 // There might be some repositories that have to be unlocked
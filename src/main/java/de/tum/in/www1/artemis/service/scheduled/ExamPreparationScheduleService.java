@@ -0,0 +1,32 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.security.SecurityUtils;
+import de.tum.in.www1.artemis.service.exam.StudentExamService;
+
+/**
+ * Resumes the preparation of student exams that has been interrupted, e.g. because an instance of the cluster has been stopped while executing preparation tasks.
+ * Note: Only active on the main instance with "scheduling" profile, the resumed tasks are nevertheless distributed across the whole cluster.
+ */
+@Service
+@Profile("scheduling")
+public class ExamPreparationScheduleService {
+
+    private final StudentExamService studentExamService;
+
+    public ExamPreparationScheduleService(StudentExamService studentExamService) {
+        this.studentExamService = studentExamService;
+    }
+
+    /**
+     * Resumes stale exam preparation tasks every minute
+     */
+    @Scheduled(cron = "30 * * * * *") // execute this every minute at xx:xx:30
+    public void resumeStalePreparationTasks() {
+        SecurityUtils.setAuthorizationObject();
+        studentExamService.resumeStalePreparationTasks();
+    }
+}
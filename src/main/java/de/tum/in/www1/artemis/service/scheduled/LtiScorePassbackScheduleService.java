@@ -0,0 +1,32 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.security.SecurityUtils;
+import de.tum.in.www1.artemis.service.connectors.lti.LtiScorePassbackService;
+
+/**
+ * Sends the scheduled scores of LTI 1.3 launches to the platforms, so that the processing of new results does not have to wait for the platforms.
+ * Note: Only active on the main instance with "scheduling" profile.
+ */
+@Service
+@Profile("scheduling")
+public class LtiScorePassbackScheduleService {
+
+    private final LtiScorePassbackService scorePassbackService;
+
+    public LtiScorePassbackScheduleService(LtiScorePassbackService scorePassbackService) {
+        this.scorePassbackService = scorePassbackService;
+    }
+
+    /**
+     * Sends the pending scores every 10 seconds
+     */
+    @Scheduled(cron = "*/10 * * * * *") // execute this every 10 seconds
+    public void sendPendingScores() {
+        SecurityUtils.setAuthorizationObject();
+        scorePassbackService.sendPendingScores();
+    }
+}
@@ -4,11 +4,13 @@ import static de.tum.in.www1.artemis.config.Constants.EXAM_START_WAIT_TIME_MINUT
 
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.validation.constraints.NotNull;
 
 import org.eclipse.jgit.api.errors.GitAPIException;
@@ -38,6 +40,8 @@ import de.tum.in.www1.artemis.service.programming.ProgrammingExerciseParticipati
 import de.tum.in.www1.artemis.service.programming.ProgrammingTriggerService;
 import de.tum.in.www1.artemis.service.util.Tuple;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import tech.jhipster.config.JHipsterConstants;
 
 @Service
@@ -46,6 +50,14 @@ public class ProgrammingExerciseScheduleService implements IExerciseScheduleServ
 
     private final Logger log = LoggerFactory.getLogger(ProgrammingExerciseScheduleService.class);
 
+    // limits the number of concurrent requests to the version control server (and git operations on the file system) of all scheduled repository operations
+    private static final int MAX_CONCURRENT_REPOSITORY_OPERATIONS = 8;
+
+    private static final String REPOSITORY_LOCK_METER_NAME = "artemis.scheduled.repository.lock";
+
+    // the lock is retried for the failed participations, because students could otherwise still push to their repositories after the due date
+    private static final int REPOSITORY_LOCK_ATTEMPTS = 3;
+
     private final ScheduleService scheduleService;
 
     private final Environment env;
@@ -74,11 +86,28 @@ public class ProgrammingExerciseScheduleService implements IExerciseScheduleServ
 
     private final GitService gitService;
 
+    private final Timer repositoryLockTimer;
+
+    private final ExecutorService repositoryOperationExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_REPOSITORY_OPERATIONS);
+
+    // programming exercise id -> ids of the participations whose repositories could not be locked by the scheduled lock operations
+    private final Map<Long, Set<Long>> failedRepositoryLocks = new ConcurrentHashMap<>();
+
+    /**
+     * A participation for which a repository operation has failed
+     *
+     * @param participation the participation
+     * @param cause         the exception of the operation, or the reason why the operation has not been executed
+     */
+    private record RepositoryOperationFailure(ProgrammingExerciseStudentParticipation participation, Throwable cause) {
+    }
+
     public ProgrammingExerciseScheduleService(ScheduleService scheduleService, ProgrammingExerciseRepository programmingExerciseRepository,
             ProgrammingExerciseTestCaseRepository programmingExerciseTestCaseRepository, ResultRepository resultRepository, ParticipationRepository participationRepository,
             ProgrammingExerciseStudentParticipationRepository programmingExerciseParticipationRepository, Environment env, ProgrammingTriggerService programmingTriggerService,
             ProgrammingExerciseGradingService programmingExerciseGradingService, GroupNotificationService groupNotificationService, ExamDateService examDateService,
-            ProgrammingExerciseParticipationService programmingExerciseParticipationService, StudentExamRepository studentExamRepository, GitService gitService) {
+            ProgrammingExerciseParticipationService programmingExerciseParticipationService, StudentExamRepository studentExamRepository, GitService gitService,
+            MeterRegistry meterRegistry) {
         this.scheduleService = scheduleService;
         this.programmingExerciseRepository = programmingExerciseRepository;
         this.programmingExerciseTestCaseRepository = programmingExerciseTestCaseRepository;
@@ -93,6 +122,18 @@ public class ProgrammingExerciseScheduleService implements IExerciseScheduleServ
         this.programmingExerciseGradingService = programmingExerciseGradingService;
         this.env = env;
         this.gitService = gitService;
+        this.repositoryLockTimer = Timer.builder(REPOSITORY_LOCK_METER_NAME).description("Time to lock all student repositories of an exercise at its due date")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // operations that have not started yet are cancelled, so that they are reported as failed instead of being waited for forever
+        repositoryOperationExecutor.shutdownNow().forEach(operation -> {
+            if (operation instanceof Future<?> future) {
+                future.cancel(false);
+            }
+        });
     }
 
     @PostConstruct
@@ -499,7 +540,9 @@ public class ProgrammingExerciseScheduleService implements IExerciseScheduleServ
         return () -> {
             SecurityUtils.setAuthorizationObject();
             try {
-                List<ProgrammingExerciseStudentParticipation> failedLockOperations = removeWritePermissionsFromAllStudentRepositories(programmingExerciseId, condition);
+                // All repositories are locked first, so that the (slower) stash operations below do not delay the end of the submission period
+                List<RepositoryOperationFailure> failedLockOperations = repositoryLockTimer
+                        .record(() -> removeWritePermissionsFromAllStudentRepositories(programmingExerciseId, condition));
                 // We sent a notification to the instructor about the success of the repository locking and stashing operations.
                 long numberOfFailedLockOperations = failedLockOperations.size();
 
@@ -522,7 +565,7 @@ public class ProgrammingExerciseScheduleService implements IExerciseScheduleServ
                 // in the case they still have saved changes on the Artemis server which have not been committed / pushed
                 // NOTE: we always stash, also when manual assessment is not activated, because instructors might change this after the exam
                 if (Boolean.TRUE.equals(exercise.isAllowOnlineEditor())) {
-                    List<ProgrammingExerciseStudentParticipation> failedStashOperations = stashChangesInAllStudentRepositories(programmingExerciseId, condition);
+                    List<RepositoryOperationFailure> failedStashOperations = stashChangesInAllStudentRepositories(programmingExerciseId, condition);
                     long numberOfFailedStashOperations = failedStashOperations.size();
                     if (numberOfFailedStashOperations > 0) {
                         groupNotificationService.notifyEditorAndInstructorGroupAboutExerciseUpdate(programmingExercise.get(),
@@ -574,7 +617,8 @@ public class ProgrammingExerciseScheduleService implements IExerciseScheduleServ
         return () -> {
             SecurityUtils.setAuthorizationObject();
             try {
-                Set<Tuple<ZonedDateTime, ProgrammingExerciseStudentParticipation>> individualDueDates = new HashSet<>();
+                // the operation is invoked concurrently for the participations
+                Set<Tuple<ZonedDateTime, ProgrammingExerciseStudentParticipation>> individualDueDates = ConcurrentHashMap.newKeySet();
                 // This operation unlocks the repositories and collects all individual due dates
                 BiConsumer<ProgrammingExercise, ProgrammingExerciseStudentParticipation> unlockAndCollectOperation = (programmingExercise, participation) -> {
                     var dueDate = studentExamRepository.getIndividualDueDate(programmingExercise, participation);
@@ -584,7 +628,7 @@ public class ProgrammingExerciseScheduleService implements IExerciseScheduleServ
                     programmingExercise = programmingExerciseRepository.findByIdWithTemplateAndSolutionParticipationElseThrow(programmingExercise.getId());
                     programmingExerciseParticipationService.unlockStudentRepository(programmingExercise, participation);
                 };
-                List<ProgrammingExerciseStudentParticipation> failedUnlockOperations = invokeOperationOnAllParticipationsThatSatisfy(programmingExerciseId,
+                List<RepositoryOperationFailure> failedUnlockOperations = invokeOperationOnAllParticipationsThatSatisfy(programmingExerciseId,
                         unlockAndCollectOperation, condition, "add write permissions to all student repositories");
 
                 // We sent a notification to the instructor about the success of the repository unlocking operation.
@@ -671,55 +715,127 @@ public class ProgrammingExerciseScheduleService implements IExerciseScheduleServ
         return exercise.getExerciseGroup().getExam().getStartDate().minusMinutes(EXAM_START_WAIT_TIME_MINUTES);
     }
 
-    private List<ProgrammingExerciseStudentParticipation> removeWritePermissionsFromAllStudentRepositories(Long programmingExerciseId,
+    /**
+     * Returns the ids of the participations of the given programming exercise whose repositories could not be locked by the scheduled lock operations, even after
+     * retrying. The lock can be retried for them, e.g. by locking all repositories of the exercise again.
+     *
+     * @param programmingExerciseId the id of the programming exercise
+     * @return the ids of the participations whose repositories are possibly still writable
+     */
+    public Set<Long> getParticipationIdsWithFailedRepositoryLock(Long programmingExerciseId) {
+        return Set.copyOf(failedRepositoryLocks.getOrDefault(programmingExerciseId, Set.of()));
+    }
+
+    private List<RepositoryOperationFailure> removeWritePermissionsFromAllStudentRepositories(Long programmingExerciseId,
             Predicate<ProgrammingExerciseStudentParticipation> condition) throws EntityNotFoundException {
-        return invokeOperationOnAllParticipationsThatSatisfy(programmingExerciseId, programmingExerciseParticipationService::lockStudentRepository, condition,
-                "remove write permissions from all student repositories");
+        BiConsumer<ProgrammingExercise, ProgrammingExerciseStudentParticipation> lockOperation = (programmingExercise, participation) -> {
+            programmingExerciseParticipationService.lockStudentRepository(programmingExercise, participation);
+            // the map is only modified atomically per exercise, because the lock tasks of different individual due dates can run at the same time
+            failedRepositoryLocks.computeIfPresent(programmingExerciseId, (id, participationIds) -> {
+                participationIds.remove(participation.getId());
+                return participationIds.isEmpty() ? null : participationIds;
+            });
+        };
+        String operationName = "remove write permissions from all student repositories";
+        List<RepositoryOperationFailure> failedOperations = invokeOperationOnAllParticipationsThatSatisfy(programmingExerciseId, lockOperation, condition, operationName);
+        for (int attempt = 1; attempt < REPOSITORY_LOCK_ATTEMPTS && !failedOperations.isEmpty() && !repositoryOperationExecutor.isShutdown(); attempt++) {
+            Set<Long> retriedParticipationIds = failedOperations.stream().map(failure -> failure.participation().getId()).collect(Collectors.toSet());
+            log.info("Retry '{}' for programming exercise with id {} for the student participations {}", operationName, programmingExerciseId, retriedParticipationIds);
+            failedOperations = invokeOperationOnAllParticipationsThatSatisfy(programmingExerciseId, lockOperation,
+                    participation -> retriedParticipationIds.contains(participation.getId()) && condition.test(participation), operationName);
+        }
+        failedOperations.forEach(failure -> failedRepositoryLocks.compute(programmingExerciseId, (id, participationIds) -> {
+            Set<Long> failedParticipationIds = participationIds != null ? participationIds : ConcurrentHashMap.newKeySet();
+            failedParticipationIds.add(failure.participation().getId());
+            return failedParticipationIds;
+        }));
+        return failedOperations;
     }
 
-    private List<ProgrammingExerciseStudentParticipation> stashChangesInAllStudentRepositories(Long programmingExerciseId,
+    private List<RepositoryOperationFailure> stashChangesInAllStudentRepositories(Long programmingExerciseId,
             Predicate<ProgrammingExerciseStudentParticipation> condition) throws EntityNotFoundException {
-        return invokeOperationOnAllParticipationsThatSatisfy(programmingExerciseId, programmingExerciseParticipationService::stashChangesInStudentRepositoryAfterDueDateHasPassed,
-                condition, "stash changes from all student repositories");
+        return invokeOperationOnAllParticipationsThatSatisfy(programmingExerciseId, this::stashChangesInCheckedOutStudentRepository, condition,
+                "stash changes from all student repositories");
+    }
+
+    /**
+     * Stashes the changes of the online editor in the student repository. Only repositories that are checked out on the Artemis server can contain such changes,
+     * all other repositories are skipped instead of cloning them just to find a clean working copy.
+     *
+     * @param programmingExercise the programming exercise of the participation
+     * @param participation       the participation whose changes should be stashed
+     */
+    private void stashChangesInCheckedOutStudentRepository(ProgrammingExercise programmingExercise, ProgrammingExerciseStudentParticipation participation) {
+        var repositoryUrl = participation.getVcsRepositoryUrl();
+        if (repositoryUrl != null && !gitService.repositoryAlreadyExists(repositoryUrl)) {
+            log.debug("Skip stashing the student repository for participation {} because it is not checked out", participation.getId());
+            return;
+        }
+        programmingExerciseParticipationService.stashChangesInStudentRepositoryAfterDueDateHasPassed(programmingExercise, participation);
     }
 
     /**
      * Invokes the given <code>operation</code> on all student participations that satisfy the <code>condition</code>-{@link Predicate}.
      * <p>
+     * The participations are processed concurrently, at most {@link #MAX_CONCURRENT_REPOSITORY_OPERATIONS} at a time (across all exercises) to avoid overloading the
+     * version control server. This method returns once the operation has been invoked for all participations.
      *
      * @param programmingExerciseId the programming exercise whose participations should be processed
      * @param operation             the operation to perform
      * @param condition             the condition that tests whether to invoke the operation on a participation
      * @param operationName         the name of the operation, this is only used for logging
-     * @return a list containing all participations for which the operation has failed with an exception
+     * @return the participations for which the operation has failed with an exception or has not been executed (e.g. during the shutdown), together with the cause
      * @throws EntityNotFoundException if the programming exercise can't be found.
      */
-    private List<ProgrammingExerciseStudentParticipation> invokeOperationOnAllParticipationsThatSatisfy(Long programmingExerciseId,
+    private List<RepositoryOperationFailure> invokeOperationOnAllParticipationsThatSatisfy(Long programmingExerciseId,
             BiConsumer<ProgrammingExercise, ProgrammingExerciseStudentParticipation> operation, Predicate<ProgrammingExerciseStudentParticipation> condition,
             String operationName) {
         log.info("Invoking (scheduled) task '{}' for programming exercise with id {}.", operationName, programmingExerciseId);
 
         ProgrammingExercise programmingExercise = programmingExerciseRepository.findWithEagerStudentParticipationsById(programmingExerciseId)
                 .orElseThrow(() -> new EntityNotFoundException("ProgrammingExercise", programmingExerciseId));
-        List<ProgrammingExerciseStudentParticipation> failedOperations = new ArrayList<>();
-
-        // TODO: we should think about executing those operations again in batches to avoid issues on the vcs server, however those operations are typically executed
-        // synchronously so this might not be an issue
+        List<RepositoryOperationFailure> failedOperations = new ArrayList<>();
 
+        Map<ProgrammingExerciseStudentParticipation, Future<?>> operations = new LinkedHashMap<>();
         for (StudentParticipation studentParticipation : programmingExercise.getStudentParticipations()) {
             ProgrammingExerciseStudentParticipation programmingExerciseStudentParticipation = (ProgrammingExerciseStudentParticipation) studentParticipation;
             try {
-                if (condition.test(programmingExerciseStudentParticipation)) {
-                    operation.accept(programmingExercise, programmingExerciseStudentParticipation);
-                }
+                operations.put(programmingExerciseStudentParticipation, repositoryOperationExecutor.submit(() -> {
+                    // the security context is bound to the thread
+                    SecurityUtils.setAuthorizationObject();
+                    if (condition.test(programmingExerciseStudentParticipation)) {
+                        operation.accept(programmingExercise, programmingExerciseStudentParticipation);
+                    }
+                }));
             }
-            catch (Exception e) {
-                log.error(String.format("'%s' failed for programming exercise with id %d for student repository with participation id %d", operationName,
-                        programmingExercise.getId(), studentParticipation.getId()), e);
-                failedOperations.add(programmingExerciseStudentParticipation);
+            catch (RejectedExecutionException e) {
+                failedOperations.add(new RepositoryOperationFailure(programmingExerciseStudentParticipation, e));
             }
         }
+        operations.forEach((participation, future) -> {
+            try {
+                future.get();
+            }
+            catch (ExecutionException e) {
+                failedOperations.add(new RepositoryOperationFailure(participation, e.getCause()));
+            }
+            catch (CancellationException e) {
+                failedOperations.add(new RepositoryOperationFailure(participation, e));
+            }
+            catch (InterruptedException e) {
+                // the remaining operations are reported as failed as well, because get() throws immediately while the thread is interrupted
+                Thread.currentThread().interrupt();
+                failedOperations.add(new RepositoryOperationFailure(participation, e));
+            }
+        });
 
+        failedOperations.forEach(failure -> log.error(String.format("'%s' failed for programming exercise with id %d for student repository with participation id %d",
+                operationName, programmingExerciseId, failure.participation().getId()), failure.cause()));
+        if (!failedOperations.isEmpty()) {
+            // log the failed participations in one place, so that the operation can be retried for them
+            log.warn("'{}' failed for programming exercise with id {} for the student participations {}", operationName, programmingExerciseId,
+                    failedOperations.stream().map(failure -> failure.participation().getId()).toList());
+        }
         return failedOperations;
     }
 }
@@ -0,0 +1,41 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.service.StatisticsRollupService;
+import tech.jhipster.config.JHipsterConstants;
+
+@Service
+@Profile("scheduling")
+public class StatisticsRollupScheduleService {
+
+    private final StatisticsRollupService statisticsRollupService;
+
+    private final Environment env;
+
+    public StatisticsRollupScheduleService(StatisticsRollupService statisticsRollupService, Environment env) {
+        this.statisticsRollupService = statisticsRollupService;
+        this.env = env;
+    }
+
+    /**
+     * Compacts the submissions of the last hour(s) into the statistics rollups a few minutes after every full hour in form of a repeating "cron" job.
+     */
+    @Scheduled(cron = "0 5 * * * *") // execute this every hour at xx:05:00
+    public void compactStatisticsRollups() {
+        final Collection<String> activeProfiles = Arrays.asList(env.getActiveProfiles());
+        if (!activeProfiles.contains(JHipsterConstants.SPRING_PROFILE_PRODUCTION)) {
+            // only execute this on production server, i.e. when the prod profile is active
+            // NOTE: if you want to test this locally, please comment it out, but do not commit the changes
+            return;
+        }
+
+        statisticsRollupService.compactRecentBuckets();
+    }
+}
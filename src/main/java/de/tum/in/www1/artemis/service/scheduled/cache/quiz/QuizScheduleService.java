@@ -10,6 +10,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import javax.validation.constraints.NotNull;
 
 import org.hibernate.exception.ConstraintViolationException;
@@ -23,6 +24,8 @@ import org.springframework.stereotype.Service;
 import com.hazelcast.config.Config;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.cp.IAtomicReference;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
 import com.hazelcast.scheduledexecutor.*;
 
 import de.tum.in.www1.artemis.config.Constants;
@@ -71,6 +74,8 @@ public class QuizScheduleService {
 
     private final QuizExerciseRepository quizExerciseRepository;
 
+    private final QuizSubmissionBuffer submissionBuffer;
+
     public QuizScheduleService(SimpMessageSendingOperations messagingTemplate, StudentParticipationRepository studentParticipationRepository, UserRepository userRepository,
             QuizSubmissionRepository quizSubmissionRepository, HazelcastInstance hazelcastInstance, QuizExerciseRepository quizExerciseRepository,
             QuizMessagingService quizMessagingService, QuizStatisticService quizStatisticService) {
@@ -84,6 +89,7 @@ public class QuizScheduleService {
         this.scheduledProcessQuizSubmissions = hazelcastInstance.getCPSubsystem().getAtomicReference(HAZELCAST_PROCESS_CACHE_HANDLER);
         this.threadPoolTaskScheduler = hazelcastInstance.getScheduledExecutorService(Constants.HAZELCAST_QUIZ_SCHEDULER);
         this.quizCache = new QuizCache(hazelcastInstance);
+        this.submissionBuffer = new QuizSubmissionBuffer(hazelcastInstance, this::saveEncodedSubmissions);
     }
 
     /**
@@ -95,6 +101,18 @@ public class QuizScheduleService {
         QuizCache.configureHazelcast(config);
         // Pool size default 16, increased capacity (as we could have many quizzes) and default durability for now
         config.getScheduledExecutorConfig(Constants.HAZELCAST_QUIZ_SCHEDULER).setPoolSize(16).setCapacity(1000).setDurability(1);
+        // Saving the forwarded submission batches only involves local cache operations, so few threads are sufficient
+        config.getExecutorConfig(Constants.HAZELCAST_QUIZ_SUBMISSION_EXECUTOR).setPoolSize(4);
+        // Flushing the buffers mostly waits for the saves of the batches, so few threads are sufficient as well
+        config.getExecutorConfig(Constants.HAZELCAST_QUIZ_SUBMISSION_FLUSH_EXECUTOR).setPoolSize(2);
+    }
+
+    /**
+     * Forward the buffered submissions of this node before it shuts down
+     */
+    @PreDestroy
+    public void shutdown() {
+        submissionBuffer.shutdown();
     }
 
     @EventListener(ApplicationReadyEvent.class)
@@ -113,10 +131,77 @@ public class QuizScheduleService {
      */
     public void updateSubmission(Long quizExerciseId, String username, QuizSubmission quizSubmission) {
         if (quizSubmission != null && quizExerciseId != null && username != null) {
+            // a buffered submission is outdated now and must not overwrite this one
+            submissionBuffer.remove(quizExerciseId, username);
             ((QuizExerciseCache) quizCache.getTransientWriteCacheFor(quizExerciseId)).getSubmissions().put(username, quizSubmission);
         }
     }
 
+    /**
+     * Buffer a saved (but not yet submitted) quizSubmission on this node, it is forwarded to the submissionHashMap together with the other buffered submissions
+     * (see {@link QuizSubmissionBuffer}). A buffered submission never overwrites a submitted one.
+     *
+     * @param quizExerciseId the quizExerciseId of the quiz the submission belongs to (first Key)
+     * @param username       the username of the user, who saved the submission (second Key)
+     * @param quizSubmission the quizSubmission, which should be added (Value)
+     */
+    public void bufferSubmission(Long quizExerciseId, String username, QuizSubmission quizSubmission) {
+        if (quizSubmission != null && quizExerciseId != null && username != null) {
+            submissionBuffer.add(quizExerciseId, username, quizSubmission);
+        }
+    }
+
+    /**
+     * Save a batch of buffered quizSubmissions into the submissionHashMap, unless the user has submitted in the meantime.
+     * This is invoked on the node that owns the entries, so that the map operations are local.
+     *
+     * @param quizExerciseId     the quizExerciseId of the quiz the submissions belong to (first Key)
+     * @param encodedSubmissions the submissions encoded with the {@link QuizSubmissionCodec} by username (second Key)
+     */
+    public void saveEncodedSubmissions(Long quizExerciseId, Map<String, byte[]> encodedSubmissions) {
+        Map<String, QuizSubmission> submissions = ((QuizExerciseCache) quizCache.getTransientWriteCacheFor(quizExerciseId)).getSubmissions();
+        if (submissions instanceof IMap<String, QuizSubmission> distributedSubmissions) {
+            encodedSubmissions.forEach((username, encodedSubmission) -> distributedSubmissions.executeOnKey(username, new SaveUnlessSubmittedEntryProcessor(encodedSubmission)));
+            return;
+        }
+        encodedSubmissions.forEach((username, encodedSubmission) -> {
+            QuizSubmission cachedSubmission = submissions.get(username);
+            if (cachedSubmission == null || !cachedSubmission.isSubmitted()) {
+                submissions.put(username, QuizSubmissionCodec.decode(encodedSubmission));
+            }
+        });
+    }
+
+    /**
+     * Forward the submissions buffered on this node to the submissionHashMap and wait until they are saved, see {@link QuizSubmissionFlushTask}
+     *
+     * @param quizExerciseId the id of the quiz exercise or null for all quiz exercises
+     */
+    void flushLocalSubmissionBuffer(@Nullable Long quizExerciseId) {
+        if (quizExerciseId != null) {
+            submissionBuffer.flush(quizExerciseId);
+        }
+        else {
+            submissionBuffer.flushAll();
+        }
+    }
+
+    /**
+     * Saves an encoded submission into the submissionHashMap unless the cached submission has already been submitted.
+     * Only the compact encoded submission is sent to the backups.
+     */
+    private record SaveUnlessSubmittedEntryProcessor(byte[] encodedSubmission) implements EntryProcessor<String, QuizSubmission, Void> {
+
+        @Override
+        public Void process(Map.Entry<String, QuizSubmission> entry) {
+            QuizSubmission cachedSubmission = entry.getValue();
+            if (cachedSubmission == null || !cachedSubmission.isSubmitted()) {
+                entry.setValue(QuizSubmissionCodec.decode(encodedSubmission));
+            }
+            return null;
+        }
+    }
+
     /**
      * add a result to resultHashMap for a statistic-update
      * this should only be invoked once, when the quiz was submitted
@@ -155,7 +240,10 @@ public class QuizScheduleService {
         if (quizExerciseId == null || username == null) {
             return null;
         }
-        QuizSubmission quizSubmission = ((QuizExerciseCache) quizCache.getReadCacheFor(quizExerciseId)).getSubmissions().get(username);
+        QuizSubmission quizSubmission = submissionBuffer.get(quizExerciseId, username);
+        if (quizSubmission == null) {
+            quizSubmission = ((QuizExerciseCache) quizCache.getReadCacheFor(quizExerciseId)).getSubmissions().get(username);
+        }
         if (quizSubmission != null) {
             return quizSubmission;
         }
@@ -217,6 +305,11 @@ public class QuizScheduleService {
      * @return if processing of the quiz has finished
      */
     public boolean finishedProcessing(Long quizExerciseId) {
+        if (!((QuizExerciseCache) quizCache.getReadCacheFor(quizExerciseId)).getSubmissions().isEmpty()) {
+            return false;
+        }
+        // the submissions buffered on the nodes are not part of the cache yet
+        submissionBuffer.flushOnAllMembers(quizExerciseId);
         return ((QuizExerciseCache) quizCache.getReadCacheFor(quizExerciseId)).getSubmissions().isEmpty();
     }
 
@@ -383,6 +476,7 @@ public class QuizScheduleService {
      * This will cause cached submissions, participations and results to be lost!
      */
     public void clearAllQuizData() {
+        submissionBuffer.clear();
         quizCache.clear();
     }
 
@@ -394,6 +488,7 @@ public class QuizScheduleService {
      * @param quizExerciseId refers to one specific quiz exercise for which the data should be cleared
      */
     public void clearQuizData(Long quizExerciseId) {
+        submissionBuffer.clear(quizExerciseId);
         quizCache.removeAndClear(quizExerciseId);
     }
 
@@ -414,6 +509,8 @@ public class QuizScheduleService {
         log.debug("Process cached quiz submissions");
         // global try-catch for error logging
         try {
+            // make sure that the submissions saved on all nodes are part of the cache, otherwise ended batches would be processed without the latest saves
+            submissionBuffer.flushOnAllMembers(null);
             for (Cache cache : quizCache.getAllCaches()) {
                 QuizExerciseCache cachedQuiz = (QuizExerciseCache) cache;
                 // this way near cache is used (values will deserialize new objects)
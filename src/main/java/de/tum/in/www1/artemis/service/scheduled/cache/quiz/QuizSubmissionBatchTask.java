@@ -0,0 +1,39 @@
+package de.tum.in.www1.artemis.service.scheduled.cache.quiz;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.HashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.hazelcast.spring.context.SpringAware;
+
+/**
+ * Task to save a batch of encoded quiz submissions on the node that owns their cache entries, see {@link QuizSubmissionBuffer}
+ */
+@SpringAware
+final class QuizSubmissionBatchTask implements Runnable, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    final Long quizExerciseId;
+
+    /**
+     * Make sure this is a {@link HashMap} to make easy serialization possible
+     */
+    final HashMap<String, byte[]> encodedSubmissions;
+
+    @Autowired // ok
+    transient QuizScheduleService quizScheduleService;
+
+    QuizSubmissionBatchTask(Long quizExerciseId, HashMap<String, byte[]> encodedSubmissions) {
+        this.quizExerciseId = quizExerciseId;
+        this.encodedSubmissions = encodedSubmissions;
+    }
+
+    @Override
+    public void run() {
+        quizScheduleService.saveEncodedSubmissions(quizExerciseId, encodedSubmissions);
+    }
+}
@@ -0,0 +1,175 @@
+package de.tum.in.www1.artemis.service.scheduled.cache.quiz;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IExecutorService;
+import com.hazelcast.partition.Partition;
+
+import de.tum.in.www1.artemis.config.Constants;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+
+/**
+ * Buffers the saved (but not yet submitted) quiz submissions on this node and forwards them in batches to the nodes that own the corresponding cache entries.
+ * <p>
+ * While a live quiz is running, every student saves the current state of the submission whenever an answer changes. Instead of writing each of these submissions
+ * (including the whole object graph) into the distributed cache, only the latest submission of each student is kept for {@link #FLUSH_INTERVAL_MILLIS} and then sent in
+ * the compact form of the {@link QuizSubmissionCodec}, with one {@link QuizSubmissionBatchTask} per owner of the cache entries.
+ * <p>
+ * Before the submissions of a quiz are processed, the buffers of all nodes are flushed with a {@link QuizSubmissionFlushTask}, so that no saved submission is missed.
+ */
+final class QuizSubmissionBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizSubmissionBuffer.class);
+
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    private static final long FLUSH_TIMEOUT_SECONDS = 10;
+
+    /**
+     * The pending submissions by username by quiz exercise id, only modified within the atomic operations of the outer map
+     */
+    private final Map<Long, Map<String, QuizSubmission>> pendingSubmissions = new ConcurrentHashMap<>();
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final IExecutorService executorService;
+
+    private final IExecutorService flushExecutorService;
+
+    /**
+     * Saves the encoded submissions of a quiz exercise on this node, used for the submissions owned by this node and as fallback
+     */
+    private final BiConsumer<Long, HashMap<String, byte[]>> localSave;
+
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    QuizSubmissionBuffer(HazelcastInstance hazelcastInstance, BiConsumer<Long, HashMap<String, byte[]>> localSave) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.executorService = hazelcastInstance.getExecutorService(Constants.HAZELCAST_QUIZ_SUBMISSION_EXECUTOR);
+        // the flush tasks wait for the batch tasks, so they use a separate executor to never block the threads the batch tasks need
+        this.flushExecutorService = hazelcastInstance.getExecutorService(Constants.HAZELCAST_QUIZ_SUBMISSION_FLUSH_EXECUTOR);
+        this.localSave = localSave;
+        flushExecutor.scheduleWithFixedDelay(this::flushAll, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    void add(Long quizExerciseId, String username, QuizSubmission quizSubmission) {
+        pendingSubmissions.compute(quizExerciseId, (id, submissions) -> {
+            Map<String, QuizSubmission> updatedSubmissions = submissions != null ? submissions : new ConcurrentHashMap<>();
+            updatedSubmissions.put(username, quizSubmission);
+            return updatedSubmissions;
+        });
+    }
+
+    QuizSubmission get(Long quizExerciseId, String username) {
+        Map<String, QuizSubmission> submissions = pendingSubmissions.get(quizExerciseId);
+        return submissions != null ? submissions.get(username) : null;
+    }
+
+    void remove(Long quizExerciseId, String username) {
+        pendingSubmissions.computeIfPresent(quizExerciseId, (id, submissions) -> {
+            submissions.remove(username);
+            return submissions.isEmpty() ? null : submissions;
+        });
+    }
+
+    void clear(Long quizExerciseId) {
+        pendingSubmissions.remove(quizExerciseId);
+    }
+
+    void clear() {
+        pendingSubmissions.clear();
+    }
+
+    /**
+     * Forwards the pending submissions of all quiz exercises and waits until they are saved
+     */
+    void flushAll() {
+        for (Long quizExerciseId : pendingSubmissions.keySet()) {
+            try {
+                flush(quizExerciseId);
+            }
+            catch (Exception e) {
+                log.error("Could not forward buffered submissions of quiz {}", quizExerciseId, e);
+            }
+        }
+    }
+
+    /**
+     * Forwards the pending submissions of a quiz exercise on all nodes of the cluster and waits until they are saved. Otherwise, the submissions buffered on other nodes
+     * are only saved up to {@link #FLUSH_INTERVAL_MILLIS} later, e.g. after the submissions of an ended batch have been processed.
+     *
+     * @param quizExerciseId the id of the quiz exercise or null to forward the pending submissions of all quiz exercises
+     */
+    void flushOnAllMembers(@Nullable Long quizExerciseId) {
+        Map<Member, Future<Void>> flushes = flushExecutorService.submitToAllMembers(new QuizSubmissionFlushTask(quizExerciseId));
+        flushes.forEach((member, future) -> {
+            try {
+                future.get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException | TimeoutException e) {
+                log.warn("Could not flush the buffered submissions of quiz {} on {}", quizExerciseId, member, e);
+            }
+        });
+    }
+
+    /**
+     * Forwards the pending submissions of a quiz exercise and waits until they are saved.
+     * This is synchronized, so that an older batch of a student can never overtake a newer one.
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     */
+    synchronized void flush(Long quizExerciseId) {
+        Map<String, QuizSubmission> submissions = pendingSubmissions.remove(quizExerciseId);
+        if (submissions == null || submissions.isEmpty()) {
+            return;
+        }
+        Member localMember = hazelcastInstance.getCluster().getLocalMember();
+        Map<Member, HashMap<String, byte[]>> batches = new HashMap<>();
+        submissions.forEach((username, submission) -> {
+            Partition partition = hazelcastInstance.getPartitionService().getPartition(username);
+            // the owner can be unknown during a migration, in this case the submission is saved from this node
+            Member owner = partition.getOwner() != null ? partition.getOwner() : localMember;
+            batches.computeIfAbsent(owner, member -> new HashMap<>()).put(username, QuizSubmissionCodec.encode(submission));
+        });
+
+        Map<Member, Future<?>> remoteSaves = new HashMap<>();
+        batches.forEach((member, batch) -> {
+            if (!member.equals(localMember)) {
+                remoteSaves.put(member, executorService.submitToMember(new QuizSubmissionBatchTask(quizExerciseId, batch), member));
+            }
+        });
+        if (batches.containsKey(localMember)) {
+            localSave.accept(quizExerciseId, batches.get(localMember));
+        }
+        remoteSaves.forEach((member, future) -> {
+            try {
+                future.get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException | TimeoutException e) {
+                // saving the same submissions twice does not harm, so we save them from this node instead
+                log.warn("Could not forward {} submissions of quiz {} to {}, saving them from this node", batches.get(member).size(), quizExerciseId, member, e);
+                localSave.accept(quizExerciseId, batches.get(member));
+            }
+        });
+    }
+
+    void shutdown() {
+        flushExecutor.shutdown();
+        flushAll();
+    }
+}
@@ -0,0 +1,198 @@
+package de.tum.in.www1.artemis.service.scheduled.cache.quiz;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import de.tum.in.www1.artemis.domain.DomainObject;
+import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
+import de.tum.in.www1.artemis.domain.quiz.*;
+
+/**
+ * Encodes a quiz submission of a student in a compact binary form, so that it can be forwarded between the nodes without serializing the whole object graph.
+ * <p>
+ * Only the state that a student can change is encoded: the referenced questions, answer options, drag items, drop locations and spots are represented by their ids only
+ * (the same way as they are used for the evaluation and when saving the submission). The encoded form contains the following:
+ * <ol>
+ * <li>the id, submitted flag, type, submission date and batch of the submission</li>
+ * <li>for each submitted answer: its kind, id and question id, followed by the ids of the selected options, the ids of the mapped drag items and drop locations or the spot ids
+ * and texts</li>
+ * </ol>
+ */
+final class QuizSubmissionCodec {
+
+    private static final byte MULTIPLE_CHOICE = 1;
+
+    private static final byte DRAG_AND_DROP = 2;
+
+    private static final byte SHORT_ANSWER = 3;
+
+    private QuizSubmissionCodec() {
+    }
+
+    /**
+     * Encodes the submission and its submitted answers
+     *
+     * @param submission the submission to encode
+     * @return the encoded submission
+     */
+    static byte[] encode(QuizSubmission submission) {
+        var bytes = new ByteArrayOutputStream(64 + 32 * submission.getSubmittedAnswers().size());
+        try (var out = new DataOutputStream(bytes)) {
+            writeId(out, submission.getId());
+            out.writeBoolean(Boolean.TRUE.equals(submission.isSubmitted()));
+            out.writeByte(submission.getType() == null ? -1 : submission.getType().ordinal());
+            out.writeLong(submission.getSubmissionDate() == null ? Long.MIN_VALUE : submission.getSubmissionDate().toInstant().toEpochMilli());
+            writeId(out, submission.getQuizBatch());
+            out.writeInt(submission.getSubmittedAnswers().size());
+            for (SubmittedAnswer submittedAnswer : submission.getSubmittedAnswers()) {
+                writeSubmittedAnswer(out, submittedAnswer);
+            }
+        }
+        catch (IOException e) {
+            // cannot happen when writing to a byte array
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a submission, the submitted answers reference the submission
+     *
+     * @param encodedSubmission the submission encoded with {@link #encode(QuizSubmission)}
+     * @return the decoded submission
+     */
+    static QuizSubmission decode(byte[] encodedSubmission) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(encodedSubmission))) {
+            var submission = new QuizSubmission();
+            submission.setId(readId(in));
+            submission.setSubmitted(in.readBoolean());
+            byte type = in.readByte();
+            submission.setType(type < 0 ? null : SubmissionType.values()[type]);
+            long submissionDate = in.readLong();
+            submission.setSubmissionDate(submissionDate == Long.MIN_VALUE ? null : ZonedDateTime.ofInstant(Instant.ofEpochMilli(submissionDate), ZoneId.systemDefault()));
+            submission.setQuizBatch(readId(in));
+            int numberOfSubmittedAnswers = in.readInt();
+            for (int i = 0; i < numberOfSubmittedAnswers; i++) {
+                SubmittedAnswer submittedAnswer = readSubmittedAnswer(in);
+                submittedAnswer.setSubmission(submission);
+                submission.addSubmittedAnswers(submittedAnswer);
+            }
+            return submission;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not decode quiz submission", e);
+        }
+    }
+
+    private static void writeSubmittedAnswer(DataOutputStream out, SubmittedAnswer submittedAnswer) throws IOException {
+        if (submittedAnswer instanceof MultipleChoiceSubmittedAnswer multipleChoiceSubmittedAnswer) {
+            writeSubmittedAnswerHeader(out, MULTIPLE_CHOICE, submittedAnswer);
+            out.writeInt(multipleChoiceSubmittedAnswer.getSelectedOptions().size());
+            for (AnswerOption answerOption : multipleChoiceSubmittedAnswer.getSelectedOptions()) {
+                writeId(out, answerOption.getId());
+            }
+        }
+        else if (submittedAnswer instanceof DragAndDropSubmittedAnswer dragAndDropSubmittedAnswer) {
+            writeSubmittedAnswerHeader(out, DRAG_AND_DROP, submittedAnswer);
+            out.writeInt(dragAndDropSubmittedAnswer.getMappings().size());
+            for (DragAndDropMapping mapping : dragAndDropSubmittedAnswer.getMappings()) {
+                writeId(out, mapping.getDragItem() == null ? null : mapping.getDragItem().getId());
+                writeId(out, mapping.getDropLocation() == null ? null : mapping.getDropLocation().getId());
+            }
+        }
+        else if (submittedAnswer instanceof ShortAnswerSubmittedAnswer shortAnswerSubmittedAnswer) {
+            writeSubmittedAnswerHeader(out, SHORT_ANSWER, submittedAnswer);
+            out.writeInt(shortAnswerSubmittedAnswer.getSubmittedTexts().size());
+            for (ShortAnswerSubmittedText submittedText : shortAnswerSubmittedAnswer.getSubmittedTexts()) {
+                writeId(out, submittedText.getSpot() == null ? null : submittedText.getSpot().getId());
+                writeText(out, submittedText.getText());
+            }
+        }
+        else {
+            throw new IllegalArgumentException("Unknown submitted answer type " + submittedAnswer.getClass().getSimpleName());
+        }
+    }
+
+    private static void writeSubmittedAnswerHeader(DataOutputStream out, byte kind, SubmittedAnswer submittedAnswer) throws IOException {
+        out.writeByte(kind);
+        writeId(out, submittedAnswer.getId());
+        writeId(out, submittedAnswer.getQuizQuestion() == null ? null : submittedAnswer.getQuizQuestion().getId());
+    }
+
+    private static SubmittedAnswer readSubmittedAnswer(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        Long id = readId(in);
+        Long questionId = readId(in);
+        int size = in.readInt();
+        SubmittedAnswer submittedAnswer;
+        switch (kind) {
+            case MULTIPLE_CHOICE -> {
+                var multipleChoiceSubmittedAnswer = new MultipleChoiceSubmittedAnswer();
+                multipleChoiceSubmittedAnswer.setQuizQuestion(withId(new MultipleChoiceQuestion(), questionId));
+                for (int i = 0; i < size; i++) {
+                    multipleChoiceSubmittedAnswer.addSelectedOptions(withId(new AnswerOption(), readId(in)));
+                }
+                submittedAnswer = multipleChoiceSubmittedAnswer;
+            }
+            case DRAG_AND_DROP -> {
+                var dragAndDropSubmittedAnswer = new DragAndDropSubmittedAnswer();
+                dragAndDropSubmittedAnswer.setQuizQuestion(withId(new DragAndDropQuestion(), questionId));
+                for (int i = 0; i < size; i++) {
+                    Long dragItemId = readId(in);
+                    Long dropLocationId = readId(in);
+                    var mapping = new DragAndDropMapping().dragItem(dragItemId == null ? null : withId(new DragItem(), dragItemId))
+                            .dropLocation(dropLocationId == null ? null : withId(new DropLocation(), dropLocationId));
+                    dragAndDropSubmittedAnswer.addMappings(mapping);
+                }
+                submittedAnswer = dragAndDropSubmittedAnswer;
+            }
+            case SHORT_ANSWER -> {
+                var shortAnswerSubmittedAnswer = new ShortAnswerSubmittedAnswer();
+                shortAnswerSubmittedAnswer.setQuizQuestion(withId(new ShortAnswerQuestion(), questionId));
+                for (int i = 0; i < size; i++) {
+                    Long spotId = readId(in);
+                    var submittedText = new ShortAnswerSubmittedText();
+                    submittedText.setSpot(spotId == null ? null : withId(new ShortAnswerSpot(), spotId));
+                    submittedText.setText(readText(in));
+                    shortAnswerSubmittedAnswer.addSubmittedTexts(submittedText);
+                }
+                submittedAnswer = shortAnswerSubmittedAnswer;
+            }
+            default -> throw new IOException("Unknown submitted answer kind " + kind);
+        }
+        submittedAnswer.setId(id);
+        return submittedAnswer;
+    }
+
+    private static <T extends DomainObject> T withId(T domainObject, Long id) {
+        domainObject.setId(id);
+        return domainObject;
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeId(DataOutputStream out, Long id) throws IOException {
+        out.writeLong(id == null ? -1 : id);
+    }
+
+    private static Long readId(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        return id < 0 ? null : id;
+    }
+}
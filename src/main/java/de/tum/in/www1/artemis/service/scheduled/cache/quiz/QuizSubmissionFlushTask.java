@@ -0,0 +1,37 @@
+package de.tum.in.www1.artemis.service.scheduled.cache.quiz;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.hazelcast.spring.context.SpringAware;
+
+/**
+ * Task to forward the buffered submissions of a node and to wait until they are saved, see {@link QuizSubmissionBuffer#flushOnAllMembers(Long)}
+ */
+@SpringAware
+final class QuizSubmissionFlushTask implements Callable<Void>, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The id of the quiz exercise or null for all quiz exercises
+     */
+    final Long quizExerciseId;
+
+    @Autowired // ok
+    transient QuizScheduleService quizScheduleService;
+
+    QuizSubmissionFlushTask(Long quizExerciseId) {
+        this.quizExerciseId = quizExerciseId;
+    }
+
+    @Override
+    public Void call() {
+        quizScheduleService.flushLocalSubmissionBuffer(quizExerciseId);
+        return null;
+    }
+}
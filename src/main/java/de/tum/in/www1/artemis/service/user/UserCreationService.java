@@ -27,6 +27,7 @@ import de.tum.in.www1.artemis.repository.AuthorityRepository;
 import de.tum.in.www1.artemis.repository.CourseRepository;
 import de.tum.in.www1.artemis.repository.OrganizationRepository;
 import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.security.RequestScopedUserCache;
 import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.connectors.ci.CIUserManagementService;
 import de.tum.in.www1.artemis.service.connectors.vcs.VcsUserManagementService;
@@ -301,6 +302,7 @@ public class UserCreationService {
         if (userCache != null) {
             userCache.evict(user.getLogin());
         }
+        RequestScopedUserCache.evict(user.getLogin());
     }
 
     /**
@@ -7,11 +7,10 @@ import static de.tum.in.www1.artemis.security.Role.STUDENT;
 
 import java.time.Instant;
 import java.time.ZonedDateTime;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +39,7 @@ import de.tum.in.www1.artemis.repository.metis.conversation.OneToOneChatReposito
 import de.tum.in.www1.artemis.repository.tutorialgroups.TutorialGroupRegistrationRepository;
 import de.tum.in.www1.artemis.repository.tutorialgroups.TutorialGroupRepository;
 import de.tum.in.www1.artemis.security.ArtemisAuthenticationProvider;
+import de.tum.in.www1.artemis.security.RequestScopedUserCache;
 import de.tum.in.www1.artemis.security.Role;
 import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.connectors.ci.CIUserManagementService;
@@ -383,46 +383,33 @@ public class UserService {
     }
 
     /**
-     * Searches the (optional) LDAP service for a user with the give registration number (= Matrikelnummer) and returns a new Artemis user.
-     * Also creates the user in the external user management (e.g. JIRA), in case this is activated
-     * Note: this method should only be used if the user does not yet exist in the database
+     * Returns a new Artemis user for the given LDAP user. Also creates the user in the external user management (e.g. JIRA), in case this is activated
+     * Note: this method should only be used if no user with the registration number exists in the database
      *
+     * @param ldapUser           the user found in the LDAP
      * @param registrationNumber the matriculation number of the student
-     * @return a new user or null if the LDAP user was not found
+     * @return a new user or the existing user with the login of the LDAP user
      */
-    public Optional<User> createUserFromLdap(String registrationNumber) {
-        if (!StringUtils.hasText(registrationNumber)) {
-            return Optional.empty();
+    private User createUserFromLdap(LdapUserDto ldapUser, String registrationNumber) {
+        log.info("Ldap User {} has registration number: {}", ldapUser.getUsername(), ldapUser.getRegistrationNumber());
+
+        // handle edge case, the user already exists in Artemis, but for some reason does not have a registration number or it is wrong
+        if (StringUtils.hasText(ldapUser.getUsername())) {
+            var existingUser = userRepository.findOneByLogin(ldapUser.getUsername());
+            if (existingUser.isPresent()) {
+                existingUser.get().setRegistrationNumber(ldapUser.getRegistrationNumber());
+                saveUser(existingUser.get());
+                return existingUser.get();
+            }
         }
-        if (ldapUserService.isPresent()) {
-            Optional<LdapUserDto> ldapUserOptional = ldapUserService.get().findByRegistrationNumber(registrationNumber);
-            if (ldapUserOptional.isPresent()) {
-                LdapUserDto ldapUser = ldapUserOptional.get();
-                log.info("Ldap User {} has registration number: {}", ldapUser.getUsername(), ldapUser.getRegistrationNumber());
-
-                // handle edge case, the user already exists in Artemis, but for some reason does not have a registration number or it is wrong
-                if (StringUtils.hasText(ldapUser.getUsername())) {
-                    var existingUser = userRepository.findOneByLogin(ldapUser.getUsername());
-                    if (existingUser.isPresent()) {
-                        existingUser.get().setRegistrationNumber(ldapUser.getRegistrationNumber());
-                        saveUser(existingUser.get());
-                        return existingUser;
-                    }
-                }
 
-                // Use empty password, so that we don't store the credentials of Jira users in the Artemis DB
-                User user = userCreationService.createUser(ldapUser.getUsername(), "", null, ldapUser.getFirstName(), ldapUser.getLastName(), ldapUser.getEmail(),
-                        registrationNumber, null, "en", false);
-                if (useExternalUserManagement) {
-                    artemisAuthenticationProvider.createUserInExternalUserManagement(user);
-                }
-                return Optional.of(user);
-            }
-            else {
-                log.warn("Ldap User with registration number {} not found", registrationNumber);
-            }
+        // Use empty password, so that we don't store the credentials of Jira users in the Artemis DB
+        User user = userCreationService.createUser(ldapUser.getUsername(), "", null, ldapUser.getFirstName(), ldapUser.getLastName(), ldapUser.getEmail(), registrationNumber,
+                null, "en", false);
+        if (useExternalUserManagement) {
+            artemisAuthenticationProvider.createUserInExternalUserManagement(user);
         }
-        return Optional.empty();
+        return user;
     }
 
     /**
@@ -601,6 +588,7 @@ public class UserService {
         if (userCache != null) {
             userCache.evict(user.getLogin());
         }
+        RequestScopedUserCache.evict(user.getLogin());
     }
 
     /**
@@ -729,10 +717,11 @@ public class UserService {
     }
 
     /**
-     * This method first tries to find the student in the internal Artemis user database (because the user is most probably already using Artemis).
-     * In case the user cannot be found, we additionally search the (TUM) LDAP in case it is configured properly.
+     * This method first tries to find the students in the internal Artemis user database (because the users are most probably already using Artemis).
+     * In case a user cannot be found, we additionally search the (TUM) LDAP in case it is configured properly.
+     * All rows are resolved with a few set-based queries and (batched) LDAP searches before the users are added to the course group one by one.
      *
-     * Steps:
+     * Steps for each row:
      *
      * 1) we use the registration number and try to find the student in the Artemis user database
      * 2) if we cannot find the student, we use the registration number and try to find the student in the (TUM) LDAP, create it in the Artemis DB and in a potential external user
@@ -740,41 +729,119 @@ public class UserService {
      * 3) if we cannot find the user in the (TUM) LDAP or the registration number was not set properly, try again using the login
      * 4) if we still cannot find the user, we try again using the email
      *
-     * @param registrationNumber the registration number of the user
-     * @param courseGroupName    the courseGroup the user has to be added to
-     * @param courseGroupRole    the courseGroupRole enum
-     * @param login              the login of the user
-     * @param email              the email of the user
-     * @return the found student, otherwise returns an empty optional
+     * @param rows                 the rows (e.g. of an uploaded CSV file) identifying the users
+     * @param registrationNumberOf extracts the registration number of the user from a row
+     * @param loginOf              extracts the login of the user from a row
+     * @param emailOf              extracts the email of the user from a row
+     * @param courseGroupName      the courseGroup the users have to be added to
+     * @param courseGroupRole      the courseGroupRole enum
+     * @param <T>                  the type of the rows
+     * @return the found student for each row (in the same order as the rows), an empty optional if the student of the row could not be found
      */
-    public Optional<User> findUserAndAddToCourse(String registrationNumber, String courseGroupName, Role courseGroupRole, String login, String email) {
-        try {
-            var optionalStudent = userRepository.findUserWithGroupsAndAuthoritiesByRegistrationNumber(registrationNumber);
-            if (optionalStudent.isPresent()) {
-                var student = optionalStudent.get();
-                // we only need to add the student to the course group, if the student is not yet part of it, otherwise the student cannot access the
-                // course
-                if (!student.getGroups().contains(courseGroupName)) {
-                    this.addUserToGroup(student, courseGroupName, courseGroupRole);
+    public <T> List<Optional<User>> findUsersAndAddToCourse(List<T> rows, Function<T, String> registrationNumberOf, Function<T, String> loginOf, Function<T, String> emailOf,
+            String courseGroupName, Role courseGroupRole) {
+        // the same user might be found with different queries, we use only one instance per user so that group changes are visible for all rows
+        // all values are compared in lower case, like the lookup of a single user with the case-insensitive collation of the database
+        // the queries compare the plain columns, so that their indexes are used
+        Map<Long, User> usersById = new HashMap<>();
+        Map<String, User> usersByRegistrationNumber = new HashMap<>();
+        findUsers(collectTexts(rows, registrationNumberOf), userRepository::findAllWithGroupsAndAuthoritiesByRegistrationNumberIn)
+                .forEach(user -> usersByRegistrationNumber.put(toLowerCase(user.getRegistrationNumber()), usersById.computeIfAbsent(user.getId(), id -> user)));
+        Map<String, User> usersByLogin = new HashMap<>();
+        findUsers(collectTexts(rows, loginOf), userRepository::findAllWithGroupsAndAuthoritiesByLoginIn)
+                .forEach(user -> usersByLogin.put(toLowerCase(user.getLogin()), usersById.computeIfAbsent(user.getId(), id -> user)));
+        Map<String, User> usersByEmail = new HashMap<>();
+        findUsers(collectTexts(rows, emailOf), userRepository::findAllWithGroupsAndAuthoritiesByEmailIn)
+                .forEach(user -> usersByEmail.put(toLowerCase(user.getEmail()), usersById.computeIfAbsent(user.getId(), id -> user)));
+        // the LDAP is searched with the registration numbers as given in the rows
+        List<String> unknownRegistrationNumbers = rows.stream().map(registrationNumberOf).filter(StringUtils::hasText)
+                .filter(registrationNumber -> !usersByRegistrationNumber.containsKey(toLowerCase(registrationNumber))).distinct().toList();
+        Map<String, LdapUserDto> ldapUsersByRegistrationNumber = findLdapUsersByRegistrationNumbers(unknownRegistrationNumbers);
+
+        List<Optional<User>> foundUsers = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            var registrationNumber = registrationNumberOf.apply(row);
+            var login = toLowerCase(loginOf.apply(row));
+            var email = toLowerCase(emailOf.apply(row));
+            Optional<User> optionalStudent = Optional.empty();
+            try {
+                var student = StringUtils.hasText(registrationNumber) ? usersByRegistrationNumber.get(toLowerCase(registrationNumber)) : null;
+                if (student != null) {
+                    // we only need to add the student to the course group, if the student is not yet part of it, otherwise the student cannot access the
+                    // course
+                    if (!student.getGroups().contains(courseGroupName)) {
+                        this.addUserToGroup(student, courseGroupName, courseGroupRole);
+                    }
+                    optionalStudent = Optional.of(student);
                 }
-                return optionalStudent;
-            }
+                else {
+                    if (StringUtils.hasText(registrationNumber) && ldapUsersByRegistrationNumber.containsKey(toLowerCase(registrationNumber))) {
+                        // the user is created lazily, so that the users are created in the external user management in the order of the rows
+                        student = createUserFromLdap(ldapUsersByRegistrationNumber.remove(toLowerCase(registrationNumber)), registrationNumber);
+                        usersByRegistrationNumber.put(toLowerCase(registrationNumber), student);
+                    }
+                    else if (StringUtils.hasText(login) && usersByLogin.containsKey(login)) {
+                        student = usersByLogin.get(login);
+                    }
+                    else if (StringUtils.hasText(email) && usersByEmail.containsKey(email)) {
+                        student = usersByEmail.get(email);
+                    }
 
-            optionalStudent = userRepository.findUserWithGroupsAndAuthoritiesByRegistrationNumber(registrationNumber).or(() -> (this.createUserFromLdap(registrationNumber)))
-                    .or(() -> (userRepository.findUserWithGroupsAndAuthoritiesByLogin(login))).or(() -> (userRepository.findUserWithGroupsAndAuthoritiesByEmail(email)));
-            if (optionalStudent.isPresent()) {
-                var student = optionalStudent.get();
-                // the newly created user needs to get the rights to access the course
-                this.addUserToGroup(student, courseGroupName, courseGroupRole);
-                return optionalStudent;
+                    if (student != null) {
+                        // the newly created user needs to get the rights to access the course
+                        this.addUserToGroup(student, courseGroupName, courseGroupRole);
+                        optionalStudent = Optional.of(student);
+                    }
+                    else {
+                        log.warn("User with registration number '{}', login '{}' and email '{}' not found in Artemis user database nor found in (TUM) LDAP",
+                                registrationNumber, login, email);
+                    }
+                }
             }
+            catch (Exception ex) {
+                log.warn("Error while processing user with registration number {}", registrationNumber, ex);
+                optionalStudent = Optional.empty();
+            }
+            foundUsers.add(optionalStudent);
+        }
+        return foundUsers;
+    }
+
+    private static Set<User> findUsers(Set<String> values, Function<Set<String>, Set<User>> query) {
+        // avoid queries with an empty IN clause
+        return values.isEmpty() ? Set.of() : query.apply(values);
+    }
+
+    /**
+     * Collects the values of the rows as given and in lower case, so that identifiers stored in lower case are also found on databases with a case-sensitive collation
+     */
+    private static <T> Set<String> collectTexts(List<T> rows, Function<T, String> valueOf) {
+        return rows.stream().map(valueOf).filter(StringUtils::hasText).flatMap(value -> Stream.of(value, toLowerCase(value))).collect(Collectors.toSet());
+    }
+
+    private static String toLowerCase(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
 
-            log.warn("User with registration number '{}', login '{}' and email '{}' not found in Artemis user database nor found in (TUM) LDAP", registrationNumber, login, email);
+    /**
+     * Searches the (optional) LDAP service for the users with the given registration numbers using as few LDAP searches as possible
+     *
+     * @param registrationNumbers the registration numbers of users that do not exist in the Artemis database
+     * @return the found LDAP users by their registration number in lower case, an empty map if the LDAP is not available
+     */
+    private Map<String, LdapUserDto> findLdapUsersByRegistrationNumbers(List<String> registrationNumbers) {
+        Map<String, LdapUserDto> ldapUsersByRegistrationNumber = new HashMap<>();
+        if (registrationNumbers.isEmpty() || ldapUserService.isEmpty()) {
+            return ldapUsersByRegistrationNumber;
+        }
+        try {
+            ldapUserService.get().findAllByRegistrationNumbers(registrationNumbers).stream().filter(ldapUser -> StringUtils.hasText(ldapUser.getRegistrationNumber()))
+                    .forEach(ldapUser -> ldapUsersByRegistrationNumber.putIfAbsent(toLowerCase(ldapUser.getRegistrationNumber()), ldapUser));
         }
         catch (Exception ex) {
-            log.warn("Error while processing user with registration number {}", registrationNumber, ex);
+            log.warn("Error while searching {} registration numbers in the LDAP", registrationNumbers.size(), ex);
         }
-        return Optional.empty();
+        return ldapUsersByRegistrationNumber;
     }
 
     public void updateUserNotificationVisibility(Long userId, ZonedDateTime hideUntil) {
@@ -0,0 +1,142 @@
+package de.tum.in.www1.artemis.service.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A HyperLogLog sketch to estimate the number of distinct values (e.g. user logins) with a fixed amount of memory.
+ * <p>
+ * The sketch uses 2^10 registers, which results in a standard error of about 3%. Small cardinalities are estimated with linear counting and are therefore (almost) exact.
+ * Sketches can be merged without losing precision, which allows combining the sketches of hourly or daily buckets into the sketch of a larger time slot.
+ * The serialized form is sparse as long as only few registers are set, so that sketches of small buckets only take a few bytes.
+ */
+public class HyperLogLog {
+
+    private static final int PRECISION = 10;
+
+    private static final int NUMBER_OF_REGISTERS = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / NUMBER_OF_REGISTERS);
+
+    private static final byte DENSE = 0;
+
+    private static final byte SPARSE = 1;
+
+    private final byte[] registers = new byte[NUMBER_OF_REGISTERS];
+
+    /**
+     * Adds the given value to the sketch
+     *
+     * @param value the value to add, null values are ignored
+     */
+    public void add(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // the position of the first 1-bit in the remaining bits, the bits of the index are shifted out and replaced by a terminating 1-bit
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Merges the given sketch into this sketch, afterwards this sketch estimates the number of distinct values added to any of both sketches
+     *
+     * @param other the sketch to merge into this one
+     */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < NUMBER_OF_REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct values added to this sketch
+     */
+    public long estimate() {
+        double sum = 0;
+        int emptyRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                emptyRegisters++;
+            }
+        }
+        double estimate = ALPHA * NUMBER_OF_REGISTERS * NUMBER_OF_REGISTERS / sum;
+        if (estimate <= 2.5 * NUMBER_OF_REGISTERS && emptyRegisters > 0) {
+            // linear counting is more precise for small cardinalities
+            estimate = NUMBER_OF_REGISTERS * Math.log((double) NUMBER_OF_REGISTERS / emptyRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return the serialized sketch, either sparse (index and value of all set registers) or dense (all registers)
+     */
+    public byte[] toBytes() {
+        int setRegisters = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                setRegisters++;
+            }
+        }
+        if (setRegisters * 3 >= NUMBER_OF_REGISTERS) {
+            byte[] bytes = new byte[NUMBER_OF_REGISTERS + 1];
+            bytes[0] = DENSE;
+            System.arraycopy(registers, 0, bytes, 1, NUMBER_OF_REGISTERS);
+            return bytes;
+        }
+        byte[] bytes = new byte[setRegisters * 3 + 1];
+        bytes[0] = SPARSE;
+        int position = 1;
+        for (int i = 0; i < NUMBER_OF_REGISTERS; i++) {
+            if (registers[i] != 0) {
+                bytes[position++] = (byte) (i >>> 8);
+                bytes[position++] = (byte) i;
+                bytes[position++] = registers[i];
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Deserializes a sketch that has been serialized with {@link #toBytes()}
+     *
+     * @param bytes the serialized sketch, null or empty for an empty sketch
+     * @return the deserialized sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        if (bytes[0] == DENSE) {
+            System.arraycopy(bytes, 1, sketch.registers, 0, NUMBER_OF_REGISTERS);
+        }
+        else {
+            for (int position = 1; position + 2 < bytes.length; position += 3) {
+                int index = ((bytes[position] & 0xFF) << 8) | (bytes[position + 1] & 0xFF);
+                sketch.registers[index] = bytes[position + 2];
+            }
+        }
+        return sketch;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes, followed by the finalizer of SplitMix64 to spread the bits evenly
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
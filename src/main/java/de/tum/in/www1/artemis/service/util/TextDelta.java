@@ -0,0 +1,50 @@
+package de.tum.in.www1.artemis.service.util;
+
+/**
+ * A compact delta between two versions of a text, consisting of the length of the unchanged prefix, the length of the unchanged suffix and the replaced text in between.
+ * <p>
+ * Consecutive versions of text and modeling submissions (auto-saved every few seconds) usually only differ in a small region, so the delta is much smaller than the text.
+ * The delta is encoded as {@code <prefix length>:<suffix length>:<replacement>}.
+ */
+public final class TextDelta {
+
+    private static final char SEPARATOR = ':';
+
+    private TextDelta() {
+    }
+
+    /**
+     * Computes the delta that transforms the given original text into the given new text
+     *
+     * @param original the original text
+     * @param revised  the new text
+     * @return the encoded delta
+     */
+    public static String compute(String original, String revised) {
+        int maxLength = Math.min(original.length(), revised.length());
+        int prefixLength = 0;
+        while (prefixLength < maxLength && original.charAt(prefixLength) == revised.charAt(prefixLength)) {
+            prefixLength++;
+        }
+        int suffixLength = 0;
+        while (suffixLength < maxLength - prefixLength && original.charAt(original.length() - 1 - suffixLength) == revised.charAt(revised.length() - 1 - suffixLength)) {
+            suffixLength++;
+        }
+        return prefixLength + String.valueOf(SEPARATOR) + suffixLength + SEPARATOR + revised.substring(prefixLength, revised.length() - suffixLength);
+    }
+
+    /**
+     * Applies the given delta to the original text
+     *
+     * @param original the original text the delta has been computed for
+     * @param delta    the encoded delta
+     * @return the new text
+     */
+    public static String apply(String original, String delta) {
+        int firstSeparator = delta.indexOf(SEPARATOR);
+        int secondSeparator = delta.indexOf(SEPARATOR, firstSeparator + 1);
+        int prefixLength = Integer.parseInt(delta.substring(0, firstSeparator));
+        int suffixLength = Integer.parseInt(delta.substring(firstSeparator + 1, secondSeparator));
+        return original.substring(0, prefixLength) + delta.substring(secondSeparator + 1) + original.substring(original.length() - suffixLength);
+    }
+}
@@ -0,0 +1,273 @@
+package de.tum.in.www1.artemis.service.util;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * An operation on a text for operational transformation, compatible with the JSON representation of ot.js.
+ * <p>
+ * An operation is a list of components that are applied to the whole text from left to right: a positive number retains (skips) that many characters, a string is inserted
+ * at the current position and a negative number deletes that many characters. Two concurrent operations on the same text can be transformed with
+ * {@link #transform(TextOperation, TextOperation)}, so that applying them in either order leads to the same text.
+ */
+public class TextOperation implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final List<Object> components = new ArrayList<>();
+
+    private int baseLength;
+
+    private int targetLength;
+
+    /**
+     * Creates an operation from its JSON representation, e.g. {@code [5, "inserted", -3, 10]}
+     *
+     * @param components the retain (positive number), insert (string) and delete (negative number) components
+     * @return the operation
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static TextOperation fromJson(List<Object> components) {
+        TextOperation operation = new TextOperation();
+        for (Object component : components) {
+            if (component instanceof String text) {
+                operation.insert(text);
+            }
+            else if (component instanceof Number number && number.intValue() > 0) {
+                operation.retain(number.intValue());
+            }
+            else if (component instanceof Number number && number.intValue() < 0) {
+                operation.delete(-number.intValue());
+            }
+            else {
+                throw new IllegalArgumentException("Invalid text operation component: " + component);
+            }
+        }
+        return operation;
+    }
+
+    @JsonValue
+    public List<Object> getComponents() {
+        return Collections.unmodifiableList(components);
+    }
+
+    /**
+     * @return the length of the text this operation can be applied to
+     */
+    public int getBaseLength() {
+        return baseLength;
+    }
+
+    /**
+     * @return the length of the text after applying this operation
+     */
+    public int getTargetLength() {
+        return targetLength;
+    }
+
+    /**
+     * Skips over the given number of characters
+     *
+     * @param length the number of characters
+     * @return this operation
+     */
+    public TextOperation retain(int length) {
+        if (length == 0) {
+            return this;
+        }
+        baseLength += length;
+        targetLength += length;
+        if (lastComponent(0) instanceof Integer last && last > 0) {
+            components.set(components.size() - 1, last + length);
+        }
+        else {
+            components.add(length);
+        }
+        return this;
+    }
+
+    /**
+     * Inserts the given text at the current position. Inserts directly before a delete are placed in front of it, so that equal operations have equal components.
+     *
+     * @param text the text to insert
+     * @return this operation
+     */
+    public TextOperation insert(String text) {
+        if (text.isEmpty()) {
+            return this;
+        }
+        targetLength += text.length();
+        if (lastComponent(0) instanceof String last) {
+            components.set(components.size() - 1, last + text);
+        }
+        else if (lastComponent(0) instanceof Integer last && last < 0) {
+            if (lastComponent(1) instanceof String secondLast) {
+                components.set(components.size() - 2, secondLast + text);
+            }
+            else {
+                components.set(components.size() - 1, text);
+                components.add(last);
+            }
+        }
+        else {
+            components.add(text);
+        }
+        return this;
+    }
+
+    /**
+     * Deletes the given number of characters at the current position
+     *
+     * @param length the number of characters
+     * @return this operation
+     */
+    public TextOperation delete(int length) {
+        if (length == 0) {
+            return this;
+        }
+        baseLength += length;
+        if (lastComponent(0) instanceof Integer last && last < 0) {
+            components.set(components.size() - 1, last - length);
+        }
+        else {
+            components.add(-length);
+        }
+        return this;
+    }
+
+    /**
+     * @return true if the operation does not change the text
+     */
+    public boolean isNoop() {
+        return components.isEmpty() || (components.size() == 1 && components.get(0) instanceof Integer retain && retain > 0);
+    }
+
+    /**
+     * Applies this operation to the given text
+     *
+     * @param text the text, which must have the base length of this operation
+     * @return the changed text
+     */
+    public String apply(String text) {
+        if (text.length() != baseLength) {
+            throw new IllegalArgumentException("The base length of the operation (" + baseLength + ") does not match the length of the text (" + text.length() + ")");
+        }
+        StringBuilder result = new StringBuilder(targetLength);
+        int index = 0;
+        for (Object component : components) {
+            if (component instanceof String insert) {
+                result.append(insert);
+            }
+            else if ((Integer) component > 0) {
+                result.append(text, index, index + (Integer) component);
+                index += (Integer) component;
+            }
+            else {
+                index -= (Integer) component;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Transforms two concurrent operations a and b on the same text into a' and b', so that applying a and then b' leads to the same text as applying b and then a'.
+     * If both operations insert at the same position, the insert of a is placed first.
+     *
+     * @param a the first operation
+     * @param b the second operation, with the same base length as the first one
+     * @return the transformed operations a' (to be applied after b) and b' (to be applied after a)
+     */
+    public static Tuple<TextOperation, TextOperation> transform(TextOperation a, TextOperation b) {
+        if (a.baseLength != b.baseLength) {
+            throw new IllegalArgumentException("Both operations have to have the same base length");
+        }
+        TextOperation aPrime = new TextOperation();
+        TextOperation bPrime = new TextOperation();
+        int indexA = 0;
+        int indexB = 0;
+        Object componentA = a.component(indexA++);
+        Object componentB = b.component(indexB++);
+        while (componentA != null || componentB != null) {
+            if (componentA instanceof String insert) {
+                aPrime.insert(insert);
+                bPrime.retain(insert.length());
+                componentA = a.component(indexA++);
+                continue;
+            }
+            if (componentB instanceof String insert) {
+                aPrime.retain(insert.length());
+                bPrime.insert(insert);
+                componentB = b.component(indexB++);
+                continue;
+            }
+            if (componentA == null || componentB == null) {
+                throw new IllegalArgumentException("The operations are not compatible");
+            }
+            int lengthA = (Integer) componentA;
+            int lengthB = (Integer) componentB;
+            if (lengthA > 0 && lengthB > 0) {
+                // both retain
+                int length = Math.min(lengthA, lengthB);
+                aPrime.retain(length);
+                bPrime.retain(length);
+                componentA = lengthA > length ? (Object) (lengthA - length) : a.component(indexA++);
+                componentB = lengthB > length ? (Object) (lengthB - length) : b.component(indexB++);
+            }
+            else if (lengthA < 0 && lengthB < 0) {
+                // both delete the same characters, nothing to do for these characters
+                int length = Math.min(-lengthA, -lengthB);
+                componentA = -lengthA > length ? (Object) (lengthA + length) : a.component(indexA++);
+                componentB = -lengthB > length ? (Object) (lengthB + length) : b.component(indexB++);
+            }
+            else if (lengthA < 0) {
+                // a deletes characters that b retains
+                int length = Math.min(-lengthA, lengthB);
+                aPrime.delete(length);
+                componentA = -lengthA > length ? (Object) (lengthA + length) : a.component(indexA++);
+                componentB = lengthB > length ? (Object) (lengthB - length) : b.component(indexB++);
+            }
+            else {
+                // a retains characters that b deletes
+                int length = Math.min(lengthA, -lengthB);
+                bPrime.delete(length);
+                componentA = lengthA > length ? (Object) (lengthA - length) : a.component(indexA++);
+                componentB = -lengthB > length ? (Object) (lengthB + length) : b.component(indexB++);
+            }
+        }
+        return new Tuple<>(aPrime, bPrime);
+    }
+
+    private Object component(int index) {
+        return index >= 0 && index < components.size() ? components.get(index) : null;
+    }
+
+    private Object lastComponent(int offset) {
+        return component(components.size() - 1 - offset);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        return obj instanceof TextOperation other && components.equals(other.components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(components);
+    }
+
+    @Override
+    public String toString() {
+        return "TextOperation" + components;
+    }
+}
@@ -0,0 +1,32 @@
+package de.tum.in.www1.artemis.service.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionUtil {
+
+    private TransactionUtil() {
+        // utility class
+    }
+
+    /**
+     * Runs the action after the current transaction has been committed, or immediately if there is no active transaction. Entity listeners are called when the persistence
+     * context is flushed, which is before the commit, so caches that are invalidated there could be filled again with the old data by concurrent requests.
+     * Note: The action is not run if the transaction is rolled back.
+     *
+     * @param action the action to run, e.g. the invalidation of a cache
+     */
+    public static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
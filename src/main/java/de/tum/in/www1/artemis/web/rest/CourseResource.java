@@ -21,6 +21,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -109,6 +110,8 @@ public class CourseResource {
 
     private final CourseScoreCalculationService courseScoreCalculationService;
 
+    private final CourseDashboardSnapshotService courseDashboardSnapshotService;
+
     @Value("${artemis.course-archives-path}")
     private String courseArchivesDirPath;
 
@@ -119,7 +122,7 @@ public class CourseResource {
             TutorParticipationRepository tutorParticipationRepository, SubmissionService submissionService, Optional<VcsUserManagementService> optionalVcsUserManagementService,
             AssessmentDashboardService assessmentDashboardService, ExerciseRepository exerciseRepository, Optional<CIUserManagementService> optionalCiUserManagementService,
             FileService fileService, TutorialGroupsConfigurationService tutorialGroupsConfigurationService, CourseScoreCalculationService courseScoreCalculationService,
-            GradingScaleService gradingScaleService, ChannelService channelService) {
+            GradingScaleService gradingScaleService, ChannelService channelService, CourseDashboardSnapshotService courseDashboardSnapshotService) {
         this.courseService = courseService;
         this.courseRepository = courseRepository;
         this.exerciseService = exerciseService;
@@ -138,6 +141,7 @@ public class CourseResource {
         this.gradingScaleService = gradingScaleService;
         this.courseScoreCalculationService = courseScoreCalculationService;
         this.channelService = channelService;
+        this.courseDashboardSnapshotService = courseDashboardSnapshotService;
     }
 
     /**
@@ -438,6 +442,9 @@ public class CourseResource {
 
     /**
      * GET /courses/{courseId}/for-dashboard
+     * <p>
+     * The dashboard is served from a snapshot that is invalidated whenever the course or the participations of the user change (see
+     * {@link CourseDashboardSnapshotService}). The response carries an ETag, so that the client receives 304 Not Modified if its copy is still up-to-date.
      *
      * @param courseId the courseId for which exercises, lectures, exams and competencies should be fetched
      * @param refresh  if true, this request was initiated by the user clicking on a refresh button
@@ -447,11 +454,15 @@ public class CourseResource {
     // TODO: we should rename this into courses/{courseId}/details
     @GetMapping("courses/{courseId}/for-dashboard")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<CourseForDashboardDTO> getCourseForDashboard(@PathVariable long courseId, @RequestParam(defaultValue = "false") boolean refresh) {
-        long timeNanoStart = System.nanoTime();
+    public ResponseEntity<byte[]> getCourseForDashboard(@PathVariable long courseId, @RequestParam(defaultValue = "false") boolean refresh) {
         log.debug("REST request to get one course {} with exams, lectures, exercises, participations, submissions and results, etc.", courseId);
         User user = userRepository.getUserWithGroupsAndAuthorities();
+        var snapshot = courseDashboardSnapshotService.getOrCreateSnapshot(courseId, user, refresh, () -> calculateCourseForDashboard(courseId, user, refresh));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(snapshot.etag()).cacheControl(CacheControl.noCache().cachePrivate()).body(snapshot.body());
+    }
 
+    private CourseForDashboardDTO calculateCourseForDashboard(long courseId, User user, boolean refresh) {
+        long timeNanoStart = System.nanoTime();
         Course course = courseService.findOneWithExercisesAndLecturesAndExamsAndCompetenciesAndTutorialGroupsForUser(courseId, user, refresh);
         if (!authCheckService.isAtLeastStudentInCourse(course, user)) {
             // user might be allowed to enroll in the course
@@ -473,7 +484,7 @@ public class CourseResource {
         courseService.fetchPlagiarismCasesForCourseExercises(course.getExercises(), user.getId());
         CourseForDashboardDTO courseForDashboardDTO = courseScoreCalculationService.getScoresAndParticipationResults(course, user.getId());
         logDuration(List.of(course), user, timeNanoStart);
-        return ResponseEntity.ok(courseForDashboardDTO);
+        return courseForDashboardDTO;
     }
 
     /**
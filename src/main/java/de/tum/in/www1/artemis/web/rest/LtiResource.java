@@ -1,6 +1,7 @@
 package de.tum.in.www1.artemis.web.rest;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
 import javax.servlet.http.HttpServletRequest;
@@ -10,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.web.bind.annotation.*;
@@ -20,11 +22,13 @@ import de.tum.in.www1.artemis.domain.Exercise;
 import de.tum.in.www1.artemis.domain.OnlineCourseConfiguration;
 import de.tum.in.www1.artemis.repository.CourseRepository;
 import de.tum.in.www1.artemis.repository.ExerciseRepository;
+import de.tum.in.www1.artemis.repository.LtiScorePassbackRepository;
 import de.tum.in.www1.artemis.security.Role;
 import de.tum.in.www1.artemis.service.AuthorizationCheckService;
 import de.tum.in.www1.artemis.service.connectors.lti.Lti10Service;
 import de.tum.in.www1.artemis.service.connectors.lti.LtiDynamicRegistrationService;
 import de.tum.in.www1.artemis.web.rest.dto.LtiLaunchRequestDTO;
+import de.tum.in.www1.artemis.web.rest.dto.LtiScorePassbackDTO;
 
 /**
  * REST controller to handle LTI10 launches.
@@ -45,15 +49,18 @@ public class LtiResource {
 
     private final AuthorizationCheckService authCheckService;
 
+    private final LtiScorePassbackRepository scorePassbackRepository;
+
     public static final String LOGIN_REDIRECT_CLIENT_PATH = "/lti/launch";
 
     public LtiResource(Lti10Service lti10Service, LtiDynamicRegistrationService ltiDynamicRegistrationService, ExerciseRepository exerciseRepository,
-            CourseRepository courseRepository, AuthorizationCheckService authCheckService) {
+            CourseRepository courseRepository, AuthorizationCheckService authCheckService, LtiScorePassbackRepository scorePassbackRepository) {
         this.lti10Service = lti10Service;
         this.ltiDynamicRegistrationService = ltiDynamicRegistrationService;
         this.exerciseRepository = exerciseRepository;
         this.courseRepository = courseRepository;
         this.authCheckService = authCheckService;
+        this.scorePassbackRepository = scorePassbackRepository;
     }
 
     /**
@@ -196,6 +203,20 @@ public class LtiResource {
         ltiDynamicRegistrationService.performDynamicRegistration(course, openIdConfiguration, registrationToken);
     }
 
+    /**
+     * GET courses/:courseId/lti13/score-passbacks : Get the delivery state of the scores that have been or will be sent to the LTI 1.3 platforms of the course.
+     *
+     * @param courseId the id of the course
+     * @return the delivery state of the latest score of each launch, the most recently changed first
+     */
+    @GetMapping("/courses/{courseId}/lti13/score-passbacks")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<List<LtiScorePassbackDTO>> getLti13ScorePassbacks(@PathVariable Long courseId) {
+        Course course = courseRepository.findByIdElseThrow(courseId);
+        authCheckService.checkHasAtLeastRoleInCourseElseThrow(Role.INSTRUCTOR, course, null);
+        return ResponseEntity.ok(scorePassbackRepository.findAllByCourseId(courseId));
+    }
+
     private UriComponentsBuilder buildRedirect(HttpServletRequest request) {
         UriComponentsBuilder redirectUrlComponentsBuilder = UriComponentsBuilder.newInstance().scheme(request.getScheme()).host(request.getServerName());
         if (request.getServerPort() != 80 && request.getServerPort() != 443) {
@@ -1,7 +1,5 @@
 package de.tum.in.www1.artemis.web.rest;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -10,12 +8,13 @@ import org.springframework.web.bind.annotation.*;
 
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
-import de.tum.in.www1.artemis.repository.ResultRepository;
 import de.tum.in.www1.artemis.repository.UserRepository;
 import de.tum.in.www1.artemis.security.Role;
 import de.tum.in.www1.artemis.service.AuthorizationCheckService;
 import de.tum.in.www1.artemis.service.programming.ProgrammingExerciseGradingService;
+import de.tum.in.www1.artemis.service.programming.ProgrammingExerciseReEvaluationService;
 import de.tum.in.www1.artemis.web.rest.dto.ProgrammingExerciseGradingStatisticsDTO;
+import de.tum.in.www1.artemis.web.rest.dto.ProgrammingExerciseReEvaluationPreviewDTO;
 
 /**
  * REST controller for managing ProgrammingExerciseTestCase. Test cases are created automatically from build run results which is why there are no endpoints available for POST,
@@ -27,6 +26,8 @@ public class ProgrammingExerciseGradingResource {
 
     public static final String RE_EVALUATE = "/programming-exercises/{exerciseId}/grading/re-evaluate";
 
+    public static final String RE_EVALUATE_PREVIEW = "/programming-exercises/{exerciseId}/grading/re-evaluate/preview";
+
     public static final String STATISTICS = "/programming-exercises/{exerciseId}/grading/statistics";
 
     private final Logger log = LoggerFactory.getLogger(ProgrammingExerciseGradingResource.class);
@@ -39,19 +40,20 @@ public class ProgrammingExerciseGradingResource {
 
     private final UserRepository userRepository;
 
-    private final ResultRepository resultRepository;
+    private final ProgrammingExerciseReEvaluationService programmingExerciseReEvaluationService;
 
     public ProgrammingExerciseGradingResource(ProgrammingExerciseGradingService programmingExerciseGradingService, ProgrammingExerciseRepository programmingExerciseRepository,
-            AuthorizationCheckService authCheckService, UserRepository userRepository, ResultRepository resultRepository) {
+            AuthorizationCheckService authCheckService, UserRepository userRepository, ProgrammingExerciseReEvaluationService programmingExerciseReEvaluationService) {
         this.programmingExerciseGradingService = programmingExerciseGradingService;
         this.programmingExerciseRepository = programmingExerciseRepository;
         this.authCheckService = authCheckService;
         this.userRepository = userRepository;
-        this.resultRepository = resultRepository;
+        this.programmingExerciseReEvaluationService = programmingExerciseReEvaluationService;
     }
 
     /**
      * Use with care: Re-evaluates all latest automatic results for the given programming exercise.
+     * The progress is sent to the topic {@link ProgrammingExerciseReEvaluationService#getReEvaluationProgressTopic(long)}.
      *
      * @param exerciseId the id of the exercise to re-evaluate the test case weights of.
      * @return the number of results that were updated.
@@ -66,11 +68,28 @@ public class ProgrammingExerciseGradingResource {
 
         authCheckService.checkHasAtLeastRoleForExerciseElseThrow(Role.INSTRUCTOR, programmingExercise, user);
 
-        List<Result> updatedResults = programmingExerciseGradingService.updateAllResults(programmingExercise);
+        int numberOfUpdatedResults = (int) programmingExerciseReEvaluationService.reEvaluateAllResults(programmingExercise);
+
+        programmingExerciseGradingService.logReEvaluate(user, programmingExercise, course, numberOfUpdatedResults);
+        return ResponseEntity.ok(numberOfUpdatedResults);
+    }
+
+    /**
+     * Calculates the score changes a re-evaluation of the given programming exercise would cause, without saving anything.
+     * This allows instructors to check the effect of changed test case weights or grading settings before re-evaluating all results.
+     *
+     * @param exerciseId the id of the exercise for which the re-evaluation should be previewed.
+     * @return the score changes of the latest student results.
+     */
+    @GetMapping(RE_EVALUATE_PREVIEW)
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<ProgrammingExerciseReEvaluationPreviewDTO> previewReEvaluation(@PathVariable Long exerciseId) {
+        log.debug("REST request to preview the re-evaluation of the graded results of exercise {}", exerciseId);
+        ProgrammingExercise programmingExercise = programmingExerciseRepository.findByIdWithTemplateAndSolutionParticipationElseThrow(exerciseId);
+
+        authCheckService.checkHasAtLeastRoleForExerciseElseThrow(Role.INSTRUCTOR, programmingExercise, null);
 
-        programmingExerciseGradingService.logReEvaluate(user, programmingExercise, course, updatedResults);
-        resultRepository.saveAll(updatedResults);
-        return ResponseEntity.ok(updatedResults.size());
+        return ResponseEntity.ok(programmingExerciseReEvaluationService.previewReEvaluation(programmingExercise));
     }
 
     /**
@@ -19,6 +19,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.actuate.audit.AuditEventRepository;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -33,6 +34,7 @@ import de.tum.in.www1.artemis.repository.*;
 import de.tum.in.www1.artemis.service.AuthorizationCheckService;
 import de.tum.in.www1.artemis.service.WebsocketMessagingService;
 import de.tum.in.www1.artemis.service.exam.*;
+import de.tum.in.www1.artemis.service.exam.ExamContentCacheService.ExamContent;
 import de.tum.in.www1.artemis.service.messaging.InstanceMessageSendService;
 import de.tum.in.www1.artemis.service.util.ExamExerciseStartPreparationStatus;
 import de.tum.in.www1.artemis.service.util.HttpRequestUtils;
@@ -84,6 +86,10 @@ public class StudentExamResource {
 
     private final WebsocketMessagingService messagingService;
 
+    private final ExamContentCacheService examContentCacheService;
+
+    private final ExamStartNotificationService examStartNotificationService;
+
     @Value("${info.student-exam-store-session-data:#{true}}")
     private boolean storeSessionDataInStudentExamSession;
 
@@ -97,7 +103,7 @@ public class StudentExamResource {
             StudentExamRepository studentExamRepository, ExamDateService examDateService, ExamSessionService examSessionService,
             StudentParticipationRepository studentParticipationRepository, ExamRepository examRepository, SubmittedAnswerRepository submittedAnswerRepository,
             AuthorizationCheckService authorizationCheckService, ExamService examService, InstanceMessageSendService instanceMessageSendService,
-            WebsocketMessagingService messagingService) {
+            WebsocketMessagingService messagingService, ExamContentCacheService examContentCacheService, ExamStartNotificationService examStartNotificationService) {
         this.examAccessService = examAccessService;
         this.examDeletionService = examDeletionService;
         this.studentExamService = studentExamService;
@@ -114,6 +120,8 @@ public class StudentExamResource {
         this.examService = examService;
         this.instanceMessageSendService = instanceMessageSendService;
         this.messagingService = messagingService;
+        this.examContentCacheService = examContentCacheService;
+        this.examStartNotificationService = examStartNotificationService;
     }
 
     /**
@@ -263,6 +271,9 @@ public class StudentExamResource {
      * This will be used for the actual conduction of the exam. The student exam will be returned with the exercises
      * and with the student participation and with the submissions.
      * NOTE: when this is called it will also mark the student exam as started
+     * <p>
+     * At the start of an exam, all students load their student exams within a short time. The exercises are therefore taken from the content of the exam that is shared by
+     * all students (see {@link ExamContentCacheService}), so that only the participations, submissions and the exam session are loaded and serialized for every student.
      *
      * @param courseId      the course to which the student exam belongs to
      * @param examId        the exam to which the student exam belongs to
@@ -272,7 +283,7 @@ public class StudentExamResource {
      */
     @GetMapping("/courses/{courseId}/exams/{examId}/student-exams/{studentExamId}/conduction")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<StudentExam> getStudentExamForConduction(@PathVariable Long courseId, @PathVariable Long examId, @PathVariable Long studentExamId,
+    public ResponseEntity<byte[]> getStudentExamForConduction(@PathVariable Long courseId, @PathVariable Long examId, @PathVariable Long studentExamId,
             HttpServletRequest request) {
         long start = System.currentTimeMillis();
         User user = userRepository.getUserWithGroupsAndAuthorities();
@@ -295,13 +306,15 @@ public class StudentExamResource {
         }
 
         if (!Boolean.TRUE.equals(studentExam.isStarted())) {
-            messagingService.sendMessage("/topic/exam/" + examId + "/started", "");
+            examStartNotificationService.notifyStudentExamStarted(examId);
         }
 
-        prepareStudentExamForConduction(request, user, studentExam);
+        ExamContent examContent = examContentCacheService.findContentForConduction(studentExam, user).orElse(null);
+        prepareStudentExamForConduction(request, user, studentExam, examContent != null);
+        byte[] body = examContentCacheService.serializeForConduction(studentExam, examContent);
 
         log.info("getStudentExamForConduction done in {}ms for {} exercises for user {}", System.currentTimeMillis() - start, studentExam.getExercises().size(), user.getLogin());
-        return ResponseEntity.ok(studentExam);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /**
@@ -333,7 +346,7 @@ public class StudentExamResource {
         }
 
         studentExamAccessService.checkCourseAndExamAccessElseThrow(courseId, examId, currentUser, true, false);
-        prepareStudentExamForConduction(request, currentUser, testRun);
+        prepareStudentExamForConduction(request, currentUser, testRun, false);
 
         log.info("getTestRunForConduction done in {}ms for {} exercises for user {}", System.currentTimeMillis() - start, testRun.getExercises().size(), currentUser.getLogin());
         return ResponseEntity.ok(testRun);
@@ -594,11 +607,12 @@ public class StudentExamResource {
      * Starts an exam session for the request
      * Filters out unnecessary attributes.
      *
-     * @param request     the http request for the conduction
-     * @param currentUser the current user
-     * @param studentExam the student exam to be prepared
+     * @param request           the http request for the conduction
+     * @param currentUser       the current user
+     * @param studentExam       the student exam to be prepared
+     * @param usesSharedContent whether the exercises are taken from the shared content of the exam, so that the quiz questions do not have to be loaded
      */
-    private void prepareStudentExamForConduction(HttpServletRequest request, User currentUser, StudentExam studentExam) {
+    private void prepareStudentExamForConduction(HttpServletRequest request, User currentUser, StudentExam studentExam, boolean usesSharedContent) {
 
         // In case the studentExam is not yet started, a new participation with a specific initialization date should be created - isStarted uses Boolean
         if (studentExam.isTestExam()) {
@@ -627,7 +641,9 @@ public class StudentExamResource {
         }
 
         // Load quizzes
-        examService.loadQuizExercisesForStudentExam(studentExam);
+        if (!usesSharedContent) {
+            examService.loadQuizExercisesForStudentExam(studentExam);
+        }
 
         // Fetch participations, submissions and results and connect them to the studentExam
         examService.fetchParticipationsSubmissionsAndResultsForExam(studentExam, currentUser);
@@ -0,0 +1,13 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A DTO representing the progress of a running bulk registration of students for an exam, sent via websocket after each processed chunk.
+ * The not found students only contain the rows of the chunk that has just been processed.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record ExamRegistrationProgressDTO(int processedStudents, int totalStudents, List<ExamUserDTO> notFoundStudents, boolean finished) {
+}
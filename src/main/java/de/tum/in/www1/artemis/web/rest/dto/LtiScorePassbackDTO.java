@@ -0,0 +1,15 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+import java.time.ZonedDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import de.tum.in.www1.artemis.domain.lti.LtiScorePassback;
+
+/**
+ * The delivery state of the score of a student for an exercise launched via LTI 1.3
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record LtiScorePassbackDTO(Long exerciseId, String login, LtiScorePassback.Status status, int attempts, ZonedDateTime statusDate, ZonedDateTime nextAttemptDate,
+        String lastError) {
+}
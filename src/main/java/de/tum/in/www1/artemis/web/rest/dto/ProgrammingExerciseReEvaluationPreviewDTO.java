@@ -0,0 +1,19 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A DTO representing the effect a re-evaluation of a programming exercise would have on the latest student results, without saving anything.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record ProgrammingExerciseReEvaluationPreviewDTO(long numberOfResults, long numberOfChangedResults, double averageScoreBefore, double averageScoreAfter,
+        List<ResultScoreDeltaDTO> changedResults) {
+
+    /**
+     * The score change of a single result.
+     */
+    public record ResultScoreDeltaDTO(long participationId, long resultId, String participantIdentifier, double scoreBefore, double scoreAfter) {
+    }
+}
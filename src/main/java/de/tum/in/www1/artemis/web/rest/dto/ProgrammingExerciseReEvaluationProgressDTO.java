@@ -0,0 +1,7 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+/**
+ * A DTO representing the progress of a running re-evaluation of all results of a programming exercise, sent via websocket.
+ */
+public record ProgrammingExerciseReEvaluationProgressDTO(long processedParticipations, long totalParticipations, long updatedResults, boolean finished) {
+}
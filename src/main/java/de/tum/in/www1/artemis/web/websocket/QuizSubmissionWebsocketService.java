@@ -1,6 +1,7 @@
 package de.tum.in.www1.artemis.web.websocket;
 
 import java.security.Principal;
+import java.util.concurrent.*;
 
 import javax.validation.Valid;
 
@@ -26,6 +27,17 @@ public class QuizSubmissionWebsocketService {
 
     private static final Logger log = LoggerFactory.getLogger(QuizSubmissionWebsocketService.class);
 
+    private static final int OUTBOUND_THREADS = 2;
+
+    private static final int MAX_PENDING_OUTBOUND_MESSAGES = 1000;
+
+    /**
+     * Sends the replies to the users, so that the outbound channel does not block the inbound channel (e.g. due to a slow client).
+     * If the replies pile up (e.g. during the end of a quiz with many students), the oldest ones are dropped instead of starting more and more threads.
+     */
+    private final ExecutorService outboundExecutor = new ThreadPoolExecutor(OUTBOUND_THREADS, OUTBOUND_THREADS, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_PENDING_OUTBOUND_MESSAGES), new ThreadPoolExecutor.DiscardOldestPolicy());
+
     private final QuizExerciseService quizExerciseService;
 
     private final ParticipationService participationService;
@@ -61,21 +73,21 @@ public class QuizSubmissionWebsocketService {
         SecurityUtils.setAuthorizationObject();
         try {
             QuizSubmission updatedQuizSubmission = quizSubmissionService.saveSubmissionForLiveMode(exerciseId, quizSubmission, principal.getName(), false);
-            // send updated submission over websocket (use a thread to prevent that the outbound channel blocks the inbound channel (e.g. due a slow client))
+            // send updated submission over websocket (asynchronously to prevent that the outbound channel blocks the inbound channel (e.g. due a slow client))
             // to improve the performance, this is currently deactivated: slow clients might lead to bottlenecks so that more important messages can not be distributed any more
-            // new Thread(() -> sendSubmissionToUser(username, exerciseId, quizSubmission)).start();
+            // outboundExecutor.execute(() -> sendSubmissionToUser(username, exerciseId, quizSubmission));
 
             // log.info("WS.Inbound: Sent quiz submission (async) back to user {} in quiz {} after {} µs ", principal.getName(), exerciseId, (System.nanoTime() - start) / 1000);
         }
         catch (QuizSubmissionException ex) {
-            // send error message over websocket (use a thread to prevent that the outbound channel blocks the inbound channel (e.g. due a slow client))
-            new Thread(() -> messagingTemplate.convertAndSendToUser(principal.getName(), "/topic/quizExercise/" + exerciseId + "/submission", new WebsocketError(ex.getMessage())))
-                    .start();
+            // send error message over websocket (asynchronously to prevent that the outbound channel blocks the inbound channel (e.g. due a slow client))
+            outboundExecutor.execute(
+                    () -> messagingTemplate.convertAndSendToUser(principal.getName(), "/topic/quizExercise/" + exerciseId + "/submission", new WebsocketError(ex.getMessage())));
         }
     }
 
     /**
-     * Should be invoked using a thread asynchronously
+     * Should be invoked asynchronously using the outbound executor
      *
      * @param username       the user who saved / submitted the quiz submission
      * @param exerciseId     the quiz exercise id
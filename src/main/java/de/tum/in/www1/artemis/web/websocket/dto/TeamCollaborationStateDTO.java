@@ -0,0 +1,7 @@
+package de.tum.in.www1.artemis.web.websocket.dto;
+
+/**
+ * The complete merged text or model of a team submission, sent to a client when it subscribes or when it is too far behind to catch up with single operations
+ */
+public record TeamCollaborationStateDTO(long revision, String content, String explanationText) {
+}
@@ -0,0 +1,24 @@
+package de.tum.in.www1.artemis.web.websocket.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A patch of the Apollon model of a team submission, containing only the changed parts of the model. Elements and relationships are identified by their id, concurrent
+ * changes of the same element are resolved in the order the patches arrive at the server.
+ *
+ * @param revision        the revision of the model the patch leads to (set by the server)
+ * @param elements        the added or changed elements
+ * @param relationships   the added or changed relationships
+ * @param removedIds      the ids of the removed elements and relationships
+ * @param properties      the changed top-level properties of the model (e.g. size or assessments)
+ * @param explanationText the new explanation text, null if it did not change
+ * @param sender          the login of the user who sent the patch (set by the server)
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record TeamModelPatchDTO(long revision, List<JsonNode> elements, List<JsonNode> relationships, List<String> removedIds, Map<String, JsonNode> properties,
+        String explanationText, String sender) {
+}
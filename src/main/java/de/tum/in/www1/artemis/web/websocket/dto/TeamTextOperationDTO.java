@@ -0,0 +1,13 @@
+package de.tum.in.www1.artemis.web.websocket.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import de.tum.in.www1.artemis.service.util.TextOperation;
+
+/**
+ * An operation on the text of a team submission. Clients send the revision of the text the operation is based on, the server broadcasts the merged operation with the
+ * revision it leads to and the login of the sender.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record TeamTextOperationDTO(long revision, TextOperation operation, String sender) {
+}
@@ -1,6 +1,7 @@
 package de.tum.in.www1.artemis.web.websocket.team;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -33,15 +34,17 @@ import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
 import de.tum.in.www1.artemis.repository.UserRepository;
 import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.ModelingSubmissionService;
+import de.tum.in.www1.artemis.service.TeamCollaborationService;
 import de.tum.in.www1.artemis.service.TextSubmissionService;
-import de.tum.in.www1.artemis.web.websocket.dto.OnlineTeamStudentDTO;
-import de.tum.in.www1.artemis.web.websocket.dto.SubmissionSyncPayload;
+import de.tum.in.www1.artemis.web.websocket.dto.*;
 
 @Controller
 public class ParticipationTeamWebsocketService {
 
     private static final Logger log = LoggerFactory.getLogger(ParticipationTeamWebsocketService.class);
 
+    private static final Duration ONLINE_TEAM_STUDENTS_UPDATE_INTERVAL = Duration.ofSeconds(5);
+
     private final SimpMessageSendingOperations messagingTemplate;
 
     private final SimpUserRegistry simpUserRegistry;
@@ -62,9 +65,11 @@ public class ParticipationTeamWebsocketService {
 
     private final ModelingSubmissionService modelingSubmissionService;
 
+    private final TeamCollaborationService teamCollaborationService;
+
     public ParticipationTeamWebsocketService(SimpMessageSendingOperations messagingTemplate, SimpUserRegistry simpUserRegistry, UserRepository userRepository,
             StudentParticipationRepository studentParticipationRepository, ExerciseRepository exerciseRepository, TextSubmissionService textSubmissionService,
-            ModelingSubmissionService modelingSubmissionService, HazelcastInstance hazelcastInstance) {
+            ModelingSubmissionService modelingSubmissionService, TeamCollaborationService teamCollaborationService, HazelcastInstance hazelcastInstance) {
         this.messagingTemplate = messagingTemplate;
         this.simpUserRegistry = simpUserRegistry;
         this.userRepository = userRepository;
@@ -72,6 +77,7 @@ public class ParticipationTeamWebsocketService {
         this.exerciseRepository = exerciseRepository;
         this.textSubmissionService = textSubmissionService;
         this.modelingSubmissionService = modelingSubmissionService;
+        this.teamCollaborationService = teamCollaborationService;
 
         // participationId-username -> timestamp
         this.lastTypingTracker = hazelcastInstance.getMap("lastTypingTracker");
@@ -148,6 +154,73 @@ public class ParticipationTeamWebsocketService {
         log.info("Websocket endpoint updateTextSubmission took {}ms for submission with id {}", System.currentTimeMillis() - start, textSubmission.getId());
     }
 
+    /**
+     * Called when a student of a team subscribes to the merged text or model of the team, which is then sent to this subscriber.
+     * Clients that are out of sync receive the state on the user destination of the same topic.
+     *
+     * @param participationId id of participation
+     * @param principal       principal of the subscribing user
+     * @return the current merged text or model with its revision
+     */
+    @SubscribeMapping("/topic/participations/{participationId}/team/collaboration-state")
+    public TeamCollaborationStateDTO subscribeToCollaborationState(@DestinationVariable Long participationId, Principal principal) {
+        // Without this, custom jpa repository methods don't work in websocket channel.
+        SecurityUtils.setAuthorizationObject();
+        return teamCollaborationService.getState(participationId, principal.getName());
+    }
+
+    /**
+     * Called by a student of a team to apply an operation to the text of the team for their participation. Only the merged operation is sent to the team,
+     * the text is saved once the team stops typing.
+     *
+     * @param participationId id of participation
+     * @param textOperation   operation and the revision of the text it is based on
+     * @param principal       principal of user who edited the text
+     */
+    @MessageMapping("/topic/participations/{participationId}/team/text-submissions/operation")
+    public void applyTextOperation(@DestinationVariable Long participationId, @Payload TeamTextOperationDTO textOperation, Principal principal) {
+        SecurityUtils.setAuthorizationObject();
+        teamCollaborationService.applyTextOperation(participationId, textOperation, principal.getName()).ifPresentOrElse(mergedOperation -> {
+            updateLastAction(participationId, principal.getName());
+            messagingTemplate.convertAndSend(getDestination(participationId, "/text-submissions/operations"), mergedOperation);
+        }, () -> sendCollaborationState(participationId, principal.getName()));
+    }
+
+    /**
+     * Called by a student of a team to apply a patch with the changed elements to the model of the team for their participation. Only the patch is sent to the team,
+     * the model is saved once the team stops editing.
+     *
+     * @param participationId id of participation
+     * @param modelPatch      the changed parts of the model
+     * @param principal       principal of user who edited the model
+     */
+    @MessageMapping("/topic/participations/{participationId}/team/modeling-submissions/patch")
+    public void applyModelPatch(@DestinationVariable Long participationId, @Payload TeamModelPatchDTO modelPatch, Principal principal) {
+        SecurityUtils.setAuthorizationObject();
+        teamCollaborationService.applyModelPatch(participationId, modelPatch, principal.getName()).ifPresentOrElse(mergedPatch -> {
+            updateLastAction(participationId, principal.getName());
+            messagingTemplate.convertAndSend(getDestination(participationId, "/modeling-submissions/patches"), mergedPatch);
+        }, () -> sendCollaborationState(participationId, principal.getName()));
+    }
+
+    private void sendCollaborationState(Long participationId, String login) {
+        messagingTemplate.convertAndSendToUser(login, getDestination(participationId, "/collaboration-state"), teamCollaborationService.getState(participationId, login));
+    }
+
+    /**
+     * Updates the last action date of the user. Since single edits arrive much more frequently than whole submissions, the list of online team members is only sent
+     * again if the previous action of the user is not recent anymore.
+     *
+     * @param participationId id of participation which is being worked on
+     * @param login           login of user who is working on the submission
+     */
+    private void updateLastAction(Long participationId, String login) {
+        Instant previousAction = lastActionTracker.put(participationId + "-" + login, Instant.now());
+        if (previousAction == null || previousAction.isBefore(Instant.now().minus(ONLINE_TEAM_STUDENTS_UPDATE_INTERVAL))) {
+            sendOnlineTeamStudents(participationId);
+        }
+    }
+
     /**
      * Updates a modeling or text submission
      *
@@ -170,12 +243,14 @@ public class ParticipationTeamWebsocketService {
         final User user = userRepository.getUserWithGroupsAndAuthorities(principal.getName());
         final Exercise exercise = exerciseRepository.findByIdElseThrow(participation.getExercise().getId());
 
+        // the whole submission replaces the merged document, edits based on the merged document have to be based on the new submission
         if (submission instanceof ModelingSubmission modelingSubmission && exercise instanceof ModelingExercise modelingExercise) {
-            submission = modelingSubmissionService.handleModelingSubmission(modelingSubmission, modelingExercise, user);
+            submission = teamCollaborationService.replaceSubmission(participationId,
+                    () -> modelingSubmissionService.handleModelingSubmission(modelingSubmission, modelingExercise, user));
             modelingSubmissionService.hideDetails(submission, user);
         }
         else if (submission instanceof TextSubmission textSubmission && exercise instanceof TextExercise textExercise) {
-            submission = textSubmissionService.handleTextSubmission(textSubmission, textExercise, user);
+            submission = teamCollaborationService.replaceSubmission(participationId, () -> textSubmissionService.handleTextSubmission(textSubmission, textExercise, user));
             textSubmissionService.hideDetails(submission, user);
         }
         else {
@@ -31,6 +31,8 @@ export class Result implements BaseEntity {
 
     // helper attributes
     public durationInMinutes?: number;
+    // set if the server has sent the result via websocket without its feedbacks (e.g. to the staff during many new results), they have to be loaded separately
+    public feedbacksOmitted?: boolean;
 
     constructor() {
         this.successful = false; // default value
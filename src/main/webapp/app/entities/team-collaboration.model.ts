@@ -0,0 +1,35 @@
+/**
+ * A component of a text operation in the JSON format of ot.js: a positive number retains, a string inserts and a negative number deletes characters
+ */
+export type TextOperationComponent = number | string;
+
+/**
+ * The complete merged text or model of a team submission with its revision
+ */
+export class TeamCollaborationState {
+    public revision: number;
+    public content?: string;
+    public explanationText?: string;
+}
+
+/**
+ * An operation on the text of a team submission, based on the given revision (sent by a client) or leading to it (broadcast by the server)
+ */
+export class TeamTextOperation {
+    public revision: number;
+    public operation: TextOperationComponent[];
+    public sender?: string;
+}
+
+/**
+ * The changed parts of the model of a team submission. Elements and relationships are identified by their id.
+ */
+export class TeamModelPatch {
+    public revision?: number;
+    public elements?: any[];
+    public relationships?: any[];
+    public removedIds?: string[];
+    public properties?: { [property: string]: any };
+    public explanationText?: string;
+    public sender?: string;
+}
@@ -47,7 +47,8 @@ export class ExamChecklistComponent implements OnChanges, OnInit, OnDestroy {
         this.websocketService.receive(submittedTopic).subscribe(() => (this.numberOfSubmitted += 1));
         const startedTopic = this.examChecklistService.getStartedTopic(this.exam);
         this.websocketService.subscribe(startedTopic);
-        this.websocketService.receive(startedTopic).subscribe(() => (this.numberOfStarted += 1));
+        // the server aggregates the student exams started within a short period
+        this.websocketService.receive(startedTopic).subscribe((numberOfStarted: number) => (this.numberOfStarted += numberOfStarted));
     }
 
     ngOnChanges() {
@@ -157,6 +157,8 @@ export class CodeEditorBuildOutputComponent implements AfterViewInit, OnInit, On
             .pipe(
                 // Ignore initial null/undefined result from service
                 filter((result) => !!result),
+                // the staff might receive the result without its feedbacks, which are needed for the static code analysis issues
+                switchMap((result) => (result!.feedbacksOmitted ? this.loadAndAttachResultDetails(this.participation, result!) : of(result))),
                 tap((result) => (this.result = result!)),
                 switchMap((result) => this.fetchBuildResults(result)),
                 tap((buildLogsFromServer: BuildLogEntry[]) => {
@@ -181,6 +183,7 @@ export class CodeEditorBuildOutputComponent implements AfterViewInit, OnInit, On
             map((res) => res && res.body),
             map((feedbacks: Feedback[]) => {
                 result.feedbacks = feedbacks;
+                result.feedbacksOmitted = undefined;
                 return result;
             }),
             catchError(() => of(result)),
@@ -187,7 +187,11 @@ export class ProgrammingExerciseInstructionComponent implements OnChanges, OnDes
         }
         this.participationSubscription = this.participationWebsocketService
             .subscribeForLatestResultOfParticipation(this.participation.id!, this.personalParticipation, this.exercise.id!)
-            .pipe(filter((result) => !!result))
+            .pipe(
+                filter((result) => !!result),
+                // the staff might receive the result without its feedbacks, which are needed to show the test results in the tasks
+                switchMap((result) => (result!.feedbacksOmitted ? this.loadAndAttachResultDetails(result!) : of(result))),
+            )
             .subscribe((result: Result) => {
                 this.latestResult = result;
                 this.programmingExerciseTaskWrapper.setLatestResult(this.latestResult);
@@ -252,6 +256,7 @@ export class ProgrammingExerciseInstructionComponent implements OnChanges, OnDes
             map((res) => res && res.body),
             map((feedbacks: Feedback[]) => {
                 result.feedbacks = feedbacks;
+                result.feedbacksOmitted = undefined;
                 return result;
             }),
             catchError(() => of(result)),
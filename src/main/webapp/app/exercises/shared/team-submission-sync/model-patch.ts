@@ -0,0 +1,115 @@
+import { TeamModelPatch } from 'app/entities/team-collaboration.model';
+
+const ELEMENTS = 'elements';
+const RELATIONSHIPS = 'relationships';
+
+/**
+ * Creates a patch with the parts of the new model that differ from the old model: the added or changed elements and relationships, the ids of the removed ones and the
+ * changed top-level properties. Returns undefined if nothing changed.
+ * @param oldModel the model (as JSON) before the change
+ * @param newModel the model (as JSON) after the change
+ * @param oldExplanationText the explanation text before the change
+ * @param newExplanationText the explanation text after the change
+ */
+export function createModelPatch(
+    oldModel: string | undefined,
+    newModel: string | undefined,
+    oldExplanationText?: string,
+    newExplanationText?: string,
+): TeamModelPatch | undefined {
+    const oldNode = parseModel(oldModel);
+    const newNode = parseModel(newModel);
+    const patch: TeamModelPatch = {};
+
+    const properties: { [property: string]: any } = {};
+    Object.keys(newNode)
+        .filter((property) => property !== ELEMENTS && property !== RELATIONSHIPS && JSON.stringify(oldNode[property]) !== JSON.stringify(newNode[property]))
+        .forEach((property) => (properties[property] = newNode[property]));
+    if (Object.keys(properties).length) {
+        patch.properties = properties;
+    }
+
+    const removedIds: string[] = [];
+    const changedNodes = (field: string) => {
+        const oldNodesById = nodesById(oldNode[field]);
+        const newNodesById = nodesById(newNode[field]);
+        removedIds.push(...Array.from(oldNodesById.keys()).filter((id) => !newNodesById.has(id)));
+        const changed = Array.from(newNodesById.entries())
+            .filter(([id, node]) => JSON.stringify(oldNodesById.get(id)) !== JSON.stringify(node))
+            .map(([, node]) => node);
+        return changed.length ? changed : undefined;
+    };
+    patch.elements = changedNodes(ELEMENTS);
+    patch.relationships = changedNodes(RELATIONSHIPS);
+    if (removedIds.length) {
+        patch.removedIds = removedIds;
+    }
+
+    if (newExplanationText !== undefined && newExplanationText !== oldExplanationText) {
+        patch.explanationText = newExplanationText;
+    }
+    const isEmpty = !patch.properties && !patch.elements && !patch.relationships && !patch.removedIds && patch.explanationText === undefined;
+    return isEmpty ? undefined : patch;
+}
+
+/**
+ * Applies a patch to the model in the same way as the server does
+ * @param model the model (as JSON)
+ * @param patch the changed parts of the model
+ * @return the patched model (as JSON)
+ */
+export function applyModelPatch(model: string | undefined, patch: TeamModelPatch): string {
+    const modelNode = parseModel(model);
+    Object.entries(patch.properties ?? {})
+        .filter(([property]) => property !== ELEMENTS && property !== RELATIONSHIPS)
+        .forEach(([property, value]) => (modelNode[property] = value));
+    upsertById(modelNode, ELEMENTS, patch.elements);
+    upsertById(modelNode, RELATIONSHIPS, patch.relationships);
+    if (patch.removedIds?.length) {
+        const removedIds = new Set(patch.removedIds);
+        removeById(modelNode, ELEMENTS, removedIds);
+        removeById(modelNode, RELATIONSHIPS, removedIds);
+    }
+    return JSON.stringify(modelNode);
+}
+
+function parseModel(model: string | undefined): any {
+    return model?.trim() ? JSON.parse(model) : {};
+}
+
+/**
+ * Returns the nodes of a field of the model by their id, the field is either an array of nodes or an object from id to node (depending on the Apollon version)
+ */
+function nodesById(nodes: any): Map<string, any> {
+    if (Array.isArray(nodes)) {
+        return new Map(nodes.map((node) => [node.id, node]));
+    }
+    return new Map(Object.entries(nodes ?? {}));
+}
+
+function upsertById(modelNode: any, field: string, nodes?: any[]) {
+    if (!nodes?.length) {
+        return;
+    }
+    if (modelNode[field] && !Array.isArray(modelNode[field])) {
+        nodes.forEach((node) => (modelNode[field][node.id] = node));
+        return;
+    }
+    const nodeArray: any[] = modelNode[field] ?? (modelNode[field] = []);
+    for (const node of nodes) {
+        const index = nodeArray.findIndex((existingNode) => existingNode.id === node.id);
+        if (index >= 0) {
+            nodeArray[index] = node;
+        } else {
+            nodeArray.push(node);
+        }
+    }
+}
+
+function removeById(modelNode: any, field: string, removedIds: Set<string>) {
+    if (Array.isArray(modelNode[field])) {
+        modelNode[field] = modelNode[field].filter((node: any) => !removedIds.has(node.id));
+    } else if (modelNode[field]) {
+        removedIds.forEach((id) => delete modelNode[field][id]);
+    }
+}
@@ -1,23 +1,29 @@
-import { Component, EventEmitter, Input, OnInit, Output } from '@angular/core';
+import { Component, EventEmitter, Input, OnDestroy, OnInit, Output } from '@angular/core';
 import { JhiWebsocketService } from 'app/core/websocket/websocket.service';
 import { StudentParticipation } from 'app/entities/participation/student-participation.model';
-import { filter, throttleTime } from 'rxjs/operators';
+import { filter } from 'rxjs/operators';
 import { AlertService } from 'app/core/util/alert.service';
 import { SubmissionSyncPayload } from 'app/entities/submission-sync-payload.model';
 import { AccountService } from 'app/core/auth/account.service';
 import { User } from 'app/core/user/user.model';
 import { Submission } from 'app/entities/submission.model';
-import { Observable } from 'rxjs';
+import { Observable, Subscription } from 'rxjs';
 import { ExerciseType } from 'app/entities/exercise.model';
+import { TeamCollaborationState, TeamModelPatch, TeamTextOperation } from 'app/entities/team-collaboration.model';
+import { TextSubmission } from 'app/entities/text-submission.model';
+import { ModelingSubmission } from 'app/entities/modeling-submission.model';
+import { TextOperation } from 'app/exercises/shared/team-submission-sync/text-operation';
+import { applyModelPatch, createModelPatch } from 'app/exercises/shared/team-submission-sync/model-patch';
 
+/**
+ * Synchronizes the text or model of a team submission between the team members. Only the changes are exchanged: operations for texts, which are transformed against
+ * concurrent operations of other team members (like in ot.js), and patches of the changed elements for models. The server merges the changes and saves the submission.
+ */
 @Component({
     selector: 'jhi-team-submission-sync',
     template: '',
 })
-export class TeamSubmissionSyncComponent implements OnInit {
-    // Sync settings
-    readonly throttleTime = 2000; // ms
-
+export class TeamSubmissionSyncComponent implements OnInit, OnDestroy {
     @Input() exerciseType: ExerciseType;
     @Input() submissionObservable: Observable<Submission>;
     @Input() participation: StudentParticipation;
@@ -26,6 +32,19 @@ export class TeamSubmissionSyncComponent implements OnInit {
 
     currentUser: User;
     websocketTopic: string;
+    collaborationStateTopic: string;
+
+    // the revision of the merged text or model known to this client, undefined until the state has been received
+    revision?: number;
+    // the text or model including the own changes that have not been merged by the server yet
+    content?: string;
+    explanationText?: string;
+    // the own operation that has been sent to the server and the own changes that have been made while waiting for its acknowledgement
+    outstandingOperation?: TextOperation;
+    bufferedOperation?: TextOperation;
+
+    private latestSubmission?: Submission;
+    private subscriptions: Subscription[] = [];
 
     constructor(private accountService: AccountService, private teamSubmissionWebsocketService: JhiWebsocketService, private alertService: AlertService) {
         this.accountService.identity().then((user: User) => (this.currentUser = user));
@@ -35,45 +54,240 @@ export class TeamSubmissionSyncComponent implements OnInit {
      * Life cycle hook to indicate component creation is done
      */
     ngOnInit(): void {
+        this.latestSubmission = this.participation.submissions?.[0];
         this.websocketTopic = this.buildWebsocketTopic('');
-        this.teamSubmissionWebsocketService.subscribe(this.websocketTopic);
+        this.collaborationStateTopic = `/topic/participations/${this.participation.id}/team/collaboration-state`;
         this.setupReceiver();
+        this.setupChangeReceiver();
+        this.subscribeToCollaborationState();
         this.setupSender();
     }
 
     /**
-     * Receives updated submissions from other team members and emits them
+     * Life cycle hook called by Angular when the component is destroyed
+     */
+    ngOnDestroy(): void {
+        this.subscriptions.forEach((subscription) => subscription.unsubscribe());
+        [this.websocketTopic, this.buildChangesTopic(), this.collaborationStateTopic, '/user' + this.collaborationStateTopic].forEach((topic) =>
+            this.teamSubmissionWebsocketService.unsubscribe(topic),
+        );
+    }
+
+    /**
+     * Receives whole submissions of team members whose clients do not send single changes. The merged state is loaded again afterwards.
      */
     private setupReceiver() {
-        this.teamSubmissionWebsocketService
-            .receive(this.websocketTopic)
-            .pipe(filter(({ sender }: SubmissionSyncPayload) => !this.isSelf(sender)))
-            .subscribe({
-                next: ({ submission }: SubmissionSyncPayload) => {
-                    this.receiveSubmission.emit(submission);
+        this.teamSubmissionWebsocketService.subscribe(this.websocketTopic);
+        this.subscriptions.push(
+            this.teamSubmissionWebsocketService
+                .receive(this.websocketTopic)
+                .pipe(filter(({ sender }: SubmissionSyncPayload) => !this.isSelf(sender)))
+                .subscribe({
+                    next: ({ submission }: SubmissionSyncPayload) => {
+                        this.latestSubmission = submission;
+                        this.receiveSubmission.emit(submission);
+                        this.reloadCollaborationState();
+                    },
+                    error: (error) => this.onError(error),
+                }),
+        );
+    }
+
+    /**
+     * Receives the merged operations or patches of all team members (including the own ones as acknowledgement)
+     */
+    private setupChangeReceiver() {
+        const changesTopic = this.buildChangesTopic();
+        this.teamSubmissionWebsocketService.subscribe(changesTopic);
+        this.subscriptions.push(
+            this.teamSubmissionWebsocketService.receive(changesTopic).subscribe({
+                next: (change: TeamTextOperation | TeamModelPatch) => {
+                    if (this.exerciseType === ExerciseType.TEXT) {
+                        this.onTextOperation(change as TeamTextOperation);
+                    } else {
+                        this.onModelPatch(change as TeamModelPatch);
+                    }
                 },
                 error: (error) => this.onError(error),
-            });
+            }),
+        );
     }
 
     /**
-     * Subscribes to the submission stream and sends out updated submissions based on those own changes via websockets
+     * Subscribes to the merged state, which the server sends when subscribing and on the user destination if this client is out of sync
      */
-    private setupSender() {
-        this.submissionObservable.pipe(throttleTime(this.throttleTime, undefined, { leading: true, trailing: true })).subscribe({
-            next: (submission: Submission) => {
-                if (submission.participation) {
-                    submission.participation.exercise = undefined;
-                    submission.participation.submissions = [];
-                }
-                this.teamSubmissionWebsocketService.send(this.buildWebsocketTopic('/update'), submission);
-            },
-            error: (error) => this.onError(error),
+    private subscribeToCollaborationState() {
+        [this.collaborationStateTopic, '/user' + this.collaborationStateTopic].forEach((topic) => {
+            this.teamSubmissionWebsocketService.subscribe(topic);
+            this.subscriptions.push(
+                this.teamSubmissionWebsocketService.receive(topic).subscribe({
+                    next: (state: TeamCollaborationState) => this.onCollaborationState(state),
+                    error: (error) => this.onError(error),
+                }),
+            );
         });
     }
 
-    private isSelf(user: User) {
-        return this.currentUser.login === user.login;
+    private reloadCollaborationState() {
+        this.revision = undefined;
+        this.teamSubmissionWebsocketService.unsubscribe(this.collaborationStateTopic);
+        this.teamSubmissionWebsocketService.subscribe(this.collaborationStateTopic);
+        this.subscriptions.push(
+            this.teamSubmissionWebsocketService.receive(this.collaborationStateTopic).subscribe({
+                next: (state: TeamCollaborationState) => this.onCollaborationState(state),
+                error: (error) => this.onError(error),
+            }),
+        );
+    }
+
+    /**
+     * Subscribes to the submission stream and sends the own changes to the server
+     */
+    private setupSender() {
+        this.subscriptions.push(
+            this.submissionObservable.subscribe({
+                next: (submission: Submission) => {
+                    this.latestSubmission = submission;
+                    if (this.exerciseType === ExerciseType.TEXT) {
+                        this.onOwnTextChange((submission as TextSubmission).text ?? '');
+                    } else {
+                        this.onOwnModelChange(submission as ModelingSubmission);
+                    }
+                },
+                error: (error) => this.onError(error),
+            }),
+        );
+    }
+
+    private onCollaborationState(state: TeamCollaborationState) {
+        this.revision = state.revision;
+        this.content = state.content ?? '';
+        this.explanationText = state.explanationText;
+        this.outstandingOperation = undefined;
+        this.bufferedOperation = undefined;
+        if (this.content !== this.getContent(this.latestSubmission)) {
+            this.emitSubmission();
+        }
+    }
+
+    private onOwnTextChange(text: string) {
+        if (this.revision === undefined || this.content === undefined) {
+            return;
+        }
+        const operation = TextOperation.fromDiff(this.content, text);
+        this.content = text;
+        if (operation.isNoop()) {
+            return;
+        }
+        if (this.outstandingOperation) {
+            // only one operation is sent at a time, the changes made in the meantime are sent once it has been acknowledged
+            this.bufferedOperation = this.bufferedOperation ? this.bufferedOperation.compose(operation) : operation;
+        } else {
+            this.outstandingOperation = operation;
+            this.sendTextOperation(operation);
+        }
+    }
+
+    private onTextOperation(textOperation: TeamTextOperation) {
+        if (this.revision === undefined || this.content === undefined || textOperation.revision <= this.revision) {
+            // the operation is already contained in the state
+            return;
+        }
+        if (textOperation.revision !== this.revision + 1) {
+            this.reloadCollaborationState();
+            return;
+        }
+        this.revision = textOperation.revision;
+        if (this.outstandingOperation && this.isSelf(textOperation.sender)) {
+            // acknowledgement of the own operation
+            this.outstandingOperation = this.bufferedOperation;
+            this.bufferedOperation = undefined;
+            if (this.outstandingOperation) {
+                this.sendTextOperation(this.outstandingOperation);
+            }
+            return;
+        }
+        try {
+            let operation = TextOperation.fromJSON(textOperation.operation);
+            if (this.outstandingOperation) {
+                [this.outstandingOperation, operation] = TextOperation.transform(this.outstandingOperation, operation);
+            }
+            if (this.bufferedOperation) {
+                [this.bufferedOperation, operation] = TextOperation.transform(this.bufferedOperation, operation);
+            }
+            this.content = operation.apply(this.content);
+        } catch {
+            // the client is out of sync
+            this.reloadCollaborationState();
+            return;
+        }
+        this.emitSubmission();
+    }
+
+    private sendTextOperation(operation: TextOperation) {
+        const textOperation: TeamTextOperation = { revision: this.revision!, operation: operation.toJSON() };
+        this.teamSubmissionWebsocketService.send(this.buildWebsocketTopic('/operation'), textOperation);
+    }
+
+    private onOwnModelChange(submission: ModelingSubmission) {
+        if (this.revision === undefined) {
+            return;
+        }
+        const patch = createModelPatch(this.content, submission.model, this.explanationText, submission.explanationText);
+        this.content = submission.model;
+        this.explanationText = submission.explanationText ?? this.explanationText;
+        if (patch) {
+            this.teamSubmissionWebsocketService.send(this.buildWebsocketTopic('/patch'), { ...patch, revision: this.revision });
+        }
+    }
+
+    private onModelPatch(patch: TeamModelPatch) {
+        if (this.revision === undefined || patch.revision === undefined || patch.revision <= this.revision) {
+            return;
+        }
+        if (patch.revision !== this.revision + 1) {
+            this.reloadCollaborationState();
+            return;
+        }
+        this.revision = patch.revision;
+        if (this.isSelf(patch.sender)) {
+            // the own patch has already been applied to the model
+            return;
+        }
+        this.content = applyModelPatch(this.content, patch);
+        this.explanationText = patch.explanationText ?? this.explanationText;
+        this.emitSubmission();
+    }
+
+    /**
+     * Emits the merged text or model as submission, so that the editor shows the changes of the other team members
+     */
+    private emitSubmission() {
+        const submission = { ...this.latestSubmission, participation: this.participation } as Submission;
+        if (this.exerciseType === ExerciseType.TEXT) {
+            (submission as TextSubmission).text = this.content;
+        } else {
+            (submission as ModelingSubmission).model = this.content;
+            (submission as ModelingSubmission).explanationText = this.explanationText;
+        }
+        this.latestSubmission = submission;
+        this.receiveSubmission.emit(submission);
+    }
+
+    private getContent(submission?: Submission): string | undefined {
+        if (this.exerciseType === ExerciseType.TEXT) {
+            return (submission as TextSubmission | undefined)?.text ?? '';
+        }
+        return (submission as ModelingSubmission | undefined)?.model;
+    }
+
+    private isSelf(user: User | string | undefined) {
+        const login = typeof user === 'string' ? user : user?.login;
+        return this.currentUser?.login === login;
+    }
+
+    private buildChangesTopic(): string {
+        return this.buildWebsocketTopic(this.exerciseType === ExerciseType.TEXT ? '/operations' : '/patches');
     }
 
     private buildWebsocketTopic(path = ''): string {
@@ -0,0 +1,272 @@
+import { TextOperationComponent } from 'app/entities/team-collaboration.model';
+
+/**
+ * An operation on a text for operational transformation, compatible with the JSON representation of ot.js and the TextOperation of the server.
+ * The components are applied to the whole text from left to right: a positive number retains (skips) that many characters, a string is inserted at the current position
+ * and a negative number deletes that many characters.
+ */
+export class TextOperation {
+    readonly components: TextOperationComponent[] = [];
+    baseLength = 0;
+    targetLength = 0;
+
+    /**
+     * Creates an operation from its JSON representation, e.g. [5, 'inserted', -3, 10]
+     * @param components the retain, insert and delete components
+     */
+    static fromJSON(components: TextOperationComponent[]): TextOperation {
+        const operation = new TextOperation();
+        for (const component of components) {
+            if (typeof component === 'string') {
+                operation.insert(component);
+            } else if (component > 0) {
+                operation.retain(component);
+            } else if (component < 0) {
+                operation.delete(-component);
+            } else {
+                throw new Error('Invalid text operation component: ' + component);
+            }
+        }
+        return operation;
+    }
+
+    /**
+     * Creates the operation that changes the old text into the new text by replacing the part between their common prefix and suffix
+     * @param oldText the text before the change
+     * @param newText the text after the change
+     */
+    static fromDiff(oldText: string, newText: string): TextOperation {
+        let prefixLength = 0;
+        const maxLength = Math.min(oldText.length, newText.length);
+        while (prefixLength < maxLength && oldText[prefixLength] === newText[prefixLength]) {
+            prefixLength++;
+        }
+        let suffixLength = 0;
+        while (suffixLength < maxLength - prefixLength && oldText[oldText.length - 1 - suffixLength] === newText[newText.length - 1 - suffixLength]) {
+            suffixLength++;
+        }
+        return new TextOperation()
+            .retain(prefixLength)
+            .delete(oldText.length - prefixLength - suffixLength)
+            .insert(newText.substring(prefixLength, newText.length - suffixLength))
+            .retain(suffixLength);
+    }
+
+    toJSON(): TextOperationComponent[] {
+        return this.components;
+    }
+
+    /**
+     * Skips over the given number of characters
+     * @param length the number of characters
+     */
+    retain(length: number): TextOperation {
+        if (length === 0) {
+            return this;
+        }
+        this.baseLength += length;
+        this.targetLength += length;
+        const last = this.components[this.components.length - 1];
+        if (typeof last === 'number' && last > 0) {
+            this.components[this.components.length - 1] = last + length;
+        } else {
+            this.components.push(length);
+        }
+        return this;
+    }
+
+    /**
+     * Inserts the given text at the current position. Inserts directly before a delete are placed in front of it, so that equal operations have equal components.
+     * @param text the text to insert
+     */
+    insert(text: string): TextOperation {
+        if (text === '') {
+            return this;
+        }
+        this.targetLength += text.length;
+        const last = this.components[this.components.length - 1];
+        const secondLast = this.components[this.components.length - 2];
+        if (typeof last === 'string') {
+            this.components[this.components.length - 1] = last + text;
+        } else if (typeof last === 'number' && last < 0) {
+            if (typeof secondLast === 'string') {
+                this.components[this.components.length - 2] = secondLast + text;
+            } else {
+                this.components[this.components.length - 1] = text;
+                this.components.push(last);
+            }
+        } else {
+            this.components.push(text);
+        }
+        return this;
+    }
+
+    /**
+     * Deletes the given number of characters at the current position
+     * @param length the number of characters
+     */
+    delete(length: number): TextOperation {
+        if (length === 0) {
+            return this;
+        }
+        this.baseLength += length;
+        const last = this.components[this.components.length - 1];
+        if (typeof last === 'number' && last < 0) {
+            this.components[this.components.length - 1] = last - length;
+        } else {
+            this.components.push(-length);
+        }
+        return this;
+    }
+
+    /**
+     * Returns true if the operation does not change the text
+     */
+    isNoop(): boolean {
+        return this.components.length === 0 || (this.components.length === 1 && typeof this.components[0] === 'number' && this.components[0] > 0);
+    }
+
+    /**
+     * Applies this operation to the given text
+     * @param text the text, which must have the base length of this operation
+     */
+    apply(text: string): string {
+        if (text.length !== this.baseLength) {
+            throw new Error(`The base length of the operation (${this.baseLength}) does not match the length of the text (${text.length})`);
+        }
+        const parts: string[] = [];
+        let index = 0;
+        for (const component of this.components) {
+            if (typeof component === 'string') {
+                parts.push(component);
+            } else if (component > 0) {
+                parts.push(text.substring(index, index + component));
+                index += component;
+            } else {
+                index -= component;
+            }
+        }
+        return parts.join('');
+    }
+
+    /**
+     * Combines this operation with the following operation, so that applying the result has the same effect as applying both operations after each other
+     * @param next the operation to apply after this operation, its base length has to be the target length of this operation
+     */
+    compose(next: TextOperation): TextOperation {
+        if (this.targetLength !== next.baseLength) {
+            throw new Error('The base length of the second operation has to be the target length of the first operation');
+        }
+        const composed = new TextOperation();
+        const componentsA = this.components;
+        const componentsB = next.components;
+        let indexA = 0;
+        let indexB = 0;
+        let componentA = componentsA[indexA++];
+        let componentB = componentsB[indexB++];
+        while (componentA !== undefined || componentB !== undefined) {
+            if (typeof componentA === 'number' && componentA < 0) {
+                // characters deleted by the first operation are not seen by the second operation
+                composed.delete(-componentA);
+                componentA = componentsA[indexA++];
+                continue;
+            }
+            if (typeof componentB === 'string') {
+                composed.insert(componentB);
+                componentB = componentsB[indexB++];
+                continue;
+            }
+            if (componentA === undefined || componentB === undefined) {
+                throw new Error('The operations are not compatible');
+            }
+            if (typeof componentA === 'string') {
+                if (componentB > 0) {
+                    // the second operation retains inserted characters
+                    const length = Math.min(componentA.length, componentB);
+                    composed.insert(componentA.substring(0, length));
+                    componentA = componentA.length > length ? componentA.substring(length) : componentsA[indexA++];
+                    componentB = componentB > length ? componentB - length : componentsB[indexB++];
+                } else {
+                    // the second operation deletes inserted characters
+                    const length = Math.min(componentA.length, -componentB);
+                    componentA = componentA.length > length ? componentA.substring(length) : componentsA[indexA++];
+                    componentB = -componentB > length ? componentB + length : componentsB[indexB++];
+                }
+            } else if (componentB > 0) {
+                // both retain
+                const length = Math.min(componentA, componentB);
+                composed.retain(length);
+                componentA = componentA > length ? componentA - length : componentsA[indexA++];
+                componentB = componentB > length ? componentB - length : componentsB[indexB++];
+            } else {
+                // the second operation deletes retained characters
+                const length = Math.min(componentA, -componentB);
+                composed.delete(length);
+                componentA = componentA > length ? componentA - length : componentsA[indexA++];
+                componentB = -componentB > length ? componentB + length : componentsB[indexB++];
+            }
+        }
+        return composed;
+    }
+
+    /**
+     * Transforms two concurrent operations a and b on the same text into a' and b', so that applying a and then b' leads to the same text as applying b and then a'.
+     * If both operations insert at the same position, the insert of a is placed first (as on the server, where a is the operation of the client).
+     * @param a the first operation
+     * @param b the second operation, with the same base length as the first one
+     */
+    static transform(a: TextOperation, b: TextOperation): [TextOperation, TextOperation] {
+        if (a.baseLength !== b.baseLength) {
+            throw new Error('Both operations have to have the same base length');
+        }
+        const aPrime = new TextOperation();
+        const bPrime = new TextOperation();
+        let indexA = 0;
+        let indexB = 0;
+        let componentA = a.components[indexA++];
+        let componentB = b.components[indexB++];
+        while (componentA !== undefined || componentB !== undefined) {
+            if (typeof componentA === 'string') {
+                aPrime.insert(componentA);
+                bPrime.retain(componentA.length);
+                componentA = a.components[indexA++];
+                continue;
+            }
+            if (typeof componentB === 'string') {
+                aPrime.retain(componentB.length);
+                bPrime.insert(componentB);
+                componentB = b.components[indexB++];
+                continue;
+            }
+            if (componentA === undefined || componentB === undefined) {
+                throw new Error('The operations are not compatible');
+            }
+            if (componentA > 0 && componentB > 0) {
+                // both retain
+                const length = Math.min(componentA, componentB);
+                aPrime.retain(length);
+                bPrime.retain(length);
+                componentA = componentA > length ? componentA - length : a.components[indexA++];
+                componentB = componentB > length ? componentB - length : b.components[indexB++];
+            } else if (componentA < 0 && componentB < 0) {
+                // both delete the same characters, nothing to do for these characters
+                const length = Math.min(-componentA, -componentB);
+                componentA = -componentA > length ? componentA + length : a.components[indexA++];
+                componentB = -componentB > length ? componentB + length : b.components[indexB++];
+            } else if (componentA < 0) {
+                // a deletes characters that b retains
+                const length = Math.min(-componentA, componentB);
+                aPrime.delete(length);
+                componentA = -componentA > length ? componentA + length : a.components[indexA++];
+                componentB = componentB > length ? componentB - length : b.components[indexB++];
+            } else {
+                // a retains characters that b deletes
+                const length = Math.min(componentA, -componentB);
+                bPrime.delete(length);
+                componentA = componentA > length ? componentA - length : a.components[indexA++];
+                componentB = -componentB > length ? componentB + length : b.components[indexB++];
+            }
+        }
+        return [aPrime, bPrime];
+    }
+}
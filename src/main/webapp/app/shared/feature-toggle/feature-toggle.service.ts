@@ -15,6 +15,7 @@ export enum FeatureToggle {
     Exports = 'Exports',
     ExamLiveStatistics = 'ExamLiveStatistics',
     TutorialGroups = 'TutorialGroups',
+    QueryBudget = 'QueryBudget',
 }
 export type ActiveFeatureToggles = Array<FeatureToggle>;
 
@@ -1,13 +1,21 @@
 package de.tum.in.www1.artemis;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.security.RequestScopedUserCache;
 
 class DatabaseQueryCountTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
 
@@ -17,6 +25,9 @@ class DatabaseQueryCountTest extends AbstractSpringIntegrationBambooBitbucketJir
 
     private static final int NUMBER_OF_TUTORS = 1;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @BeforeEach
     void setup() {
         participantScoreScheduleService.shutdown();
@@ -67,4 +78,42 @@ class DatabaseQueryCountTest extends AbstractSpringIntegrationBambooBitbucketJir
         // 1 DB call to get all team student participations with submissions and results
         // 1 DB call to get all plagiarism cases
     }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testGetCourseQueryCount() throws Exception {
+        var course = database.createCourse();
+
+        assertThatDb(() -> request.get("/api/courses/" + course.getId(), HttpStatus.OK, Course.class)).hasBeenCalledAtMostTimes(2);
+        // 1 DB call to get the course
+        // 1 DB call to get the user from the DB, although the user is used for several authorization checks
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testGetUserWithGroupsAndAuthoritiesIsLoadedOncePerRequest() {
+        var currentRequest = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        RequestScopedUserCache.enable(currentRequest);
+        try {
+            User user = assertThatDb(() -> {
+                userRepository.getUserWithGroupsAndAuthorities();
+                userRepository.getUserWithGroupsAndAuthorities(TEST_PREFIX + "student1");
+                return userRepository.getUserWithGroupsAndAuthorities();
+            }).hasBeenCalledTimes(1);
+            assertThat(user.getGroups()).contains(TEST_PREFIX + "tumuser");
+
+            // changes of the user (e.g. its groups) evict the cached user, so that it is loaded again
+            RequestScopedUserCache.evict(user.getLogin());
+            assertThatDb(userRepository::getUserWithGroupsAndAuthorities).hasBeenCalledTimes(1);
+        }
+        finally {
+            RequestScopedUserCache.disable(currentRequest);
+        }
+
+        // outside of a request, the user is always loaded from the database
+        assertThatDb(() -> {
+            userRepository.getUserWithGroupsAndAuthorities();
+            return userRepository.getUserWithGroupsAndAuthorities();
+        }).hasBeenCalledTimes(2);
+    }
 }
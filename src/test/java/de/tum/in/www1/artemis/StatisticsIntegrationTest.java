@@ -5,8 +5,10 @@ import static org.awaitility.Awaitility.await;
 
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,11 +30,14 @@ import de.tum.in.www1.artemis.domain.enumeration.SpanType;
 import de.tum.in.www1.artemis.domain.enumeration.StatisticsView;
 import de.tum.in.www1.artemis.domain.metis.AnswerPost;
 import de.tum.in.www1.artemis.domain.metis.Post;
+import de.tum.in.www1.artemis.domain.statistics.StatisticsRollup;
 import de.tum.in.www1.artemis.repository.ParticipantScoreRepository;
+import de.tum.in.www1.artemis.repository.StatisticsRollupRepository;
 import de.tum.in.www1.artemis.repository.TextExerciseRepository;
 import de.tum.in.www1.artemis.repository.UserRepository;
 import de.tum.in.www1.artemis.repository.metis.AnswerPostRepository;
 import de.tum.in.www1.artemis.repository.metis.PostRepository;
+import de.tum.in.www1.artemis.service.StatisticsRollupService;
 import de.tum.in.www1.artemis.util.ModelFactory;
 import de.tum.in.www1.artemis.web.rest.dto.CourseManagementStatisticsDTO;
 import de.tum.in.www1.artemis.web.rest.dto.ExerciseManagementStatisticsDTO;
@@ -56,6 +61,12 @@ class StatisticsIntegrationTest extends AbstractSpringIntegrationBambooBitbucket
     @Autowired
     private ParticipantScoreRepository participantScoreRepository;
 
+    @Autowired
+    private StatisticsRollupService statisticsRollupService;
+
+    @Autowired
+    private StatisticsRollupRepository statisticsRollupRepository;
+
     private Course course;
 
     private TextExercise exercise;
@@ -166,6 +177,53 @@ class StatisticsIntegrationTest extends AbstractSpringIntegrationBambooBitbucket
         }
     }
 
+    @ParameterizedTest(name = "{displayName} [{index}] {argumentsWithNames}")
+    @EnumSource(SpanType.class)
+    @WithMockUser(username = TEST_PREFIX + "tutor1", roles = "TA")
+    void testGetChartDataFromRollups(SpanType span) throws Exception {
+        assertChartDataFromRollupsEqualsChartDataFromDatabase(span, 0);
+    }
+
+    @ParameterizedTest(name = "{displayName} [{index}] {argumentsWithNames}")
+    @EnumSource(SpanType.class)
+    @WithMockUser(username = TEST_PREFIX + "tutor1", roles = "TA")
+    void testGetChartDataFromRollupsForPreviousPeriod(SpanType span) throws Exception {
+        // the buckets of the current period must not be counted in the previous period
+        assertChartDataFromRollupsEqualsChartDataFromDatabase(span, -1);
+    }
+
+    private void assertChartDataFromRollupsEqualsChartDataFromDatabase(SpanType span, int periodIndex) throws Exception {
+        var graphs = List.of(GraphType.SUBMISSIONS, GraphType.ACTIVE_USERS);
+        var entityIds = Map.of(StatisticsView.COURSE, course.getId(), StatisticsView.EXERCISE, exercise.getId());
+        List<Integer[]> expectedResults = new ArrayList<>();
+        for (GraphType graph : graphs) {
+            for (var view : entityIds.keySet()) {
+                var parameters = buildParameters(span, periodIndex, graph, view, entityIds.get(view));
+                expectedResults.add(request.get("/api/management/statistics/data-for-content", HttpStatus.OK, Integer[].class, parameters));
+            }
+        }
+
+        var now = ZonedDateTime.now();
+        statisticsRollupService.compact(now.minusYears(1), now);
+        try {
+            assertThat(statisticsRollupRepository.findBuckets(GraphType.SUBMISSIONS, StatisticsView.EXERCISE, exercise.getId(), StatisticsRollup.Granularity.DAY,
+                    now.minusYears(1), now)).isNotEmpty();
+
+            // the submissions before the current hour are read from the rollups, the submission of the current hour is queried directly
+            int index = 0;
+            for (GraphType graph : graphs) {
+                for (var view : entityIds.keySet()) {
+                    var parameters = buildParameters(span, periodIndex, graph, view, entityIds.get(view));
+                    Integer[] result = request.get("/api/management/statistics/data-for-content", HttpStatus.OK, Integer[].class, parameters);
+                    assertThat(result).as(graph + " " + view).containsExactly(expectedResults.get(index++));
+                }
+            }
+        }
+        finally {
+            statisticsRollupRepository.deleteAll();
+        }
+    }
+
     @Test
     @WithMockUser(username = TEST_PREFIX + "tutor1", roles = "TA")
     void testGetCourseStatistics() throws Exception {
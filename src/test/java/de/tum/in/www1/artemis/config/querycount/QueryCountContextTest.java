@@ -0,0 +1,80 @@
+package de.tum.in.www1.artemis.config.querycount;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.config.querycount.QueryCountContext.Type;
+
+class QueryCountContextTest {
+
+    private static final String SELECT_USER = "select * from jhi_user where id=?";
+
+    private static final String SELECT_COURSE = "select * from course where id=?";
+
+    @AfterEach
+    void tearDown() {
+        // make sure that no unit of work leaks into other tests
+        while (QueryCountContext.isActive()) {
+            QueryCountContext.end();
+        }
+    }
+
+    @Test
+    void testCountStatementsOfUnitOfWork() {
+        QueryCountContext.recordStatement(SELECT_USER);
+
+        QueryCountContext.begin(Type.HTTP, "CourseResource.getCourse", 10);
+        QueryCountContext.recordStatement(SELECT_USER);
+        QueryCountContext.recordStatement(SELECT_COURSE);
+        QueryCountContext.recordExecutionTime(1000);
+        QueryCountContext.recordExecutionTime(500);
+        var unitOfWork = QueryCountContext.end();
+
+        assertThat(unitOfWork.getType()).isEqualTo(Type.HTTP);
+        assertThat(unitOfWork.getName()).isEqualTo("CourseResource.getCourse");
+        assertThat(unitOfWork.getStatementCount()).isEqualTo(2);
+        assertThat(unitOfWork.getExecutionNanos()).isEqualTo(1500);
+        assertThat(unitOfWork.getRepeatedStatements()).isEmpty();
+        assertThat(QueryCountContext.isActive()).isFalse();
+    }
+
+    @Test
+    void testCountNestedUnitOfWorkForOuterOne() {
+        QueryCountContext.begin(Type.HTTP, "CourseResource.getCourse", 10);
+        QueryCountContext.begin(Type.SCHEDULED, "ScheduleService.run", 10);
+        QueryCountContext.recordStatement(SELECT_USER);
+
+        assertThat(QueryCountContext.end()).isNull();
+        QueryCountContext.recordStatement(SELECT_COURSE);
+
+        var unitOfWork = QueryCountContext.end();
+        assertThat(unitOfWork.getName()).isEqualTo("CourseResource.getCourse");
+        assertThat(unitOfWork.getStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testDetectRepeatedStatements() {
+        QueryCountContext.begin(Type.WEBSOCKET, "/topic/exercise/{id}/submission", 3);
+        for (int i = 0; i < 5; i++) {
+            QueryCountContext.recordStatement(SELECT_USER);
+        }
+        QueryCountContext.recordStatement(SELECT_COURSE);
+        QueryCountContext.recordStatement(SELECT_COURSE);
+        var unitOfWork = QueryCountContext.end();
+
+        assertThat(unitOfWork.getStatementCount()).isEqualTo(7);
+        assertThat(unitOfWork.getRepeatedStatements()).singleElement().satisfies(repeatedStatement -> {
+            assertThat(repeatedStatement.sql()).isEqualTo(SELECT_USER);
+            assertThat(repeatedStatement.count()).isEqualTo(5);
+            // the test is the first frame outside of the repositories and the statement counting
+            assertThat(repeatedStatement.callSite()).startsWith("QueryCountContextTest.testDetectRepeatedStatements:");
+        });
+    }
+
+    @Test
+    void testEndWithoutUnitOfWork() {
+        assertThat(QueryCountContext.end()).isNull();
+    }
+}
@@ -34,7 +34,6 @@ import de.tum.in.www1.artemis.domain.lti.Scopes;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.repository.*;
 import de.tum.in.www1.artemis.security.lti.Lti13TokenRetriever;
-import de.tum.in.www1.artemis.service.OnlineCourseConfigurationService;
 import de.tum.in.www1.artemis.service.connectors.lti.Lti13Service;
 import de.tum.in.www1.artemis.service.connectors.lti.LtiService;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
@@ -64,7 +63,7 @@ class Lti13ServiceTest {
     private ResultRepository resultRepository;
 
     @Mock
-    private OnlineCourseConfigurationService onlineCourseConfigurationService;
+    private LtiScorePassbackRepository scorePassbackRepository;
 
     @Mock
     private Lti13TokenRetriever tokenRetriever;
@@ -83,8 +82,8 @@ class Lti13ServiceTest {
     @BeforeEach
     void init() {
         closeable = MockitoAnnotations.openMocks(this);
-        lti13Service = new Lti13Service(userRepository, exerciseRepository, courseRepository, launchRepository, ltiService, resultRepository, tokenRetriever,
-                onlineCourseConfigurationService, restTemplate);
+        lti13Service = new Lti13Service(userRepository, exerciseRepository, courseRepository, launchRepository, ltiService, scorePassbackRepository, tokenRetriever,
+                restTemplate);
         clientRegistrationId = "clientId";
         onlineCourseConfiguration = new OnlineCourseConfiguration();
         onlineCourseConfiguration.setUserPrefix("prefix");
@@ -96,7 +95,7 @@ class Lti13ServiceTest {
         if (closeable != null) {
             closeable.close();
         }
-        reset(userRepository, exerciseRepository, courseRepository, launchRepository, ltiService, resultRepository, onlineCourseConfigurationService, tokenRetriever, restTemplate);
+        reset(userRepository, exerciseRepository, courseRepository, launchRepository, ltiService, resultRepository, scorePassbackRepository, tokenRetriever, restTemplate);
     }
 
     @Test
@@ -287,25 +286,6 @@ class Lti13ServiceTest {
         verify(ltiService, times(1)).buildLtiResponse(any(), any());
     }
 
-    @Test
-    void onNewResultNoOnlineCourseConfiguration() {
-        Course course = new Course();
-        course.setId(1L);
-        Exercise exercise = new ProgrammingExercise() {
-        };
-        exercise.setCourse(course);
-        StudentParticipation participation = new StudentParticipation();
-        participation.setExercise(exercise);
-
-        doReturn(course).when(courseRepository).findByIdWithEagerOnlineCourseConfigurationElseThrow(course.getId());
-        doReturn(null).when(onlineCourseConfigurationService).getClientRegistration(any());
-
-        lti13Service.onNewResult(participation);
-
-        verifyNoInteractions(resultRepository);
-        verifyNoInteractions(restTemplate);
-    }
-
     @Test
     void onNewResultNoLaunchesForUser() {
         Course course = new Course();
@@ -320,18 +300,16 @@ class Lti13ServiceTest {
         participation.setParticipant(user);
         participation.setId(1L);
 
-        doReturn(course).when(courseRepository).findByIdWithEagerOnlineCourseConfigurationElseThrow(course.getId());
-        doReturn(mock(ClientRegistration.class)).when(onlineCourseConfigurationService).getClientRegistration(any());
         doReturn(Collections.emptyList()).when(launchRepository).findByUserAndExercise(user, exercise);
 
         lti13Service.onNewResult(participation);
 
-        verifyNoInteractions(resultRepository);
+        verifyNoInteractions(scorePassbackRepository);
         verifyNoInteractions(restTemplate);
     }
 
     @Test
-    void onNewResultNoResultForUser() {
+    void onNewResultNoScoreUrl() {
         Course course = new Course();
         course.setId(1L);
         User user = new User();
@@ -344,114 +322,55 @@ class Lti13ServiceTest {
         participation.setParticipant(user);
         participation.setId(1L);
         LtiResourceLaunch launch = new LtiResourceLaunch();
-        ClientRegistration clientRegistration = mock(ClientRegistration.class);
 
-        doReturn(course).when(courseRepository).findByIdWithEagerOnlineCourseConfigurationElseThrow(course.getId());
-        doReturn(clientRegistration).when(onlineCourseConfigurationService).getClientRegistration(any());
         doReturn(Collections.singletonList(launch)).when(launchRepository).findByUserAndExercise(user, exercise);
-        doReturn(Optional.empty()).when(resultRepository).findFirstWithSubmissionAndFeedbacksByParticipationIdOrderByCompletionDateDesc(participation.getId());
 
         lti13Service.onNewResult(participation);
 
+        verifyNoInteractions(scorePassbackRepository);
         verifyNoInteractions(restTemplate);
     }
 
     @Test
-    void onNewResultNoScoreUrl() {
-        Result result = new Result();
-        double scoreGiven = 60D;
-        result.setScore(scoreGiven);
-
-        Feedback feedback = new Feedback();
-        feedback.setDetailText("Not so good");
-        result.addFeedback(feedback);
-
-        Course course = new Course();
-        course.setId(1L);
-        User user = new User();
-        user.setId(1L);
-        Exercise exercise = new ProgrammingExercise() {
-        };
-        exercise.setCourse(course);
-        StudentParticipation participation = new StudentParticipation();
-        participation.setExercise(exercise);
-        participation.setParticipant(user);
-        participation.setId(1L);
-        LtiResourceLaunch launch = new LtiResourceLaunch();
-        ClientRegistration clientRegistration = mock(ClientRegistration.class);
+    void onNewResult() {
+        State state = getValidStateForNewResult(new Result());
+        LtiResourceLaunch launch = state.ltiResourceLaunch();
+        StudentParticipation participation = state.participation();
 
-        doReturn(course).when(courseRepository).findByIdWithEagerOnlineCourseConfigurationElseThrow(course.getId());
-        doReturn(clientRegistration).when(onlineCourseConfigurationService).getClientRegistration(any());
-        doReturn(Collections.singletonList(launch)).when(launchRepository).findByUserAndExercise(user, exercise);
-        doReturn(Optional.of(result)).when(resultRepository).findFirstWithSubmissionAndFeedbacksByParticipationIdOrderByCompletionDateDesc(participation.getId());
+        doReturn(Collections.singletonList(launch)).when(launchRepository).findByUserAndExercise(state.user(), state.exercise());
 
         lti13Service.onNewResult(participation);
 
+        // the score is only scheduled, it is sent asynchronously
+        verify(scorePassbackRepository).enqueue(launch.getId(), participation.getId());
+        verifyNoInteractions(resultRepository);
+        verifyNoInteractions(tokenRetriever);
         verifyNoInteractions(restTemplate);
     }
 
     @Test
-    void onNewResultTokenFails() {
-        Result result = new Result();
-        double scoreGiven = 60D;
-        result.setScore(scoreGiven);
-
-        Feedback feedback = new Feedback();
-        feedback.setDetailText("Not so good");
-        result.addFeedback(feedback);
-
-        State state = getValidStateForNewResult(result);
-        LtiResourceLaunch launch = state.ltiResourceLaunch;
-        User user = state.user();
-        Exercise exercise = state.exercise();
-        StudentParticipation participation = state.participation();
-        Course course = exercise.getCourseViaExerciseGroupOrCourseMember();
+    void submitScoreTokenFails() {
+        State state = getValidStateForNewResult(new Result());
         ClientRegistration clientRegistration = state.clientRegistration();
 
-        doReturn(course).when(courseRepository).findByIdWithEagerOnlineCourseConfigurationElseThrow(course.getId());
-        doReturn(clientRegistration).when(onlineCourseConfigurationService).getClientRegistration(any());
-        doReturn(Collections.singletonList(launch)).when(launchRepository).findByUserAndExercise(user, exercise);
-        doReturn(Optional.of(result)).when(resultRepository).findFirstWithSubmissionAndFeedbacksByParticipationIdOrderByCompletionDateDesc(participation.getId());
-        doReturn(null).when(tokenRetriever).getToken(eq(clientRegistration), eq(Scopes.AGS_SCORE));
+        doReturn(null).when(tokenRetriever).getCachedToken(eq(clientRegistration), eq(Scopes.AGS_SCORE));
 
-        lti13Service.onNewResult(participation);
+        assertThrows(IllegalStateException.class, () -> lti13Service.submitScore(state.ltiResourceLaunch(), clientRegistration, "Not so good", 60D));
 
         verifyNoInteractions(restTemplate);
     }
 
     @Test
-    void onNewResult() throws ParseException {
-        Result result = new Result();
+    void submitScore() throws ParseException {
         double scoreGiven = 60D;
-        result.setScore(scoreGiven);
-
-        Feedback feedback1 = new Feedback();
-        Feedback feedback2 = new Feedback();
-        feedback1.setDetailText("Good job");
-        feedback2.setDetailText("Not so good");
-
-        result.addFeedback(feedback1);
-        result.addFeedback(feedback2);
-
-        State state = getValidStateForNewResult(result);
-
-        LtiResourceLaunch launch = state.ltiResourceLaunch;
-        User user = state.user();
-        Exercise exercise = state.exercise();
-        StudentParticipation participation = state.participation();
-        Course course = exercise.getCourseViaExerciseGroupOrCourseMember();
+        State state = getValidStateForNewResult(new Result());
+        LtiResourceLaunch launch = state.ltiResourceLaunch();
         ClientRegistration clientRegistration = state.clientRegistration();
 
-        doReturn(Collections.singletonList(launch)).when(launchRepository).findByUserAndExercise(user, exercise);
-        doReturn(Optional.of(result)).when(resultRepository).findFirstWithSubmissionAndFeedbacksByParticipationIdOrderByCompletionDateDesc(participation.getId());
-        doReturn(course).when(courseRepository).findByIdWithEagerOnlineCourseConfigurationElseThrow(course.getId());
-
-        doReturn(clientRegistration).when(onlineCourseConfigurationService).getClientRegistration(any());
-
         String accessToken = "accessToken";
-        doReturn(accessToken).when(tokenRetriever).getToken(eq(clientRegistration), eq(Scopes.AGS_SCORE));
+        doReturn(accessToken).when(tokenRetriever).getCachedToken(eq(clientRegistration), eq(Scopes.AGS_SCORE));
 
-        lti13Service.onNewResult(participation);
+        lti13Service.submitScore(launch, clientRegistration, "Good job. Not so good", scoreGiven);
 
         ArgumentCaptor<String> urlCapture = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<HttpEntity<String>> httpEntityCapture = ArgumentCaptor.forClass(HttpEntity.class);
@@ -500,6 +419,7 @@ class Lti13ServiceTest {
         doReturn(clientRegistrationId).when(clientRegistration).getRegistrationId();
 
         LtiResourceLaunch launch = new LtiResourceLaunch();
+        launch.setId(42L);
         launch.setUser(user);
         launch.setSub("some-sub");
         launch.setExercise(exercise);
@@ -0,0 +1,181 @@
+package de.tum.in.www1.artemis.connectors;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.lti.LtiResourceLaunch;
+import de.tum.in.www1.artemis.domain.lti.LtiScorePassback;
+import de.tum.in.www1.artemis.domain.lti.Scopes;
+import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.security.lti.Lti13TokenRetriever;
+import de.tum.in.www1.artemis.service.OnlineCourseConfigurationService;
+import de.tum.in.www1.artemis.service.connectors.lti.Lti13Service;
+import de.tum.in.www1.artemis.service.connectors.lti.LtiScorePassbackService;
+import de.tum.in.www1.artemis.service.connectors.lti.LtiService;
+
+class LtiScorePassbackServiceTest {
+
+    private static final String LINE_ITEM_URL = "https://lms.example.org/lineitems/1";
+
+    private static final long PARTICIPATION_ID = 7L;
+
+    @Mock
+    private LtiScorePassbackRepository scorePassbackRepository;
+
+    @Mock
+    private Lti13ResourceLaunchRepository launchRepository;
+
+    @Mock
+    private ResultRepository resultRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private OnlineCourseConfigurationService onlineCourseConfigurationService;
+
+    @Mock
+    private Lti13TokenRetriever tokenRetriever;
+
+    private ClientRegistration clientRegistration;
+
+    private MockRestServiceServer lms;
+
+    private LtiScorePassbackService scorePassbackService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void init() {
+        closeable = MockitoAnnotations.openMocks(this);
+        // the score requests are answered by a local mock of the LMS
+        RestTemplate restTemplate = new RestTemplate();
+        lms = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        Lti13Service lti13Service = new Lti13Service(mock(UserRepository.class), mock(ExerciseRepository.class), courseRepository, launchRepository, mock(LtiService.class),
+                scorePassbackRepository, tokenRetriever, restTemplate);
+        scorePassbackService = new LtiScorePassbackService(scorePassbackRepository, launchRepository, resultRepository, courseRepository, onlineCourseConfigurationService,
+                lti13Service);
+
+        Course course = new Course();
+        course.setId(1L);
+        course.setOnlineCourseConfiguration(new OnlineCourseConfiguration());
+        clientRegistration = mock(ClientRegistration.class);
+        doReturn("clientId").when(clientRegistration).getClientId();
+        doReturn(course).when(courseRepository).findByIdWithEagerOnlineCourseConfigurationElseThrow(course.getId());
+        doReturn(clientRegistration).when(onlineCourseConfigurationService).getClientRegistration(any());
+        doReturn("token").when(tokenRetriever).getCachedToken(clientRegistration, Scopes.AGS_SCORE);
+        doReturn(true).when(scorePassbackRepository).claim(anyLong());
+
+        Result result = new Result();
+        result.setScore(80D);
+        Feedback feedback = new Feedback();
+        feedback.setDetailText("Well done");
+        result.addFeedback(feedback);
+        doReturn(Optional.of(result)).when(resultRepository).findFirstWithSubmissionAndFeedbacksByParticipationIdOrderByCompletionDateDesc(PARTICIPATION_ID);
+
+        Exercise exercise = new TextExercise();
+        exercise.setCourse(course);
+        User user = new User();
+        user.setLogin("student");
+        doReturn(List.of(createLaunch(1L, exercise, user), createLaunch(2L, exercise, user))).when(launchRepository).findAllById(any());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (closeable != null) {
+            closeable.close();
+        }
+    }
+
+    @Test
+    void sendPendingScores() {
+        mockPendingPassbacks(createPassback(11L, 1L), createPassback(12L, 2L));
+        lms.expect(ExpectedCount.times(2), requestTo(LINE_ITEM_URL + "/scores")).andExpect(method(HttpMethod.POST)).andExpect(header("Authorization", "Bearer token"))
+                .andExpect(jsonPath("$.scoreGiven").value(80D)).andExpect(jsonPath("$.comment").value("Well done")).andRespond(withSuccess());
+
+        scorePassbackService.sendPendingScores();
+
+        lms.verify();
+        // the latest result of the participation is only loaded once for both launches
+        verify(resultRepository, times(1)).findFirstWithSubmissionAndFeedbacksByParticipationIdOrderByCompletionDateDesc(PARTICIPATION_ID);
+        verify(scorePassbackRepository).updateStatus(eq(11L), eq(LtiScorePassback.Status.SENDING), eq(LtiScorePassback.Status.DELIVERED), any());
+        verify(scorePassbackRepository).updateStatus(eq(12L), eq(LtiScorePassback.Status.SENDING), eq(LtiScorePassback.Status.DELIVERED), any());
+    }
+
+    @Test
+    void sendPendingScoresLmsUnavailable() {
+        mockPendingPassbacks(createPassback(11L, 1L));
+        lms.expect(requestTo(LINE_ITEM_URL + "/scores")).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        ZonedDateTime start = ZonedDateTime.now();
+        scorePassbackService.sendPendingScores();
+
+        lms.verify();
+        // the score is sent again after a backoff
+        verify(scorePassbackRepository).updateStatusAfterFailedAttempt(eq(11L), eq(LtiScorePassback.Status.SENDING), eq(LtiScorePassback.Status.PENDING), any(),
+                argThat((ZonedDateTime nextAttemptDate) -> nextAttemptDate.isAfter(start.plusSeconds(29))), any());
+        verify(scorePassbackRepository, never()).updateStatus(anyLong(), any(), eq(LtiScorePassback.Status.DELIVERED), any());
+    }
+
+    @Test
+    void sendPendingScoresTokenRejected() {
+        mockPendingPassbacks(createPassback(11L, 1L));
+        lms.expect(requestTo(LINE_ITEM_URL + "/scores")).andRespond(withUnauthorizedRequest());
+
+        scorePassbackService.sendPendingScores();
+
+        lms.verify();
+        verify(tokenRetriever).evictCachedToken(clientRegistration, Scopes.AGS_SCORE);
+        verify(scorePassbackRepository).updateStatusAfterFailedAttempt(eq(11L), eq(LtiScorePassback.Status.SENDING), eq(LtiScorePassback.Status.PENDING), any(), any(),
+                any());
+    }
+
+    @Test
+    void sendPendingScoresNotClaimed() {
+        mockPendingPassbacks(createPassback(11L, 1L));
+        doReturn(false).when(scorePassbackRepository).claim(11L);
+
+        scorePassbackService.sendPendingScores();
+
+        lms.verify();
+        verifyNoInteractions(resultRepository);
+    }
+
+    private void mockPendingPassbacks(LtiScorePassback... passbacks) {
+        doReturn(List.of(passbacks)).when(scorePassbackRepository).findByStatusAndNextAttemptDateBefore(eq(LtiScorePassback.Status.PENDING), any(), any());
+    }
+
+    private static LtiScorePassback createPassback(long id, long launchId) {
+        LtiScorePassback passback = new LtiScorePassback(launchId, PARTICIPATION_ID);
+        passback.setId(id);
+        return passback;
+    }
+
+    private static LtiResourceLaunch createLaunch(long id, Exercise exercise, User user) {
+        LtiResourceLaunch launch = new LtiResourceLaunch();
+        launch.setId(id);
+        launch.setSub("sub-" + id);
+        launch.setUser(user);
+        launch.setExercise(exercise);
+        launch.setScoreLineItemUrl(LINE_ITEM_URL);
+        return launch;
+    }
+}
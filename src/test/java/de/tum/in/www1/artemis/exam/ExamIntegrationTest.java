@@ -40,6 +40,7 @@ import de.tum.in.www1.artemis.AbstractSpringIntegrationBambooBitbucketJiraTest;
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.*;
 import de.tum.in.www1.artemis.domain.exam.Exam;
+import de.tum.in.www1.artemis.domain.exam.ExamPreparationTask;
 import de.tum.in.www1.artemis.domain.exam.ExamUser;
 import de.tum.in.www1.artemis.domain.exam.ExerciseGroup;
 import de.tum.in.www1.artemis.domain.exam.StudentExam;
@@ -118,6 +119,9 @@ class ExamIntegrationTest extends AbstractSpringIntegrationBambooBitbucketJiraTe
     @Autowired
     private StudentExamRepository studentExamRepository;
 
+    @Autowired
+    private ExamPreparationTaskRepository examPreparationTaskRepository;
+
     @Autowired
     private TextExerciseRepository textExerciseRepository;
 
@@ -315,12 +319,12 @@ class ExamIntegrationTest extends AbstractSpringIntegrationBambooBitbucketJiraTe
         userRepo.save(student10);
 
         // mock the ldap service
-        doReturn(Optional.empty()).when(ldapUserService).findByRegistrationNumber(registrationNumber3WithTypo);
-        doReturn(Optional.empty()).when(ldapUserService).findByRegistrationNumber(emptyRegistrationNumber);
-        doReturn(Optional.empty()).when(ldapUserService).findByRegistrationNumber(registrationNumber5WithTypo);
         var ldapUser111Dto = new LdapUserDto().registrationNumber(registrationNumber111).firstName(STUDENT_111).lastName(STUDENT_111).username(STUDENT_111)
                 .email(STUDENT_111 + "@tum.de");
-        doReturn(Optional.of(ldapUser111Dto)).when(ldapUserService).findByRegistrationNumber(registrationNumber111);
+        // only the registration numbers that cannot be found in the database are searched in the LDAP (with one search)
+        doReturn(List.of(ldapUser111Dto)).when(ldapUserService)
+                .findAllByRegistrationNumbers(argThat(registrationNumbers -> Set.copyOf(registrationNumbers).equals(Set.of(registrationNumber3WithTypo,
+                        registrationNumber5WithTypo, registrationNumber111))));
 
         // first and second mocked calls are expected to add student 5 and 99 to the course students
         jiraRequestMockProvider.mockAddUserToGroup(course1.getStudentGroupName(), false);
@@ -394,6 +398,9 @@ class ExamIntegrationTest extends AbstractSpringIntegrationBambooBitbucketJiraTe
         List<StudentDTO> registrationFailures = request.postListWithResponseBody("/api/courses/" + course1.getId() + "/exams/" + savedExam.getId() + "/students",
                 studentsToRegister, StudentDTO.class, HttpStatus.OK);
         assertThat(registrationFailures).containsExactlyInAnyOrder(studentDto3, studentDto10);
+        verify(messagingTemplate).convertAndSend(eq("/topic/exams/" + savedExam.getId() + "/registration-progress"),
+                argThat((ExamRegistrationProgressDTO progress) -> progress.finished() && progress.processedStudents() == studentsToRegister.size()
+                        && progress.notFoundStudents().size() == 2));
         storedExam = examRepository.findWithExamUsersById(savedExam.getId()).get();
 
         // now a new user student101 should exist
@@ -639,6 +646,64 @@ class ExamIntegrationTest extends AbstractSpringIntegrationBambooBitbucketJiraTe
         request.delete("/api/courses/" + course1.getId() + "/exams/" + exam.getId(), HttpStatus.OK);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
+    void testStartExercises_resumeStalePreparationTasks() throws Exception {
+        Exam exam = database.setupExamWithExerciseGroupsExercisesRegisteredStudents(TEST_PREFIX, course1, 2);
+        List<StudentExam> studentExams = request.postListWithResponseBody("/api/courses/" + course1.getId() + "/exams/" + exam.getId() + "/generate-student-exams",
+                Optional.empty(), StudentExam.class, HttpStatus.OK);
+
+        // simulate an instance that stopped while executing the tasks
+        var tasks = examPreparationTaskRepository.saveAll(studentExams.stream().map(studentExam -> new ExamPreparationTask(exam.getId(), studentExam.getId())).toList());
+        examPreparationTaskRepository.updateStatus(tasks.stream().map(ExamPreparationTask::getId).toList(), ExamPreparationTask.Status.RUNNING,
+                ZonedDateTime.now().minusHours(1));
+
+        studentExamService.resumeStalePreparationTasks();
+
+        var taskIds = tasks.stream().map(ExamPreparationTask::getId).toList();
+        await().until(() -> examPreparationTaskRepository.findAllById(taskIds).stream().allMatch(task -> task.getStatus() == ExamPreparationTask.Status.FINISHED));
+        assertThat(participationTestRepository.findByExercise_ExerciseGroup_Exam_Id(exam.getId())).hasSize(8);
+
+        // executing the tasks again does not create participations a second time
+        examPreparationTaskRepository.updateStatus(taskIds, ExamPreparationTask.Status.QUEUED, ZonedDateTime.now().minusHours(1));
+        studentExamService.resumeStalePreparationTasks();
+        await().until(() -> examPreparationTaskRepository.findAllById(taskIds).stream().allMatch(task -> task.getStatus() == ExamPreparationTask.Status.FINISHED));
+        assertThat(participationTestRepository.findByExercise_ExerciseGroup_Exam_Id(exam.getId())).hasSize(8);
+
+        request.delete("/api/courses/" + course1.getId() + "/exams/" + exam.getId(), HttpStatus.OK);
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
+    void testStartExercises_doNotResumeRunningPreparationTasks() throws Exception {
+        Exam exam = database.setupExamWithExerciseGroupsExercisesRegisteredStudents(TEST_PREFIX, course1, 2);
+        List<StudentExam> studentExams = request.postListWithResponseBody("/api/courses/" + course1.getId() + "/exams/" + exam.getId() + "/generate-student-exams",
+                Optional.empty(), StudentExam.class, HttpStatus.OK);
+
+        // simulate a slow execution of the tasks on a live instance whose lease has been renewed after the tasks were claimed long ago
+        var tasks = examPreparationTaskRepository.saveAll(studentExams.stream().map(studentExam -> new ExamPreparationTask(exam.getId(), studentExam.getId())).toList());
+        var taskIds = tasks.stream().map(ExamPreparationTask::getId).toList();
+        taskIds.forEach(taskId -> assertThat(examPreparationTaskRepository.claim(taskId)).isTrue());
+        examPreparationTaskRepository.updateStatus(taskIds, ExamPreparationTask.Status.RUNNING, ZonedDateTime.now().minusHours(1));
+        examPreparationTaskRepository.renewLeases(taskIds);
+
+        studentExamService.resumeStalePreparationTasks();
+        assertThat(examPreparationTaskRepository.findAllById(taskIds)).allMatch(task -> task.getStatus() == ExamPreparationTask.Status.RUNNING && task.getAttempts() == 1);
+        assertThat(participationTestRepository.findByExercise_ExerciseGroup_Exam_Id(exam.getId())).isEmpty();
+
+        // once the lease has expired, the tasks are resumed and the stale execution that is still running cannot complete them anymore
+        examPreparationTaskRepository.updateStatus(taskIds, ExamPreparationTask.Status.RUNNING, ZonedDateTime.now().minusHours(1));
+        studentExamService.resumeStalePreparationTasks();
+        await().until(() -> examPreparationTaskRepository.findAllById(taskIds).stream().allMatch(task -> task.getStatus() == ExamPreparationTask.Status.FINISHED));
+        assertThat(participationTestRepository.findByExercise_ExerciseGroup_Exam_Id(exam.getId())).hasSize(8);
+
+        taskIds.forEach(taskId -> assertThat(examPreparationTaskRepository.complete(taskId, 1, ExamPreparationTask.Status.FAILED, 4)).isFalse());
+        assertThat(examPreparationTaskRepository.findAllById(taskIds))
+                .allMatch(task -> task.getStatus() == ExamPreparationTask.Status.FINISHED && task.getParticipationCount() == 4);
+
+        request.delete("/api/courses/" + course1.getId() + "/exams/" + exam.getId(), HttpStatus.OK);
+    }
+
     @Test
     @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
     void testGenerateStudentExams_testExam() throws Exception {
@@ -390,6 +390,56 @@ class StudentExamIntegrationTest extends AbstractSpringIntegrationBambooBitbucke
         deleteExamWithInstructor(exam1);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
+    void testGetStudentExamForConduction_changedExercise() throws Exception {
+        List<StudentExam> studentExams = prepareStudentExamsForConduction(false, true);
+        StudentExam studentExam = studentExams.get(0);
+        String url = "/api/courses/" + course2.getId() + "/exams/" + exam2.getId() + "/student-exams/" + studentExam.getId() + "/conduction";
+
+        database.changeUser(studentExam.getUser().getLogin());
+        var response = request.get(url, HttpStatus.OK, StudentExam.class, getHttpHeadersForExamSession());
+        var exercise = response.getExercises().get(0);
+        assertThat(exercise.getStudentParticipations()).hasSize(1);
+
+        // the shared content of the exam has to be rebuilt after an exercise has changed
+        var changedExercise = exerciseRepository.findByIdElseThrow(exercise.getId());
+        changedExercise.setProblemStatement("Changed problem statement");
+        exerciseRepository.save(changedExercise);
+
+        response = request.get(url, HttpStatus.OK, StudentExam.class, getHttpHeadersForExamSession());
+        assertThat(response.getExercises().get(0).getProblemStatement()).isEqualTo("Changed problem statement");
+        assertParticipationAndSubmissions(response, studentExam.getUser());
+
+        deleteExamWithInstructor(exam1);
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
+    void testGetStudentExamForConduction_noExerciseInParticipations() throws Exception {
+        List<StudentExam> studentExams = prepareStudentExamsForConduction(false, true);
+        StudentExam studentExam = studentExams.get(0);
+        for (Exercise exercise : studentExam.getExercises()) {
+            var exerciseWithGradingInstructions = exerciseRepository.findByIdElseThrow(exercise.getId());
+            exerciseWithGradingInstructions.setGradingInstructions("Secret grading instructions");
+            exerciseRepository.save(exerciseWithGradingInstructions);
+        }
+
+        database.changeUser(studentExam.getUser().getLogin());
+        String response = request.get("/api/courses/" + course2.getId() + "/exams/" + exam2.getId() + "/student-exams/" + studentExam.getId() + "/conduction",
+                HttpStatus.OK, String.class, getHttpHeadersForExamSession());
+        assertThat(response).doesNotContain("Secret grading instructions");
+
+        // the participations are nested in the filtered exercise and must not contain their own (unfiltered) exercise
+        var exercisesJson = objectMapper.readTree(response).get("exercises");
+        assertThat(exercisesJson).isNotEmpty();
+        for (var exerciseJson : exercisesJson) {
+            assertThat(exerciseJson.get("studentParticipations")).isNotEmpty().allSatisfy(participationJson -> assertThat(participationJson.has("exercise")).isFalse());
+        }
+
+        deleteExamWithInstructor(exam1);
+    }
+
     private static HttpHeaders getHttpHeadersForExamSession() {
         final HttpHeaders headers = new HttpHeaders();
         headers.set("User-Agent", "foo");
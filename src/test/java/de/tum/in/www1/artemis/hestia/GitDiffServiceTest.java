@@ -0,0 +1,81 @@
+package de.tum.in.www1.artemis.hestia;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import de.tum.in.www1.artemis.AbstractSpringIntegrationBambooBitbucketJiraTest;
+import de.tum.in.www1.artemis.domain.Repository;
+import de.tum.in.www1.artemis.service.hestia.GitDiffService;
+import de.tum.in.www1.artemis.service.hestia.GitDiffService.GitDiffChange;
+import de.tum.in.www1.artemis.util.LocalRepository;
+
+/**
+ * Tests for the GitDiffService
+ */
+class GitDiffServiceTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
+
+    private final LocalRepository oldRepo = new LocalRepository("main");
+
+    private final LocalRepository newRepo = new LocalRepository("main");
+
+    @Autowired
+    private GitDiffService gitDiffService;
+
+    @BeforeEach
+    void initTestCase() throws Exception {
+        oldRepo.configureRepos("gitDiffOldLocalRepo", "gitDiffOldOriginRepo");
+        newRepo.configureRepos("gitDiffNewLocalRepo", "gitDiffNewOriginRepo");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        oldRepo.resetLocalRepo();
+        newRepo.resetLocalRepo();
+    }
+
+    @Test
+    void computeChangesAcrossRepositories() throws Exception {
+        var oldCommit = commit(oldRepo, Map.of("Same.java", "A\nB\n", "Changed.java", "A\nB\nC\n", "Deleted.java", "A\n", "Binary.bin", "A\0B"));
+        var newCommit = commit(newRepo, Map.of("Same.java", "A\nB\n", "Changed.java", "A\nX\nC\nD\n", "src/Added.java", "A\nB\n", "Binary.bin", "B\0A"));
+
+        var changes = gitDiffService.computeChanges(getRepository(oldRepo), oldCommit.getName(), getRepository(newRepo), newCommit.getName());
+
+        assertThat(changes).containsExactly(new GitDiffChange("Changed.java", "Changed.java", 2, 1, 2, 1), new GitDiffChange("Changed.java", "Changed.java", null, null, 4, 1),
+                new GitDiffChange(null, "Deleted.java", 1, 1, null, null), new GitDiffChange("src/Added.java", null, null, null, 1, 2));
+    }
+
+    @Test
+    void computeChangesUsesCommitsInsteadOfWorkingCopy() throws Exception {
+        var oldCommit = commit(oldRepo, Map.of("Test.java", "A\n"));
+        var newCommit = commit(newRepo, Map.of("Test.java", "A\nB\n"));
+        // uncommitted changes are not part of the diff
+        Files.writeString(newRepo.localRepoFile.toPath().resolve("Test.java"), "C\n", StandardCharsets.UTF_8);
+
+        var changes = gitDiffService.computeChanges(getRepository(oldRepo), oldCommit.getName(), getRepository(newRepo), newCommit.getName());
+
+        assertThat(changes).containsExactly(new GitDiffChange("Test.java", "Test.java", null, null, 2, 1));
+    }
+
+    private RevCommit commit(LocalRepository repository, Map<String, String> files) throws Exception {
+        for (var file : files.entrySet()) {
+            var filePath = repository.localRepoFile.toPath().resolve(file.getKey());
+            Files.createDirectories(filePath.getParent());
+            Files.writeString(filePath, file.getValue(), StandardCharsets.UTF_8);
+        }
+        repository.localGit.add().addFilepattern(".").call();
+        return repository.localGit.commit().setMessage("Commit").call();
+    }
+
+    private Repository getRepository(LocalRepository repository) {
+        return gitService.getExistingCheckedOutRepositoryByLocalPath(repository.localRepoFile.toPath(), null);
+    }
+}
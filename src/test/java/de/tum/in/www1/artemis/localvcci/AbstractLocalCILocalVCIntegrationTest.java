@@ -23,6 +23,7 @@ import de.tum.in.www1.artemis.repository.ExamRepository;
 import de.tum.in.www1.artemis.repository.ExerciseGroupRepository;
 import de.tum.in.www1.artemis.repository.StudentExamRepository;
 import de.tum.in.www1.artemis.repository.TeamRepository;
+import de.tum.in.www1.artemis.service.connectors.localvc.LocalVCAccessCacheService;
 
 public class AbstractLocalCILocalVCIntegrationTest extends AbstractSpringIntegrationLocalCILocalVCTest {
 
@@ -40,6 +41,9 @@ public class AbstractLocalCILocalVCIntegrationTest extends AbstractSpringIntegra
     @Autowired
     protected StudentExamRepository studentExamRepository;
 
+    @Autowired
+    protected LocalVCAccessCacheService localVCAccessCacheService;
+
     @LocalServerPort
     protected int port;
 
@@ -91,6 +95,8 @@ public class AbstractLocalCILocalVCIntegrationTest extends AbstractSpringIntegra
         // The port cannot be injected into the LocalVCLocalCITestService because {local.server.port} is not available when the class is instantiated.
         // Thus, "inject" the port from here.
         localVCLocalCITestService.setPort(port);
+        // The cached access decisions of previous tests might belong to an exercise with the same project key.
+        localVCAccessCacheService.clear();
 
         List<User> users = database.addUsers(TEST_PREFIX, 2, 1, 0, 1);
         student1Login = TEST_PREFIX + "student1";
@@ -0,0 +1,117 @@
+package de.tum.in.www1.artemis.localvcci;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCITestResultParser;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildResult;
+
+class LocalCITestResultParserTest {
+
+    private final LocalCITestResultParser parser = new LocalCITestResultParser(XMLInputFactory.newInstance());
+
+    @Test
+    void testParseSmallReport() throws IOException, XMLStreamException {
+        String report = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <testsuite name="SortingExampleBehaviorTest" tests="2">
+                  <testcase name="testBubbleSort()" classname="testpackage.SortingExampleBehaviorTest"/>
+                  <testcase name="testMergeSort()" classname="testpackage.SortingExampleBehaviorTest">
+                    <failure message="Expected sorted list" type="AssertionFailedError">stack trace</failure>
+                  </testcase>
+                </testsuite>
+                """;
+        byte[] tar = createTar(List.of("test/TEST-SortingExampleBehaviorTest.xml", "test/other.txt"), List.of(report.getBytes(StandardCharsets.UTF_8), new byte[] { 1, 2, 3 }));
+
+        List<LocalCIBuildResult.LocalCITestJobDTO> successfulTests = new ArrayList<>();
+        List<LocalCIBuildResult.LocalCITestJobDTO> failedTests = new ArrayList<>();
+        parser.parseTestResults(new TarArchiveInputStream(new ByteArrayInputStream(tar)), successfulTests::add, failedTests::add);
+
+        assertThat(successfulTests).extracting(LocalCIBuildResult.LocalCITestJobDTO::getName).containsExactly("testBubbleSort()");
+        assertThat(failedTests).extracting(LocalCIBuildResult.LocalCITestJobDTO::getName).containsExactly("testMergeSort()");
+        assertThat(failedTests.get(0).errors()).containsExactly("Expected sorted list");
+    }
+
+    @Test
+    void testParseInvalidReport() throws IOException {
+        byte[] tar = createTar(List.of("test/TEST-Invalid.xml"), List.of("<?xml version=\"1.0\"?><testcases/>".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(IllegalStateException.class, () -> parser.parseTestResults(new TarArchiveInputStream(new ByteArrayInputStream(tar)), test -> {
+        }, test -> {
+        }));
+    }
+
+    /**
+     * Parses a very large report (thousands of parameterized test cases with long messages and huge stack traces) and verifies that the parser neither keeps the stack traces
+     * nor the report itself in memory: the bytes allocated while parsing have to stay well below the size of the report.
+     */
+    @Test
+    void testParseLargeReportWithLowMemoryFootprint() throws IOException, XMLStreamException {
+        int numberOfTestCases = 3000;
+        String longMessage = "x".repeat(LocalCITestResultParser.MAX_FAILURE_MESSAGE_LENGTH + 1000);
+        String stackTrace = "\tat testpackage.SortingExampleBehaviorTest.testMergeSort(SortingExampleBehaviorTest.java:42)\n".repeat(200);
+
+        StringBuilder report = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"LargeTest\">\n");
+        for (int i = 0; i < numberOfTestCases; i++) {
+            report.append("<testcase name=\"testParameterized[").append(i).append("]\">");
+            if (i % 2 == 0) {
+                String message = i == 0 ? longMessage : "failure " + i;
+                report.append("<failure message=\"").append(message).append("\">").append(stackTrace).append("</failure>");
+            }
+            report.append("</testcase>\n");
+        }
+        report.append("</testsuite>\n");
+        byte[] reportBytes = report.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] tar = createTar(List.of("test/TEST-LargeTest.xml"), List.of(reportBytes));
+
+        List<LocalCIBuildResult.LocalCITestJobDTO> successfulTests = new ArrayList<>();
+        List<LocalCIBuildResult.LocalCITestJobDTO> failedTests = new ArrayList<>();
+
+        long allocatedBytesBefore = getAllocatedBytesOfCurrentThread();
+        parser.parseTestResults(new TarArchiveInputStream(new ByteArrayInputStream(tar)), successfulTests::add, failedTests::add);
+        long allocatedBytes = getAllocatedBytesOfCurrentThread() - allocatedBytesBefore;
+
+        assertThat(successfulTests).hasSize(numberOfTestCases / 2);
+        assertThat(failedTests).hasSize(numberOfTestCases / 2);
+        assertThat(failedTests.get(0).errors().get(0)).hasSize(LocalCITestResultParser.MAX_FAILURE_MESSAGE_LENGTH);
+        assertThat(failedTests.get(1).errors()).containsExactly("failure 2");
+
+        // Reading the report into a string first would allocate at least the size of the report twice (bytes and characters).
+        assertThat(allocatedBytes).isLessThan(reportBytes.length / 2);
+    }
+
+    private static long getAllocatedBytesOfCurrentThread() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static byte[] createTar(List<String> fileNames, List<byte[]> contents) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tarArchiveOutputStream = new TarArchiveOutputStream(byteArrayOutputStream)) {
+            tarArchiveOutputStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            for (int i = 0; i < fileNames.size(); i++) {
+                TarArchiveEntry tarEntry = new TarArchiveEntry(fileNames.get(i));
+                tarEntry.setSize(contents.get(i).length);
+                tarArchiveOutputStream.putArchiveEntry(tarEntry);
+                tarArchiveOutputStream.write(contents.get(i));
+                tarArchiveOutputStream.closeArchiveEntry();
+            }
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+}
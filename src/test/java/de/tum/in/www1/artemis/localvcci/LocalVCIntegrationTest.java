@@ -22,7 +22,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import de.tum.in.www1.artemis.domain.ProgrammingSubmission;
+import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.repository.ProgrammingSubmissionRepository;
+import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.service.user.PasswordService;
 import de.tum.in.www1.artemis.util.LocalRepository;
 
 /**
@@ -33,6 +36,12 @@ class LocalVCIntegrationTest extends AbstractLocalCILocalVCIntegrationTest {
     @Autowired
     ProgrammingSubmissionRepository programmingSubmissionRepository;
 
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    PasswordService passwordService;
+
     private LocalRepository assignmentRepository;
 
     private LocalRepository templateRepository;
@@ -91,6 +100,22 @@ class LocalVCIntegrationTest extends AbstractLocalCILocalVCIntegrationTest {
         localVCLocalCITestService.testPushReturnsError(assignmentRepository.localGit, student1Login, "", projectKey1, assignmentRepositorySlug, NOT_AUTHORIZED);
     }
 
+    @Test
+    void testFetch_passwordChangedAfterSuccessfulFetch() {
+        localVCLocalCITestService.testFetchSuccessful(assignmentRepository.localGit, student1Login, projectKey1, assignmentRepositorySlug);
+
+        // The verified credentials are cached, but must not be accepted anymore once the password of the user changed.
+        User user = userRepository.findOneByLogin(student1Login).orElseThrow();
+        user.setPassword(passwordService.hashPassword("new-password"));
+        userRepository.save(user);
+
+        localVCLocalCITestService.testFetchReturnsError(assignmentRepository.localGit, student1Login, USER_PASSWORD, projectKey1, assignmentRepositorySlug, NOT_AUTHORIZED);
+        localVCLocalCITestService.testFetchSuccessful(assignmentRepository.localGit, student1Login, "new-password", projectKey1, assignmentRepositorySlug);
+
+        user.setPassword(passwordService.hashPassword(USER_PASSWORD));
+        userRepository.save(user);
+    }
+
     @Test
     void testFetchPush_programmingExerciseDoesNotExist() throws GitAPIException, IOException, URISyntaxException {
         // Create a repository for an exercise that does not exist.
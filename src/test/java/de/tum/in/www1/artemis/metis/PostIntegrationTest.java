@@ -778,6 +778,27 @@ class PostIntegrationTest extends AbstractSpringIntegrationBambooBitbucketJiraTe
         assertThat(returnedPosts).hasSize(3);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testGetPostsForCourse_SearchByWordPrefixRankedByRelevance() throws Exception {
+        Post postWithTermInContent = existingCourseWidePosts.get(1);
+        postWithTermInContent.setContent("How do I implement the recursion?");
+        postRepository.save(postWithTermInContent);
+
+        Post postWithTermInTitle = existingCourseWidePosts.get(2);
+        postWithTermInTitle.setTitle("Recursive algorithms");
+        postRepository.save(postWithTermInTitle);
+
+        var params = new LinkedMultiValueMap<String, String>();
+        params.add("searchText", "RECURS");
+        params.add("pagingEnabled", "true"); // search by text
+
+        List<Post> returnedPosts = request.getList("/api/courses/" + courseId + "/posts", HttpStatus.OK, Post.class, params);
+        database.assertSensitiveInformationHidden(returnedPosts);
+        // matches in the title are weighted higher than matches in the content
+        assertThat(returnedPosts).containsExactly(postWithTermInTitle, postWithTermInContent);
+    }
+
     @Test
     @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
     void testGetPostsForCourse_OrderByCreationDateDESC() throws Exception {
@@ -0,0 +1,67 @@
+package de.tum.in.www1.artemis.plagiarism;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.service.plagiarism.text.GreedyStringTiling;
+import de.tum.in.www1.artemis.service.plagiarism.text.GreedyStringTiling.Tile;
+import de.tum.in.www1.artemis.service.plagiarism.text.TextTokenSequence;
+
+class GreedyStringTilingTest {
+
+    private static final int MINIMUM_MATCH_LENGTH = 3;
+
+    @Test
+    void testTokenizePositions() {
+        var tokens = TextTokenSequence.tokenize("Lorem ipsum,\n  dolor SIT");
+
+        assertThat(tokens.size()).isEqualTo(4);
+        assertThat(tokens.lines()).containsExactly(1, 1, 2, 2);
+        assertThat(tokens.columns()).containsExactly(1, 7, 3, 9);
+        assertThat(tokens.lengths()).containsExactly(5, 5, 5, 3);
+        // words are compared case-insensitively
+        assertThat(tokens.tokens()[3]).isEqualTo(TextTokenSequence.tokenize("sit").tokens()[0]);
+    }
+
+    @Test
+    void testTokenizeWordsWithSameStringHashCode() {
+        assertThat("ac0".hashCode()).isEqualTo("aan".hashCode());
+        var tokens = TextTokenSequence.tokenize("ac0 aan").tokens();
+
+        assertThat(tokens[0]).isNotEqualTo(tokens[1]);
+    }
+
+    @Test
+    void testTileMovedBlocks() {
+        var tokensA = TextTokenSequence.tokenize("a b c d e f g h i").tokens();
+        var tokensB = TextTokenSequence.tokenize("f g h i x a b c y z").tokens();
+
+        var tiles = tile(tokensA, tokensB);
+
+        assertThat(tiles).containsExactlyInAnyOrder(new Tile(5, 0, 4), new Tile(0, 5, 3));
+    }
+
+    @Test
+    void testTileIgnoresShortMatches() {
+        var tokensA = TextTokenSequence.tokenize("a b x c d").tokens();
+        var tokensB = TextTokenSequence.tokenize("a b y c d").tokens();
+
+        assertThat(tile(tokensA, tokensB)).isEmpty();
+    }
+
+    @Test
+    void testTileDoesNotOverlap() {
+        var tokensA = TextTokenSequence.tokenize("a b c a b c").tokens();
+        var tokensB = TextTokenSequence.tokenize("a b c").tokens();
+
+        assertThat(tile(tokensA, tokensB)).hasSize(1).allMatch(tile -> tile.length() == 3 && tile.startB() == 0);
+    }
+
+    private static List<Tile> tile(long[] tokensA, long[] tokensB) {
+        var windowsA = GreedyStringTiling.indexWindows(GreedyStringTiling.windowHashes(tokensA, MINIMUM_MATCH_LENGTH));
+        return GreedyStringTiling.tile(tokensA, windowsA, tokensB, GreedyStringTiling.windowHashes(tokensB, MINIMUM_MATCH_LENGTH), MINIMUM_MATCH_LENGTH);
+    }
+}
@@ -1,11 +1,12 @@
 package de.tum.in.www1.artemis.programmingexercise;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.verifyNoInteractions;
 
 import java.util.HashSet;
-import java.util.Optional;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -228,6 +229,12 @@ class CourseBitbucketBambooJiraIntegrationTest extends AbstractSpringIntegration
         courseTestService.testGetCourseForDashboard(userRefresh);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testGetCourseForDashboardNotModified() throws Exception {
+        courseTestService.testGetCourseForDashboardNotModified();
+    }
+
     @ParameterizedTest(name = "{displayName} [{index}] {argumentsWithNames}")
     @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
     @ValueSource(booleans = { true, false })
@@ -818,11 +825,17 @@ class CourseBitbucketBambooJiraIntegrationTest extends AbstractSpringIntegration
         String email = "test@mail";
         jiraRequestMockProvider.mockAddUserToGroup(group, false);
         jiraRequestMockProvider.mockAddUserToGroup(group, false);
-        doReturn(Optional.empty()).when(ldapUserService).findByRegistrationNumber(registrationNumber1);
-        doReturn(Optional.empty()).when(ldapUserService).findByRegistrationNumber(registrationNumber2);
+        doReturn(List.of()).when(ldapUserService).findAllByRegistrationNumbers(any());
         courseTestService.testAddUsersToCourseGroup(group, registrationNumber1, registrationNumber2, email);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
+    void testAddUsersToCourseGroupIgnoringCase() throws Exception {
+        doReturn(List.of()).when(ldapUserService).findAllByRegistrationNumbers(any());
+        courseTestService.testAddUsersToCourseGroupIgnoringCase();
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = "ADMIN")
     void testCreateInvalidOnlineCourse() throws Exception {
@@ -2,37 +2,36 @@ package de.tum.in.www1.artemis.programmingexercise;
 
 import static de.tum.in.www1.artemis.web.rest.PlantUmlResource.Endpoints.*;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.when;
 
-import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
-import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.LinkedMultiValueMap;
 
 import de.tum.in.www1.artemis.AbstractSpringIntegrationBambooBitbucketJiraTest;
-import net.sourceforge.plantuml.SourceStringReader;
-import net.sourceforge.plantuml.core.DiagramDescription;
+import de.tum.in.www1.artemis.service.PlantUmlService;
+import net.sourceforge.plantuml.FileFormat;
 
 class PlantUmlIntegrationTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
 
     private static final String TEST_PREFIX = "plantumlintegration";
 
-    private static final String UML_DIAGRAM_STRING = "@somePlantUml";
+    // the diagrams are rendered on the render pool of the PlantUmlService, so the rendering cannot be mocked in the test thread
+    private static final String UML_DIAGRAM_STRING = "@startuml\nclass PlantUmlIntegrationTest\n@enduml";
 
-    private static final String UML_SVG = "foobar";
+    private static final byte[] PNG_SIGNATURE = new byte[] { (byte) 0x89, 'P', 'N', 'G' };
 
-    private static final DiagramDescription description = new DiagramDescription(UML_SVG);
-
-    private final byte[] UML_PNG = new byte[] { 3, 4, 2, 1 };
+    @Autowired
+    private PlantUmlService plantUmlService;
 
     @BeforeEach
     void setUp() {
@@ -42,31 +41,21 @@ class PlantUmlIntegrationTest extends AbstractSpringIntegrationBambooBitbucketJi
     @Test
     @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
     void generatePng_asStudent_success() throws Exception {
-        try (var ignored = Mockito.mockConstruction(ByteArrayOutputStream.class, (bosMock, context) -> doReturn(UML_PNG).when(bosMock).toByteArray())) {
-            try (var ignored2 = Mockito.mockConstruction(SourceStringReader.class, (readerMock, context) -> doReturn(description).when(readerMock).outputImage(any(), any()))) {
-                final var paramMap = new LinkedMultiValueMap<String, String>();
-                paramMap.setAll(Map.of("plantuml", UML_DIAGRAM_STRING));
-                final var pngResponse = request.getPng(ROOT + GENERATE_PNG, HttpStatus.OK, paramMap);
-                assertThat(pngResponse).isEqualTo(UML_PNG);
-            }
-        }
+        final var paramMap = new LinkedMultiValueMap<String, String>();
+        paramMap.setAll(Map.of("plantuml", UML_DIAGRAM_STRING));
+        final var pngResponse = request.getPng(ROOT + GENERATE_PNG, HttpStatus.OK, paramMap);
+        assertThat(pngResponse).startsWith(PNG_SIGNATURE);
+        // the second request is served from the cache
+        assertThat(request.getPng(ROOT + GENERATE_PNG, HttpStatus.OK, paramMap)).isEqualTo(pngResponse);
     }
 
     @Test
     @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
     void generateSvg_asStudent_success() throws Exception {
-        // Mock the method outputImage, so that it simply writes the expected value into the byte array output stream
-        Answer<DiagramDescription> answer = invocation -> {
-            ByteArrayOutputStream bos = invocation.getArgument(0);
-            bos.write(UML_SVG.getBytes(StandardCharsets.UTF_8));
-            return description;
-        };
-        try (var ignored = Mockito.mockConstruction(SourceStringReader.class, (readerMock, context) -> when(readerMock.outputImage(any(), any())).then(answer))) {
-            final var paramMap = new LinkedMultiValueMap<String, String>();
-            paramMap.setAll(Map.of("plantuml", UML_DIAGRAM_STRING));
-            final var svgResponse = request.get(ROOT + GENERATE_SVG, HttpStatus.OK, String.class, paramMap);
-            assertThat(svgResponse).isEqualTo(UML_SVG);
-        }
+        final var paramMap = new LinkedMultiValueMap<String, String>();
+        paramMap.setAll(Map.of("plantuml", UML_DIAGRAM_STRING, "useDarkTheme", "true"));
+        final var svgResponse = request.get(ROOT + GENERATE_SVG, HttpStatus.OK, String.class, paramMap);
+        assertThat(svgResponse).contains("<svg").contains("PlantUmlIntegrationTest");
     }
 
     @Test
@@ -80,4 +69,40 @@ class PlantUmlIntegrationTest extends AbstractSpringIntegrationBambooBitbucketJi
         paramMap.setAll(Map.of("plantuml", veryLongString));
         request.get(ROOT + GENERATE_SVG, HttpStatus.INTERNAL_SERVER_ERROR, String.class, paramMap);
     }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void generateSvg_asStudent_renderTimeout() throws Exception {
+        final var renderTimeoutSeconds = ReflectionTestUtils.getField(plantUmlService, "renderTimeoutSeconds");
+        // the render process is killed immediately
+        ReflectionTestUtils.setField(plantUmlService, "renderTimeoutSeconds", 0L);
+        try {
+            final var paramMap = new LinkedMultiValueMap<String, String>();
+            paramMap.setAll(Map.of("plantuml", generateUncachedDiagram()));
+            request.get(ROOT + GENERATE_SVG, HttpStatus.INTERNAL_SERVER_ERROR, String.class, paramMap);
+        }
+        finally {
+            ReflectionTestUtils.setField(plantUmlService, "renderTimeoutSeconds", renderTimeoutSeconds);
+        }
+    }
+
+    @Test
+    void render_concurrentRequests_shareOneRender() throws Exception {
+        final String diagram = generateUncachedDiagram();
+        CompletableFuture<byte[]> firstRender = ReflectionTestUtils.invokeMethod(plantUmlService, "render", diagram, FileFormat.SVG);
+        CompletableFuture<byte[]> secondRender = ReflectionTestUtils.invokeMethod(plantUmlService, "render", diagram, FileFormat.SVG);
+        assertThat(secondRender).isSameAs(firstRender);
+        final byte[] svg = firstRender.get(30, TimeUnit.SECONDS);
+        assertThat(new String(svg, StandardCharsets.UTF_8)).contains("<svg");
+
+        // once the render has finished, the diagram is read from the disk cache
+        CompletableFuture<byte[]> cachedRender = ReflectionTestUtils.invokeMethod(plantUmlService, "render", diagram, FileFormat.SVG);
+        assertThat(cachedRender).isNotSameAs(firstRender).isDone();
+        assertThat(cachedRender.get()).isEqualTo(svg);
+    }
+
+    // the disk cache is kept between test runs, so the diagrams have to be unique
+    private static String generateUncachedDiagram() {
+        return "@startuml\nclass Diagram" + UUID.randomUUID().toString().replace("-", "") + "\n@enduml";
+    }
 }
@@ -3,6 +3,8 @@ package de.tum.in.www1.artemis.programmingexercise;
 import static de.tum.in.www1.artemis.config.Constants.TEST_CASES_DUPLICATE_NOTIFICATION;
 import static de.tum.in.www1.artemis.web.rest.ProgrammingExerciseResourceEndpoints.ROOT;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 
 import java.time.ZonedDateTime;
@@ -21,6 +23,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import de.tum.in.www1.artemis.AbstractSpringIntegrationBambooBitbucketJiraTest;
 import de.tum.in.www1.artemis.domain.*;
@@ -35,10 +38,13 @@ import de.tum.in.www1.artemis.domain.participation.SolutionProgrammingExercisePa
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.repository.*;
 import de.tum.in.www1.artemis.service.programming.ProgrammingExerciseGradingService;
+import de.tum.in.www1.artemis.service.programming.ProgrammingExerciseReEvaluationService;
 import de.tum.in.www1.artemis.service.util.RoundingUtil;
 import de.tum.in.www1.artemis.util.ModelFactory;
 import de.tum.in.www1.artemis.web.rest.ProgrammingExerciseGradingResource;
 import de.tum.in.www1.artemis.web.rest.dto.ProgrammingExerciseGradingStatisticsDTO;
+import de.tum.in.www1.artemis.web.rest.dto.ProgrammingExerciseReEvaluationPreviewDTO;
+import de.tum.in.www1.artemis.web.rest.dto.ProgrammingExerciseReEvaluationProgressDTO;
 
 /**
  * Tests the {@link ProgrammingExerciseGradingService}.
@@ -79,6 +85,9 @@ abstract class ProgrammingExerciseGradingServiceTest extends AbstractSpringInteg
     @Autowired
     private ProgrammingExerciseGradingService gradingService;
 
+    @Autowired
+    private ProgrammingExerciseReEvaluationService reEvaluationService;
+
     private ProgrammingExercise programmingExerciseSCAEnabled;
 
     private ProgrammingExercise programmingExercise;
@@ -582,6 +591,52 @@ abstract class ProgrammingExerciseGradingServiceTest extends AbstractSpringInteg
         verifyStudentScoreCalculations(testParticipations);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
+    void shouldPreviewAndReEvaluateResultsInChunks() throws Exception {
+        programmingExercise = (ProgrammingExercise) database.addMaxScoreAndBonusPointsToExercise(programmingExercise);
+        programmingExercise = database.addTemplateParticipationForProgrammingExercise(programmingExercise);
+        programmingExercise = database.addSolutionParticipationForProgrammingExercise(programmingExercise);
+        programmingExercise = programmingExerciseRepository.findByIdWithTemplateAndSolutionParticipationWithResultsElseThrow(programmingExercise.getId());
+
+        var testCases = createTestCases(false);
+        var testParticipations = createTestParticipations();
+        changeTestCaseWeights(testCases);
+
+        // use very small chunks so that the participations are spread over multiple chunks and threads
+        final var originalChunkSize = ReflectionTestUtils.getField(reEvaluationService, "chunkSize");
+        ReflectionTestUtils.setField(reEvaluationService, "chunkSize", 2);
+
+        // the preview must not change any result
+        final var previewEndpoint = ProgrammingExerciseGradingResource.RE_EVALUATE_PREVIEW.replace("{exerciseId}", programmingExercise.getId().toString());
+        final var preview = request.get(ROOT + previewEndpoint, HttpStatus.OK, ProgrammingExerciseReEvaluationPreviewDTO.class);
+        assertThat(preview.numberOfResults()).isEqualTo(5);
+        assertThat(preview.numberOfChangedResults()).isEqualTo(2);
+        // student1: 50% -> 25%
+        assertThat(preview.changedResults()).anySatisfy(delta -> {
+            assertThat(delta.participationId()).isEqualTo(testParticipations[0].getId());
+            assertThat(delta.scoreBefore()).isEqualTo(50D);
+            assertThat(delta.scoreAfter()).isEqualTo(25D);
+        });
+        var resultOfStudent1 = studentParticipationRepository.findWithEagerResultsAndFeedbackById(testParticipations[0].getId()).orElseThrow().findLatestLegalResult();
+        assertThat(resultOfStudent1.getScore()).isEqualTo(50D);
+
+        // re-evaluate
+        final var endpoint = ProgrammingExerciseGradingResource.RE_EVALUATE.replace("{exerciseId}", programmingExercise.getId().toString());
+        final var response = request.putWithResponseBody(ROOT + endpoint, "{}", Integer.class, HttpStatus.OK);
+        assertThat(response).isEqualTo(7);
+
+        // this fixes an issue with the authentication context after a mock request
+        SecurityContextHolder.setContext(TestSecurityContextHolder.getContext());
+
+        verifyStudentScoreCalculations(testParticipations);
+        final var progressTopic = ProgrammingExerciseReEvaluationService.getReEvaluationProgressTopic(programmingExercise.getId());
+        verify(messagingTemplate).convertAndSend(eq(progressTopic),
+                argThat((Object progress) -> progress instanceof ProgrammingExerciseReEvaluationProgressDTO dto && dto.finished() && dto.updatedResults() == 5));
+
+        ReflectionTestUtils.setField(reEvaluationService, "chunkSize", originalChunkSize);
+    }
+
     @ValueSource(booleans = { false, true })
     @ParameterizedTest(name = "{displayName} [{index}] {argumentsWithNames}")
     @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
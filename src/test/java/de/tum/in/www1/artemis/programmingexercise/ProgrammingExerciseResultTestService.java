@@ -16,9 +16,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
@@ -413,11 +415,11 @@ public class ProgrammingExerciseResultTestService {
 
         postResult(resultNotification);
 
-        ArgumentCaptor<Result> resultArgumentCaptor = ArgumentCaptor.forClass(Result.class);
-        verify(messagingTemplate).convertAndSendToUser(eq(userPrefix + "student1"), eq(NEW_RESULT_TOPIC), resultArgumentCaptor.capture());
+        ArgumentCaptor<Message<byte[]>> messageArgumentCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate).send(eq("/user/" + userPrefix + "student1" + NEW_RESULT_TOPIC), messageArgumentCaptor.capture());
 
-        Result result = resultArgumentCaptor.getValue();
-        assertThat(result.getFeedbacks()).hasSize(4).allMatch(feedback -> feedback.getText() == null);
+        JsonNode result = new ObjectMapper().readTree(messageArgumentCaptor.getValue().getPayload());
+        assertThat(result.get("feedbacks")).hasSize(4).allMatch(feedback -> !feedback.hasNonNull("text"));
     }
 
     private int getNumberOfBuildLogs(Object resultNotification) {
@@ -8,6 +8,8 @@ import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.ObjectId;
@@ -35,9 +37,11 @@ import de.tum.in.www1.artemis.domain.exam.StudentExam;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseParticipation;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.exception.VersionControlException;
 import de.tum.in.www1.artemis.repository.*;
 import de.tum.in.www1.artemis.service.messaging.InstanceMessageReceiveService;
 import de.tum.in.www1.artemis.util.LocalRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 
 class ProgrammingExerciseScheduleServiceTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
 
@@ -64,6 +68,9 @@ class ProgrammingExerciseScheduleServiceTest extends AbstractSpringIntegrationBa
     @Autowired
     private StudentExamRepository studentExamRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private ProgrammingExercise programmingExercise;
 
     private final LocalRepository studentRepository = new LocalRepository(defaultBranch);
@@ -652,6 +659,86 @@ class ProgrammingExerciseScheduleServiceTest extends AbstractSpringIntegrationBa
                 participation.getStudents());
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void shouldRetryAndRecordFailedRepositoryLocks() throws Exception {
+        mockStudentRepoLocks();
+        programmingExercise.setAllowOnlineEditor(false);
+        programmingExercise = programmingExerciseRepository.save(programmingExercise);
+        var failingParticipation = (ProgrammingExerciseStudentParticipation) getParticipation(TEST_PREFIX + "student1");
+        doThrow(new VersionControlException("Could not lock the repository")).when(versionControlService)
+                .setRepositoryPermissionsToReadOnly(failingParticipation.getVcsRepositoryUrl(), programmingExercise.getProjectKey(), failingParticipation.getStudents());
+
+        programmingExerciseScheduleService.lockStudentRepositories(programmingExercise, participation -> true).run();
+
+        verify(versionControlService, times(3)).setRepositoryPermissionsToReadOnly(failingParticipation.getVcsRepositoryUrl(), programmingExercise.getProjectKey(),
+                failingParticipation.getStudents());
+        var otherParticipations = programmingExercise.getStudentParticipations().stream().filter(participation -> !participation.equals(failingParticipation)).toList();
+        verifyLockStudentRepositoryOperation(true, otherParticipations, 0);
+        assertThat(programmingExerciseScheduleService.getParticipationIdsWithFailedRepositoryLock(programmingExercise.getId())).containsExactly(failingParticipation.getId());
+        verify(groupNotificationService).notifyEditorAndInstructorGroupAboutExerciseUpdate(any(),
+                eq(Constants.PROGRAMMING_EXERCISE_FAILED_LOCK_OPERATIONS_NOTIFICATION + 1));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void shouldNotRecordRepositoryLocksThatSucceedWhenRetried() throws Exception {
+        mockStudentRepoLocks();
+        programmingExercise.setAllowOnlineEditor(false);
+        programmingExercise = programmingExerciseRepository.save(programmingExercise);
+        var failingParticipation = (ProgrammingExerciseStudentParticipation) getParticipation(TEST_PREFIX + "student1");
+        doThrow(new VersionControlException("Could not lock the repository")).doNothing().when(versionControlService)
+                .setRepositoryPermissionsToReadOnly(failingParticipation.getVcsRepositoryUrl(), programmingExercise.getProjectKey(), failingParticipation.getStudents());
+
+        programmingExerciseScheduleService.lockStudentRepositories(programmingExercise, participation -> true).run();
+
+        verify(versionControlService, times(2)).setRepositoryPermissionsToReadOnly(failingParticipation.getVcsRepositoryUrl(), programmingExercise.getProjectKey(),
+                failingParticipation.getStudents());
+        assertThat(programmingExerciseScheduleService.getParticipationIdsWithFailedRepositoryLock(programmingExercise.getId())).isEmpty();
+        verify(groupNotificationService).notifyEditorAndInstructorGroupAboutExerciseUpdate(any(), eq(Constants.PROGRAMMING_EXERCISE_SUCCESSFUL_LOCK_OPERATION_NOTIFICATION));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void shouldLockRepositoriesConcurrentlyAndRecordTheLockTime() {
+        programmingExercise.setAllowOnlineEditor(false);
+        programmingExercise = programmingExerciseRepository.save(programmingExercise);
+        long numberOfRecordedLocks = meterRegistry.get("artemis.scheduled.repository.lock").timer().count();
+        // every lock only finishes once all locks have been started, i.e. this only succeeds if the repositories are locked concurrently
+        var allLocksStarted = new CountDownLatch(programmingExercise.getStudentParticipations().size());
+        doAnswer(invocation -> {
+            allLocksStarted.countDown();
+            if (!allLocksStarted.await(10, TimeUnit.SECONDS)) {
+                throw new VersionControlException("The repositories were not locked concurrently");
+            }
+            return null;
+        }).when(versionControlService).setRepositoryPermissionsToReadOnly(any(), any(), any());
+
+        programmingExerciseScheduleService.lockStudentRepositories(programmingExercise, participation -> true).run();
+
+        verifyLockStudentRepositoryOperation(true, 0);
+        assertThat(programmingExerciseScheduleService.getParticipationIdsWithFailedRepositoryLock(programmingExercise.getId())).isEmpty();
+        assertThat(meterRegistry.get("artemis.scheduled.repository.lock").timer().count()).isEqualTo(numberOfRecordedLocks + 1);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void shouldOnlyStashChangesInCheckedOutRepositories() throws Exception {
+        mockStudentRepoLocks();
+        programmingExercise.setAllowOnlineEditor(true);
+        programmingExercise = programmingExerciseRepository.save(programmingExercise);
+        var checkedOutParticipation = (ProgrammingExerciseStudentParticipation) getParticipation(TEST_PREFIX + "student1");
+        doReturn(false).when(gitService).repositoryAlreadyExists(any());
+        doReturn(true).when(gitService).repositoryAlreadyExists(checkedOutParticipation.getVcsRepositoryUrl());
+
+        programmingExerciseScheduleService.lockStudentRepositories(programmingExercise, participation -> true).run();
+
+        verify(gitService, times(1)).getOrCheckoutRepository(any(ProgrammingExerciseParticipation.class));
+        verify(gitService).getOrCheckoutRepository(checkedOutParticipation);
+        verify(gitService, times(1)).stashChanges(any());
+        verify(groupNotificationService).notifyEditorAndInstructorGroupAboutExerciseUpdate(any(), eq(Constants.PROGRAMMING_EXERCISE_SUCCESSFUL_STASH_OPERATION_NOTIFICATION));
+    }
+
     /**
      * Sets the due date and build and test after due date for the {@code programmingExercise} to NOW + the delay.
      *
@@ -181,6 +181,49 @@ class QuizSubmissionIntegrationTest extends AbstractSpringIntegrationBambooBitbu
         assertThat(submissionRepository.countByExerciseIdSubmitted(quizExercise.getId())).isEqualTo(NUMBER_OF_STUDENTS);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testBufferedSubmissionIsForwardedToCache() {
+        QuizExercise quizExercise = quizExerciseService.save(setupQuizExerciseParameters());
+        final var username = TEST_PREFIX + "student1";
+        QuizSubmission savedSubmission = database.generateSubmissionForThreeQuestions(quizExercise, 1, false, null);
+        quizScheduleService.bufferSubmission(quizExercise.getId(), username, savedSubmission);
+
+        // checking whether the processing has finished forwards the buffered submissions of all nodes to the cache first
+        assertThat(quizScheduleService.finishedProcessing(quizExercise.getId())).isFalse();
+        var cachedSubmission = quizScheduleService.getQuizSubmission(quizExercise.getId(), username);
+        assertThat(cachedSubmission.isSubmitted()).isFalse();
+        assertThat(cachedSubmission.getSubmittedAnswers()).hasSameSizeAs(savedSubmission.getSubmittedAnswers());
+
+        // the buffered submission is processed as submission of the ended quiz
+        quizExercise = quizExerciseRepository.findOneWithQuestionsAndStatistics(quizExercise.getId());
+        final var exercise = quizExercise;
+        quizExercise.setDueDate(ZonedDateTime.now());
+        quizExercise.getQuizBatches().forEach(batch -> batch.setStartTime(quizBatchService.quizBatchStartDate(exercise, batch.getStartTime())));
+        exerciseRepository.saveAndFlush(quizExercise);
+        quizScheduleService.processCachedQuizSubmissions();
+        assertThat(submissionRepository.countByExerciseIdSubmitted(quizExercise.getId())).isEqualTo(1);
+        assertThat(quizScheduleService.finishedProcessing(quizExercise.getId())).isTrue();
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testSubmitOverridesBufferedSubmissions() {
+        QuizExercise quizExercise = quizExerciseService.save(setupQuizExerciseParameters());
+        final var username = TEST_PREFIX + "student1";
+        quizScheduleService.bufferSubmission(quizExercise.getId(), username, database.generateSubmissionForThreeQuestions(quizExercise, 1, false, null));
+        quizScheduleService.updateSubmission(quizExercise.getId(), username, database.generateSubmissionForThreeQuestions(quizExercise, 1, true, null));
+        assertThat(quizScheduleService.getQuizSubmission(quizExercise.getId(), username).isSubmitted()).isTrue();
+
+        // a save that is forwarded after the submission does not overwrite it
+        quizScheduleService.bufferSubmission(quizExercise.getId(), username, database.generateSubmissionForThreeQuestions(quizExercise, 2, false, null));
+        assertThat(quizScheduleService.finishedProcessing(quizExercise.getId())).isFalse();
+        assertThat(quizScheduleService.getQuizSubmission(quizExercise.getId(), username).isSubmitted()).isTrue();
+
+        quizScheduleService.processCachedQuizSubmissions();
+        assertThat(submissionRepository.countByExerciseIdSubmitted(quizExercise.getId())).isEqualTo(1);
+    }
+
     @Test
     @WithMockUser(username = TEST_PREFIX + "student2", roles = "USER")
     void testQuizSubmit_partial_points() {
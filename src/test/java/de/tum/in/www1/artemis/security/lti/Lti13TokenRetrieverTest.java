@@ -161,6 +161,27 @@ class Lti13TokenRetrieverTest {
         assertThat(token).isEqualTo("result");
     }
 
+    @Test
+    void getCachedToken() throws NoSuchAlgorithmException {
+        JWK jwk = generateKey();
+        when(oAuth2JWKSService.getJWK(any())).thenReturn(jwk);
+
+        Map<String, String> map = new HashMap<>();
+        map.put("access_token", "result");
+        map.put("expires_in", "3600");
+        ResponseEntity<String> responseEntity = ResponseEntity.of(Optional.of(map.toString()));
+        when(restTemplate.exchange(any(), eq(String.class))).thenReturn(responseEntity);
+
+        assertThat(lti13TokenRetriever.getCachedToken(clientRegistration, Scopes.AGS_SCORE)).isEqualTo("result");
+        assertThat(lti13TokenRetriever.getCachedToken(clientRegistration, Scopes.AGS_SCORE)).isEqualTo("result");
+        verify(restTemplate, times(1)).exchange(any(), eq(String.class));
+
+        lti13TokenRetriever.evictCachedToken(clientRegistration, Scopes.AGS_SCORE);
+
+        assertThat(lti13TokenRetriever.getCachedToken(clientRegistration, Scopes.AGS_SCORE)).isEqualTo("result");
+        verify(restTemplate, times(2)).exchange(any(), eq(String.class));
+    }
+
     private JWK generateKey() throws NoSuchAlgorithmException {
         KeyPair clientKeyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
         StringKeyGenerator kidGenerator = new Base64StringKeyGenerator(32);
@@ -1,9 +1,14 @@
 package de.tum.in.www1.artemis.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.Mockito.*;
 
+import java.security.Principal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,11 +18,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.security.test.context.support.WithMockUser;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import de.tum.in.www1.artemis.AbstractSpringIntegrationBambooBitbucketJiraTest;
 import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.Exercise;
 import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
+import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
 import de.tum.in.www1.artemis.domain.participation.Participation;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.repository.ExerciseRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.web.websocket.dto.TeamCollaborationStateDTO;
+import de.tum.in.www1.artemis.web.websocket.dto.TeamModelPatchDTO;
 import de.tum.in.www1.artemis.web.websocket.team.ParticipationTeamWebsocketService;
 
 class ParticipationTeamWebsocketServiceTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
@@ -27,6 +40,12 @@ class ParticipationTeamWebsocketServiceTest extends AbstractSpringIntegrationBam
     @Autowired
     private ParticipationTeamWebsocketService participationTeamWebsocketService;
 
+    @Autowired
+    private StudentParticipationRepository studentParticipationRepository;
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
     private StudentParticipation participation;
 
     private static String websocketTopic(Participation participation) {
@@ -84,6 +103,77 @@ class ParticipationTeamWebsocketServiceTest extends AbstractSpringIntegrationBam
         assertThat(participationTeamWebsocketService.getDestinationTracker()).as("Correct session was removed.").containsKey(stompHeaderAccessor2.getSessionId());
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testApplyModelPatch() {
+        Principal principal = () -> TEST_PREFIX + "student1";
+        TeamCollaborationStateDTO initialState = participationTeamWebsocketService.subscribeToCollaborationState(participation.getId(), principal);
+
+        var element = new ObjectMapper().createObjectNode().put("id", "element1").put("name", "Student");
+        var patch = new TeamModelPatchDTO(initialState.revision(), List.of(element), null, null, null, null, null);
+        participationTeamWebsocketService.applyModelPatch(participation.getId(), patch, principal);
+
+        verify(messagingTemplate).convertAndSend(eq(websocketTopic(participation) + "/modeling-submissions/patches"),
+                argThat((TeamModelPatchDTO mergedPatch) -> mergedPatch.revision() == initialState.revision() + 1 && principal.getName().equals(mergedPatch.sender())));
+        TeamCollaborationStateDTO state = participationTeamWebsocketService.subscribeToCollaborationState(participation.getId(), principal);
+        assertThat(state.revision()).isEqualTo(initialState.revision() + 1);
+        assertThat(state.content()).contains("element1");
+
+        // the merged model is saved once the team stops editing
+        await().atMost(Duration.ofSeconds(10)).until(() -> {
+            Optional<ModelingSubmission> submission = studentParticipationRepository.findByIdWithLegalSubmissionsElseThrow(participation.getId()).findLatestSubmission();
+            return submission.map(ModelingSubmission::getModel).filter(model -> model.contains("element1")).isPresent();
+        });
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testApplyModelPatchAfterDueDate() {
+        setDueDate(ZonedDateTime.now().minusMinutes(1));
+        Principal principal = () -> TEST_PREFIX + "student1";
+        TeamCollaborationStateDTO initialState = participationTeamWebsocketService.subscribeToCollaborationState(participation.getId(), principal);
+
+        var element = new ObjectMapper().createObjectNode().put("id", "element1").put("name", "Student");
+        var patch = new TeamModelPatchDTO(initialState.revision(), List.of(element), null, null, null, null, null);
+        participationTeamWebsocketService.applyModelPatch(participation.getId(), patch, principal);
+
+        // the patch is rejected and the client receives the unchanged state
+        verify(messagingTemplate, never()).convertAndSend(eq(websocketTopic(participation) + "/modeling-submissions/patches"), any(TeamModelPatchDTO.class));
+        verify(messagingTemplate).convertAndSendToUser(eq(principal.getName()), eq(websocketTopic(participation) + "/collaboration-state"),
+                argThat((TeamCollaborationStateDTO state) -> state.revision() == initialState.revision()));
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testApplyModelPatchShortlyBeforeDueDate() {
+        ZonedDateTime dueDate = ZonedDateTime.now().plusSeconds(2);
+        setDueDate(dueDate);
+        Principal principal = () -> TEST_PREFIX + "student1";
+        TeamCollaborationStateDTO initialState = participationTeamWebsocketService.subscribeToCollaborationState(participation.getId(), principal);
+
+        var element = new ObjectMapper().createObjectNode().put("id", "element1").put("name", "Student");
+        var patch = new TeamModelPatchDTO(initialState.revision(), List.of(element), null, null, null, null, null);
+        participationTeamWebsocketService.applyModelPatch(participation.getId(), patch, principal);
+
+        // the merged model is only saved after the due date, but as submission of the edit before the due date
+        await().atMost(Duration.ofSeconds(10)).until(() -> {
+            Optional<ModelingSubmission> submission = studentParticipationRepository.findByIdWithLegalSubmissionsElseThrow(participation.getId()).findLatestSubmission();
+            return submission.map(ModelingSubmission::getModel).filter(model -> model.contains("element1")).isPresent();
+        });
+        ModelingSubmission submission = (ModelingSubmission) studentParticipationRepository.findByIdWithLegalSubmissionsElseThrow(participation.getId()).findLatestSubmission()
+                .orElseThrow();
+        assertThat(submission.isSubmitted()).isTrue();
+        assertThat(submission.getSubmissionDate()).isBefore(dueDate);
+    }
+
+    private void setDueDate(ZonedDateTime dueDate) {
+        Exercise exercise = participation.getExercise();
+        exercise.setDueDate(dueDate);
+        exerciseRepository.save(exercise);
+        participation.setInitializationDate(dueDate.minusHours(1));
+        participation = studentParticipationRepository.save(participation);
+    }
+
     private StompHeaderAccessor getStompHeaderAccessorMock(String fakeSessionId) {
         StompHeaderAccessor stompHeaderAccessor = mock(StompHeaderAccessor.class, RETURNS_MOCKS);
         when(stompHeaderAccessor.getSessionId()).thenReturn(fakeSessionId);
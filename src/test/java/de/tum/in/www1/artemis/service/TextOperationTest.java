@@ -0,0 +1,56 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.service.util.TextOperation;
+
+class TextOperationTest {
+
+    @Test
+    void testApply() {
+        TextOperation operation = TextOperation.fromJson(List.of(6, "brave new ", -5, 1));
+        assertThat(operation.getBaseLength()).isEqualTo(12);
+        assertThat(operation.getTargetLength()).isEqualTo(17);
+        assertThat(operation.apply("Hello world!")).isEqualTo("Hello brave new !");
+        assertThatIllegalArgumentException().isThrownBy(() -> operation.apply("Hello"));
+    }
+
+    @Test
+    void testInsertBeforeDelete() {
+        TextOperation operation = new TextOperation().retain(2).delete(3).insert("ab");
+        assertThat(operation.getComponents()).containsExactly(2, "ab", -3);
+        assertThat(operation).isEqualTo(new TextOperation().retain(2).insert("ab").delete(3));
+    }
+
+    @Test
+    void testTransformConcurrentInserts() {
+        String text = "team work";
+        TextOperation first = new TextOperation().insert("Great ").retain(9);
+        TextOperation second = new TextOperation().retain(9).insert("!");
+
+        var transformed = TextOperation.transform(first, second);
+        assertThat(transformed.y().apply(first.apply(text))).isEqualTo("Great team work!");
+        assertThat(transformed.x().apply(second.apply(text))).isEqualTo("Great team work!");
+    }
+
+    @Test
+    void testTransformOverlappingDeletes() {
+        String text = "abcdefgh";
+        TextOperation first = new TextOperation().retain(1).delete(4).retain(3);
+        TextOperation second = new TextOperation().retain(3).delete(4).insert("X").retain(1);
+
+        var transformed = TextOperation.transform(first, second);
+        assertThat(transformed.y().apply(first.apply(text))).isEqualTo("aXh");
+        assertThat(transformed.x().apply(second.apply(text))).isEqualTo("aXh");
+    }
+
+    @Test
+    void testTransformIncompatibleOperations() {
+        assertThatIllegalArgumentException().isThrownBy(() -> TextOperation.transform(new TextOperation().retain(2), new TextOperation().retain(3)));
+    }
+}
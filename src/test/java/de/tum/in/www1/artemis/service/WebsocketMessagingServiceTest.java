@@ -0,0 +1,147 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpSubscriptionMatcher;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.domain.Feedback;
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.participation.SolutionProgrammingExerciseParticipation;
+import de.tum.in.www1.artemis.service.exam.ExamDateService;
+
+/**
+ * Tests the broadcast of new results to the staff members who subscribed to the results of an exercise
+ */
+class WebsocketMessagingServiceTest {
+
+    private static final long SUBSCRIBED_EXERCISE_ID = 1;
+
+    private static final long NOT_SUBSCRIBED_EXERCISE_ID = 2;
+
+    private WebsocketMessagingService websocketMessagingService;
+
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private SimpUserRegistry userRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void init() {
+        messagingTemplate = mock(SimpMessageSendingOperations.class);
+        userRegistry = mock(SimpUserRegistry.class);
+        SimpSubscription subscription = mock(SimpSubscription.class);
+        when(subscription.getDestination()).thenReturn(getStaffResultDestination(SUBSCRIBED_EXERCISE_ID));
+        when(userRegistry.findSubscriptions(any())).thenAnswer(invocation -> {
+            SimpSubscriptionMatcher matcher = invocation.getArgument(0);
+            return matcher.match(subscription) ? Set.of(subscription) : Set.of();
+        });
+
+        websocketMessagingService = new WebsocketMessagingService(messagingTemplate, mock(ExamDateService.class), mock(ExerciseDateService.class),
+                mock(AuthorizationCheckService.class), userRegistry, new MappingJackson2HttpMessageConverter());
+    }
+
+    @Test
+    void testStaffResultsAreOnlySentForSubscribedExercises() throws IOException {
+        broadcastNewResult(SUBSCRIBED_EXERCISE_ID, 1);
+        broadcastNewResult(NOT_SUBSCRIBED_EXERCISE_ID, 2);
+
+        verify(messagingTemplate, never()).send(eq(getStaffResultDestination(NOT_SUBSCRIBED_EXERCISE_ID)), any());
+        List<JsonNode> sentResults = getSentStaffResults(SUBSCRIBED_EXERCISE_ID);
+        assertThat(sentResults).hasSize(1);
+        assertThat(sentResults.get(0).get("id").asLong()).isEqualTo(1);
+        assertThat(sentResults.get(0).get("participation").get("id").asLong()).isEqualTo(SUBSCRIBED_EXERCISE_ID);
+    }
+
+    @Test
+    void testStaffResultsAreSentWithoutFeedbacksDuringBursts() throws IOException {
+        for (long resultId = 1; resultId <= 12; resultId++) {
+            broadcastNewResult(SUBSCRIBED_EXERCISE_ID, resultId);
+        }
+
+        List<JsonNode> sentResults = getSentStaffResults(SUBSCRIBED_EXERCISE_ID);
+        assertThat(sentResults).hasSize(12);
+        // the subscriptions are only searched once for all results of the burst
+        verify(userRegistry, times(1)).findSubscriptions(any());
+        assertThat(sentResults.subList(0, 10)).allSatisfy(result -> {
+            assertThat(result.get("feedbacks")).hasSize(1);
+            assertThat(result.has("feedbacksOmitted")).isFalse();
+        });
+        assertThat(sentResults.subList(10, 12)).allSatisfy(result -> {
+            assertThat(result.has("feedbacks")).isFalse();
+            assertThat(result.get("feedbacksOmitted").asBoolean()).isTrue();
+            assertThat(result.get("score").asDouble()).isEqualTo(80);
+        });
+    }
+
+    @Test
+    void testIdleStaffResultWindowsAreEvicted() throws Exception {
+        broadcastNewResult(SUBSCRIBED_EXERCISE_ID, 1);
+        websocketMessagingService.evictIdleStaffResultWindows();
+        assertThat(getStaffResultWindows()).containsOnlyKeys(SUBSCRIBED_EXERCISE_ID);
+
+        // wait until the window of the result has passed
+        Thread.sleep(1000);  // ok
+        websocketMessagingService.evictIdleStaffResultWindows();
+        assertThat(getStaffResultWindows()).isEmpty();
+
+        // the next result starts a new window with a new check of the subscriptions
+        broadcastNewResult(SUBSCRIBED_EXERCISE_ID, 2);
+        verify(userRegistry, times(2)).findSubscriptions(any());
+        assertThat(getSentStaffResults(SUBSCRIBED_EXERCISE_ID)).hasSize(2);
+    }
+
+    private void broadcastNewResult(long exerciseId, long resultId) {
+        var exercise = new ProgrammingExercise();
+        exercise.setId(exerciseId);
+        var participation = new SolutionProgrammingExerciseParticipation();
+        participation.setId(exerciseId);
+        participation.setProgrammingExercise(exercise);
+        var result = new Result();
+        result.setId(resultId);
+        result.setScore(80D);
+        result.setParticipation(participation);
+        result.addFeedback(new Feedback().text("test").positive(true));
+        websocketMessagingService.broadcastNewResult(participation, result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<JsonNode> getSentStaffResults(long exerciseId) throws IOException {
+        ArgumentCaptor<Message<byte[]>> messageCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, atLeastOnce()).send(eq(getStaffResultDestination(exerciseId)), messageCaptor.capture());
+        List<JsonNode> sentResults = new ArrayList<>();
+        for (Message<byte[]> message : messageCaptor.getAllValues()) {
+            sentResults.add(objectMapper.readTree(message.getPayload()));
+        }
+        return sentResults;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, ?> getStaffResultWindows() {
+        return (Map<Long, ?>) ReflectionTestUtils.getField(websocketMessagingService, "staffResultWindows");
+    }
+
+    private static String getStaffResultDestination(long exerciseId) {
+        return "/topic/exercise/" + exerciseId + "/newResults";
+    }
+}
@@ -4,11 +4,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import de.tum.in.www1.artemis.AbstractSpringIntegrationBambooBitbucketJiraTest;
 import de.tum.in.www1.artemis.domain.Course;
@@ -42,6 +45,9 @@ class ExamSubmissionServiceTest extends AbstractSpringIntegrationBambooBitbucket
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private User student1;
 
     private Exam exam;
@@ -145,6 +151,41 @@ class ExamSubmissionServiceTest extends AbstractSpringIntegrationBambooBitbucket
         assertThat(examSubmissionService.isAllowedToSubmitDuringExam(exercise, student1, false)).isFalse();
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testCheckSubmissionAllowance_changedStudentExam() {
+        exam.setStartDate(ZonedDateTime.now().minusMinutes(90));
+        examRepository.save(exam);
+        assertThat(examSubmissionService.isAllowedToSubmitDuringExam(exercise, student1, false)).isTrue();
+        // changes of the student exam have to be considered although the student exam has been checked before
+        studentExam.setWorkingTime(3600);
+        studentExam = studentExamRepository.save(studentExam);
+        assertThat(examSubmissionService.isAllowedToSubmitDuringExam(exercise, student1, false)).isFalse();
+        studentExam.setWorkingTime(7200);
+        studentExam = studentExamRepository.save(studentExam);
+        assertThat(examSubmissionService.isAllowedToSubmitDuringExam(exercise, student1, false)).isTrue();
+        studentExam.setSubmitted(true);
+        studentExamRepository.save(studentExam);
+        assertThat(examSubmissionService.isAllowedToSubmitDuringExam(exercise, student1, false)).isFalse();
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testCheckSubmissionAllowance_checkBetweenFlushAndCommit() {
+        assertThat(examSubmissionService.isAllowedToSubmitDuringExam(exercise, student1, false)).isTrue();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            studentExam.setSubmitted(true);
+            studentExamRepository.saveAndFlush(studentExam);
+            // an auto save that is checked in another thread after the flush still reads the committed student exam, which has not been submitted yet
+            boolean allowedBeforeCommit = CompletableFuture.supplyAsync(() -> examSubmissionService.isAllowedToSubmitDuringExam(exercise, student1, false)).join();
+            assertThat(allowedBeforeCommit).isTrue();
+        });
+
+        // the eligibility that has been cached before the commit must not be used anymore
+        assertThat(examSubmissionService.isAllowedToSubmitDuringExam(exercise, student1, false)).isFalse();
+    }
+
     @Test
     @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
     void testPreventMultipleSubmissions() {
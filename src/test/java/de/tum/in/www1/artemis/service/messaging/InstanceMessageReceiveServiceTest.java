@@ -0,0 +1,147 @@
+package de.tum.in.www1.artemis.service.messaging;
+
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_INSTANCE_MESSAGE_OUTBOX;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import de.tum.in.www1.artemis.AbstractSpringIntegrationBambooBitbucketJiraTest;
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+
+class InstanceMessageReceiveServiceTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
+
+    // the outbox is processed every 500ms by the node with the 'scheduling' profile (this node in the tests)
+    private static final long PROCESSING_TIMEOUT_MS = 5000;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    private IMap<String, InstanceMessage> outbox;
+
+    private ProgrammingExercise programmingExercise;
+
+    @BeforeEach
+    void init() {
+        outbox = hazelcastInstance.getMap(HAZELCAST_INSTANCE_MESSAGE_OUTBOX);
+        programmingExercise = database.getFirstExerciseWithType(database.addCourseWithOneProgrammingExercise(), ProgrammingExercise.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outbox.clear();
+        resetSpyBeans();
+    }
+
+    @Test
+    void testCoalescedMessagesAreProcessedOnce() {
+        doNothing().when(participantScoreScheduleService).scheduleTask(anyLong(), anyLong(), any());
+        var sendService = new DistributedInstanceMessageSendService(hazelcastInstance, new SimpleMeterRegistry());
+
+        // e.g. one participant score update per result of the same participant
+        sendService.sendParticipantScoreSchedule(1L, 2L, null);
+        sendService.sendParticipantScoreSchedule(1L, 2L, null);
+        sendService.sendParticipantScoreSchedule(1L, 3L, null);
+        assertThat(outbox).hasSize(2);
+
+        verify(participantScoreScheduleService, timeout(MessageTopic.PARTICIPANT_SCORE_SCHEDULE.getCoalescingWindow().toMillis() + PROCESSING_TIMEOUT_MS)).scheduleTask(1L, 2L,
+                null);
+        verify(participantScoreScheduleService, timeout(PROCESSING_TIMEOUT_MS)).scheduleTask(1L, 3L, null);
+        await().atMost(Duration.ofMillis(PROCESSING_TIMEOUT_MS)).until(outbox::isEmpty);
+        verify(participantScoreScheduleService).scheduleTask(1L, 2L, null);
+    }
+
+    @Test
+    void testFailedMessageIsRetried() {
+        doThrow(new RuntimeException("Temporary failure")).doNothing().when(participantScoreScheduleService).scheduleTask(anyLong(), anyLong(), any());
+        sendDueMessage(MessageTopic.PARTICIPANT_SCORE_SCHEDULE, 2000, 1L, 2L, null);
+
+        verify(participantScoreScheduleService, timeout(PROCESSING_TIMEOUT_MS).times(2)).scheduleTask(1L, 2L, null);
+        await().atMost(Duration.ofMillis(PROCESSING_TIMEOUT_MS)).until(outbox::isEmpty);
+    }
+
+    @Test
+    void testFailingMessageIsDroppedAfterMaxAttempts() {
+        doThrow(new RuntimeException("Permanent failure")).when(participantScoreScheduleService).scheduleTask(anyLong(), anyLong(), any());
+        sendDueMessage(MessageTopic.PARTICIPANT_SCORE_SCHEDULE, 2000, 1L, 2L, null);
+
+        await().atMost(Duration.ofMillis(3 * PROCESSING_TIMEOUT_MS)).until(outbox::isEmpty);
+        verify(participantScoreScheduleService, times(3)).scheduleTask(1L, 2L, null);
+    }
+
+    @Test
+    void testMessagesForTheSameEntityAreProcessedInOrder() {
+        doNothing().when(programmingExerciseScheduleService).updateScheduling(any());
+        doNothing().when(programmingExerciseScheduleService).cancelAllScheduledTasks(anyLong());
+        long now = System.currentTimeMillis();
+        // schedule -> cancel -> schedule again: the coalesced schedule has to be processed after the cancel
+        var firstSchedule = new InstanceMessage(UUID.randomUUID(), MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE, new Long[] { programmingExercise.getId() }, now - 3000, now - 3000,
+                0);
+        var secondSchedule = new InstanceMessage(UUID.randomUUID(), MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE, new Long[] { programmingExercise.getId() }, now - 1500,
+                now - 1500, 0);
+        var cancel = new InstanceMessage(UUID.randomUUID(), MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE_CANCEL, new Long[] { programmingExercise.getId() }, now - 2500,
+                now - 2500, 0);
+        outbox.put(cancel.key(), cancel);
+        outbox.put(firstSchedule.key(), firstSchedule.coalesce(secondSchedule));
+
+        verify(programmingExerciseScheduleService, timeout(PROCESSING_TIMEOUT_MS)).updateScheduling(any());
+        InOrder inOrder = inOrder(programmingExerciseScheduleService);
+        inOrder.verify(programmingExerciseScheduleService).cancelAllScheduledTasks(programmingExercise.getId());
+        inOrder.verify(programmingExerciseScheduleService).updateScheduling(argThat(exercise -> exercise.getId().equals(programmingExercise.getId())));
+    }
+
+    @Test
+    void testLongRunningMessageDoesNotBlockOtherMessages() throws Exception {
+        CountDownLatch lockStarted = new CountDownLatch(1);
+        CountDownLatch finishLock = new CountDownLatch(1);
+        doReturn((Runnable) () -> {
+            lockStarted.countDown();
+            try {
+                finishLock.await(PROCESSING_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).when(programmingExerciseScheduleService).lockAllStudentRepositories(any());
+        doReturn((Runnable) () -> {
+        }).when(programmingExerciseScheduleService).unlockAllStudentRepositories(any());
+        doNothing().when(programmingExerciseScheduleService).cancelAllScheduledTasks(anyLong());
+
+        sendDueMessage(MessageTopic.PROGRAMMING_EXERCISE_LOCK_REPOSITORIES, 3000, programmingExercise.getId());
+        assertThat(lockStarted.await(PROCESSING_TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+
+        // messages for other entities are processed while the repositories are locked
+        sendDueMessage(MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE_CANCEL, 2000, programmingExercise.getId() + 1);
+        verify(programmingExerciseScheduleService, timeout(PROCESSING_TIMEOUT_MS)).cancelAllScheduledTasks(programmingExercise.getId() + 1);
+
+        // later messages for the same exercise wait until the repositories are locked
+        sendDueMessage(MessageTopic.PROGRAMMING_EXERCISE_UNLOCK_REPOSITORIES, 2000, programmingExercise.getId());
+        verify(programmingExerciseScheduleService, after(1000).never()).unlockAllStudentRepositories(any());
+        finishLock.countDown();
+        verify(programmingExerciseScheduleService, timeout(PROCESSING_TIMEOUT_MS)).unlockAllStudentRepositories(any());
+        await().atMost(Duration.ofMillis(PROCESSING_TIMEOUT_MS)).until(outbox::isEmpty);
+    }
+
+    private void sendDueMessage(MessageTopic topic, long sentAgoMs, Long... payload) {
+        long sentAt = System.currentTimeMillis() - sentAgoMs;
+        var message = new InstanceMessage(UUID.randomUUID(), topic, payload, sentAt, sentAt, 0);
+        outbox.put(message.key(), message);
+    }
+}
@@ -0,0 +1,57 @@
+package de.tum.in.www1.artemis.service.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class InstanceMessageTest {
+
+    @Test
+    void testIsDueAfterCommitDelayOfLatestMessage() {
+        var first = new InstanceMessage(UUID.randomUUID(), MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE, new Long[] { 1L }, 0, 0, 0);
+        assertThat(first.isDue(999)).isFalse();
+        assertThat(first.isDue(1000)).isTrue();
+
+        // a message that is sent again must not be processed before the transaction of the latest sender has been committed
+        var coalesced = first.coalesce(new InstanceMessage(UUID.randomUUID(), MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE, new Long[] { 1L }, 900, 900, 0));
+        assertThat(coalesced.firstSentAt()).isZero();
+        assertThat(coalesced.lastSentAt()).isEqualTo(900);
+        assertThat(coalesced.isDue(1000)).isFalse();
+        assertThat(coalesced.isDue(1900)).isTrue();
+    }
+
+    @Test
+    void testIsDueAfterCoalescingWindow() {
+        var message = new InstanceMessage(UUID.randomUUID(), MessageTopic.PARTICIPANT_SCORE_SCHEDULE, new Long[] { 1L, 2L, null }, 0, 0, 0);
+        assertThat(message.isDue(4999)).isFalse();
+        assertThat(message.isDue(5000)).isTrue();
+
+        var coalesced = message.coalesce(new InstanceMessage(UUID.randomUUID(), MessageTopic.PARTICIPANT_SCORE_SCHEDULE, new Long[] { 1L, 2L, null }, 4500, 4500, 0));
+        assertThat(coalesced.isDue(5000)).isFalse();
+        assertThat(coalesced.isDue(5500)).isTrue();
+    }
+
+    @Test
+    void testCoalesceResetsAttempts() {
+        var message = InstanceMessage.of(MessageTopic.EXAM_MONITORING_SCHEDULE, 3L).withFailedAttempt().withFailedAttempt();
+        var newMessage = InstanceMessage.of(MessageTopic.EXAM_MONITORING_SCHEDULE, 3L);
+        var coalesced = message.coalesce(newMessage);
+        assertThat(coalesced.attempts()).isZero();
+        assertThat(coalesced.id()).isEqualTo(newMessage.id());
+    }
+
+    @Test
+    void testKeys() {
+        var schedule = InstanceMessage.of(MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE, 5L);
+        var cancel = InstanceMessage.of(MessageTopic.PROGRAMMING_EXERCISE_SCHEDULE_CANCEL, 5L);
+        var participantScore = InstanceMessage.of(MessageTopic.PARTICIPANT_SCORE_SCHEDULE, 5L, 7L, null);
+
+        assertThat(schedule.key()).isNotEqualTo(cancel.key());
+        assertThat(participantScore.key()).isEqualTo("participant-score-schedule-5-7");
+        // the messages for an exercise are processed in order, independent of their topic
+        assertThat(schedule.entityKey()).isEqualTo(cancel.entityKey());
+        assertThat(participantScore.entityKey()).isNotEqualTo(schedule.entityKey());
+    }
+}
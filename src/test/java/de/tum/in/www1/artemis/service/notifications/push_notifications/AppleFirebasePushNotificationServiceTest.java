@@ -6,17 +6,18 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
-import java.util.Collections;
-import java.util.Date;
-import java.util.HexFormat;
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -105,6 +106,36 @@ class AppleFirebasePushNotificationServiceTest {
         verify(firebaseRestTemplateMock, timeout(5000).atLeast(2)).postForObject(anyString(), any(HttpEntity.class), any());
     }
 
+    @Test
+    void sendNotification_shouldRemoveRejectedDevices() {
+        when(appleRestTemplateMock.postForObject(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.GONE, "Gone", HttpHeaders.EMPTY, null, null));
+
+        // When
+        applePushNotificationService.sendNotification(notification, student, null);
+
+        // Then
+        verify(repositoryMock, timeout(1000)).deleteByTokenInAndDeviceType(Set.of("test"), PushNotificationDeviceType.APNS);
+        // client errors are not retried
+        verify(appleRestTemplateMock, times(1)).postForObject(anyString(), any(HttpEntity.class), eq(String.class));
+    }
+
+    @Test
+    void sendNotification_shouldBatchFirebaseRequests() {
+        byte[] payload = HexFormat.of().parseHex("e04fd020ea3a6910a2d808002b30309d");
+        List<PushNotificationDeviceConfiguration> deviceConfigurations = IntStream.range(0, 600)
+                .mapToObj(i -> new PushNotificationDeviceConfiguration("token" + i, PushNotificationDeviceType.FIREBASE, new Date(), payload, student)).toList();
+        when(repositoryMock.findByUserIn(anyList(), eq(PushNotificationDeviceType.FIREBASE))).thenReturn(deviceConfigurations);
+        when(firebaseRestTemplateMock.postForObject(any(String.class), any(HttpEntity.class), eq(String.class))).thenReturn("ok");
+
+        // When
+        firebasePushNotificationService.sendNotification(notification, student, null);
+
+        // Then
+        verify(firebaseRestTemplateMock, timeout(1000).times(2)).postForObject(anyString(), any(HttpEntity.class), eq(String.class));
+        verify(repositoryMock, after(200).never()).deleteByTokenInAndDeviceType(any(), any());
+    }
+
     @Test
     void getDeviceType_shouldReturnAPNS() {
         // When
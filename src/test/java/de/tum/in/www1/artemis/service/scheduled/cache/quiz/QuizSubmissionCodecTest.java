@@ -0,0 +1,64 @@
+package de.tum.in.www1.artemis.service.scheduled.cache.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.domain.DomainObject;
+import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
+import de.tum.in.www1.artemis.domain.quiz.*;
+
+class QuizSubmissionCodecTest {
+
+    @Test
+    void testEncodeAndDecode() {
+        var multipleChoiceAnswer = new MultipleChoiceSubmittedAnswer();
+        multipleChoiceAnswer.setQuizQuestion(withId(new MultipleChoiceQuestion(), 1L));
+        multipleChoiceAnswer.addSelectedOptions(withId(new AnswerOption(), 11L));
+        multipleChoiceAnswer.addSelectedOptions(withId(new AnswerOption(), 12L));
+
+        var dragAndDropAnswer = new DragAndDropSubmittedAnswer();
+        dragAndDropAnswer.setQuizQuestion(withId(new DragAndDropQuestion(), 2L));
+        dragAndDropAnswer.addMappings(new DragAndDropMapping().dragItem(withId(new DragItem(), 21L)).dropLocation(withId(new DropLocation(), 22L)));
+
+        var shortAnswerAnswer = new ShortAnswerSubmittedAnswer();
+        shortAnswerAnswer.setQuizQuestion(withId(new ShortAnswerQuestion(), 3L));
+        var submittedText = new ShortAnswerSubmittedText();
+        submittedText.setSpot(withId(new ShortAnswerSpot(), 31L));
+        submittedText.setText("Grüße");
+        shortAnswerAnswer.addSubmittedTexts(submittedText);
+
+        var submission = new QuizSubmission();
+        submission.setType(SubmissionType.MANUAL);
+        submission.setSubmissionDate(ZonedDateTime.now());
+        submission.addSubmittedAnswers(multipleChoiceAnswer);
+        submission.addSubmittedAnswers(dragAndDropAnswer);
+        submission.addSubmittedAnswers(shortAnswerAnswer);
+
+        var decodedSubmission = QuizSubmissionCodec.decode(QuizSubmissionCodec.encode(submission));
+
+        assertThat(decodedSubmission.getId()).isNull();
+        assertThat(decodedSubmission.isSubmitted()).isFalse();
+        assertThat(decodedSubmission.getType()).isEqualTo(SubmissionType.MANUAL);
+        assertThat(decodedSubmission.getSubmissionDate().toInstant().toEpochMilli()).isEqualTo(submission.getSubmissionDate().toInstant().toEpochMilli());
+        assertThat(decodedSubmission.getSubmittedAnswers()).hasSize(3).allMatch(answer -> answer.getSubmission() == decodedSubmission);
+
+        var decodedMultipleChoiceAnswer = (MultipleChoiceSubmittedAnswer) decodedSubmission.getSubmittedAnswerForQuestion(multipleChoiceAnswer.getQuizQuestion());
+        assertThat(decodedMultipleChoiceAnswer.getSelectedOptions()).extracting(AnswerOption::getId).containsExactlyInAnyOrder(11L, 12L);
+
+        var decodedDragAndDropAnswer = (DragAndDropSubmittedAnswer) decodedSubmission.getSubmittedAnswerForQuestion(dragAndDropAnswer.getQuizQuestion());
+        assertThat(decodedDragAndDropAnswer.getMappings()).singleElement()
+                .satisfies(mapping -> assertThat(mapping.getDragItem().getId()).isEqualTo(21L), mapping -> assertThat(mapping.getDropLocation().getId()).isEqualTo(22L));
+
+        var decodedShortAnswerAnswer = (ShortAnswerSubmittedAnswer) decodedSubmission.getSubmittedAnswerForQuestion(shortAnswerAnswer.getQuizQuestion());
+        assertThat(decodedShortAnswerAnswer.getSubmittedTexts()).singleElement()
+                .satisfies(text -> assertThat(text.getSpot().getId()).isEqualTo(31L), text -> assertThat(text.getText()).isEqualTo("Grüße"));
+    }
+
+    private static <T extends DomainObject> T withId(T domainObject, Long id) {
+        domainObject.setId(id);
+        return domainObject;
+    }
+}
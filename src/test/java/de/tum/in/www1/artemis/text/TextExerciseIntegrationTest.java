@@ -994,12 +994,8 @@ class TextExerciseIntegrationTest extends AbstractSpringIntegrationBambooBitbuck
         assertThat(result.getExercise().getId()).isEqualTo(textExercise.getId());
 
         PlagiarismComparison<TextSubmissionElement> comparison = result.getComparisons().iterator().next();
-        // Both submissions compared consist of 4 words (= 4 tokens). JPlag seems to be off by 1
-        // when counting the length of a match. This is why it calculates a similarity of 3/4 = 75%
-        // instead of 4/4 = 100% (5 words ==> 80%, 100 words ==> 99%, etc.). Therefore, we use a rather
-        // high offset here to compensate this issue.
-        // TODO: Reduce the offset once this issue is fixed in JPlag
-        assertThat(comparison.getSimilarity()).isEqualTo(100.0, Offset.offset(1.0));
+        // both submissions are identical, so all words are part of a single match
+        assertThat(comparison.getSimilarity()).isEqualTo(100.0, Offset.offset(0.01));
         assertThat(comparison.getStatus()).isEqualTo(PlagiarismStatus.NONE);
         assertThat(comparison.getMatches()).hasSize(1);
 
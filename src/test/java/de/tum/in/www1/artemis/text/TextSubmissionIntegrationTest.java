@@ -6,10 +6,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,6 +33,7 @@ import de.tum.in.www1.artemis.repository.*;
 import de.tum.in.www1.artemis.repository.metis.PostRepository;
 import de.tum.in.www1.artemis.repository.plagiarism.PlagiarismCaseRepository;
 import de.tum.in.www1.artemis.repository.plagiarism.PlagiarismComparisonRepository;
+import de.tum.in.www1.artemis.service.SubmissionVersionService;
 import de.tum.in.www1.artemis.util.ModelFactory;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
@@ -51,6 +51,9 @@ class TextSubmissionIntegrationTest extends AbstractSpringIntegrationBambooBitbu
     @Autowired
     private SubmissionVersionRepository submissionVersionRepository;
 
+    @Autowired
+    private SubmissionVersionService submissionVersionService;
+
     @Autowired
     private StudentParticipationRepository participationRepository;
 
@@ -365,6 +368,60 @@ class TextSubmissionIntegrationTest extends AbstractSpringIntegrationBambooBitbu
         exerciseRepo.save(releasedTextExercise.participations(Set.of()));
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void saveVersions_storedAsDeltasBetweenSnapshots() {
+        textSubmission = database.saveTextSubmission(releasedTextExercise, textSubmission, TEST_PREFIX + "student1");
+        User student = userRepository.findOneByLogin(TEST_PREFIX + "student1").orElseThrow();
+        submissionVersionService.saveVersionForIndividual(textSubmission, student);
+
+        for (int i = 1; i <= SubmissionVersion.SNAPSHOT_INTERVAL; i++) {
+            textSubmission.setText(textSubmission.getText() + " Sentence " + i + ".");
+            submissionVersionService.saveVersionForIndividual(textSubmission, student);
+
+            List<SubmissionVersion> versions = submissionVersionRepository.findVersionsSinceLastSnapshotWithContent(textSubmission.getId());
+            assertThat(versions.get(versions.size() - 1).getContent()).isEqualTo(textSubmission.getText());
+            assertThat(submissionVersionRepository.findLatestVersion(textSubmission.getId()).orElseThrow().getContent()).isEqualTo(textSubmission.getText());
+            if (i < SubmissionVersion.SNAPSHOT_INTERVAL) {
+                assertThat(versions).hasSize(i + 1);
+                assertThat(versions.get(i).isDelta()).isTrue();
+                assertThat(versions.get(i).getStoredContent()).hasSizeLessThan(textSubmission.getText().length());
+            }
+            else {
+                assertThat(versions).hasSize(1);
+                assertThat(versions.get(0).isDelta()).isFalse();
+            }
+        }
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void saveVersions_concurrently() {
+        textSubmission = database.saveTextSubmission(releasedTextExercise, textSubmission, TEST_PREFIX + "student1");
+        User student = userRepository.findOneByLogin(TEST_PREFIX + "student1").orElseThrow();
+        long submissionId = textSubmission.getId();
+        Set<String> savedTexts = ConcurrentHashMap.newKeySet();
+
+        // e.g. an auto save and a manual save (or two browser tabs) save versions of the same submission at the same time
+        List<CompletableFuture<Void>> saves = new ArrayList<>();
+        for (int thread = 0; thread < 2; thread++) {
+            String prefix = "Tab " + thread + ":";
+            saves.add(CompletableFuture.runAsync(() -> {
+                var submission = new TextSubmission(submissionId);
+                for (int i = 1; i <= SubmissionVersion.SNAPSHOT_INTERVAL; i++) {
+                    submission.setText(prefix + " Sentence " + i + ".".repeat(i));
+                    savedTexts.add(submission.getText());
+                    submissionVersionService.saveVersionForIndividual(submission, student);
+                }
+            }));
+        }
+        CompletableFuture.allOf(saves.toArray(CompletableFuture[]::new)).join();
+
+        // every version can be rebuilt to the content that has been saved with it
+        List<SubmissionVersion> versions = submissionVersionRepository.findVersionsSinceLastSnapshotWithContent(submissionId);
+        assertThat(versions).isNotEmpty().allSatisfy(version -> assertThat(savedTexts).contains(version.getContent()));
+    }
+
     @Test
     @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
     void submitExercise_beforeDueDate_allowed() throws Exception {
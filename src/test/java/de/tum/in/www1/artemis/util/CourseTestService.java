@@ -27,9 +27,11 @@ import org.mockito.MockedStatic;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.stereotype.Service;
 import org.springframework.test.web.servlet.MvcResult;
@@ -751,6 +753,41 @@ public class CourseTestService {
         }
     }
 
+    // Test
+    public void testGetCourseForDashboardNotModified() throws Exception {
+        List<Course> courses = database.createCoursesWithExercisesAndLecturesAndLectureUnitsAndCompetencies(userPrefix, true, false, numberOfTutors);
+        Course course = courses.get(0);
+        String url = "/api/courses/" + course.getId() + "/for-dashboard";
+        String etag = request.getWithoutResponseBody(url, HttpStatus.OK, new HttpHeaders()).getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        // the snapshot is still up-to-date
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        request.getWithoutResponseBody(url, HttpStatus.NOT_MODIFIED, headers);
+
+        // a new exercise invalidates the snapshots of the course
+        TextExercise textExercise = exerciseRepo
+                .save(ModelFactory.generateTextExercise(ZonedDateTime.now().minusDays(1), ZonedDateTime.now().plusDays(1), ZonedDateTime.now().plusDays(2), course));
+        MockHttpServletResponse response = request.getWithoutResponseBody(url, HttpStatus.OK, headers);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        CourseForDashboardDTO courseForDashboard = objectMapper.readValue(response.getContentAsString(), CourseForDashboardDTO.class);
+        assertThat(courseForDashboard.course().getExercises()).as("The new exercise is returned").hasSize(6);
+
+        // a new submission invalidates the snapshot of the student
+        TextSubmission submission = database.saveTextSubmission(textExercise, ModelFactory.generateTextSubmission("first", Language.ENGLISH, true), userPrefix + "student1");
+        etag = response.getHeader(HttpHeaders.ETAG);
+        response = request.getWithoutResponseBody(url, HttpStatus.OK, headers);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+
+        // changes of the text (e.g. autosaves) are not shown on the dashboard and keep the snapshot
+        headers.setIfNoneMatch(response.getHeader(HttpHeaders.ETAG));
+        submission.setText("second");
+        submission.setSubmissionDate(ZonedDateTime.now());
+        submissionRepository.save(submission);
+        request.getWithoutResponseBody(url, HttpStatus.NOT_MODIFIED, headers);
+    }
+
     private Course createCourseWithRegistrationEnabled(boolean registrationEnabled) throws Exception {
         List<Course> courses = database.createCoursesWithExercisesAndLecturesAndLectureUnitsAndCompetencies(userPrefix, true, false, numberOfTutors);
         Course course = courses.get(0);
@@ -2688,6 +2725,34 @@ public class CourseTestService {
         assertThat(newStudents).contains(dto1, dto2, dto3);
     }
 
+    // Test
+    public void testAddUsersToCourseGroupIgnoringCase() throws Exception {
+        Course course = ModelFactory.generateCourse(null, ZonedDateTime.now().minusDays(5), ZonedDateTime.now().plusDays(5), new HashSet<>(), userPrefix + "tumuser",
+                userPrefix + "tutor", userPrefix + "editor", userPrefix + "instructor");
+        course = courseRepo.save(course);
+        User student1 = database.getUserByLogin(userPrefix + "student1");
+        User student2 = database.getUserByLogin(userPrefix + "student2");
+        User student3 = database.getUserByLogin(userPrefix + "student3");
+        student3.setRegistrationNumber(userPrefix + "regnumber3");
+        userRepo.save(student3);
+        for (User student : List.of(student1, student2, student3)) {
+            mockDelegate.mockAddUserToGroupInUserManagement(student, course.getTeachingAssistantGroupName(), false);
+        }
+
+        // the identifiers in an uploaded file might be written with a different case than in Artemis
+        StudentDTO byLogin = new StudentDTO();
+        byLogin.setLogin(student1.getLogin().toUpperCase());
+        StudentDTO byEmail = new StudentDTO();
+        byEmail.setEmail(student2.getEmail().toUpperCase());
+        StudentDTO byRegistrationNumber = new StudentDTO().registrationNumber(student3.getRegistrationNumber().toUpperCase());
+        var notFoundStudents = request.postListWithResponseBody("/api/courses/" + course.getId() + "/tutors", List.of(byLogin, byEmail, byRegistrationNumber), StudentDTO.class,
+                HttpStatus.OK);
+        assertThat(notFoundStudents).isEmpty();
+        for (User student : List.of(student1, student2, student3)) {
+            assertThat(userRepo.findOneWithGroupsByLogin(student.getLogin()).orElseThrow().getGroups()).contains(course.getTeachingAssistantGroupName());
+        }
+    }
+
     // Test
     public void testCreateCourseWithValidStartAndEndDate() throws Exception {
         Course course = ModelFactory.generateCourse(null, ZonedDateTime.now().minusDays(1), ZonedDateTime.now(), new HashSet<>(), "student", "tutor", "editor", "instructor");
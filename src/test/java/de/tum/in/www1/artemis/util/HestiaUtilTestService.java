@@ -100,6 +100,9 @@ public class HestiaUtilTestService {
             // write content to the created file
             FileUtils.write(solutionFile, content, Charset.defaultCharset());
         }
+        // the git-diff report is computed from the commits, so the files have to be committed
+        templateRepo.localGit.add().addFilepattern(".").call();
+        var templateCommit = templateRepo.localGit.commit().setMessage("Template").call();
 
         var templateRepoUrl = new GitUtilService.MockFileRepositoryUrl(templateRepo.localRepoFile);
         exercise.setTemplateRepositoryUrl(templateRepoUrl.toString());
@@ -121,7 +124,7 @@ public class HestiaUtilTestService {
         templateProgrammingExerciseParticipationRepository.save(templateParticipation);
         var templateSubmission = new ProgrammingSubmission();
         templateSubmission.setParticipation(templateParticipation);
-        templateSubmission.setCommitHash(String.valueOf(files.hashCode()));
+        templateSubmission.setCommitHash(templateCommit.getName());
         programmingSubmissionRepository.save(templateSubmission);
 
         return savedExercise;
@@ -161,6 +164,9 @@ public class HestiaUtilTestService {
             // write content to the created file
             FileUtils.write(solutionFile, content, Charset.defaultCharset());
         }
+        // the git-diff report is computed from the commits, so the files have to be committed
+        solutionRepo.localGit.add().addFilepattern(".").call();
+        var solutionCommit = solutionRepo.localGit.commit().setMessage("Solution").call();
 
         var solutionRepoUrl = new GitUtilService.MockFileRepositoryUrl(solutionRepo.localRepoFile);
         exercise.setSolutionRepositoryUrl(solutionRepoUrl.toString());
@@ -182,7 +188,7 @@ public class HestiaUtilTestService {
         solutionProgrammingExerciseParticipationRepository.save(solutionParticipation);
         var solutionSubmission = new ProgrammingSubmission();
         solutionSubmission.setParticipation(solutionParticipation);
-        solutionSubmission.setCommitHash(String.valueOf(files.hashCode()));
+        solutionSubmission.setCommitHash(solutionCommit.getName());
         programmingSubmissionRepository.save(solutionSubmission);
 
         return savedExercise;
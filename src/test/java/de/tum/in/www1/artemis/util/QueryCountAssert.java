@@ -2,6 +2,8 @@ package de.tum.in.www1.artemis.util;
 
 import org.assertj.core.api.AbstractAssert;
 
+import de.tum.in.www1.artemis.config.querycount.HibernateQueryInterceptor;
+
 public class QueryCountAssert<T, E extends Exception> extends AbstractAssert<QueryCountAssert<T, E>, ThrowingProducer<T, E>> {
 
     private final HibernateQueryInterceptor interceptor;
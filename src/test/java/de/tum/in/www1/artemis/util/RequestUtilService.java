@@ -437,6 +437,12 @@ public class RequestUtilService {
         return get(path, expectedStatus, responseType, new LinkedMultiValueMap<>(), httpHeaders);
     }
 
+    public MockHttpServletResponse getWithoutResponseBody(String path, HttpStatus expectedStatus, HttpHeaders httpHeaders) throws Exception {
+        MvcResult res = mvc.perform(MockMvcRequestBuilders.get(new URI(path)).headers(httpHeaders)).andExpect(status().is(expectedStatus.value())).andReturn();
+        restoreSecurityContext();
+        return res.getResponse();
+    }
+
     public <T> T getNullable(String path, HttpStatus expectedStatus, Class<T> responseType) throws Exception {
         final var res = get(path, expectedStatus, String.class, new LinkedMultiValueMap<>());
         if (res == null || res.isEmpty()) {
@@ -13,23 +13,25 @@ import { SessionStorageService } from 'ngx-webstorage';
 import { MockHttpService } from '../../../helpers/mocks/service/mock-http.service';
 import { HttpClient } from '@angular/common/http';
 import { Submission } from 'app/entities/submission.model';
-import { Observable, of } from 'rxjs';
+import { Subject } from 'rxjs';
 import { TextSubmission } from 'app/entities/text-submission.model';
 import { SubmissionSyncPayload } from 'app/entities/submission-sync-payload.model';
 import { User } from 'app/core/user/user.model';
 import { AccountService } from 'app/core/auth/account.service';
+import { ModelingSubmission } from 'app/entities/modeling-submission.model';
 
 describe('Team Submission Sync Component', () => {
     let fixture: ComponentFixture<TeamSubmissionSyncComponent>;
     let component: TeamSubmissionSyncComponent;
     let websocketService: JhiWebsocketService;
-    let textSubmissionWithParticipation: Submission;
-    let submissionObservableWithParticipation: Observable<Submission>;
-    let submissionSyncPayload: SubmissionSyncPayload;
+    let submissionSubject: Subject<Submission>;
+    let topics: Map<string, Subject<any>>;
     let currentUser: User;
 
-    beforeEach(() => {
-        TestBed.configureTestingModule({
+    const stateTopic = '/topic/participations/3/team/collaboration-state';
+
+    beforeEach(async () => {
+        await TestBed.configureTestingModule({
             providers: [
                 MockProvider(AlertService),
                 MockProvider(SessionStorageService),
@@ -38,64 +40,119 @@ describe('Team Submission Sync Component', () => {
                 { provide: TranslateService, useClass: MockTranslateService },
                 { provide: HttpClient, useClass: MockHttpService },
             ],
-        })
-            .compileComponents()
-            .then(() => {
-                fixture = TestBed.createComponent(TeamSubmissionSyncComponent);
-                component = fixture.componentInstance;
-
-                websocketService = TestBed.inject(JhiWebsocketService);
-
-                component.exerciseType = ExerciseType.TEXT;
-                const participation = new StudentParticipation(ParticipationType.STUDENT);
-                participation.id = 3;
-                component.participation = participation;
-                textSubmissionWithParticipation = new TextSubmission();
-                textSubmissionWithParticipation.participation = new StudentParticipation();
-                submissionObservableWithParticipation = of(textSubmissionWithParticipation);
-                component.submissionObservable = submissionObservableWithParticipation;
-                currentUser = new User();
-                currentUser.login = 'ge12ebc';
-                component.currentUser = currentUser;
-
-                submissionSyncPayload = new SubmissionSyncPayload();
-                submissionSyncPayload.sender = currentUser;
-                const submission = new TextSubmission();
-                submission.id = 12;
-                submissionSyncPayload.submission = submission;
-            });
+        }).compileComponents();
+
+        fixture = TestBed.createComponent(TeamSubmissionSyncComponent);
+        component = fixture.componentInstance;
+        websocketService = TestBed.inject(JhiWebsocketService);
+        // wait until the current user of the account service has been set
+        await Promise.resolve();
+
+        const participation = new StudentParticipation(ParticipationType.STUDENT);
+        participation.id = 3;
+        component.participation = participation;
+        submissionSubject = new Subject<Submission>();
+        component.submissionObservable = submissionSubject.asObservable();
+        currentUser = new User();
+        currentUser.login = 'ge12ebc';
+        component.currentUser = currentUser;
+
+        topics = new Map();
+        jest.spyOn(websocketService, 'receive').mockImplementation((topic: string) => {
+            if (!topics.has(topic)) {
+                topics.set(topic, new Subject<any>());
+            }
+            return topics.get(topic)!.asObservable();
+        });
     });
 
     afterEach(() => {
         jest.restoreAllMocks();
     });
 
-    it('ngOnInit should work correctly', () => {
-        const expectedWebsocketTopic = '/topic/participations/3/team/text-submissions';
-        const submissionSyncObservable = of(submissionSyncPayload);
+    const receive = (topic: string, message: any) => topics.get(topic)!.next(message);
 
-        const receiveSubmissionEventEmitter = jest.spyOn(component.receiveSubmission, 'emit');
-        const websocketSubscribeSpy = jest.spyOn(websocketService, 'subscribe');
-        const websocketReceiveMock = jest.spyOn(websocketService, 'receive').mockReturnValue(submissionSyncObservable);
-        const websocketSendSpy = jest.spyOn(websocketService, 'send');
+    it('should subscribe to the topics and emit whole submissions of other team members', () => {
+        component.exerciseType = ExerciseType.TEXT;
+        const subscribeSpy = jest.spyOn(websocketService, 'subscribe');
+        const emitSpy = jest.spyOn(component.receiveSubmission, 'emit');
 
         component.ngOnInit();
 
-        expect(component.websocketTopic).toBe(expectedWebsocketTopic);
-        expect(websocketSubscribeSpy).toHaveBeenCalledOnce();
-        expect(websocketSubscribeSpy).toHaveBeenCalledWith(expectedWebsocketTopic);
-
-        // checks for setupReceiver
-        expect(websocketReceiveMock).toHaveBeenCalledOnce();
-        expect(websocketReceiveMock).toHaveBeenCalledWith(expectedWebsocketTopic);
-        expect(receiveSubmissionEventEmitter).toHaveBeenCalledOnce();
-        expect(receiveSubmissionEventEmitter).toHaveBeenCalledWith(submissionSyncPayload?.submission);
-
-        // checks for setupSender
-        expect(textSubmissionWithParticipation).toBeDefined();
-        expect(textSubmissionWithParticipation?.participation?.exercise).toBeUndefined();
-        expect(textSubmissionWithParticipation?.participation?.submissions).toBeEmpty();
-        expect(websocketSendSpy).toHaveBeenCalledOnce();
-        expect(websocketSendSpy).toHaveBeenCalledWith(expectedWebsocketTopic + '/update', textSubmissionWithParticipation);
+        expect(component.websocketTopic).toBe('/topic/participations/3/team/text-submissions');
+        expect(subscribeSpy).toHaveBeenCalledWith('/topic/participations/3/team/text-submissions');
+        expect(subscribeSpy).toHaveBeenCalledWith('/topic/participations/3/team/text-submissions/operations');
+        expect(subscribeSpy).toHaveBeenCalledWith(stateTopic);
+        expect(subscribeSpy).toHaveBeenCalledWith('/user' + stateTopic);
+
+        const payload = new SubmissionSyncPayload();
+        payload.sender = { login: 'other' } as User;
+        payload.submission = { id: 12, text: 'text of another client' } as TextSubmission;
+        receive(component.websocketTopic, payload);
+        expect(emitSpy).toHaveBeenCalledOnce();
+        expect(emitSpy).toHaveBeenCalledWith(payload.submission);
+    });
+
+    it('should send own text changes as operations and transform concurrent operations', () => {
+        component.exerciseType = ExerciseType.TEXT;
+        const sendSpy = jest.spyOn(websocketService, 'send');
+        const emitSpy = jest.spyOn(component.receiveSubmission, 'emit');
+        const operationTopic = '/topic/participations/3/team/text-submissions/operation';
+        const operationsTopic = operationTopic + 's';
+        component.ngOnInit();
+
+        receive(stateTopic, { revision: 5, content: 'Hello' });
+        expect(emitSpy).toHaveBeenCalledWith(expect.objectContaining({ text: 'Hello' }));
+
+        submissionSubject.next({ text: 'Hello World' } as TextSubmission);
+        expect(sendSpy).toHaveBeenCalledWith(operationTopic, { revision: 5, operation: [5, ' World'] });
+
+        // changes made while the operation has not been acknowledged are buffered
+        submissionSubject.next({ text: 'Hello World!' } as TextSubmission);
+        expect(sendSpy).toHaveBeenCalledOnce();
+
+        // a concurrent operation of another team member is transformed against the own changes
+        receive(operationsTopic, { revision: 6, operation: [-1, 'J', 4], sender: 'other' });
+        expect(component.content).toBe('Jello World!');
+        expect(emitSpy).toHaveBeenLastCalledWith(expect.objectContaining({ text: 'Jello World!' }));
+
+        // the acknowledgement of the own operation sends the buffered changes
+        receive(operationsTopic, { revision: 7, operation: [5, ' World'], sender: currentUser.login });
+        expect(sendSpy).toHaveBeenCalledTimes(2);
+        expect(sendSpy).toHaveBeenLastCalledWith(operationTopic, { revision: 7, operation: [11, '!'] });
+        expect(component.revision).toBe(7);
+    });
+
+    it('should load the state again if an operation is missing', () => {
+        component.exerciseType = ExerciseType.TEXT;
+        const unsubscribeSpy = jest.spyOn(websocketService, 'unsubscribe');
+        component.ngOnInit();
+
+        receive(stateTopic, { revision: 5, content: 'Hello' });
+        receive('/topic/participations/3/team/text-submissions/operations', { revision: 7, operation: [5, '!'], sender: 'other' });
+
+        expect(unsubscribeSpy).toHaveBeenCalledWith(stateTopic);
+        expect(component.revision).toBeUndefined();
+    });
+
+    it('should send own model changes as patches and apply the patches of other team members', () => {
+        component.exerciseType = ExerciseType.MODELING;
+        const sendSpy = jest.spyOn(websocketService, 'send');
+        const emitSpy = jest.spyOn(component.receiveSubmission, 'emit');
+        component.ngOnInit();
+
+        const model = { version: '2.0.0', elements: [{ id: 'a', name: 'A' }], relationships: [] };
+        receive(stateTopic, { revision: 1, content: JSON.stringify(model) });
+
+        const changedModel = { ...model, elements: [{ id: 'a', name: 'A' }, { id: 'b', name: 'B' }] };
+        submissionSubject.next({ model: JSON.stringify(changedModel) } as ModelingSubmission);
+        expect(sendSpy).toHaveBeenCalledWith('/topic/participations/3/team/modeling-submissions/patch', { revision: 1, elements: [{ id: 'b', name: 'B' }] });
+
+        receive('/topic/participations/3/team/modeling-submissions/patches', { revision: 2, elements: [{ id: 'b', name: 'B' }], sender: currentUser.login });
+        receive('/topic/participations/3/team/modeling-submissions/patches', { revision: 3, removedIds: ['a'], sender: 'other' });
+
+        const mergedModel = JSON.parse((emitSpy.mock.lastCall![0] as ModelingSubmission).model!);
+        expect(mergedModel.elements).toEqual([{ id: 'b', name: 'B' }]);
+        expect(component.revision).toBe(3);
     });
 });
@@ -6,6 +6,7 @@ import { BrowserDynamicTestingModule } from '@angular/platform-browser-dynamic/t
 import { DebugElement } from '@angular/core';
 import dayjs from 'dayjs/esm';
 import { Subject, Subscription, of, throwError } from 'rxjs';
+import { HttpResponse } from '@angular/common/http';
 import { ArtemisTestModule } from '../../test.module';
 import { ParticipationWebsocketService } from 'app/overview/participation-websocket.service';
 import { MockResultService } from '../../helpers/mocks/service/mock-result.service';
@@ -33,6 +34,7 @@ import { ProgrammingExerciseParticipationService } from 'app/exercises/programmi
 // eslint-disable-next-line max-len
 import { ProgrammingExerciseInstructionTaskStatusComponent } from 'app/exercises/programming/shared/instructions-render/task/programming-exercise-instruction-task-status.component';
 import { Result } from 'app/entities/result.model';
+import { Feedback } from 'app/entities/feedback.model';
 import { ProgrammingExerciseInstructionComponent } from 'app/exercises/programming/shared/instructions-render/programming-exercise-instruction.component';
 import { ProgrammingExercise } from 'app/entities/programming-exercise.model';
 import { FeedbackComponent } from 'app/exercises/shared/feedback/feedback.component';
@@ -125,6 +127,29 @@ describe('ProgrammingExerciseInstructionComponent', () => {
         expect(comp.isInitial).toBeTrue();
     });
 
+    it('should load the feedbacks of a new result that was received without them', () => {
+        const exercise: ProgrammingExercise = { id: 1, numberOfAssessmentsOfCorrectionRounds: [], secondCorrectionEnabled: false, studentAssignedTeamIdComputed: false };
+        const oldParticipation: Participation = { id: 1 };
+        const participation: Participation = { id: 2, results: [{ id: 1, feedbacks: [] }] };
+        const newResult: Result = { id: 3, participation: { id: 2 }, feedbacksOmitted: true };
+        const feedbacks = [{ id: 4, text: 'testBubbleSort', positive: true } as Feedback];
+        const getFeedbackDetailsStub = jest
+            .spyOn(debugElement.injector.get(ResultService), 'getFeedbackDetailsForResult')
+            .mockReturnValue(of({ body: feedbacks } as HttpResponse<Feedback[]>));
+        subscribeForLatestResultOfParticipationStub.mockReturnValue(of(newResult));
+        comp.exercise = exercise;
+        comp.participation = participation;
+
+        triggerChanges(comp, { property: 'participation', currentValue: participation, previousValue: oldParticipation, firstChange: false });
+        fixture.detectChanges();
+
+        expect(getFeedbackDetailsStub).toHaveBeenCalledOnce();
+        expect(getFeedbackDetailsStub).toHaveBeenCalledWith(participation.id, newResult);
+        expect(comp.latestResult?.id).toBe(newResult.id);
+        expect(comp.latestResult?.feedbacks).toEqual(feedbacks);
+        expect(comp.latestResult?.feedbacksOmitted).toBeUndefined();
+    });
+
     it('should try to fetch README.md from assignment repository if no problemStatement was provided', () => {
         const result: Result = { id: 1, feedbacks: [] };
         const participation: Participation = { id: 2 };
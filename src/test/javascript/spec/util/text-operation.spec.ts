@@ -0,0 +1,42 @@
+import { TextOperation } from 'app/exercises/shared/team-submission-sync/text-operation';
+
+describe('TextOperation', () => {
+    it('should create the operation from the difference of two texts', () => {
+        const operation = TextOperation.fromDiff('Hello World', 'Hello dear World');
+
+        expect(operation.toJSON()).toEqual([6, 'dear ', 5]);
+        expect(operation.apply('Hello World')).toBe('Hello dear World');
+        expect(TextOperation.fromDiff('same', 'same').isNoop()).toBeTrue();
+    });
+
+    it('should compose operations', () => {
+        const first = TextOperation.fromDiff('abc', 'abXc');
+        const second = TextOperation.fromDiff('abXc', 'bXcY');
+
+        const composed = first.compose(second);
+
+        expect(composed.apply('abc')).toBe('bXcY');
+        expect(composed.toJSON()).toEqual(['bXcY', -3]);
+    });
+
+    it('should transform concurrent operations so that both orders lead to the same text', () => {
+        const text = 'The quick fox';
+        const a = TextOperation.fromDiff(text, 'The quick brown fox');
+        const b = TextOperation.fromDiff(text, 'A quick fox');
+
+        const [aPrime, bPrime] = TextOperation.transform(a, b);
+
+        expect(bPrime.apply(a.apply(text))).toBe('A quick brown fox');
+        expect(aPrime.apply(b.apply(text))).toBe('A quick brown fox');
+    });
+
+    it('should be compatible with the JSON representation of the server', () => {
+        const operation = TextOperation.fromJSON([2, -3, 'new', 4]);
+
+        expect(operation.toJSON()).toEqual([2, 'new', -3, 4]);
+        expect(operation.baseLength).toBe(9);
+        expect(operation.targetLength).toBe(9);
+        expect(() => operation.apply('too short')).not.toThrow();
+        expect(() => operation.apply('short')).toThrow();
+    });
+});